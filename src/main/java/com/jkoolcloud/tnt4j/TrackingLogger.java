@@ -29,6 +29,7 @@ import com.jkoolcloud.tnt4j.selector.TrackingSelector;
 import com.jkoolcloud.tnt4j.sink.*;
 import com.jkoolcloud.tnt4j.source.Source;
 import com.jkoolcloud.tnt4j.source.SourceType;
+import com.jkoolcloud.tnt4j.stats.StatsRegistry;
 import com.jkoolcloud.tnt4j.tracker.*;
 import com.jkoolcloud.tnt4j.utils.Useconds;
 import com.jkoolcloud.tnt4j.utils.Utils;
@@ -163,9 +164,10 @@ import com.jkoolcloud.tnt4j.utils.Utils;
 public class TrackingLogger implements Tracker {
 	private static final String TRACKER_CONFIG = System.getProperty("tnt4j.tracking.logger.config");
 	private static final String TRACKER_SOURCE = System.getProperty("tnt4j.tracking.logger.source", TrackingLogger.class.getName());
+	private static final boolean TRACKER_STACK_CAPTURE = Boolean.getBoolean("tnt4j.tracking.logger.stack.capture");
 
 	private static final ConcurrentHashMap<DumpProvider, List<DumpSink>> DUMP_DEST_TABLE = new ConcurrentHashMap<DumpProvider, List<DumpSink>>(49);
-	private static final Map<TrackingLogger, StackTraceElement[]> TRACKERS = Collections.synchronizedMap(new WeakHashMap<TrackingLogger, StackTraceElement[]>(89));
+	private static final Map<TrackingLogger, Throwable> TRACKERS = Collections.synchronizedMap(new WeakHashMap<TrackingLogger, Throwable>(89));
 
 	private static final List<DumpProvider> DUMP_PROVIDERS = new ArrayList<DumpProvider>(10);
 	private static final List<DumpSink> DUMP_DESTINATIONS = new ArrayList<DumpSink>(10);
@@ -200,6 +202,7 @@ public class TrackingLogger implements Tracker {
 			addDumpProvider(defaultDumpSink, new ThreadDumpProvider(Utils.VM_NAME));
 			addDumpProvider(defaultDumpSink, new ThreadDeadlockDumpProvider(Utils.VM_NAME));
 			addDumpProvider(defaultDumpSink, new LoggerDumpProvider(Utils.VM_NAME));
+			addDumpProvider(defaultDumpSink, new LatencyDumpProvider(Utils.VM_NAME));
 		}
 		if (dumpOnVmHook) {
 			dumpOnShutdown(dumpOnVmHook);
@@ -250,7 +253,9 @@ public class TrackingLogger implements Tracker {
 	}
 
 	private static void registerTracker(TrackingLogger tracker) {
-		TRACKERS.put(tracker, Thread.currentThread().getStackTrace());
+		// allocation stack is captured only on request, stack trace elements are materialized when obtained
+		TRACKERS.put(tracker, TRACKER_STACK_CAPTURE ? new Throwable() : null);
+		StatsRegistry.register(TrackingLogger.class.getSimpleName(), tracker.getId(), tracker);
 	}
 
 	/**
@@ -259,10 +264,12 @@ public class TrackingLogger implements Tracker {
 	 * @param logger
 	 *            instance
 	 *
-	 * @return an allocation stack trace for the logger instance
+	 * @return an allocation stack trace for the logger instance, {@code null} unless allocation stack capture is
+	 *         enabled using {@code -Dtnt4j.tracking.logger.stack.capture=true}
 	 */
 	public static StackTraceElement[] getTrackerStackTrace(TrackingLogger logger) {
-		return TRACKERS.get(logger);
+		Throwable trace = TRACKERS.get(logger);
+		return trace != null ? trace.getStackTrace() : null;
 	}
 
 	/**
@@ -326,16 +333,17 @@ public class TrackingLogger implements Tracker {
 
 	/**
 	 * Obtain a stack trace list for all tracker allocations to determine where the tracker instances have been
-	 * instantiated
+	 * instantiated. Stack traces are captured only when enabled using
+	 * {@code -Dtnt4j.tracking.logger.stack.capture=true}.
 	 *
-	 * @return a list of stack traces for each allocated tracker
+	 * @return a list of stack traces for each allocated tracker, empty if capture is disabled
 	 */
 	public static List<StackTraceElement[]> getAllTrackerStackTrace() {
 		synchronized (TRACKERS) {
 			ArrayList<StackTraceElement[]> copy = new ArrayList<StackTraceElement[]>(TRACKERS.size());
-			for (StackTraceElement[] trace : TRACKERS.values()) {
+			for (Throwable trace : TRACKERS.values()) {
 				if (trace != null) {
-					copy.add(trace);
+					copy.add(trace.getStackTrace());
 				}
 			}
 			return copy;
@@ -627,6 +635,7 @@ public class TrackingLogger implements Tracker {
 	@Override
 	public void close() {
 		if (logger != null) {
+			StatsRegistry.unregister(TrackingLogger.class.getSimpleName(), logger.getId());
 			factory.close(logger);
 			TRACKERS.remove(this);
 		}
@@ -36,6 +36,7 @@ import com.jkoolcloud.tnt4j.source.SourceType;
 import com.jkoolcloud.tnt4j.tracker.DefaultTrackerFactory;
 import com.jkoolcloud.tnt4j.tracker.Tracker;
 import com.jkoolcloud.tnt4j.tracker.TrackerFactory;
+import com.jkoolcloud.tnt4j.tracker.TrackingSampler;
 import com.jkoolcloud.tnt4j.uuid.DefaultSignFactory;
 import com.jkoolcloud.tnt4j.uuid.DefaultUUIDFactory;
 import com.jkoolcloud.tnt4j.uuid.SignFactory;
@@ -83,6 +84,7 @@ public class TrackerConfig {
 	SinkLogEventListener sinkLogEventListener;
 	SinkEventFilter sinkFilter;
 	SinkErrorListener sinkErrListener;
+	TrackingSampler tSampler;
 
 	TrackingSelector tSelector = null;
 
@@ -377,6 +379,32 @@ public class TrackerConfig {
 		return sinkFilter;
 	}
 
+	/**
+	 * Set tracking sampler which decides which activities and events are reported by trackers created with this
+	 * configuration.
+	 *
+	 * @param sampler
+	 *            tracking sampler, null to report all activities and events
+	 * @see TrackingSampler
+	 *
+	 * @return current configuration instance
+	 */
+	public TrackerConfig setTrackingSampler(TrackingSampler sampler) {
+		tSampler = sampler;
+		return this;
+	}
+
+	/**
+	 * Get tracking sampler which decides which activities and events are reported by trackers created with this
+	 * configuration.
+	 *
+	 * @see TrackingSampler
+	 * @return current tracking sampler, null if none
+	 */
+	public TrackingSampler getTrackingSampler() {
+		return tSampler;
+	}
+
 	/**
 	 * Set default activity listener which is triggered any time a given activity is started or stopped.
 	 *
@@ -634,6 +662,7 @@ public class TrackerConfig {
 		config.sinkLogEventListener = this.sinkLogEventListener;
 		config.sinkErrListener = this.sinkErrListener;
 		config.sinkFilter = this.sinkFilter;
+		config.tSampler = this.tSampler;
 		config.built = this.built;
 		return config;
 	}
@@ -701,6 +730,7 @@ public class TrackerConfig {
 			+ ", activity.listener: " + activityListener
 			+ ", sink.log.listener: " + sinkLogEventListener
 			+ ", sink.event.filter: " + sinkFilter
+			+ ", tracking.sampler: " + tSampler
 			+ "}";
 	}
 }
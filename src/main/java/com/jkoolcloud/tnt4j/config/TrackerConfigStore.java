@@ -37,6 +37,7 @@ import com.jkoolcloud.tnt4j.source.Source;
 import com.jkoolcloud.tnt4j.source.SourceFactory;
 import com.jkoolcloud.tnt4j.source.SourceType;
 import com.jkoolcloud.tnt4j.tracker.TrackerFactory;
+import com.jkoolcloud.tnt4j.tracker.TrackingSampler;
 import com.jkoolcloud.tnt4j.utils.Utils;
 import com.jkoolcloud.tnt4j.uuid.SignFactory;
 import com.jkoolcloud.tnt4j.uuid.UUIDFactory;
@@ -386,6 +387,7 @@ public class TrackerConfigStore extends TrackerConfig {
 			setSinkLogEventListener((SinkLogEventListener) createConfigurableObject("sink.log.listener", "sink.log.listener."));
 			setSinkErrorListener((SinkErrorListener) createConfigurableObject("sink.error.listener", "sink.error.listener."));
 			setSinkEventFilter((SinkEventFilter) createConfigurableObject("sink.event.filter", "sink.event.filter."));
+			setTrackingSampler((TrackingSampler) createConfigurableObject("tracking.sampler", "tracking.sampler."));
 			logger.log(OpLevel.DEBUG, "Loaded properties source={0}, tid={1}, properties.size={2}", srcName,
 			        Thread.currentThread().getId(), props.size());
 		}
@@ -68,6 +68,7 @@ public class Operation implements TTL {
 	private int opRC = 0;
 
 	private String opName;
+	private String resolvedName;
 	private String resource;
 	private String user;
 	private String exceptionStr;
@@ -102,8 +103,8 @@ public class Operation implements TTL {
 	 * Creates a Operation with the specified properties. Operation name can be any name or a relative name based on the
 	 * current thread stack trace. The relative operation name must be specified as follows:
 	 * {@code $class-marker:offset}. Example: {@code $com.jkoolcloud.tnt4j.tracker:0} This name results in the actual
-	 * operation name computed at runtime based on current thread stack at the time when {@link #getResolvedName()} is
-	 * called.
+	 * operation name computed at runtime based on current thread stack at the time when the operation is started or
+	 * {@link #getResolvedName()} is first called.
 	 *
 	 * @param opname
 	 *            function name triggering operation
@@ -119,8 +120,8 @@ public class Operation implements TTL {
 	 * Creates a Operation with the specified properties. Operation name can be any name or a relative name based on the
 	 * current thread stack trace. The relative operation name must be specified as follows:
 	 * {@code $class-marker:offset}. Example: {@code $com.jkoolcloud.tnt4j.tracker:0} This name results in the actual
-	 * operation name computed at runtime based on current thread stack at the time when {@link #getResolvedName()} is
-	 * called.
+	 * operation name computed at runtime based on current thread stack at the time when the operation is started or
+	 * {@link #getResolvedName()} is first called.
 	 *
 	 * @param opname
 	 *            function name triggering operation
@@ -149,12 +150,17 @@ public class Operation implements TTL {
 
 	/**
 	 * Gets resolved name of the operation. Runtime stack resolution occurs when the operation name is of the form:
-	 * {@code $class-marker:offset}. Example: {@code $com.jkoolcloud.tnt4j.tracker:0}
+	 * {@code $class-marker:offset}. Example: {@code $com.jkoolcloud.tnt4j.tracker:0}. Name is resolved once, when the
+	 * operation is started or when this method is first called, and reused afterwards.
 	 *
 	 * @return name triggering operation
 	 */
 	public String getResolvedName() {
-		return opName != null ? Utils.getMethodNameFromStack(opName) : opName;
+		String name = resolvedName;
+		if (name == null && opName != null) {
+			name = resolvedName = Utils.getMethodNameFromStack(opName);
+		}
+		return name;
 	}
 
 	/**
@@ -165,6 +171,7 @@ public class Operation implements TTL {
 	 */
 	public void setName(String opname) {
 		this.opName = opname;
+		this.resolvedName = (opname != null && opname.startsWith(Utils.OP_STACK_MARKER_PREFIX)) ? null : opname;
 	}
 
 	/**
@@ -618,6 +625,7 @@ public class Operation implements TTL {
 		long start = System.nanoTime();
 		this.startTimeNano = System.nanoTime();
 		this.startTimeUs = startTimeUsec;
+		getResolvedName(); // resolve stack marker name on the starting thread
 		_start(start);
 	}
 
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.dump;
+
+import java.util.concurrent.TimeUnit;
+
+import com.jkoolcloud.tnt4j.utils.DedupTable;
+
+/**
+ * <p>
+ * This class is a dump provider for the state of a {@link DedupTable} used for duplicate message suppression.
+ * </p>
+ *
+ * @see DumpCollection
+ * @see DedupTable
+ *
+ * @version $Revision: 1 $
+ *
+ */
+public class DedupTableDumpProvider extends DefaultDumpProvider {
+	private DedupTable table;
+
+	/**
+	 * Create a new instance of {@link DedupTableDumpProvider} instance, which dumps the state of a given table
+	 *
+	 * @param name
+	 *            name of the dump provider
+	 * @param cat
+	 *            category of the dump provider
+	 * @param dTable
+	 *            duplicate detection table
+	 */
+	public DedupTableDumpProvider(String name, String cat, DedupTable dTable) {
+		super(name, cat);
+		this.table = dTable;
+	}
+
+	@Override
+	public DumpCollection getDump() {
+		Dump dump = new Dump(getCategoryName() + "-Table", this);
+		dump.add("capacity", table.getCapacity());
+		dump.add("size", table.size());
+		dump.add("evictions", table.getEvictCount());
+		dump.add("window-ms", table.getWindow(TimeUnit.MILLISECONDS));
+		return dump;
+	}
+}
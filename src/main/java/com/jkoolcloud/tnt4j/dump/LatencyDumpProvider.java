@@ -0,0 +1,89 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.dump;
+
+import java.util.Date;
+import java.util.Map;
+
+import com.jkoolcloud.tnt4j.sink.impl.PooledLogger;
+import com.jkoolcloud.tnt4j.sink.impl.PooledLoggerFactoryImpl;
+import com.jkoolcloud.tnt4j.utils.LatencyHistogram;
+
+/**
+ * <p>
+ * This class is a dump provider for latency histograms of all pooled loggers: per event service time and queue wait
+ * time. Each histogram is reported for its last completed interval.
+ * </p>
+ *
+ * @see DumpCollection
+ * @see LatencyHistogram
+ *
+ * @version $Revision: 1 $
+ *
+ */
+public class LatencyDumpProvider extends DefaultDumpProvider {
+	private static final double[] PERCENTILES = { 50, 90, 99, 99.9, 99.99 };
+	private static final String[] LABELS = { "p50", "p90", "p99", "p999", "p9999" };
+
+	/**
+	 * Create a new latency dump provider with a given name
+	 *
+	 * @param name
+	 *            provider name
+	 */
+	public LatencyDumpProvider(String name) {
+		super(name, "Latency");
+	}
+
+	/**
+	 * Create a new latency dump provider with a given name and category
+	 *
+	 * @param name
+	 *            provider name
+	 * @param cat
+	 *            category name
+	 */
+	public LatencyDumpProvider(String name, String cat) {
+		super(name, cat);
+	}
+
+	@Override
+	public DumpCollection getDump() {
+		Dump rootDump = new Dump("LatencyStats", this);
+		for (Map.Entry<String, PooledLogger> entry : PooledLoggerFactoryImpl.getAllLoggers().entrySet()) {
+			PooledLogger logger = entry.getValue();
+			Dump dump = new Dump(entry.getKey(), this);
+			dump.add("service-time-usec", getDump(entry.getKey() + "/service-time-usec",
+					logger.getServiceTimeHistogram().getInterval()));
+			dump.add("queue-wait-usec", getDump(entry.getKey() + "/queue-wait-usec",
+					logger.getQueueWaitHistogram().getInterval()));
+			rootDump.add(entry.getKey(), dump);
+		}
+		return rootDump;
+	}
+
+	private Dump getDump(String name, LatencyHistogram.Interval interval) {
+		Dump dump = new Dump(name, this);
+		dump.add("start-time", new Date(interval.getStartTime()));
+		dump.add("end-time", new Date(interval.getEndTime()));
+		dump.add("count", interval.getCount());
+		for (int i = 0; i < PERCENTILES.length; i++) {
+			dump.add(LABELS[i], interval.getPercentile(PERCENTILES[i]));
+		}
+		dump.add("max", interval.getMax());
+		return dump;
+	}
+}
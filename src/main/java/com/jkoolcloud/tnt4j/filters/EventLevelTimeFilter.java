@@ -28,13 +28,13 @@ import com.jkoolcloud.tnt4j.core.Property;
 import com.jkoolcloud.tnt4j.core.Snapshot;
 import com.jkoolcloud.tnt4j.core.TTL;
 import com.jkoolcloud.tnt4j.core.ValueTypes;
-import com.jkoolcloud.tnt4j.dump.TimeTrackerDumpProvider;
+import com.jkoolcloud.tnt4j.dump.DedupTableDumpProvider;
 import com.jkoolcloud.tnt4j.sink.EventSink;
 import com.jkoolcloud.tnt4j.sink.SinkEventFilter;
 import com.jkoolcloud.tnt4j.source.Source;
-import com.jkoolcloud.tnt4j.tracker.TimeTracker;
 import com.jkoolcloud.tnt4j.tracker.TrackingActivity;
 import com.jkoolcloud.tnt4j.tracker.TrackingEvent;
+import com.jkoolcloud.tnt4j.utils.DedupTable;
 import com.jkoolcloud.tnt4j.utils.Utils;
 
 /**
@@ -44,6 +44,15 @@ import com.jkoolcloud.tnt4j.utils.Utils;
  * combination. A given severity must be greater than or equal to the given level threshold to pass this filter. A given
  * activity must be greater or equal to the given elapsed/wait/wall time. Set time objectives to -1 to disable time
  * based filtering.
+ * </p>
+ *
+ * <p>
+ * Duplicate suppression ({@code SuppressDups}) passes the first occurrence of a message and suppresses all its
+ * occurrences within {@code SuppressTimeSec} seconds. Messages are identified by a 64-bit hash of message pattern and
+ * arguments (or of Soundex code of the formatted message with {@code SuppressUseSoundex}), scoped by severity level
+ * and source, so messages are not formatted for duplicate detection. Up to {@code SuppressCacheSize} messages are
+ * tracked in a fixed size {@link DedupTable}, see its documentation for limits of argument hashing.
+ * </p>
  *
  * @see OpLevel
  * @see EventSink
@@ -84,7 +93,7 @@ public class EventLevelTimeFilter implements SinkEventFilter, Configurable {
 	long ttl = TTL.TTL_CONTEXT;
 	int minLevel = OpLevel.INFO.ordinal();
 
-	TimeTracker msgTracker;
+	DedupTable dupTable;
 	Map<String, ?> config;
 
 	/**
@@ -147,9 +156,9 @@ public class EventLevelTimeFilter implements SinkEventFilter, Configurable {
 		if (msgPattern != null && !msgPattern.matcher(event.getMessagePattern()).matches()) {
 			return false;
 		}
-		if (isDuplicate(event, event.getMessage())) {
+		if (dupTable != null && isDuplicate(event, dupKey(event))) {
 			return false;
-		} 
+		}
 		if (ttl != TTL.TTL_CONTEXT) {
 			event.setTTL(ttl);
 		}
@@ -183,7 +192,7 @@ public class EventLevelTimeFilter implements SinkEventFilter, Configurable {
 
 	@Override
 	public boolean filter(EventSink sink, long ttl, Source source, OpLevel level, String msg, Object... args) {
-		if (isDuplicate(null, sink.getEventFormatter().format(ttl, source, level, msg, args))) {
+		if (dupTable != null && isDuplicate(null, dupKey(sink, ttl, source, level, msg, args))) {
 			return false;
 		} else if (msgPattern != null && 
 				!msgPattern.matcher(sink.getEventFormatter().format(ttl, source, level, msg, args)).matches()) {
@@ -216,8 +225,8 @@ public class EventLevelTimeFilter implements SinkEventFilter, Configurable {
 		dupAppendStats = Utils.getBoolean(DUPS_APPEND_STATS, settings, dupAppendStats);
 		dupsSuppress = Utils.getBoolean(DUPS_SUPPRESS, settings, dupsSuppress);
 		if (dupsSuppress) {
-			msgTracker = TimeTracker.newTracker(dupCacheSize, dupTimeoutSec*2, TimeUnit.SECONDS);
-			TrackingLogger.addDumpProvider(new TimeTrackerDumpProvider(EventLevelTimeFilter.class.getName(), "DupMsgHits", msgTracker));
+			dupTable = new DedupTable(dupCacheSize, dupTimeoutSec, TimeUnit.SECONDS);
+			TrackingLogger.addDumpProvider(new DedupTableDumpProvider(EventLevelTimeFilter.class.getName(), "DupMsgHits", dupTable));
 		}
 		msgRegx = Utils.getString(MSG_PATTERN, settings, null);
 		if (msgRegx != null) {
@@ -240,19 +249,34 @@ public class EventLevelTimeFilter implements SinkEventFilter, Configurable {
 		return (level.ordinal() >= minLevel) && sink.isSet(level);
 	}
 
-	private boolean isDuplicate(TrackingEvent event, String msg) {
-		if (msgTracker != null) {
-			String key = dupUseSoundex? soundex.soundex(msg): msg;
-			long hitCount = msgTracker.hitAndGetCount(key);
-			if ((hitCount > 1) && (msgTracker.getHitAge(msg, TimeUnit.SECONDS) < dupTimeoutSec)) {
-				msgTracker.missAndGetCount(key);
-				return true;
-			} else if (dupAppendStats && (event != null && hitCount > 1)) {
-				event.getOperation().addProperty(new Property("_hitCount", hitCount, ValueTypes.VALUE_TYPE_COUNTER));
-				event.getOperation().addProperty(new Property("_missCount", msgTracker.getMissCount(key), ValueTypes.VALUE_TYPE_COUNTER));
-				event.getOperation().addProperty(new Property("_hit_last_age_ms", msgTracker.getHitAge(msg, TimeUnit.MILLISECONDS), ValueTypes.VALUE_TYPE_AGE_MSEC));
-				event.getOperation().addProperty(new Property("_miss_last_age_ms", msgTracker.getMissAge(msg, TimeUnit.MILLISECONDS), ValueTypes.VALUE_TYPE_AGE_MSEC));
-			}
+	private long dupKey(TrackingEvent event) {
+		long key = dupUseSoundex ? DedupTable.hash(soundex.soundex(event.getMessage()))
+				: DedupTable.hash(event.getMessagePattern(), event.getMessageArgs());
+		return DedupTable.hash(key, event.getSeverity(), sourceName(event.getSource()));
+	}
+
+	private long dupKey(EventSink sink, long ttl, Source source, OpLevel level, String msg, Object... args) {
+		long key = dupUseSoundex ? DedupTable.hash(soundex.soundex(sink.getEventFormatter().format(ttl, source, level, msg, args)))
+				: DedupTable.hash(msg, args);
+		return DedupTable.hash(key, level, sourceName(source));
+	}
+
+	private static String sourceName(Source source) {
+		return source != null ? source.getFQName() : null;
+	}
+
+	private boolean isDuplicate(TrackingEvent event, long key) {
+		boolean appendStats = dupAppendStats && (event != null);
+		long hitAge = appendStats ? dupTable.getHitAge(key, TimeUnit.MILLISECONDS) : 0;
+		if (dupTable.hit(key)) {
+			return true;
+		}
+		long hitCount = appendStats ? dupTable.getHitCount(key) : 0;
+		if (hitCount > 1) {
+			event.getOperation().addProperty(new Property("_hitCount", hitCount, ValueTypes.VALUE_TYPE_COUNTER));
+			event.getOperation().addProperty(new Property("_missCount", dupTable.getMissCount(key), ValueTypes.VALUE_TYPE_COUNTER));
+			event.getOperation().addProperty(new Property("_hit_last_age_ms", hitAge, ValueTypes.VALUE_TYPE_AGE_MSEC));
+			event.getOperation().addProperty(new Property("_miss_last_age_ms", dupTable.getMissAge(key, TimeUnit.MILLISECONDS), ValueTypes.VALUE_TYPE_AGE_MSEC));
 		}
 		return false;
 	}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.filters;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.jkoolcloud.tnt4j.config.Configurable;
+import com.jkoolcloud.tnt4j.core.*;
+import com.jkoolcloud.tnt4j.limiter.DefaultLimiterFactory;
+import com.jkoolcloud.tnt4j.limiter.Limiter;
+import com.jkoolcloud.tnt4j.tracker.SamplingDecision;
+import com.jkoolcloud.tnt4j.tracker.Tracker;
+import com.jkoolcloud.tnt4j.tracker.TrackingSampler;
+import com.jkoolcloud.tnt4j.utils.Utils;
+
+/**
+ * <p>
+ * This class implements head and tail based sampling of tracking activities and events. Head sampling keeps a given
+ * fraction ({@code SampleRate}) and/or at most a given number per second ({@code MaxMps}) of root activities and
+ * standalone events per sampling key, where the key is either operation name or source name ({@code SampleBy}). Both
+ * limits can be overridden per key, e.g. {@code SampleRate.checkout=0.5} or {@code MaxMps.checkout=10}.
+ * </p>
+ *
+ * <p>
+ * When tail sampling is enabled ({@code TailSampling=true}), activities not selected by head sampling are deferred
+ * and kept as a whole only if any of their operations ends in error ({@code TailOnError}) or exceeds elapsed time
+ * threshold ({@code TailElapsedUsec}), otherwise they are dropped.
+ * </p>
+ *
+ * <p>
+ * Sample configuration:
+ * </p>
+ *
+ * <pre>
+ * tracking.sampler: com.jkoolcloud.tnt4j.filters.HeadTailSampler
+ * tracking.sampler.SampleBy: Name
+ * tracking.sampler.SampleRate: 0.1
+ * tracking.sampler.MaxMps.checkout: 50
+ * tracking.sampler.TailSampling: true
+ * tracking.sampler.TailElapsedUsec: 500000
+ * </pre>
+ *
+ * @see TrackingSampler
+ * @see SamplingDecision
+ * @see Configurable
+ *
+ * @version $Revision: 1 $
+ */
+public class HeadTailSampler implements TrackingSampler, Configurable {
+	public static final String SAMPLE_BY = "SampleBy";
+	public static final String SAMPLE_BY_NAME = "Name";
+	public static final String SAMPLE_BY_SOURCE = "Source";
+	public static final String SAMPLE_RATE = "SampleRate";
+	public static final String MAX_MPS = "MaxMps";
+	public static final String TAIL_SAMPLING = "TailSampling";
+	public static final String TAIL_ON_ERROR = "TailOnError";
+	public static final String TAIL_ELAPSED_USEC = "TailElapsedUsec";
+
+	private static final int MAX_KEYS = 1024;
+	private static final ThreadLocal<Random> RANDOM = new ThreadLocal<Random>() {
+		@Override
+		protected Random initialValue() {
+			return new Random();
+		}
+	};
+
+	boolean bySource = false;
+	double sampleRate = 1.0;
+	double maxMps = 0;
+	boolean tailSampling = false;
+	boolean tailOnError = true;
+	long tailElapsedUsec = -1;
+
+	Map<String, Double> keyRates = new HashMap<String, Double>();
+	Map<String, Double> keyMps = new HashMap<String, Double>();
+	ConcurrentMap<String, KeyRule> rules = new ConcurrentHashMap<String, KeyRule>();
+	Map<String, ?> config;
+
+	/**
+	 * Create a default sampler, which samples all activities and events
+	 */
+	public HeadTailSampler() {
+	}
+
+	/**
+	 * Create a sampler with given head and tail sampling parameters
+	 *
+	 * @param rate
+	 *            fraction of activities/events to be sampled (0.0 to 1.0)
+	 * @param mps
+	 *            maximum number of activities/events per second per sampling key (0 means unlimited)
+	 * @param tail
+	 *            true to enable tail sampling of activities not selected by head sampling
+	 * @param elapsedUsec
+	 *            tail sampling elapsed time threshold (-1 disable)
+	 */
+	public HeadTailSampler(double rate, double mps, boolean tail, long elapsedUsec) {
+		sampleRate = rate;
+		maxMps = mps;
+		tailSampling = tail;
+		tailElapsedUsec = elapsedUsec;
+	}
+
+	@Override
+	public SamplingDecision sample(Tracker tracker, OpLevel level, String name) {
+		KeyRule rule = getRule(bySource ? tracker.getSource().getName() : name);
+		if (rule.isSampled()) {
+			return SamplingDecision.SAMPLED;
+		}
+		return tailSampling ? SamplingDecision.DEFERRED : SamplingDecision.DROPPED;
+	}
+
+	@Override
+	public boolean keep(Tracker tracker, Operation op) {
+		if (tailOnError && isError(op)) {
+			return true;
+		}
+		return tailElapsedUsec >= 0 && op.getElapsedTimeUsec() >= tailElapsedUsec;
+	}
+
+	private static boolean isError(Operation op) {
+		return op.getCompCode() == OpCompCode.ERROR || op.getThrowable() != null
+				|| op.getSeverity().ordinal() >= OpLevel.ERROR.ordinal()
+				|| (op instanceof Activity && ((Activity) op).getStatus() == ActivityStatus.EXCEPTION);
+	}
+
+	private KeyRule getRule(String key) {
+		key = String.valueOf(key);
+		KeyRule rule = rules.get(key);
+		if (rule == null) {
+			if (rules.size() >= MAX_KEYS) {
+				rules.clear();
+			}
+			Double rate = keyRates.get(key);
+			Double mps = keyMps.get(key);
+			rule = new KeyRule(rate != null ? rate : sampleRate, mps != null ? mps : maxMps);
+			KeyRule prev = rules.putIfAbsent(key, rule);
+			rule = prev != null ? prev : rule;
+		}
+		return rule;
+	}
+
+	@Override
+	public Map<String, ?> getConfiguration() {
+		return config;
+	}
+
+	@Override
+	public void setConfiguration(Map<String, ?> settings) {
+		config = settings;
+
+		bySource = SAMPLE_BY_SOURCE.equalsIgnoreCase(Utils.getString(SAMPLE_BY, settings, SAMPLE_BY_NAME));
+		sampleRate = Utils.getDouble(SAMPLE_RATE, settings, sampleRate);
+		maxMps = Utils.getDouble(MAX_MPS, settings, maxMps);
+		tailSampling = Utils.getBoolean(TAIL_SAMPLING, settings, tailSampling);
+		tailOnError = Utils.getBoolean(TAIL_ON_ERROR, settings, tailOnError);
+		tailElapsedUsec = Utils.getLong(TAIL_ELAPSED_USEC, settings, tailElapsedUsec);
+
+		// per key overrides
+		for (String name : settings.keySet()) {
+			if (name.startsWith(SAMPLE_RATE + ".")) {
+				keyRates.put(name.substring(SAMPLE_RATE.length() + 1), Utils.getDouble(name, settings, sampleRate));
+			} else if (name.startsWith(MAX_MPS + ".")) {
+				keyMps.put(name.substring(MAX_MPS.length() + 1), Utils.getDouble(name, settings, maxMps));
+			}
+		}
+		rules.clear();
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName()
+				+ "{sample.by=" + (bySource ? SAMPLE_BY_SOURCE : SAMPLE_BY_NAME)
+				+ ", sample.rate=" + sampleRate
+				+ ", max.mps=" + maxMps
+				+ ", tail=" + tailSampling
+				+ ", tail.on.error=" + tailOnError
+				+ ", tail.elapsed.usec=" + tailElapsedUsec
+				+ "}";
+	}
+
+	private static class KeyRule {
+		final double rate;
+		final Limiter limiter;
+
+		KeyRule(double rate, double mps) {
+			this.rate = rate;
+			this.limiter = mps > 0 ? DefaultLimiterFactory.getInstance().newLimiter(mps, 0) : null;
+		}
+
+		boolean isSampled() {
+			if (rate < 1.0 && RANDOM.get().nextDouble() >= rate) {
+				return false;
+			}
+			return limiter == null || limiter.tryObtain(1, 0);
+		}
+	}
+}
@@ -0,0 +1,346 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.filters;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.jkoolcloud.tnt4j.config.Configurable;
+import com.jkoolcloud.tnt4j.core.OpLevel;
+import com.jkoolcloud.tnt4j.core.Property;
+import com.jkoolcloud.tnt4j.core.Snapshot;
+import com.jkoolcloud.tnt4j.core.ValueTypes;
+import com.jkoolcloud.tnt4j.sink.EventSink;
+import com.jkoolcloud.tnt4j.sink.SinkEventFilter;
+import com.jkoolcloud.tnt4j.source.Source;
+import com.jkoolcloud.tnt4j.tracker.TrackingActivity;
+import com.jkoolcloud.tnt4j.tracker.TrackingEvent;
+import com.jkoolcloud.tnt4j.utils.DedupTable;
+import com.jkoolcloud.tnt4j.utils.Utils;
+
+/**
+ * <p>
+ * This class implements an event storm control filter. Occurrences of event message patterns (message arguments are
+ * ignored) are counted by a count-min sketch over a sliding window ({@code WindowMs}). Patterns estimated to occur more
+ * than {@code Threshold} times per window are storms: their events are suppressed, except for one summary per
+ * {@code SummaryMs} per pattern, which carries the number of events suppressed since the previous summary. Events of
+ * patterns below the threshold are always passed.
+ * </p>
+ *
+ * <p>
+ * Summary of a tracking event is the event itself annotated with {@code _storm_suppressed} and {@code _storm_rate}
+ * properties; if {@code EscalateLevel} is configured and above event severity, the level is recorded in the
+ * {@code _storm_escalated} property. Event severity is left unchanged, since the same event may be logged to other
+ * sinks. Summary of a plain log message is the message itself, passed unchanged; suppressed messages are only counted
+ * by {@link #getSuppressCount()}. Filter never logs on its own, so it is safe to call from
+ * {@link EventSink#isLoggable(OpLevel, String, Object...)}, however every call is counted as an occurrence.
+ * </p>
+ *
+ * <p>
+ * Memory used by this filter is fixed: sketch size is {@code Depth * Width * 2} counters and up to
+ * {@code MaxStorms} storm patterns are tracked for summaries, regardless of pattern cardinality. Activities and
+ * snapshots are always passed.
+ * </p>
+ *
+ * <p>
+ * Sample configuration:
+ * </p>
+ *
+ * <pre>
+ * event.sink.factory.Filter: com.jkoolcloud.tnt4j.filters.StormControlFilter
+ * event.sink.factory.Filter.Level: WARNING
+ * event.sink.factory.Filter.Threshold: 100
+ * event.sink.factory.Filter.WindowMs: 1000
+ * event.sink.factory.Filter.SummaryMs: 1000
+ * event.sink.factory.Filter.EscalateLevel: ERROR
+ * </pre>
+ *
+ * @see SinkEventFilter
+ * @see Configurable
+ *
+ * @version $Revision: 1 $
+ */
+public class StormControlFilter implements SinkEventFilter, Configurable {
+	public static final String LEVEL = "Level";
+	public static final String THRESHOLD = "Threshold";
+	public static final String WINDOW_MS = "WindowMs";
+	public static final String SUMMARY_MS = "SummaryMs";
+	public static final String ESCALATE_LEVEL = "EscalateLevel";
+	public static final String DEPTH = "Depth";
+	public static final String WIDTH = "Width";
+	public static final String MAX_STORMS = "MaxStorms";
+
+	public static final String PROPERTY_SUPPRESSED = "_storm_suppressed";
+	public static final String PROPERTY_RATE = "_storm_rate";
+	public static final String PROPERTY_ESCALATED = "_storm_escalated";
+
+	int minLevel = OpLevel.TRACE.ordinal();
+	int threshold = 100;
+	long windowMs = 1000;
+	long summaryMs = 1000;
+	OpLevel escalateLevel = null;
+	int depth = 4;
+	int width = 2048;
+	int maxStorms = 64;
+
+	AtomicIntegerArray sketch;
+	volatile int current = 0;
+	volatile long windowStart = System.currentTimeMillis();
+	StormTable storms;
+	Map<String, ?> config;
+
+	final AtomicLong suppressCount = new AtomicLong(0);
+	final AtomicLong summaryCount = new AtomicLong(0);
+
+	/**
+	 * Create a storm control filter with default settings
+	 */
+	public StormControlFilter() {
+		init();
+	}
+
+	/**
+	 * Create a storm control filter with given storm threshold
+	 *
+	 * @param level
+	 *            minimum severity level subject to storm control
+	 * @param threshold
+	 *            maximum number of events per pattern per window
+	 * @param windowMs
+	 *            sliding window length in milliseconds
+	 * @param summaryMs
+	 *            interval between summaries of a single storm pattern in milliseconds
+	 */
+	public StormControlFilter(OpLevel level, int threshold, long windowMs, long summaryMs) {
+		this.minLevel = level.ordinal();
+		this.threshold = threshold;
+		this.windowMs = windowMs;
+		this.summaryMs = summaryMs;
+		init();
+	}
+
+	private void init() {
+		width = Integer.highestOneBit(Math.max(width, 16) - 1) << 1;
+		sketch = new AtomicIntegerArray(2 * depth * width);
+		storms = new StormTable(maxStorms);
+	}
+
+	/**
+	 * Obtain total number of suppressed events
+	 *
+	 * @return number of suppressed events
+	 */
+	public long getSuppressCount() {
+		return suppressCount.get();
+	}
+
+	/**
+	 * Obtain total number of storm summaries
+	 *
+	 * @return number of summaries
+	 */
+	public long getSummaryCount() {
+		return summaryCount.get();
+	}
+
+	@Override
+	public boolean filter(EventSink sink, TrackingEvent event) {
+		if (event.getSeverity().ordinal() < minLevel) {
+			return true;
+		}
+		String pattern = event.getMessagePattern();
+		long key = DedupTable.hash(pattern, null);
+		int rate = hit(key);
+		if (rate <= threshold) {
+			return true;
+		}
+		long suppressed = storms.suppress(key, System.currentTimeMillis(), summaryMs);
+		if (suppressed < 0) {
+			suppressCount.incrementAndGet();
+			return false;
+		}
+		summaryCount.incrementAndGet();
+		event.getOperation().addProperty(new Property(PROPERTY_SUPPRESSED, suppressed, ValueTypes.VALUE_TYPE_COUNTER));
+		event.getOperation().addProperty(new Property(PROPERTY_RATE, rate, ValueTypes.VALUE_TYPE_GAUGE));
+		if (escalateLevel != null && event.getSeverity().ordinal() < escalateLevel.ordinal()) {
+			// event is shared by other sinks, so escalation is recorded rather than applied
+			event.getOperation().addProperty(new Property(PROPERTY_ESCALATED, escalateLevel.name()));
+		}
+		return true;
+	}
+
+	@Override
+	public boolean filter(EventSink sink, TrackingActivity activity) {
+		return true;
+	}
+
+	@Override
+	public boolean filter(EventSink sink, Snapshot snapshot) {
+		return true;
+	}
+
+	@Override
+	public boolean filter(EventSink sink, long ttl, Source source, OpLevel level, String msg, Object... args) {
+		if (level.ordinal() < minLevel) {
+			return true;
+		}
+		long key = DedupTable.hash(msg, null);
+		int rate = hit(key);
+		if (rate <= threshold) {
+			return true;
+		}
+		long suppressed = storms.suppress(key, System.currentTimeMillis(), summaryMs);
+		if (suppressed < 0) {
+			suppressCount.incrementAndGet();
+			return false;
+		}
+		summaryCount.incrementAndGet();
+		return true;
+	}
+
+	/**
+	 * Count an occurrence of a given pattern key and estimate its rate over the sliding window
+	 *
+	 * @param key
+	 *            pattern hash key
+	 * @return estimated number of occurrences per window
+	 */
+	private int hit(long key) {
+		long now = System.currentTimeMillis();
+		long elapsed = now - windowStart;
+		if (elapsed >= windowMs) {
+			elapsed = rotate(now);
+		}
+		int cur = current, prev = cur ^ 1;
+		double prevWeight = elapsed >= windowMs ? 0 : 1.0 - ((double) elapsed / windowMs);
+		int h1 = (int) key, h2 = (int) (key >>> 32);
+		int mask = width - 1;
+		double estimate = Double.MAX_VALUE;
+		for (int d = 0; d < depth; d++) {
+			int idx = ((h1 + d * h2) & mask) + d * width;
+			int count = sketch.incrementAndGet(idx * 2 + cur);
+			estimate = Math.min(estimate, count + sketch.get(idx * 2 + prev) * prevWeight);
+		}
+		return (int) estimate;
+	}
+
+	private synchronized long rotate(long now) {
+		long elapsed = now - windowStart;
+		if (elapsed < windowMs) {
+			return elapsed;
+		}
+		int next = current ^ 1;
+		boolean expired = elapsed >= 2 * windowMs;
+		for (int i = 0; i < sketch.length(); i += 2) {
+			if (expired) {
+				sketch.set(i + current, 0);
+			}
+			sketch.set(i + next, 0);
+		}
+		current = next;
+		windowStart = expired ? now : windowStart + windowMs;
+		return now - windowStart;
+	}
+
+	@Override
+	public Map<String, ?> getConfiguration() {
+		return config;
+	}
+
+	@Override
+	public void setConfiguration(Map<String, ?> settings) {
+		config = settings;
+
+		minLevel = OpLevel.valueOf(Utils.getString(LEVEL, settings, OpLevel.TRACE.toString())).ordinal();
+		threshold = Utils.getInt(THRESHOLD, settings, threshold);
+		windowMs = Utils.getLong(WINDOW_MS, settings, windowMs);
+		summaryMs = Utils.getLong(SUMMARY_MS, settings, summaryMs);
+		String escLevel = Utils.getString(ESCALATE_LEVEL, settings, null);
+		escalateLevel = escLevel != null ? OpLevel.valueOf(escLevel) : null;
+		depth = Utils.getInt(DEPTH, settings, depth);
+		width = Utils.getInt(WIDTH, settings, width);
+		maxStorms = Utils.getInt(MAX_STORMS, settings, maxStorms);
+		init();
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName()
+				+ "{threshold=" + threshold
+				+ ", window.ms=" + windowMs
+				+ ", summary.ms=" + summaryMs
+				+ ", suppressed=" + suppressCount.get()
+				+ ", summaries=" + summaryCount.get()
+				+ "}";
+	}
+
+	/**
+	 * Fixed size table of storm patterns, tracking events suppressed since the last summary of each pattern
+	 */
+	private static class StormTable {
+		private static final int MAX_PROBE = 8;
+
+		final long[] keys;
+		final long[] suppressed;
+		final long[] lastSummary;
+		final int mask;
+
+		StormTable(int capacity) {
+			int size = Integer.highestOneBit(Math.max(capacity, MAX_PROBE) - 1) << 1;
+			keys = new long[size];
+			suppressed = new long[size];
+			lastSummary = new long[size];
+			mask = size - 1;
+		}
+
+		/**
+		 * Record a storm event and determine if it is due for a summary
+		 *
+		 * @return number of events suppressed since last summary if event is a summary, -1 if event is suppressed
+		 */
+		synchronized long suppress(long key, long now, long summaryMs) {
+			int idx = (int) key & mask;
+			int slot = -1;
+			for (int i = 0; i < MAX_PROBE; i++, idx = (idx + 1) & mask) {
+				if (keys[idx] == key) {
+					slot = idx;
+					break;
+				}
+				if (slot < 0 && (keys[idx] == 0 || (now - lastSummary[idx]) >= 2 * summaryMs)) {
+					slot = idx;
+				}
+			}
+			if (slot < 0) {
+				return -1; // too many storms, suppress without summary
+			}
+			if (keys[slot] != key) {
+				keys[slot] = key;
+				suppressed[slot] = 0;
+				lastSummary[slot] = now;
+				return 0;
+			}
+			if ((now - lastSummary[slot]) >= summaryMs) {
+				long count = suppressed[slot];
+				suppressed[slot] = 0;
+				lastSummary[slot] = now;
+				return count;
+			}
+			suppressed[slot]++;
+			return -1;
+		}
+	}
+}
@@ -0,0 +1,337 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.format;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+
+import org.apache.commons.codec.binary.Base64;
+
+import com.jkoolcloud.tnt4j.core.*;
+import com.jkoolcloud.tnt4j.utils.Utils;
+
+/**
+ * <p>
+ * This class decodes binary frames produced by {@link BinaryFormatter} into maps of field name/value pairs. Field names
+ * match the ones used by {@link JSONFormatter} (e.g. {@code "tracking-id"}, {@code "source-fqn"}), enumerations are
+ * decoded into their constants, properties and snapshots into lists of nested maps. Record type is available under
+ * {@link #RECORD_TYPE_FIELD} key.
+ * </p>
+ *
+ * <p>
+ * Decoder instances are stateless and thread safe. Frames transcoded by a {@link BinarySession} must be decoded in
+ * order using a {@link BinarySession} dedicated to the same connection or file segment.
+ * </p>
+ *
+ * @version $Revision: 1 $
+ *
+ * @see BinaryFormatter
+ * @see BinaryLabels
+ * @see BinarySession
+ */
+public class BinaryDecoder implements BinaryLabels, JSONLabels {
+	/**
+	 * Map key holding decoded record type
+	 */
+	public static final String RECORD_TYPE_FIELD = "record-type";
+
+	/**
+	 * Record type name for tracking events
+	 */
+	public static final String RECORD_EVENT = "event";
+
+	/**
+	 * Record type name for tracking activities
+	 */
+	public static final String RECORD_ACTIVITY = "activity";
+
+	/**
+	 * Record type name for snapshots
+	 */
+	public static final String RECORD_SNAPSHOT = "snapshot";
+
+	/**
+	 * Record type name for properties
+	 */
+	public static final String RECORD_PROPERTY = "property";
+
+	/**
+	 * Record type name for log messages
+	 */
+	public static final String RECORD_LOG = "log";
+
+	/**
+	 * Record type name for plain messages
+	 */
+	public static final String RECORD_MESSAGE = "message";
+
+	private static final String[] RECORD_NAMES = { null, RECORD_EVENT, RECORD_ACTIVITY, RECORD_SNAPSHOT,
+			RECORD_PROPERTY, RECORD_LOG, RECORD_MESSAGE };
+	private static final String[] FIELD_NAMES = new String[FLD_VALUE + 1];
+
+	static {
+		FIELD_NAMES[FLD_TRACK_ID] = JSON_TRACK_ID_FIELD;
+		FIELD_NAMES[FLD_TRACK_SIGN] = JSON_TRACK_SIGN_FIELD;
+		FIELD_NAMES[FLD_PARENT_TRACK_ID] = JSON_PARENT_TRACK_ID_FIELD;
+		FIELD_NAMES[FLD_SOURCE] = JSON_SOURCE_FIELD;
+		FIELD_NAMES[FLD_SOURCE_SSN] = JSON_SOURCE_SSN_FIELD;
+		FIELD_NAMES[FLD_SOURCE_FQN] = JSON_SOURCE_FQN_FIELD;
+		FIELD_NAMES[FLD_SOURCE_URL] = JSON_SOURCE_URL_FIELD;
+		FIELD_NAMES[FLD_RELATE_TYPE] = JSON_RELATE_TYPE_FIELD;
+		FIELD_NAMES[FLD_RELATE_FQN_A] = JSON_RELATE_FQN_A_FIELD;
+		FIELD_NAMES[FLD_RELATE_FQN_B] = JSON_RELATE_FQN_B_FIELD;
+		FIELD_NAMES[FLD_SEVERITY] = JSON_SEVERITY_FIELD;
+		FIELD_NAMES[FLD_TYPE] = JSON_TYPE_FIELD;
+		FIELD_NAMES[FLD_PID] = JSON_PID_FIELD;
+		FIELD_NAMES[FLD_TID] = JSON_TID_FIELD;
+		FIELD_NAMES[FLD_COMP_CODE] = JSON_COMP_CODE_FIELD;
+		FIELD_NAMES[FLD_REASON_CODE] = JSON_REASON_CODE_FIELD;
+		FIELD_NAMES[FLD_TTL_SEC] = JSON_TTL_SEC_FIELD;
+		FIELD_NAMES[FLD_LOCATION] = JSON_LOCATION_FIELD;
+		FIELD_NAMES[FLD_OPERATION] = JSON_OPERATION_FIELD;
+		FIELD_NAMES[FLD_RESOURCE] = JSON_RESOURCE_FIELD;
+		FIELD_NAMES[FLD_USER] = JSON_USER_FIELD;
+		FIELD_NAMES[FLD_TIME_USEC] = JSON_TIME_USEC_FIELD;
+		FIELD_NAMES[FLD_START_TIME_USEC] = JSON_START_TIME_USEC_FIELD;
+		FIELD_NAMES[FLD_END_TIME_USEC] = JSON_END_TIME_USEC_FIELD;
+		FIELD_NAMES[FLD_ELAPSED_TIME_USEC] = JSON_ELAPSED_TIME_USEC_FIELD;
+		FIELD_NAMES[FLD_WAIT_TIME_USEC] = JSON_WAIT_TIME_USEC_FIELD;
+		FIELD_NAMES[FLD_MSG_AGE_USEC] = JSON_MSG_AGE_USEC_FIELD;
+		FIELD_NAMES[FLD_MSG_SIZE] = JSON_MSG_SIZE_FIELD;
+		FIELD_NAMES[FLD_MSG_MIME] = JSON_MSG_MIME_FIELD;
+		FIELD_NAMES[FLD_MSG_ENC] = JSON_MSG_ENC_FIELD;
+		FIELD_NAMES[FLD_MSG_CHARSET] = JSON_MSG_CHARSET_FIELD;
+		FIELD_NAMES[FLD_MSG_TEXT] = JSON_MSG_TEXT_FIELD;
+		FIELD_NAMES[FLD_EXCEPTION] = JSON_EXCEPTION_FIELD;
+		FIELD_NAMES[FLD_CORR_ID] = JSON_CORR_ID_FIELD;
+		FIELD_NAMES[FLD_MSG_TAG] = JSON_MSG_TAG_FIELD;
+		FIELD_NAMES[FLD_PROPERTIES] = JSON_PROPERTIES_FIELD;
+		FIELD_NAMES[FLD_SNAPSHOTS] = JSON_SNAPSHOTS_FIELD;
+		FIELD_NAMES[FLD_STATUS] = JSON_STATUS_FIELD;
+		FIELD_NAMES[FLD_ID_SET] = JSON_ID_SET_FIELD;
+		FIELD_NAMES[FLD_FQN] = JSON_FQN_FIELD;
+		FIELD_NAMES[FLD_CATEGORY] = JSON_CATEGORY_FIELD;
+		FIELD_NAMES[FLD_NAME] = JSON_NAME_FIELD;
+		FIELD_NAMES[FLD_DATA_TYPE] = JSON_TYPE_FIELD;
+		FIELD_NAMES[FLD_VALUE_TYPE] = JSON_VALUE_TYPE_FIELD;
+		FIELD_NAMES[FLD_VALUE] = JSON_VALUE_FIELD;
+	}
+
+	/**
+	 * Create binary frame decoder
+	 */
+	public BinaryDecoder() {
+	}
+
+	/**
+	 * Decode a single Base64 encoded frame, as returned by {@link BinaryFormatter} string {@code format()} methods.
+	 *
+	 * @param frame
+	 *            Base64 encoded frame
+	 * @return map of decoded field name/value pairs
+	 * @throws IOException
+	 *             if frame is malformed
+	 */
+	public Map<String, Object> decode(String frame) throws IOException {
+		return decode(Base64.decodeBase64(frame));
+	}
+
+	/**
+	 * Decode a single length prefixed binary frame.
+	 *
+	 * @param frame
+	 *            binary frame
+	 * @return map of decoded field name/value pairs
+	 * @throws IOException
+	 *             if frame is malformed
+	 */
+	public Map<String, Object> decode(byte[] frame) throws IOException {
+		return decode(frame, null);
+	}
+
+	/**
+	 * Decode a single length prefixed binary frame read from a connection or file segment using a session string
+	 * dictionary.
+	 *
+	 * @param frame
+	 *            binary frame
+	 * @param session
+	 *            session associated with the connection or file segment, may be {@code null}
+	 * @return map of decoded field name/value pairs
+	 * @throws IOException
+	 *             if frame is malformed
+	 * @see BinarySession
+	 */
+	public Map<String, Object> decode(byte[] frame, BinarySession session) throws IOException {
+		return readBody(BinaryReader.forFrame(frame), session);
+	}
+
+	/**
+	 * Read and decode next binary frame from a given input stream.
+	 *
+	 * @param stream
+	 *            input stream containing a sequence of binary frames
+	 * @return map of decoded field name/value pairs, {@code null} if end of stream is reached
+	 * @throws IOException
+	 *             if frame is malformed or stream can not be read
+	 */
+	public Map<String, Object> read(InputStream stream) throws IOException {
+		return read(stream, null);
+	}
+
+	/**
+	 * Read and decode next binary frame from a given input stream using a session string dictionary. Same session
+	 * instance must be used for all frames read from the stream.
+	 *
+	 * @param stream
+	 *            input stream containing a sequence of binary frames
+	 * @param session
+	 *            session associated with the stream, may be {@code null}
+	 * @return map of decoded field name/value pairs, {@code null} if end of stream is reached
+	 * @throws IOException
+	 *             if frame is malformed or stream can not be read
+	 * @see BinarySession
+	 */
+	public Map<String, Object> read(InputStream stream, BinarySession session) throws IOException {
+		long len = 0;
+		for (int shift = 0;; shift += 7) {
+			int b = stream.read();
+			if (b < 0) {
+				if (shift == 0) {
+					return null;
+				}
+				throw new EOFException("Truncated frame length");
+			}
+			len |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				break;
+			}
+			if (shift > 28) {
+				throw new IOException("Malformed frame length");
+			}
+		}
+		byte[] body = new byte[BinaryReader.checkLength(len)];
+		int off = 0;
+		while (off < body.length) {
+			int n = stream.read(body, off, body.length - off);
+			if (n < 0) {
+				throw new EOFException("Truncated frame: expected=" + body.length + ", read=" + off);
+			}
+			off += n;
+		}
+		return readBody(new BinaryReader(body, 0, body.length), session);
+	}
+
+	/**
+	 * Obtain record type of a given decoded frame
+	 *
+	 * @param record
+	 *            decoded record
+	 * @return record type name (e.g. {@link #RECORD_EVENT})
+	 */
+	public static String getRecordType(Map<String, Object> record) {
+		return (String) record.get(RECORD_TYPE_FIELD);
+	}
+
+	private Map<String, Object> readBody(BinaryReader in, BinarySession session) throws IOException {
+		in.readHeader();
+		if (session == null) {
+			return readRecord(in, new ArrayList<String>(), null);
+		}
+		synchronized (session) {
+			return readRecord(in, new ArrayList<String>(), session.getSymbols());
+		}
+	}
+
+	private Map<String, Object> readRecord(BinaryReader in, List<String> symbols, List<String> sessionSymbols)
+			throws IOException {
+		int recType = in.readByte();
+		Map<String, Object> record = new LinkedHashMap<String, Object>();
+		record.put(RECORD_TYPE_FIELD, recType < RECORD_NAMES.length ? RECORD_NAMES[recType] : String.valueOf(recType));
+		for (;;) {
+			long tag = in.readVarLong();
+			if (tag == BIN_END) {
+				return record;
+			}
+			int field = (int) (tag >>> WIRE_BITS);
+			int wire = (int) (tag & WIRE_MASK);
+			Object value;
+			switch (wire) {
+			case WIRE_VARINT:
+				value = toFieldValue(field, in.readZigZag());
+				break;
+			case WIRE_STRING:
+				value = in.readText();
+				break;
+			case WIRE_SYMBOL:
+				value = in.readSymbol(symbols);
+				break;
+			case WIRE_SESSION_SYMBOL:
+				if (sessionSymbols == null) {
+					throw new IOException("Session symbol without session, field=" + field);
+				}
+				value = in.readSymbol(sessionSymbols);
+				break;
+			case WIRE_STRINGS:
+				int scount = in.readCount();
+				List<String> strings = new ArrayList<String>(scount);
+				for (int i = 0; i < scount; i++) {
+					strings.add(in.readText());
+				}
+				value = strings;
+				break;
+			case WIRE_RECORDS:
+				int rcount = in.readCount();
+				List<Map<String, Object>> records = new ArrayList<Map<String, Object>>(rcount);
+				for (int i = 0; i < rcount; i++) {
+					records.add(readRecord(in, symbols, sessionSymbols));
+				}
+				value = records;
+				break;
+			case WIRE_VALUE:
+				value = in.readValue();
+				break;
+			default:
+				throw new IOException("Unknown wire type=" + wire + ", field=" + field);
+			}
+			String name = field < FIELD_NAMES.length && FIELD_NAMES[field] != null ? FIELD_NAMES[field]
+					: String.valueOf(field);
+			record.put(name, value);
+		}
+	}
+
+	private static Object toFieldValue(int field, long value) {
+		switch (field) {
+		case FLD_SEVERITY:
+			return toEnum(OpLevel.values(), value);
+		case FLD_TYPE:
+		case FLD_RELATE_TYPE:
+			return toEnum(OpType.values(), value);
+		case FLD_COMP_CODE:
+			return toEnum(OpCompCode.values(), value);
+		case FLD_STATUS:
+			return toEnum(ActivityStatus.values(), value);
+		default:
+			return value;
+		}
+	}
+
+	private static Object toEnum(Enum<?>[] values, long ordinal) {
+		return ordinal >= 0 && ordinal < values.length ? values[(int) ordinal] : (Object) ordinal;
+	}
+}
@@ -0,0 +1,518 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.format;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+import org.apache.commons.codec.binary.Base64;
+
+import com.jkoolcloud.tnt4j.config.Configurable;
+import com.jkoolcloud.tnt4j.core.*;
+import com.jkoolcloud.tnt4j.source.DefaultSourceFactory;
+import com.jkoolcloud.tnt4j.source.Source;
+import com.jkoolcloud.tnt4j.source.SourceType;
+import com.jkoolcloud.tnt4j.tracker.TrackingActivity;
+import com.jkoolcloud.tnt4j.tracker.TrackingEvent;
+import com.jkoolcloud.tnt4j.utils.Useconds;
+import com.jkoolcloud.tnt4j.utils.Utils;
+
+/**
+ * <p>
+ * Binary implementation of {@link Formatter} interface provides compact formatting of {@link TrackingActivity},
+ * {@link TrackingEvent}, {@link Snapshot}, {@link Property} into length prefixed binary frames. Numbers are written as
+ * varints, enumerations as ordinals, while source names, operation names, property keys and other repeating strings
+ * are written once per frame and referenced by index afterwards. See {@link BinaryLabels} for frame layout and
+ * {@link BinaryDecoder} to read frames back.
+ * </p>
+ *
+ * <p>
+ * Byte oriented sinks use {@link ByteFormatter} methods directly. String {@code format()} methods return Base64
+ * encoded frames for text based sinks. Connection oriented sinks may obtain a {@link BinarySession} using
+ * {@link #newSession()} and pass it to session aware {@code toBytes()} methods to send each repeating string only once
+ * per connection.
+ * </p>
+ *
+ * @version $Revision: 1 $
+ *
+ * @see BinaryDecoder
+ * @see BinarySession
+ * @see JSONFormatter
+ * @see ByteFormatter
+ */
+public class BinaryFormatter implements ByteFormatter, Configurable, FormatterFingerprint, BinaryLabels {
+	private static final String DEF_OP_NAME = "log";
+	private static final int DEF_BUFFER_SIZE = 512;
+
+	private Map<String, ?> config = null;
+	private volatile Object fingerprint;
+	protected String defOpName = DEF_OP_NAME;
+	protected int bufferSize = DEF_BUFFER_SIZE;
+	protected boolean sessionDictionary = true;
+	protected int sessionCapacity = BinarySession.DEFAULT_CAPACITY;
+
+	/**
+	 * Create binary formatter
+	 */
+	public BinaryFormatter() {
+	}
+
+	@Override
+	public String format(Object obj, Object... args) {
+		return encode(toBytes(obj, args));
+	}
+
+	@Override
+	public String format(TrackingEvent event) {
+		return encode(toBytes(event));
+	}
+
+	@Override
+	public String format(TrackingActivity activity) {
+		return encode(toBytes(activity));
+	}
+
+	@Override
+	public String format(Snapshot snapshot) {
+		return encode(toBytes(snapshot));
+	}
+
+	@Override
+	public String format(long ttl, Source source, OpLevel level, String msg, Object... args) {
+		return encode(toBytes(ttl, source, level, msg, args));
+	}
+
+	/**
+	 * Format a given {@link Property} into a Base64 encoded binary frame
+	 *
+	 * @param prop
+	 *            property object to be formatted
+	 * @return Base64 encoded binary frame
+	 * @see Property
+	 */
+	public String format(Property prop) {
+		return encode(toBytes(prop));
+	}
+
+	@Override
+	public byte[] toBytes(Object obj, Object... args) {
+		return toBytes((BinarySession) null, obj, args);
+	}
+
+	@Override
+	public byte[] toBytes(TrackingEvent event) {
+		return toBytes(event, (BinarySession) null);
+	}
+
+	@Override
+	public byte[] toBytes(TrackingActivity activity) {
+		return toBytes(activity, (BinarySession) null);
+	}
+
+	@Override
+	public byte[] toBytes(Snapshot snapshot) {
+		return toBytes(snapshot, (BinarySession) null);
+	}
+
+	/**
+	 * Format a given {@link Property} into a binary frame
+	 *
+	 * @param prop
+	 *            property object to be formatted
+	 * @return binary frame
+	 * @see Property
+	 */
+	public byte[] toBytes(Property prop) {
+		return toBytes(prop, (BinarySession) null);
+	}
+
+	@Override
+	public byte[] toBytes(long ttl, Source source, OpLevel level, String msg, Object... args) {
+		return logToBytes(null, ttl, source, level, msg, args);
+	}
+
+	/**
+	 * Format a given object into a binary frame, writing symbols to a given session dictionary
+	 *
+	 * @param session
+	 *            session dictionary, {@code null} to write per frame symbols only
+	 * @param obj
+	 *            object to be formatted
+	 * @param args
+	 *            optional message arguments
+	 * @return binary frame
+	 * @see BinarySession
+	 */
+	public byte[] toBytes(BinarySession session, Object obj, Object... args) {
+		if (obj instanceof TrackingActivity) {
+			return toBytes((TrackingActivity) obj, session);
+		} else if (obj instanceof TrackingEvent) {
+			return toBytes((TrackingEvent) obj, session);
+		} else if (obj instanceof Snapshot) {
+			return toBytes((Snapshot) obj, session);
+		} else if (obj instanceof Property) {
+			return toBytes((Property) obj, session);
+		} else if (obj instanceof FormattedMessage) {
+			return ((FormattedMessage) obj).getBytes();
+		} else {
+			BinaryWriter out = newWriter(REC_MESSAGE, session);
+			out.writeLong(FLD_TIME_USEC, Useconds.CURRENT.get());
+			out.writeString(FLD_MSG_TEXT, Utils.format(Utils.toString(obj), args));
+			return out.toFrame();
+		}
+	}
+
+	/**
+	 * Format a given {@link TrackingEvent} into a binary frame, writing symbols to a given session dictionary
+	 *
+	 * @param event
+	 *            tracking event to be formatted
+	 * @param session
+	 *            session dictionary, {@code null} to write per frame symbols only
+	 * @return binary frame
+	 * @see BinarySession
+	 */
+	public byte[] toBytes(TrackingEvent event, BinarySession session) {
+		BinaryWriter out = newWriter(REC_EVENT, session);
+		writeEvent(out, event);
+		return out.toFrame();
+	}
+
+	/**
+	 * Format a given {@link TrackingActivity} into a binary frame, writing symbols to a given session dictionary
+	 *
+	 * @param activity
+	 *            tracking activity to be formatted
+	 * @param session
+	 *            session dictionary, {@code null} to write per frame symbols only
+	 * @return binary frame
+	 * @see BinarySession
+	 */
+	public byte[] toBytes(TrackingActivity activity, BinarySession session) {
+		BinaryWriter out = newWriter(REC_ACTIVITY, session);
+		writeActivity(out, activity);
+		return out.toFrame();
+	}
+
+	/**
+	 * Format a given {@link Snapshot} into a binary frame, writing symbols to a given session dictionary
+	 *
+	 * @param snapshot
+	 *            snapshot to be formatted
+	 * @param session
+	 *            session dictionary, {@code null} to write per frame symbols only
+	 * @return binary frame
+	 * @see BinarySession
+	 */
+	public byte[] toBytes(Snapshot snapshot, BinarySession session) {
+		BinaryWriter out = newWriter(REC_SNAPSHOT, session);
+		writeSnapshot(out, snapshot);
+		return out.toFrame();
+	}
+
+	/**
+	 * Format a given {@link Property} into a binary frame, writing symbols to a given session dictionary
+	 *
+	 * @param prop
+	 *            property object to be formatted
+	 * @param session
+	 *            session dictionary, {@code null} to write per frame symbols only
+	 * @return binary frame
+	 * @see BinarySession
+	 */
+	public byte[] toBytes(Property prop, BinarySession session) {
+		BinaryWriter out = newWriter(REC_PROPERTY, session);
+		if (prop != null) {
+			writeProperty(out, prop);
+		}
+		return out.toFrame();
+	}
+
+	/**
+	 * Format a given log message into a binary frame, writing symbols to a given session dictionary
+	 *
+	 * @param session
+	 *            session dictionary, {@code null} to write per frame symbols only
+	 * @param ttl
+	 *            time to live in seconds
+	 * @param source
+	 *            message source
+	 * @param level
+	 *            message severity
+	 * @param msg
+	 *            message pattern
+	 * @param args
+	 *            message arguments
+	 * @return binary frame
+	 * @see BinarySession
+	 */
+	public byte[] logToBytes(BinarySession session, long ttl, Source source, OpLevel level, String msg,
+			Object... args) {
+		BinaryWriter out = newWriter(REC_LOG, session);
+		out.writeLong(FLD_SEVERITY, level.ordinal());
+		out.writeLong(FLD_TYPE, OpType.DATAGRAM.ordinal());
+		out.writeLong(FLD_PID, Utils.getVMPID());
+		out.writeLong(FLD_TID, Thread.currentThread().getId());
+		out.writeSymbol(FLD_USER,
+				source == null ? DefaultSourceFactory.getInstance().getRootSource().getUser() : source.getUser());
+		out.writeLong(FLD_TTL_SEC, ttl);
+		out.writeLong(FLD_TIME_USEC, Useconds.CURRENT.get());
+		out.writeSymbol(FLD_OPERATION, defOpName);
+		if (source != null) {
+			writeSource(out, source);
+			Source geoloc = source.getSource(SourceType.GEOADDR);
+			if (geoloc != null) {
+				out.writeSymbol(FLD_LOCATION, geoloc.getName());
+			}
+		}
+		if (!Utils.isEmpty(msg)) {
+			out.writeString(FLD_MSG_TEXT, Utils.format(msg, args));
+		}
+		Throwable ex = Utils.getThrowable(args);
+		if (ex != null) {
+			out.writeString(FLD_EXCEPTION, ex.toString());
+		}
+		return out.toFrame();
+	}
+
+	/**
+	 * Create a new frame writer for a given record type
+	 *
+	 * @param recType
+	 *            record type
+	 * @param session
+	 *            session dictionary, {@code null} to write per frame symbols only
+	 * @return new frame writer
+	 */
+	BinaryWriter newWriter(int recType, BinarySession session) {
+		return new BinaryWriter(recType, bufferSize, session);
+	}
+
+	/**
+	 * Create a new session string dictionary for a connection or file segment written using this formatter.
+	 *
+	 * @return new session instance, {@code null} if session dictionaries are disabled
+	 * @see BinarySession
+	 */
+	public BinarySession newSession() {
+		return sessionDictionary ? new BinarySession(sessionCapacity) : null;
+	}
+
+	/**
+	 * Encode a given binary frame into a string
+	 *
+	 * @param frame
+	 *            binary frame
+	 * @return Base64 encoded frame
+	 */
+	protected String encode(byte[] frame) {
+		return Base64.encodeBase64String(frame);
+	}
+
+	private void writeEvent(BinaryWriter out, TrackingEvent event) {
+		Operation op = event.getOperation();
+		writeIds(out, event);
+		writeSource(out, event.getSource());
+		if (event.get2(TrackingEvent.OBJ_ONE) != null) {
+			out.writeLong(FLD_RELATE_TYPE, event.get2Type().ordinal());
+			out.writeSymbol(FLD_RELATE_FQN_A, event.get2(TrackingEvent.OBJ_ONE).getFQName());
+			out.writeSymbol(FLD_RELATE_FQN_B, event.get2(TrackingEvent.OBJ_TWO).getFQName());
+		}
+		out.writeLong(FLD_SEVERITY, event.getSeverity().ordinal());
+		out.writeLong(FLD_TYPE, op.getType().ordinal());
+		out.writeLong(FLD_PID, op.getPID());
+		out.writeLong(FLD_TID, op.getTID());
+		out.writeLong(FLD_COMP_CODE, op.getCompCode().ordinal());
+		out.writeLong(FLD_REASON_CODE, op.getReasonCode());
+		out.writeLong(FLD_TTL_SEC, event.getTTL());
+		writeSymbol(out, FLD_LOCATION, event.getLocation());
+		writeSymbol(out, FLD_OPERATION, op.getResolvedName());
+		writeSymbol(out, FLD_RESOURCE, op.getResource());
+		writeSymbol(out, FLD_USER, op.getUser());
+		out.writeLong(FLD_TIME_USEC, Useconds.CURRENT.get());
+		if (op.getStartTime() != null) {
+			out.writeLong(FLD_START_TIME_USEC, op.getStartTime().getTimeUsec());
+		}
+		if (op.getEndTime() != null) {
+			out.writeLong(FLD_END_TIME_USEC, op.getEndTime().getTimeUsec());
+			out.writeLong(FLD_ELAPSED_TIME_USEC, op.getElapsedTimeUsec());
+			if (op.getWaitTimeUsec() > 0) {
+				out.writeLong(FLD_WAIT_TIME_USEC, op.getWaitTimeUsec());
+			}
+			if (event.getMessageAge() > 0) {
+				out.writeLong(FLD_MSG_AGE_USEC, event.getMessageAge());
+			}
+		}
+		out.writeLong(FLD_MSG_SIZE, event.getSize());
+		out.writeSymbol(FLD_MSG_MIME, event.getMimeType());
+		out.writeSymbol(FLD_MSG_ENC, event.getEncoding());
+		out.writeSymbol(FLD_MSG_CHARSET, event.getCharset());
+		if (!Utils.isEmpty(event.getMessage())) {
+			out.writeString(FLD_MSG_TEXT, event.getMessage());
+		}
+		if (!Utils.isEmpty(op.getExceptionString())) {
+			out.writeString(FLD_EXCEPTION, op.getExceptionString());
+		}
+		out.writeStrings(FLD_CORR_ID, event.getCorrelator());
+		out.writeStrings(FLD_MSG_TAG, event.getTag());
+		writeProperties(out, op.getProperties());
+		writeSnapshots(out, op.getSnapshots());
+	}
+
+	private void writeActivity(BinaryWriter out, TrackingActivity activity) {
+		writeIds(out, activity);
+		writeSource(out, activity.getSource());
+		out.writeLong(FLD_STATUS, activity.getStatus().ordinal());
+		out.writeLong(FLD_SEVERITY, activity.getSeverity().ordinal());
+		out.writeLong(FLD_TYPE, activity.getType().ordinal());
+		out.writeLong(FLD_PID, activity.getPID());
+		out.writeLong(FLD_TID, activity.getTID());
+		out.writeLong(FLD_COMP_CODE, activity.getCompCode().ordinal());
+		out.writeLong(FLD_REASON_CODE, activity.getReasonCode());
+		out.writeLong(FLD_TTL_SEC, activity.getTTL());
+		writeSymbol(out, FLD_LOCATION, activity.getLocation());
+		writeSymbol(out, FLD_OPERATION, activity.getResolvedName());
+		writeSymbol(out, FLD_RESOURCE, activity.getResource());
+		writeSymbol(out, FLD_USER, activity.getSource().getUser());
+		out.writeLong(FLD_TIME_USEC, Useconds.CURRENT.get());
+		if (activity.getStartTime() != null) {
+			out.writeLong(FLD_START_TIME_USEC, activity.getStartTime().getTimeUsec());
+		}
+		if (activity.getEndTime() != null) {
+			out.writeLong(FLD_END_TIME_USEC, activity.getEndTime().getTimeUsec());
+			out.writeLong(FLD_ELAPSED_TIME_USEC, activity.getElapsedTimeUsec());
+			if (activity.getWaitTimeUsec() > 0) {
+				out.writeLong(FLD_WAIT_TIME_USEC, activity.getWaitTimeUsec());
+			}
+		}
+		if (!Utils.isEmpty(activity.getExceptionString())) {
+			out.writeString(FLD_EXCEPTION, activity.getExceptionString());
+		}
+		out.writeStrings(FLD_CORR_ID, activity.getCorrelator());
+		out.writeStrings(FLD_ID_SET, activity.getIds());
+		writeProperties(out, activity.getProperties());
+		writeSnapshots(out, activity.getSnapshots());
+	}
+
+	private void writeSnapshot(BinaryWriter out, Snapshot snap) {
+		writeIds(out, snap);
+		writeSymbol(out, FLD_FQN, snap.getId());
+		writeSymbol(out, FLD_CATEGORY, snap.getCategory());
+		writeSymbol(out, FLD_NAME, snap.getName());
+		out.writeLong(FLD_TIME_USEC, snap.getTimeStamp().getTimeUsec());
+		out.writeLong(FLD_TTL_SEC, snap.getTTL());
+		if (snap.getSource() != null) {
+			writeSource(out, snap.getSource());
+		}
+		out.writeLong(FLD_SEVERITY, snap.getSeverity().ordinal());
+		out.writeLong(FLD_TYPE, snap.getType().ordinal());
+		writeProperties(out, snap.getSnapshot());
+	}
+
+	private void writeProperty(BinaryWriter out, Property prop) {
+		out.writeSymbol(FLD_NAME, prop.getKey());
+		out.writeSymbol(FLD_DATA_TYPE, prop.getDataType());
+		if (prop.getValueType() != null && !prop.getValueType().equalsIgnoreCase(ValueTypes.VALUE_TYPE_NONE)) {
+			out.writeSymbol(FLD_VALUE_TYPE, prop.getValueType());
+		}
+		out.writeValue(FLD_VALUE, prop.getValue());
+	}
+
+	private void writeIds(BinaryWriter out, Trackable item) {
+		if (!Utils.isEmpty(item.getTrackingId())) {
+			out.writeString(FLD_TRACK_ID, item.getTrackingId());
+		}
+		if (!Utils.isEmpty(item.getSignature())) {
+			out.writeString(FLD_TRACK_SIGN, item.getSignature());
+		}
+		if (!Utils.isEmpty(item.getParentId())) {
+			out.writeString(FLD_PARENT_TRACK_ID, item.getParentId());
+		}
+	}
+
+	private void writeSource(BinaryWriter out, Source source) {
+		out.writeSymbol(FLD_SOURCE, source.getName());
+		writeSymbol(out, FLD_SOURCE_SSN, JSONFormatter.getSSN(source));
+		out.writeSymbol(FLD_SOURCE_FQN, source.getFQName());
+		writeSymbol(out, FLD_SOURCE_URL, source.getUrl());
+	}
+
+	private void writeProperties(BinaryWriter out, Collection<Property> props) {
+		if (props == null || props.isEmpty()) {
+			return;
+		}
+		int count = 0;
+		for (Property prop : props) {
+			if (!prop.isTransient()) {
+				count++;
+			}
+		}
+		if (count == 0) {
+			return;
+		}
+		out.beginRecords(FLD_PROPERTIES, count);
+		for (Property prop : props) {
+			if (!prop.isTransient()) {
+				out.beginRecord(REC_PROPERTY);
+				writeProperty(out, prop);
+				out.endRecord();
+			}
+		}
+	}
+
+	private void writeSnapshots(BinaryWriter out, Collection<Snapshot> snaps) {
+		if (snaps == null || snaps.isEmpty()) {
+			return;
+		}
+		out.beginRecords(FLD_SNAPSHOTS, snaps.size());
+		for (Snapshot snap : snaps) {
+			out.beginRecord(REC_SNAPSHOT);
+			writeSnapshot(out, snap);
+			out.endRecord();
+		}
+	}
+
+	private static void writeSymbol(BinaryWriter out, int field, String value) {
+		if (!Utils.isEmpty(value)) {
+			out.writeSymbol(field, value);
+		}
+	}
+
+	@Override
+	public Object getFingerprint() {
+		Object fp = fingerprint;
+		if (fp == null) {
+			fp = fingerprint = Arrays.asList(getClass(), defOpName, config);
+		}
+		return fp;
+	}
+
+	@Override
+	public Map<String, ?> getConfiguration() {
+		return config;
+	}
+
+	@Override
+	public void setConfiguration(Map<String, ?> settings) {
+		config = settings;
+		defOpName = Utils.getString("OpName", settings, defOpName);
+		bufferSize = Utils.getInt("BufferSize", settings, bufferSize);
+		sessionDictionary = Utils.getBoolean("SessionDictionary", settings, sessionDictionary);
+		sessionCapacity = Utils.getInt("SessionCapacity", settings, sessionCapacity);
+		fingerprint = null;
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.format;
+
+import java.nio.charset.Charset;
+
+import com.jkoolcloud.tnt4j.utils.Utils;
+
+/**
+ * <p>
+ * This interface defines all record types, field tags and value types used for generating and reading TNT4J binary
+ * messages.
+ * </p>
+ *
+ * <p>
+ * Each message is a frame: varint body length followed by the body. Body starts with {@link #BIN_MAGIC},
+ * {@link #BIN_VERSION} and record type, followed by a sequence of fields terminated by {@link #BIN_END}. Each field is
+ * a varint tag {@code (field << 3) | wire}, where wire defines how the value is encoded:
+ * <ul>
+ * <li>{@link #WIRE_VARINT} - zig-zag encoded varint</li>
+ * <li>{@link #WIRE_STRING} - varint {@code length + 1} ({@code 0} for {@code null}) followed by UTF-8 bytes</li>
+ * <li>{@link #WIRE_SYMBOL} - dictionary string: varint {@code 0} for {@code null}, {@code 1} followed by a string
+ * definition (varint length, UTF-8 bytes) assigned to the next dictionary index, or {@code index + 2} of a previously
+ * defined string</li>
+ * <li>{@link #WIRE_STRINGS} - varint count followed by strings</li>
+ * <li>{@link #WIRE_RECORDS} - varint count followed by nested records (record type, fields, {@link #BIN_END})</li>
+ * <li>{@link #WIRE_VALUE} - value type byte followed by typed value</li>
+ * <li>{@link #WIRE_SESSION_SYMBOL} - same as {@link #WIRE_SYMBOL}, but indexes refer to a dictionary shared by all
+ * frames of a connection or file segment (see {@link BinarySession})</li>
+ * </ul>
+ * </p>
+ *
+ * @version $Revision: 1 $
+ *
+ * @see BinaryFormatter
+ * @see BinaryDecoder
+ */
+interface BinaryLabels {
+	// frame header
+	int BIN_MAGIC = 0xB7;
+	int BIN_VERSION = 1;
+	int BIN_END = 0;
+	Charset BIN_CHARSET = Charset.forName(Utils.UTF8);
+
+	// record types
+	int REC_EVENT = 1;
+	int REC_ACTIVITY = 2;
+	int REC_SNAPSHOT = 3;
+	int REC_PROPERTY = 4;
+	int REC_LOG = 5;
+	int REC_MESSAGE = 6;
+
+	// wire types
+	int WIRE_VARINT = 0;
+	int WIRE_STRING = 1;
+	int WIRE_SYMBOL = 2;
+	int WIRE_STRINGS = 3;
+	int WIRE_RECORDS = 4;
+	int WIRE_VALUE = 5;
+	int WIRE_SESSION_SYMBOL = 6;
+	int WIRE_BITS = 3;
+	int WIRE_MASK = (1 << WIRE_BITS) - 1;
+
+	// field identifiers
+	int FLD_TRACK_ID = 1;
+	int FLD_TRACK_SIGN = 2;
+	int FLD_PARENT_TRACK_ID = 3;
+	int FLD_SOURCE = 4;
+	int FLD_SOURCE_SSN = 5;
+	int FLD_SOURCE_FQN = 6;
+	int FLD_SOURCE_URL = 7;
+	int FLD_RELATE_TYPE = 8;
+	int FLD_RELATE_FQN_A = 9;
+	int FLD_RELATE_FQN_B = 10;
+	int FLD_SEVERITY = 11;
+	int FLD_TYPE = 12;
+	int FLD_PID = 13;
+	int FLD_TID = 14;
+	int FLD_COMP_CODE = 15;
+	int FLD_REASON_CODE = 16;
+	int FLD_TTL_SEC = 17;
+	int FLD_LOCATION = 18;
+	int FLD_OPERATION = 19;
+	int FLD_RESOURCE = 20;
+	int FLD_USER = 21;
+	int FLD_TIME_USEC = 22;
+	int FLD_START_TIME_USEC = 23;
+	int FLD_END_TIME_USEC = 24;
+	int FLD_ELAPSED_TIME_USEC = 25;
+	int FLD_WAIT_TIME_USEC = 26;
+	int FLD_MSG_AGE_USEC = 27;
+	int FLD_MSG_SIZE = 28;
+	int FLD_MSG_MIME = 29;
+	int FLD_MSG_ENC = 30;
+	int FLD_MSG_CHARSET = 31;
+	int FLD_MSG_TEXT = 32;
+	int FLD_EXCEPTION = 33;
+	int FLD_CORR_ID = 34;
+	int FLD_MSG_TAG = 35;
+	int FLD_PROPERTIES = 36;
+	int FLD_SNAPSHOTS = 37;
+	int FLD_STATUS = 38;
+	int FLD_ID_SET = 39;
+	int FLD_FQN = 40;
+	int FLD_CATEGORY = 41;
+	int FLD_NAME = 42;
+	int FLD_DATA_TYPE = 43;
+	int FLD_VALUE_TYPE = 44;
+	int FLD_VALUE = 45;
+
+	// value types
+	int VAL_NULL = 0;
+	int VAL_TRUE = 1;
+	int VAL_FALSE = 2;
+	int VAL_INT = 3;
+	int VAL_LONG = 4;
+	int VAL_FLOAT = 5;
+	int VAL_DOUBLE = 6;
+	int VAL_STRING = 7;
+	int VAL_DATE = 8;
+	int VAL_TIMESTAMP = 9;
+}
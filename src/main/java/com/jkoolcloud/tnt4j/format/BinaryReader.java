@@ -0,0 +1,200 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.format;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+
+import com.jkoolcloud.tnt4j.core.UsecTimestamp;
+
+/**
+ * <p>
+ * This class implements a reader of TNT4J binary frame primitives over a byte array. Not thread safe.
+ * </p>
+ *
+ * @version $Revision: 1 $
+ *
+ * @see BinaryLabels
+ * @see BinaryDecoder
+ */
+final class BinaryReader implements BinaryLabels {
+	private static final int MAX_FRAME_SIZE = Integer.getInteger("tnt4j.formatter.binary.max.frame", 64 * 1024 * 1024);
+
+	private final byte[] buf;
+	private final int limit;
+	private int pos;
+
+	BinaryReader(byte[] buf, int off, int len) {
+		this.buf = buf;
+		this.pos = off;
+		this.limit = off + len;
+	}
+
+	/**
+	 * Create a reader over a given length prefixed frame, positioned at the start of frame body
+	 *
+	 * @param frame
+	 *            binary frame
+	 * @return reader instance
+	 * @throws IOException
+	 *             if frame length is invalid
+	 */
+	static BinaryReader forFrame(byte[] frame) throws IOException {
+		BinaryReader in = new BinaryReader(frame, 0, frame.length);
+		int len = checkLength(in.readVarLong());
+		if (len != in.remaining()) {
+			throw new IOException("Frame length mismatch: expected=" + len + ", actual=" + in.remaining());
+		}
+		return in;
+	}
+
+	/**
+	 * Validate a given frame body length
+	 *
+	 * @param len
+	 *            frame body length
+	 * @return frame body length
+	 * @throws IOException
+	 *             if frame length is invalid
+	 */
+	static int checkLength(long len) throws IOException {
+		if (len < 0 || len > MAX_FRAME_SIZE) {
+			throw new IOException("Invalid frame length=" + len + ", max=" + MAX_FRAME_SIZE);
+		}
+		return (int) len;
+	}
+
+	/**
+	 * Read and validate frame body header
+	 *
+	 * @throws IOException
+	 *             if frame magic or version are invalid
+	 */
+	void readHeader() throws IOException {
+		int magic = readByte();
+		if (magic != BIN_MAGIC) {
+			throw new IOException("Invalid frame magic=0x" + Integer.toHexString(magic));
+		}
+		int version = readByte();
+		if (version != BIN_VERSION) {
+			throw new IOException("Unsupported frame version=" + version);
+		}
+	}
+
+	int remaining() {
+		return limit - pos;
+	}
+
+	int readByte() throws IOException {
+		if (pos >= limit) {
+			throw new EOFException("Truncated frame at offset=" + pos);
+		}
+		return buf[pos++] & 0xFF;
+	}
+
+	long readVarLong() throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = readByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed varint at offset=" + pos);
+	}
+
+	long readZigZag() throws IOException {
+		long value = readVarLong();
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	long readFixed(int size) throws IOException {
+		long value = 0;
+		for (int i = 0; i < size; i++) {
+			value |= (long) readByte() << (i * 8);
+		}
+		return value;
+	}
+
+	int readCount() throws IOException {
+		long count = readVarLong();
+		if (count < 0 || count > remaining()) {
+			throw new IOException("Invalid item count=" + count + " at offset=" + pos);
+		}
+		return (int) count;
+	}
+
+	String readUtf8(int len) throws IOException {
+		if (len < 0 || len > remaining()) {
+			throw new EOFException("Truncated string length=" + len + " at offset=" + pos);
+		}
+		String value = new String(buf, pos, len, BIN_CHARSET);
+		pos += len;
+		return value;
+	}
+
+	String readText() throws IOException {
+		long len = readVarLong();
+		return len == 0 ? null : readUtf8((int) (len - 1));
+	}
+
+	String readSymbol(List<String> symbols) throws IOException {
+		long ref = readVarLong();
+		if (ref == 0) {
+			return null;
+		} else if (ref == 1) {
+			String value = readUtf8(readCount());
+			symbols.add(value);
+			return value;
+		}
+		long idx = ref - 2;
+		if (idx >= symbols.size()) {
+			throw new IOException("Undefined symbol=" + idx + " at offset=" + pos);
+		}
+		return symbols.get((int) idx);
+	}
+
+	Object readValue() throws IOException {
+		int type = readByte();
+		switch (type) {
+		case VAL_NULL:
+			return null;
+		case VAL_TRUE:
+			return Boolean.TRUE;
+		case VAL_FALSE:
+			return Boolean.FALSE;
+		case VAL_INT:
+			return (int) readZigZag();
+		case VAL_LONG:
+			return readZigZag();
+		case VAL_FLOAT:
+			return Float.intBitsToFloat((int) readFixed(4));
+		case VAL_DOUBLE:
+			return Double.longBitsToDouble(readFixed(8));
+		case VAL_STRING:
+			return readText();
+		case VAL_DATE:
+			return new Date(readZigZag());
+		case VAL_TIMESTAMP:
+			return new UsecTimestamp(readZigZag());
+		default:
+			throw new IOException("Unknown value type=" + type + " at offset=" + pos);
+		}
+	}
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.format;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * This class implements a string dictionary shared by all binary frames written to or read from a single connection
+ * or file segment. Writers pass a session instance to {@link BinaryFormatter} {@code toBytes()} methods, which write
+ * symbols (source names, operation names, property keys, etc.) as session wide indexes while the frame is written, so
+ * each string is sent only once per session. Readers pass a session instance to {@link BinaryDecoder} to resolve these
+ * indexes.
+ * </p>
+ *
+ * <p>
+ * Frames must be produced in the same order they are written and decoded in the same order they are read. A session
+ * must be discarded whenever the underlying connection or segment is re-opened. Once dictionary capacity is reached,
+ * new strings are written as per frame symbols.
+ * </p>
+ *
+ * @version $Revision: 1 $
+ *
+ * @see BinaryFormatter
+ * @see BinaryDecoder
+ */
+public class BinarySession implements BinaryLabels {
+	/**
+	 * Default session dictionary capacity
+	 */
+	public static final int DEFAULT_CAPACITY = Integer.getInteger("tnt4j.formatter.binary.session.capacity", 4096);
+
+	private final int capacity;
+	private final Map<String, Integer> ids = new HashMap<String, Integer>();
+	private final List<String> symbols = new ArrayList<String>();
+
+	private final AtomicLong bytesSaved = new AtomicLong(0);
+	private final AtomicLong hitCount = new AtomicLong(0);
+
+	/**
+	 * Create a session with default dictionary capacity
+	 */
+	public BinarySession() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Create a session with a given dictionary capacity
+	 *
+	 * @param capacity
+	 *            maximum number of strings in session dictionary
+	 */
+	public BinarySession(int capacity) {
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Obtain number of strings in session dictionary
+	 *
+	 * @return number of strings in session dictionary
+	 */
+	public synchronized int size() {
+		return Math.max(ids.size(), symbols.size());
+	}
+
+	/**
+	 * Obtain maximum number of strings in session dictionary
+	 *
+	 * @return session dictionary capacity
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Obtain number of strings replaced by references to session dictionary
+	 *
+	 * @return number of session dictionary hits
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * Obtain total number of symbol bytes not sent, since symbols were replaced by references to session dictionary
+	 *
+	 * @return total number of bytes saved by session dictionary
+	 */
+	public long getBytesSaved() {
+		return bytesSaved.get();
+	}
+
+	/**
+	 * Obtain session symbols used for decoding. Callers must synchronize on session instance.
+	 *
+	 * @return list of session symbols
+	 */
+	List<String> getSymbols() {
+		return symbols;
+	}
+
+	/**
+	 * Mark current dictionary state before producing a frame, so that strings defined by the frame can be discarded
+	 * using {@link #rollback(int)} if the frame is not written.
+	 *
+	 * @return dictionary mark
+	 */
+	public synchronized int mark() {
+		return ids.size();
+	}
+
+	/**
+	 * Discard all strings defined after a given dictionary mark
+	 *
+	 * @param mark
+	 *            dictionary mark obtained by {@link #mark()}
+	 */
+	public synchronized void rollback(int mark) {
+		if (ids.size() > mark) {
+			for (Iterator<Integer> it = ids.values().iterator(); it.hasNext();) {
+				if (it.next() >= mark) {
+					it.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Write a given symbol as a session dictionary reference, defining it first if not yet known to this session.
+	 *
+	 * @param out
+	 *            frame writer
+	 * @param field
+	 *            field identifier
+	 * @param value
+	 *            symbol value
+	 * @return true if symbol was written, false if dictionary capacity is reached and symbol must be written as a per
+	 *         frame symbol
+	 */
+	synchronized boolean writeSymbol(BinaryWriter out, int field, String value) {
+		Integer idx = ids.get(value);
+		if (idx != null) {
+			hitCount.incrementAndGet();
+			bytesSaved.addAndGet(BinaryWriter.symbolSize(value));
+			out.writeSessionRef(field, idx);
+		} else if (ids.size() < capacity) {
+			ids.put(value, ids.size());
+			out.writeSessionDefinition(field, value);
+		} else {
+			return false;
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return super.toString() + "{size: " + size() + ", capacity: " + capacity + ", hits: " + hitCount
+				+ ", bytes.saved: " + bytesSaved + "}";
+	}
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.format;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.jkoolcloud.tnt4j.core.UsecTimestamp;
+import com.jkoolcloud.tnt4j.utils.Utils;
+
+/**
+ * <p>
+ * This class implements a growable buffer used to write a single TNT4J binary frame. Strings written as symbols are
+ * defined once per frame and referenced by index afterwards. Encoded bytes of symbols are cached across frames, since
+ * the same source names, operation names and property keys repeat in almost every frame. When created with a
+ * {@link BinarySession}, symbols are written as session dictionary references instead. Not thread safe.
+ * </p>
+ *
+ * @version $Revision: 1 $
+ *
+ * @see BinaryLabels
+ * @see BinaryFormatter
+ */
+final class BinaryWriter implements BinaryLabels {
+	private static final int MAX_VARINT_LEN = 5;
+	private static final int MAX_SYMBOL_CACHE = Integer.getInteger("tnt4j.formatter.binary.symbol.cache", 4096);
+	private static final int MAX_SYMBOL_LEN = 1024;
+	private static final ConcurrentMap<String, byte[]> SYMBOL_BYTES = new ConcurrentHashMap<String, byte[]>();
+
+	private final BinarySession session;
+	private byte[] buf;
+	private int pos;
+	private Map<String, Integer> symbols;
+
+	/**
+	 * Create a frame writer for a given top level record type
+	 *
+	 * @param recType
+	 *            record type
+	 * @param capacity
+	 *            initial buffer capacity in bytes
+	 * @param session
+	 *            session dictionary to write symbols to, {@code null} to write per frame symbols only
+	 */
+	BinaryWriter(int recType, int capacity, BinarySession session) {
+		this.session = session;
+		buf = new byte[Math.max(capacity, 16)];
+		pos = MAX_VARINT_LEN; // reserve room for frame length
+		writeByte(BIN_MAGIC);
+		writeByte(BIN_VERSION);
+		writeByte(recType);
+	}
+
+	/**
+	 * Complete the frame and return its bytes (varint length prefix followed by frame body)
+	 *
+	 * @return frame bytes
+	 */
+	byte[] toFrame() {
+		writeVarLong(BIN_END);
+		int bodyLen = pos - MAX_VARINT_LEN;
+		int lenSize = varLongSize(bodyLen);
+		int start = MAX_VARINT_LEN - lenSize;
+		int save = pos;
+		pos = start;
+		writeVarLong(bodyLen);
+		pos = save;
+		byte[] frame = new byte[save - start];
+		System.arraycopy(buf, start, frame, 0, frame.length);
+		return frame;
+	}
+
+	/**
+	 * Begin a list of nested records
+	 *
+	 * @param field
+	 *            field identifier
+	 * @param count
+	 *            number of records that follow
+	 */
+	void beginRecords(int field, int count) {
+		writeTag(field, WIRE_RECORDS);
+		writeVarLong(count);
+	}
+
+	/**
+	 * Begin a nested record
+	 *
+	 * @param recType
+	 *            record type
+	 */
+	void beginRecord(int recType) {
+		writeByte(recType);
+	}
+
+	/**
+	 * End a nested record
+	 */
+	void endRecord() {
+		writeVarLong(BIN_END);
+	}
+
+	void writeLong(int field, long value) {
+		writeTag(field, WIRE_VARINT);
+		writeZigZag(value);
+	}
+
+	void writeString(int field, String value) {
+		if (value == null) {
+			return;
+		}
+		writeTag(field, WIRE_STRING);
+		writeText(value);
+	}
+
+	void writeSymbol(int field, String value) {
+		if (value == null) {
+			return;
+		}
+		if (session != null && session.writeSymbol(this, field, value)) {
+			return;
+		}
+		writeTag(field, WIRE_SYMBOL);
+		writeSymbol(value);
+	}
+
+	void writeStrings(int field, Collection<String> values) {
+		if (values == null || values.isEmpty()) {
+			return;
+		}
+		writeTag(field, WIRE_STRINGS);
+		writeVarLong(values.size());
+		for (String value : values) {
+			writeText(value);
+		}
+	}
+
+	/**
+	 * Write a reference to a string defined in a session dictionary
+	 *
+	 * @param field
+	 *            field identifier
+	 * @param idx
+	 *            session dictionary index
+	 */
+	void writeSessionRef(int field, int idx) {
+		writeTag(field, WIRE_SESSION_SYMBOL);
+		writeVarLong(idx + 2L);
+	}
+
+	/**
+	 * Write a string definition assigned to the next session dictionary index
+	 *
+	 * @param field
+	 *            field identifier
+	 * @param value
+	 *            string value
+	 */
+	void writeSessionDefinition(int field, String value) {
+		writeTag(field, WIRE_SESSION_SYMBOL);
+		writeVarLong(1);
+		writeUtf8(value);
+	}
+
+	void writeValue(int field, Object value) {
+		writeTag(field, WIRE_VALUE);
+		if (value == null) {
+			writeByte(VAL_NULL);
+		} else if (value instanceof Boolean) {
+			writeByte(((Boolean) value) ? VAL_TRUE : VAL_FALSE);
+		} else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			writeByte(VAL_INT);
+			writeZigZag(((Number) value).intValue());
+		} else if (value instanceof Long) {
+			writeByte(VAL_LONG);
+			writeZigZag((Long) value);
+		} else if (value instanceof Float) {
+			writeByte(VAL_FLOAT);
+			writeFixed(Float.floatToIntBits((Float) value), 4);
+		} else if (value instanceof Double) {
+			writeByte(VAL_DOUBLE);
+			writeFixed(Double.doubleToLongBits((Double) value), 8);
+		} else if (value instanceof Date) {
+			writeByte(VAL_DATE);
+			writeZigZag(((Date) value).getTime());
+		} else if (value instanceof UsecTimestamp) {
+			writeByte(VAL_TIMESTAMP);
+			writeZigZag(((UsecTimestamp) value).getTimeUsec());
+		} else {
+			writeByte(VAL_STRING);
+			writeText(Utils.toString(value));
+		}
+	}
+
+	private void writeTag(int field, int wire) {
+		writeVarLong((field << WIRE_BITS) | wire);
+	}
+
+	private void writeSymbol(String value) {
+		if (symbols == null) {
+			symbols = new HashMap<String, Integer>();
+		}
+		Integer idx = symbols.get(value);
+		if (idx != null) {
+			writeVarLong(idx + 2L);
+		} else {
+			symbols.put(value, symbols.size());
+			writeVarLong(1);
+			writeUtf8(value);
+		}
+	}
+
+	private void writeText(String value) {
+		if (value == null) {
+			writeVarLong(0);
+		} else {
+			byte[] bytes = value.getBytes(BIN_CHARSET);
+			writeVarLong(bytes.length + 1L);
+			writeBytes(bytes);
+		}
+	}
+
+	private void writeUtf8(String value) {
+		byte[] bytes = toSymbolBytes(value);
+		writeVarLong(bytes.length);
+		writeBytes(bytes);
+	}
+
+	/**
+	 * Obtain encoded size of a given symbol definition
+	 *
+	 * @param value
+	 *            symbol value
+	 * @return number of bytes
+	 */
+	static int symbolSize(String value) {
+		int len = toSymbolBytes(value).length;
+		return len + varLongSize(len);
+	}
+
+	private static byte[] toSymbolBytes(String value) {
+		byte[] bytes = SYMBOL_BYTES.get(value);
+		if (bytes == null) {
+			bytes = value.getBytes(BIN_CHARSET);
+			if (value.length() <= MAX_SYMBOL_LEN) {
+				if (SYMBOL_BYTES.size() >= MAX_SYMBOL_CACHE) {
+					SYMBOL_BYTES.clear();
+				}
+				SYMBOL_BYTES.put(value, bytes);
+			}
+		}
+		return bytes;
+	}
+
+	private void writeZigZag(long value) {
+		writeVarLong((value << 1) ^ (value >> 63));
+	}
+
+	private void writeVarLong(long value) {
+		ensure(10);
+		while ((value & ~0x7FL) != 0) {
+			buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		buf[pos++] = (byte) value;
+	}
+
+	private void writeFixed(long value, int size) {
+		ensure(size);
+		for (int i = 0; i < size; i++) {
+			buf[pos++] = (byte) (value >>> (i * 8));
+		}
+	}
+
+	private void writeByte(int value) {
+		ensure(1);
+		buf[pos++] = (byte) value;
+	}
+
+	private void writeBytes(byte[] bytes) {
+		ensure(bytes.length);
+		System.arraycopy(bytes, 0, buf, pos, bytes.length);
+		pos += bytes.length;
+	}
+
+	private void ensure(int size) {
+		if (pos + size > buf.length) {
+			byte[] nbuf = new byte[Math.max(buf.length << 1, pos + size)];
+			System.arraycopy(buf, 0, nbuf, 0, pos);
+			buf = nbuf;
+		}
+	}
+
+	private static int varLongSize(long value) {
+		int size = 1;
+		while ((value & ~0x7FL) != 0) {
+			value >>>= 7;
+			size++;
+		}
+		return size;
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.format;
+
+import com.jkoolcloud.tnt4j.core.OpLevel;
+import com.jkoolcloud.tnt4j.core.Snapshot;
+import com.jkoolcloud.tnt4j.source.Source;
+import com.jkoolcloud.tnt4j.tracker.TrackingActivity;
+import com.jkoolcloud.tnt4j.tracker.TrackingEvent;
+
+/**
+ * <p>
+ * Classes that implement this interface provide implementation for the {@link ByteFormatter} interface. This
+ * interface allows formatting of tracking objects and log messages directly into a byte array, avoiding an
+ * intermediate string and its re-encoding by byte oriented sinks.
+ * </p>
+ *
+ *
+ * @version $Revision: 1 $
+ *
+ * @see EventFormatter
+ */
+public interface ByteFormatter extends EventFormatter {
+	/**
+	 * Format a given {@link TrackingEvent} and return a byte array
+	 *
+	 * @param event
+	 *            tracking event instance to be formatted
+	 * @return formatted tracking event
+	 * @see TrackingEvent
+	 */
+	byte[] toBytes(TrackingEvent event);
+
+	/**
+	 * Format a given {@link TrackingActivity} and return a byte array
+	 *
+	 * @param activity
+	 *            tracking activity instance to be formatted
+	 * @return formatted tracking activity
+	 * @see TrackingActivity
+	 */
+	byte[] toBytes(TrackingActivity activity);
+
+	/**
+	 * Format a given {@link Snapshot} and return a byte array
+	 *
+	 * @param snapshot
+	 *            snapshot object to be formatted
+	 * @return formatted snapshot
+	 * @see Snapshot
+	 */
+	byte[] toBytes(Snapshot snapshot);
+
+	/**
+	 * Format a given message and severity level combo and return a byte array
+	 *
+	 * @param ttl
+	 *            time to live in seconds
+	 * @param src
+	 *            event source
+	 * @param level
+	 *            severity level
+	 * @param msg
+	 *            message to be formatted
+	 * @param args
+	 *            arguments associated with the object
+	 * @return formatted message and severity
+	 * @see OpLevel
+	 */
+	byte[] toBytes(long ttl, Source src, OpLevel level, String msg, Object... args);
+
+	/**
+	 * Format a given object and return a byte array
+	 *
+	 * @param obj
+	 *            object to be formatted
+	 * @param args
+	 *            arguments associated with the object
+	 * @return formatted object
+	 */
+	byte[] toBytes(Object obj, Object... args);
+}
@@ -15,6 +15,7 @@
  */
 package com.jkoolcloud.tnt4j.format;
 
+import java.util.Arrays;
 import java.util.Map;
 import java.util.TimeZone;
 
@@ -41,7 +42,7 @@ import com.jkoolcloud.tnt4j.utils.Utils;
  * @see TrackingActivity
  * @see TrackingEvent
  */
-public class DefaultFormatter implements EventFormatter, Configurable {
+public class DefaultFormatter implements EventFormatter, Configurable, FormatterFingerprint {
 	public static final String SEPARATOR = System.getProperty("tnt4j.formatter.default.separator", " | ");
 
 	protected String separator = SEPARATOR;
@@ -49,6 +50,7 @@ public class DefaultFormatter implements EventFormatter, Configurable {
 	protected String formatString = "{2} | {1} | {0} | {3}";
 
 	private Map<String, ?> config = null;
+	private volatile Object fingerprint;
 
 	/**
 	 * Create a default event formatter
@@ -99,6 +101,8 @@ public class DefaultFormatter implements EventFormatter, Configurable {
 			return format((TrackingActivity) obj);
 		} else if (obj instanceof TrackingEvent) {
 			return format((TrackingEvent) obj);
+		} else if (obj instanceof FormattedMessage) {
+			return ((FormattedMessage) obj).getText();
 		} else {
 			return Utils.format(obj.toString(), args);
 		}
@@ -126,6 +130,15 @@ public class DefaultFormatter implements EventFormatter, Configurable {
 				srcName);
 	}
 
+	@Override
+	public Object getFingerprint() {
+		Object fp = fingerprint;
+		if (fp == null) {
+			fp = fingerprint = Arrays.asList(getClass(), separator, formatString, timeZone.getID(), config);
+		}
+		return fp;
+	}
+
 	@Override
 	public Map<String, ?> getConfiguration() {
 		return config;
@@ -139,5 +152,6 @@ public class DefaultFormatter implements EventFormatter, Configurable {
 		formatString = Utils.getString("Format", settings, formatString);
 		String tz = Utils.getString("TimeZone", settings, null);
 		timeZone = Utils.isEmpty(tz) ? TimeZone.getDefault() : TimeZone.getTimeZone(tz);
+		fingerprint = null;
 	}
 }
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.format;
+
+import com.jkoolcloud.tnt4j.core.Snapshot;
+import com.jkoolcloud.tnt4j.core.TTL;
+import com.jkoolcloud.tnt4j.tracker.TrackingActivity;
+import com.jkoolcloud.tnt4j.tracker.TrackingEvent;
+
+/**
+ * <p>
+ * This class implements a per object cache of formatted output, which lives for the duration of a single dispatch of
+ * a tracking object to one or more event sinks. When the same object is passed through several sinks (e.g.
+ * broadcasting or piped sinks) using equivalent formatters, the object is formatted once and the output is reused.
+ * </p>
+ *
+ * <p>
+ * Cache is bound to the current thread by {@link #begin(Object)} and released by {@link #end()}. Only sinks which
+ * dispatch the same object to several sinks begin a cache; without one, objects are formatted directly. Use
+ * {@link #current()} and {@link #swap(FormatCache)} to share the cache with other threads taking part in the same
+ * dispatch. Output is keyed by formatter fingerprint (see {@link FormatterFingerprint}) and time to live of the
+ * object at the time of formatting.
+ * </p>
+ *
+ * @version $Revision: 1 $
+ *
+ * @see FormatterFingerprint
+ */
+public class FormatCache {
+	private static final ThreadLocal<FormatCache> CURRENT = new ThreadLocal<FormatCache>();
+	private static final int INITIAL_SIZE = 2;
+
+	private final Object target;
+	private final FormatCache prev;
+	private Object[] keys;
+	private long[] ttls;
+	private String[] values;
+	private int size = 0;
+
+	private FormatCache(Object target, FormatCache prev) {
+		this.target = target;
+		this.prev = prev;
+	}
+
+	/**
+	 * Begin dispatch of a given object on the current thread.
+	 *
+	 * @param target
+	 *            object being dispatched
+	 * @return new cache bound to the current thread, {@code null} if dispatch of the object is already in progress
+	 */
+	public static FormatCache begin(Object target) {
+		FormatCache current = CURRENT.get();
+		if (current != null && current.target == target) {
+			return null;
+		}
+		FormatCache cache = new FormatCache(target, current);
+		CURRENT.set(cache);
+		return cache;
+	}
+
+	/**
+	 * End dispatch started by {@link #begin(Object)}, restoring cache which was bound to the current thread before.
+	 */
+	public void end() {
+		swap(prev);
+	}
+
+	/**
+	 * Obtain cache bound to the current thread
+	 *
+	 * @return cache bound to the current thread, {@code null} if none
+	 */
+	public static FormatCache current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Bind a given cache to the current thread
+	 *
+	 * @param cache
+	 *            cache to bind, {@code null} to unbind
+	 * @return cache previously bound to the current thread, {@code null} if none
+	 */
+	public static FormatCache swap(FormatCache cache) {
+		FormatCache current = CURRENT.get();
+		if (cache == null) {
+			CURRENT.remove();
+		} else {
+			CURRENT.set(cache);
+		}
+		return current;
+	}
+
+	/**
+	 * Format a given event using cached output if available.
+	 *
+	 * @param formatter
+	 *            event formatter
+	 * @param event
+	 *            tracking event to be formatted
+	 * @return formatted tracking event
+	 */
+	public static String format(EventFormatter formatter, TrackingEvent event) {
+		FormatCache cache = lookup(event);
+		if (cache == null) {
+			return formatter.format(event);
+		}
+		Object key = keyOf(formatter);
+		String value = cache.get(key, event.getTTL());
+		if (value == null) {
+			value = cache.put(key, event.getTTL(), formatter.format(event));
+		}
+		return value;
+	}
+
+	/**
+	 * Format a given activity using cached output if available.
+	 *
+	 * @param formatter
+	 *            event formatter
+	 * @param activity
+	 *            tracking activity to be formatted
+	 * @return formatted tracking activity
+	 */
+	public static String format(EventFormatter formatter, TrackingActivity activity) {
+		FormatCache cache = lookup(activity);
+		if (cache == null) {
+			return formatter.format(activity);
+		}
+		Object key = keyOf(formatter);
+		String value = cache.get(key, activity.getTTL());
+		if (value == null) {
+			value = cache.put(key, activity.getTTL(), formatter.format(activity));
+		}
+		return value;
+	}
+
+	/**
+	 * Format a given snapshot using cached output if available.
+	 *
+	 * @param formatter
+	 *            event formatter
+	 * @param snapshot
+	 *            snapshot to be formatted
+	 * @return formatted snapshot
+	 */
+	public static String format(EventFormatter formatter, Snapshot snapshot) {
+		FormatCache cache = lookup(snapshot);
+		if (cache == null) {
+			return formatter.format(snapshot);
+		}
+		Object key = keyOf(formatter);
+		String value = cache.get(key, snapshot.getTTL());
+		if (value == null) {
+			value = cache.put(key, snapshot.getTTL(), formatter.format(snapshot));
+		}
+		return value;
+	}
+
+	private static FormatCache lookup(TTL target) {
+		FormatCache cache = CURRENT.get();
+		return (cache != null && cache.target == target) ? cache : null;
+	}
+
+	private static Object keyOf(EventFormatter formatter) {
+		if (formatter instanceof FormatterFingerprint) {
+			Object fingerprint = ((FormatterFingerprint) formatter).getFingerprint();
+			if (fingerprint != null) {
+				return fingerprint;
+			}
+		}
+		return formatter;
+	}
+
+	private synchronized String get(Object key, long ttl) {
+		for (int i = 0; i < size; i++) {
+			if (ttls[i] == ttl && (keys[i] == key || keys[i].equals(key))) {
+				return values[i];
+			}
+		}
+		return null;
+	}
+
+	private synchronized String put(Object key, long ttl, String value) {
+		if (keys == null) {
+			keys = new Object[INITIAL_SIZE];
+			ttls = new long[INITIAL_SIZE];
+			values = new String[INITIAL_SIZE];
+		} else if (size == keys.length) {
+			Object[] nKeys = new Object[size * 2];
+			long[] nTtls = new long[size * 2];
+			String[] nValues = new String[size * 2];
+			System.arraycopy(keys, 0, nKeys, 0, size);
+			System.arraycopy(ttls, 0, nTtls, 0, size);
+			System.arraycopy(values, 0, nValues, 0, size);
+			keys = nKeys;
+			ttls = nTtls;
+			values = nValues;
+		}
+		keys[size] = key;
+		ttls[size] = ttl;
+		values[size] = value;
+		size++;
+		return value;
+	}
+}
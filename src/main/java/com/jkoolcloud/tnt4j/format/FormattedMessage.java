@@ -0,0 +1,89 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.format;
+
+import org.apache.commons.codec.binary.Base64;
+
+/**
+ * <p>
+ * This class holds output of an {@link EventFormatter} produced earlier, such as events spilled to disk while a sink
+ * was unavailable. Formatters pass formatted messages through as is, so re-delivered output is identical to original
+ * output. Message holds either text produced by {@code format()} methods or bytes produced by {@link ByteFormatter}.
+ * </p>
+ *
+ * @version $Revision: 1 $
+ *
+ * @see EventFormatter
+ * @see ByteFormatter
+ */
+public final class FormattedMessage {
+	private final String text;
+	private final byte[] bytes;
+
+	/**
+	 * Create a formatted message containing text
+	 *
+	 * @param text
+	 *            formatted text
+	 */
+	public FormattedMessage(String text) {
+		this.text = text;
+		this.bytes = null;
+	}
+
+	/**
+	 * Create a formatted message containing bytes produced by a {@link ByteFormatter}
+	 *
+	 * @param bytes
+	 *            formatted bytes
+	 */
+	public FormattedMessage(byte[] bytes) {
+		this.text = null;
+		this.bytes = bytes;
+	}
+
+	/**
+	 * Determine if message contains bytes produced by a {@link ByteFormatter}
+	 *
+	 * @return true if message contains bytes, false if message contains text
+	 */
+	public boolean isBinary() {
+		return bytes != null;
+	}
+
+	/**
+	 * Obtain formatted message bytes. Text is encoded as UTF-8.
+	 *
+	 * @return formatted message bytes
+	 */
+	public byte[] getBytes() {
+		return bytes != null ? bytes : text.getBytes(BinaryLabels.BIN_CHARSET);
+	}
+
+	/**
+	 * Obtain formatted message text. Bytes are encoded using Base64, same as {@link BinaryFormatter} does.
+	 *
+	 * @return formatted message text
+	 */
+	public String getText() {
+		return bytes != null ? Base64.encodeBase64String(bytes) : text;
+	}
+
+	@Override
+	public String toString() {
+		return getText();
+	}
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.format;
+
+/**
+ * <p>
+ * Classes that implement this interface provide implementation for the {@link FormatterFingerprint} interface.
+ * Fingerprint identifies formatter output: formatters with equal fingerprints must produce identical output for the
+ * same object. Formatters which do not implement this interface are only considered equivalent to themselves.
+ * </p>
+ *
+ *
+ * @version $Revision: 1 $
+ *
+ * @see FormatCache
+ */
+public interface FormatterFingerprint {
+	/**
+	 * Obtain formatter fingerprint. Returned object must implement {@code equals()} and {@code hashCode()}.
+	 *
+	 * @return formatter fingerprint
+	 */
+	Object getFingerprint();
+}
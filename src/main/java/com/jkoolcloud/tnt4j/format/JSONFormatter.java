@@ -15,6 +15,10 @@
  */
 package com.jkoolcloud.tnt4j.format;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
 import java.util.Map;
@@ -24,6 +28,7 @@ import org.apache.commons.lang3.StringUtils;
 
 import com.jkoolcloud.tnt4j.config.Configurable;
 import com.jkoolcloud.tnt4j.core.*;
+import com.jkoolcloud.tnt4j.source.DefaultSource;
 import com.jkoolcloud.tnt4j.source.DefaultSourceFactory;
 import com.jkoolcloud.tnt4j.source.Source;
 import com.jkoolcloud.tnt4j.source.SourceType;
@@ -35,7 +40,8 @@ import com.jkoolcloud.tnt4j.utils.Utils;
 /**
  * <p>
  * JSON implementation of {@link Formatter} interface provides default formatting of {@link TrackingActivity},
- * {@link TrackingEvent}, {@link Snapshot}, {@link Property} into JSON format.
+ * {@link TrackingEvent}, {@link Snapshot}, {@link Property} into JSON format. Large tracking objects can be written
+ * incrementally into an output stream using {@link StreamFormatter} methods.
  * </p>
  *
  *
@@ -48,7 +54,7 @@ import com.jkoolcloud.tnt4j.utils.Utils;
  * @see Property
  */
 
-public class JSONFormatter implements EventFormatter, Configurable, JSONLabels {
+public class JSONFormatter implements StreamFormatter, Configurable, FormatterFingerprint, JSONLabels {
 	private static final boolean NEWLINE_FORMAT = Boolean.getBoolean("tnt4j.formatter.json.newline");
 	protected static final String EMPTY_STR = "";
 	protected static final String EMPTY_PROP = "{}";
@@ -66,6 +72,7 @@ public class JSONFormatter implements EventFormatter, Configurable, JSONLabels {
 	protected static final String ARRAY_START_LINE = "[\n";
 
 	private Map<String, ?> config = null;
+	private volatile Object fingerprint;
 	protected boolean newLineFormat = true;
 	protected String defOpName = DEF_OP_NAME;
 	protected SpecNumbersHandling specialNumbersHandling = SpecNumbersHandling.SUPPRESS;
@@ -111,6 +118,8 @@ public class JSONFormatter implements EventFormatter, Configurable, JSONLabels {
 			return format((Snapshot) obj);
 		} else if (obj instanceof Property) {
 			return format((Property) obj);
+		} else if (obj instanceof FormattedMessage) {
+			return ((FormattedMessage) obj).getText();
 		} else {
 			StringBuilder jsonString = new StringBuilder(1024);
 			jsonString.append(START_JSON);
@@ -134,8 +143,31 @@ public class JSONFormatter implements EventFormatter, Configurable, JSONLabels {
 	 */
 	@Override
 	public String format(TrackingEvent event) {
-		StringBuilder jsonString = new StringBuilder(1024);
+		StringBuilder jsonString = formatHead(new StringBuilder(1024), event);
+		if (event.getOperation().getPropertyCount() > 0) {
+			jsonString.append(ATTR_JSON);
+			jsonString.append(JSON_PROPERTIES_LABEL).append(ATTR_SEP).append(ARRAY_START_JSON)
+					.append(itemsToJSON(event.getOperation().getProperties())).append(ARRAY_END);
+		}
+		if (event.getOperation().getSnapshotCount() > 0) {
+			jsonString.append(ATTR_JSON);
+			jsonString.append(JSON_SNAPSHOTS_LABEL).append(ATTR_SEP).append(ARRAY_START_JSON)
+					.append(itemsToJSON(event.getOperation().getSnapshots())).append(ARRAY_END);
+		}
+		jsonString.append(END_JSON);
+		return jsonString.toString();
+	}
 
+	/**
+	 * Format all attributes of a given {@link TrackingEvent} preceding its item arrays (properties, snapshots)
+	 *
+	 * @param jsonString
+	 *            string builder to format into
+	 * @param event
+	 *            tracking event instance to be formatted
+	 * @return string builder instance
+	 */
+	protected StringBuilder formatHead(StringBuilder jsonString, TrackingEvent event) {
 		jsonString.append(START_JSON);
 		if (!Utils.isEmpty(event.getTrackingId())) {
 			jsonString.append(JSON_TRACK_ID_LABEL).append(ATTR_SEP);
@@ -149,21 +181,7 @@ public class JSONFormatter implements EventFormatter, Configurable, JSONLabels {
 			jsonString.append(JSON_PARENT_TRACK_ID_LABEL).append(ATTR_SEP);
 			Utils.quote(event.getParentId(), jsonString).append(ATTR_JSON);
 		}
-		jsonString.append(JSON_SOURCE_LABEL).append(ATTR_SEP);
-		Utils.quote(StringEscapeUtils.escapeJson(event.getSource().getName()), jsonString).append(ATTR_JSON);
-		String ssn = getSSN(event.getSource());
-		if (!Utils.isEmpty(ssn)) {
-			String escaped = StringEscapeUtils.escapeJson(ssn); // escape double quote chars
-			jsonString.append(JSON_SOURCE_SSN_LABEL).append(ATTR_SEP);
-			Utils.quote(escaped, jsonString).append(ATTR_JSON);
-		}
-		jsonString.append(JSON_SOURCE_FQN_LABEL).append(ATTR_SEP);
-		Utils.quote(StringEscapeUtils.escapeJson(event.getSource().getFQName()), jsonString).append(ATTR_JSON);
-		if (!Utils.isEmpty(event.getSource().getUrl())) {
-			String escaped = StringEscapeUtils.escapeJson(event.getSource().getUrl()); // escape double quote chars
-			jsonString.append(JSON_SOURCE_URL_LABEL).append(ATTR_SEP);
-			Utils.quote(escaped, jsonString).append(ATTR_JSON);
-		}
+		appendSource(jsonString, event.getSource());
 		if (event.get2(TrackingEvent.OBJ_ONE) != null) {
 			// we have a relation
 			jsonString.append(JSON_RELATE_TYPE_LABEL).append(ATTR_SEP);
@@ -269,32 +287,49 @@ public class JSONFormatter implements EventFormatter, Configurable, JSONLabels {
 			jsonString.append(JSON_MSG_TAG_LABEL).append(ATTR_SEP).append(ARRAY_START_JSON)
 					.append(itemsToJSON(event.getTag())).append(ARRAY_END);
 		}
-		if (propCount > 0) {
+		return jsonString;
+	}
+
+	/**
+	 * Format a given {@link TrackingActivity} into JSON format
+	 *
+	 * @param activity
+	 *            tracking activity instance to be formatted
+	 * @see TrackingActivity
+	 */
+	@Override
+	public String format(TrackingActivity activity) {
+		StringBuilder jsonString = formatHead(new StringBuilder(1024), activity);
+		if (activity.getIdCount() > 0) {
+			jsonString.append(ATTR_JSON);
+			jsonString.append(JSON_ID_SET_LABEL).append(ATTR_SEP).append(ARRAY_START_JSON)
+					.append(itemsToJSON(activity.getIds())).append(ARRAY_END);
+		}
+		if (activity.getPropertyCount() > 0) {
 			jsonString.append(ATTR_JSON);
 			jsonString.append(JSON_PROPERTIES_LABEL).append(ATTR_SEP).append(ARRAY_START_JSON)
-					.append(itemsToJSON(event.getOperation().getProperties())).append(ARRAY_END);
+					.append(itemsToJSON(activity.getProperties())).append(ARRAY_END);
 		}
-		if (snapCount > 0) {
+		if (activity.getSnapshotCount() > 0) {
 			jsonString.append(ATTR_JSON);
 			jsonString.append(JSON_SNAPSHOTS_LABEL).append(ATTR_SEP).append(ARRAY_START_JSON)
-					.append(itemsToJSON(event.getOperation().getSnapshots())).append(ARRAY_END);
+					.append(itemsToJSON(activity.getSnapshots())).append(ARRAY_END);
 		}
 		jsonString.append(END_JSON);
 		return jsonString.toString();
 	}
 
 	/**
-	 * Format a given {@link TrackingActivity} into JSON format
+	 * Format all attributes of a given {@link TrackingActivity} preceding its item arrays (ids, properties, snapshots)
 	 *
+	 * @param jsonString
+	 *            string builder to format into
 	 * @param activity
 	 *            tracking activity instance to be formatted
-	 * @see TrackingActivity
+	 * @return string builder instance
 	 */
-	@Override
-	public String format(TrackingActivity activity) {
-		StringBuilder jsonString = new StringBuilder(1024);
+	protected StringBuilder formatHead(StringBuilder jsonString, TrackingActivity activity) {
 		String START_JSON = newLineFormat ? START_LINE : START;
-		String END_JSON = newLineFormat ? END_LINE : END;
 		String ATTR_JSON = newLineFormat ? ATTR_END_LINE : ATTR_END;
 
 		jsonString.append(START_JSON);
@@ -310,22 +345,7 @@ public class JSONFormatter implements EventFormatter, Configurable, JSONLabels {
 			jsonString.append(JSON_PARENT_TRACK_ID_LABEL).append(ATTR_SEP);
 			Utils.quote(activity.getParentId(), jsonString).append(ATTR_JSON);
 		}
-		jsonString.append(JSON_SOURCE_LABEL).append(ATTR_SEP);
-		Utils.quote(StringEscapeUtils.escapeJson(activity.getSource().getName()), jsonString).append(ATTR_JSON);
-		String ssn = getSSN(activity.getSource());
-		if (!Utils.isEmpty(ssn)) {
-			String escaped = StringEscapeUtils.escapeJson(ssn); // escape double quote chars
-			jsonString.append(JSON_SOURCE_SSN_LABEL).append(ATTR_SEP);
-			Utils.quote(escaped, jsonString).append(ATTR_JSON);
-		}
-		jsonString.append(JSON_SOURCE_FQN_LABEL).append(ATTR_SEP);
-		Utils.quote(StringEscapeUtils.escapeJson(activity.getSource().getFQName()), jsonString).append(ATTR_JSON);
-
-		if (!Utils.isEmpty(activity.getSource().getUrl())) {
-			String escaped = StringEscapeUtils.escapeJson(activity.getSource().getUrl()); // escape double quote chars
-			jsonString.append(JSON_SOURCE_URL_LABEL).append(ATTR_SEP);
-			Utils.quote(escaped, jsonString).append(ATTR_JSON);
-		}
+		appendSource(jsonString, activity.getSource());
 		jsonString.append(JSON_STATUS_LABEL).append(ATTR_SEP);
 		Utils.quote(activity.getStatus(), jsonString).append(ATTR_JSON);
 		jsonString.append(JSON_SEVERITY_LABEL).append(ATTR_SEP);
@@ -396,23 +416,7 @@ public class JSONFormatter implements EventFormatter, Configurable, JSONLabels {
 			jsonString.append(JSON_CORR_ID_LABEL).append(ATTR_SEP).append(ARRAY_START_JSON)
 					.append(itemsToJSON(activity.getCorrelator())).append(ARRAY_END);
 		}
-		if (activity.getIdCount() > 0) {
-			jsonString.append(ATTR_JSON);
-			jsonString.append(JSON_ID_SET_LABEL).append(ATTR_SEP).append(ARRAY_START_JSON)
-					.append(itemsToJSON(activity.getIds())).append(ARRAY_END);
-		}
-		if (activity.getPropertyCount() > 0) {
-			jsonString.append(ATTR_JSON);
-			jsonString.append(JSON_PROPERTIES_LABEL).append(ATTR_SEP).append(ARRAY_START_JSON)
-					.append(itemsToJSON(activity.getProperties())).append(ARRAY_END);
-		}
-		if (activity.getSnapshotCount() > 0) {
-			jsonString.append(ATTR_JSON);
-			jsonString.append(JSON_SNAPSHOTS_LABEL).append(ATTR_SEP).append(ARRAY_START_JSON)
-					.append(itemsToJSON(activity.getSnapshots())).append(ARRAY_END);
-		}
-		jsonString.append(END_JSON);
-		return jsonString.toString();
+		return jsonString;
 	}
 
 	/**
@@ -424,9 +428,27 @@ public class JSONFormatter implements EventFormatter, Configurable, JSONLabels {
 	 */
 	@Override
 	public String format(Snapshot snap) {
-		StringBuilder jsonString = new StringBuilder(1024);
-		jsonString.append(START_JSON);
+		StringBuilder jsonString = formatHead(new StringBuilder(1024), snap);
+		if (snap.size() > 0) {
+			jsonString.append(ATTR_JSON);
+			jsonString.append(JSON_PROPERTIES_LABEL).append(ATTR_SEP).append(ARRAY_START_JSON)
+					.append(itemsToJSON(snap.getSnapshot())).append(ARRAY_END);
+		}
+		jsonString.append(END_JSON);
+		return jsonString.toString();
+	}
 
+	/**
+	 * Format all attributes of a given {@link Snapshot} preceding its properties array
+	 *
+	 * @param jsonString
+	 *            string builder to format into
+	 * @param snap
+	 *            snapshot instance to be formatted
+	 * @return string builder instance
+	 */
+	protected StringBuilder formatHead(StringBuilder jsonString, Snapshot snap) {
+		jsonString.append(START_JSON);
 		if (!Utils.isEmpty(snap.getTrackingId())) {
 			jsonString.append(JSON_TRACK_ID_LABEL).append(ATTR_SEP);
 			Utils.quote(snap.getTrackingId(), jsonString).append(ATTR_JSON);
@@ -460,21 +482,7 @@ public class JSONFormatter implements EventFormatter, Configurable, JSONLabels {
 
 		Source source = snap.getSource();
 		if (source != null) {
-			jsonString.append(JSON_SOURCE_LABEL).append(ATTR_SEP);
-			Utils.quote(StringEscapeUtils.escapeJson(source.getName()), jsonString).append(ATTR_JSON);
-			String ssn = getSSN(source);
-			if (!Utils.isEmpty(ssn)) {
-				String escaped = StringEscapeUtils.escapeJson(ssn); // escape double quote chars
-				jsonString.append(JSON_SOURCE_SSN_LABEL).append(ATTR_SEP);
-				Utils.quote(escaped, jsonString).append(ATTR_JSON);
-			}
-			jsonString.append(JSON_SOURCE_FQN_LABEL).append(ATTR_SEP);
-			Utils.quote(StringEscapeUtils.escapeJson(source.getFQName()), jsonString).append(ATTR_JSON);
-			if (!Utils.isEmpty(source.getUrl())) {
-				String escaped = StringEscapeUtils.escapeJson(source.getUrl()); // escape double quote chars
-				jsonString.append(JSON_SOURCE_URL_LABEL).append(ATTR_SEP);
-				Utils.quote(escaped, jsonString).append(ATTR_JSON);
-			}
+			appendSource(jsonString, source);
 		}
 		jsonString.append(JSON_SEVERITY_LABEL).append(ATTR_SEP);
 		Utils.quote(snap.getSeverity(), jsonString).append(ATTR_JSON);
@@ -483,13 +491,118 @@ public class JSONFormatter implements EventFormatter, Configurable, JSONLabels {
 		jsonString.append(JSON_TYPE_LABEL).append(ATTR_SEP);
 		Utils.quote(snap.getType(), jsonString).append(ATTR_JSON);
 		jsonString.append(JSON_TYPE_NO_LABEL).append(ATTR_SEP).append(snap.getType().ordinal());
+		return jsonString;
+	}
+
+	@Override
+	public long write(TrackingEvent event, OutputStream out) throws IOException {
+		StreamWriter writer = StreamWriter.newWriter(out);
+		writer.append(formatHead(new StringBuilder(1024), event));
+		if (event.getOperation().getPropertyCount() > 0) {
+			writeItems(writer, JSON_PROPERTIES_LABEL, event.getOperation().getProperties());
+		}
+		if (event.getOperation().getSnapshotCount() > 0) {
+			writeItems(writer, JSON_SNAPSHOTS_LABEL, event.getOperation().getSnapshots());
+		}
+		writer.write(END_JSON);
+		return writer.finish();
+	}
+
+	@Override
+	public long write(TrackingActivity activity, OutputStream out) throws IOException {
+		StreamWriter writer = StreamWriter.newWriter(out);
+		writer.append(formatHead(new StringBuilder(1024), activity));
+		if (activity.getIdCount() > 0) {
+			writeItems(writer, JSON_ID_SET_LABEL, activity.getIds());
+		}
+		if (activity.getPropertyCount() > 0) {
+			writeItems(writer, JSON_PROPERTIES_LABEL, activity.getProperties());
+		}
+		if (activity.getSnapshotCount() > 0) {
+			writeItems(writer, JSON_SNAPSHOTS_LABEL, activity.getSnapshots());
+		}
+		writer.write(END_JSON);
+		return writer.finish();
+	}
+
+	@Override
+	public long write(Snapshot snapshot, OutputStream out) throws IOException {
+		StreamWriter writer = StreamWriter.newWriter(out);
+		writeSnapshot(writer, snapshot);
+		return writer.finish();
+	}
+
+	/**
+	 * Write a given {@link Snapshot} one property at a time. Produces same JSON as {@link #format(Snapshot)}.
+	 *
+	 * @param writer
+	 *            writer to write to
+	 * @param snap
+	 *            snapshot instance to be written
+	 * @throws IOException
+	 *             if error occurs while writing
+	 */
+	protected void writeSnapshot(Writer writer, Snapshot snap) throws IOException {
+		writer.append(formatHead(new StringBuilder(512), snap));
 		if (snap.size() > 0) {
-			jsonString.append(ATTR_JSON);
-			jsonString.append(JSON_PROPERTIES_LABEL).append(ATTR_SEP).append(ARRAY_START_JSON)
-					.append(itemsToJSON(snap.getSnapshot())).append(ARRAY_END);
+			writeItems(writer, JSON_PROPERTIES_LABEL, snap.getSnapshot());
+		}
+		writer.write(END_JSON);
+	}
+
+	/**
+	 * Write labeled JSON array of given {@code items} one item at a time.
+	 *
+	 * @param writer
+	 *            writer to write to
+	 * @param label
+	 *            array label
+	 * @param items
+	 *            collection of activity entity items
+	 * @throws IOException
+	 *             if error occurs while writing
+	 */
+	protected void writeItems(Writer writer, String label, Collection<?> items) throws IOException {
+		writer.write(ATTR_JSON);
+		writer.write(label);
+		writer.write(ATTR_SEP);
+		writer.write(ARRAY_START_JSON);
+		writeItems(writer, items);
+		writer.write(ARRAY_END);
+	}
+
+	/**
+	 * Write delimited JSON array elements of given {@code items} one item at a time. Snapshots are written one
+	 * property at a time using {@link #writeSnapshot(Writer, Snapshot)}, all other items are formatted using
+	 * {@link #itemToJSON(Object)}.
+	 *
+	 * @param writer
+	 *            writer to write to
+	 * @param items
+	 *            collection of activity entity items
+	 * @throws IOException
+	 *             if error occurs while writing
+	 */
+	protected void writeItems(Writer writer, Collection<?> items) throws IOException {
+		boolean first = true;
+		for (Object item : items) {
+			if (item instanceof Snapshot) {
+				if (!first) {
+					writer.write(ATTR_JSON);
+				}
+				writeSnapshot(writer, (Snapshot) item);
+				first = false;
+			} else {
+				String itemJSON = itemToJSON(item);
+				if (StringUtils.isNotEmpty(itemJSON)) {
+					if (!first) {
+						writer.write(ATTR_JSON);
+					}
+					writer.write(itemJSON);
+					first = false;
+				}
+			}
 		}
-		jsonString.append(END_JSON);
-		return jsonString.toString();
 	}
 
 	/**
@@ -640,22 +753,8 @@ public class JSONFormatter implements EventFormatter, Configurable, JSONLabels {
 		Utils.quote(defOpName, jsonString).append(ATTR_JSON);
 
 		if (source != null) {
-			jsonString.append(JSON_SOURCE_LABEL).append(ATTR_SEP);
-			Utils.quote(StringEscapeUtils.escapeJson(source.getName()), jsonString).append(ATTR_JSON);
-			String ssn = getSSN(source);
-			if (!Utils.isEmpty(ssn)) {
-				String escaped = StringEscapeUtils.escapeJson(ssn); // escape double quote chars
-				jsonString.append(JSON_SOURCE_SSN_LABEL).append(ATTR_SEP);
-				Utils.quote(escaped, jsonString).append(ATTR_JSON);
-			}
-			jsonString.append(JSON_SOURCE_FQN_LABEL).append(ATTR_SEP);
-			Utils.quote(StringEscapeUtils.escapeJson(source.getFQName()), jsonString);
-			if (!Utils.isEmpty(source.getUrl())) {
-				jsonString.append(ATTR_JSON);
-				String escaped = StringEscapeUtils.escapeJson(source.getUrl()); // escape double quote chars
-				jsonString.append(JSON_SOURCE_URL_LABEL).append(ATTR_SEP);
-				Utils.quote(escaped, jsonString);
-			}
+			appendSource(jsonString, source);
+			jsonString.setLength(jsonString.length() - ATTR_JSON.length()); // drop trailing separator
 			Source geoloc = source.getSource(SourceType.GEOADDR);
 			if (geoloc != null) {
 				jsonString.append(ATTR_JSON);
@@ -694,19 +793,7 @@ public class JSONFormatter implements EventFormatter, Configurable, JSONLabels {
 		}
 		StringBuilder jsonString = new StringBuilder(2048);
 		for (Object item : items) {
-			String itemJSON;
-			if (item instanceof TrackingEvent) {
-				itemJSON = format((TrackingEvent) item);
-			} else if (item instanceof TrackingActivity) {
-				itemJSON = format((TrackingActivity) item);
-			} else if (item instanceof Snapshot) {
-				itemJSON = format((Snapshot) item);
-			} else if (item instanceof Property) {
-				itemJSON = format((Property) item);
-			} else {
-				itemJSON = Utils.quote(StringEscapeUtils.escapeJson(Utils.toString(item))); // escape double quote chars
-			}
-
+			String itemJSON = itemToJSON(item);
 			if (StringUtils.isNotEmpty(itemJSON)) {
 				addDelimiterOnDemand(jsonString, ATTR_JSON);
 				jsonString.append(itemJSON);
@@ -715,6 +802,27 @@ public class JSONFormatter implements EventFormatter, Configurable, JSONLabels {
 		return jsonString.toString();
 	}
 
+	/**
+	 * Builds string representation of a single activity entity item.
+	 *
+	 * @param item
+	 *            activity entity item
+	 * @return string representation of activity entity item
+	 */
+	protected String itemToJSON(Object item) {
+		if (item instanceof TrackingEvent) {
+			return format((TrackingEvent) item);
+		} else if (item instanceof TrackingActivity) {
+			return format((TrackingActivity) item);
+		} else if (item instanceof Snapshot) {
+			return format((Snapshot) item);
+		} else if (item instanceof Property) {
+			return format((Property) item);
+		} else {
+			return Utils.quote(StringEscapeUtils.escapeJson(Utils.toString(item))); // escape double quote chars
+		}
+	}
+
 	private static void addDelimiterOnDemand(StringBuilder json, String delimiter) {
 		if (StringUtils.isEmpty(json) || StringUtils.isEmpty(delimiter)) {
 			return;
@@ -725,6 +833,15 @@ public class JSONFormatter implements EventFormatter, Configurable, JSONLabels {
 		}
 	}
 
+	@Override
+	public Object getFingerprint() {
+		Object fp = fingerprint;
+		if (fp == null) {
+			fp = fingerprint = Arrays.asList(getClass(), newLineFormat, defOpName, specialNumbersHandling, config);
+		}
+		return fp;
+	}
+
 	@Override
 	public Map<String, ?> getConfiguration() {
 		return config;
@@ -742,6 +859,50 @@ public class JSONFormatter implements EventFormatter, Configurable, JSONLabels {
 			specialNumbersHandling = SpecNumbersHandling.SUPPRESS;
 		}
 		initTags();
+		fingerprint = null;
+	}
+
+	/**
+	 * Appends source block (name, SSN, FQN and URL attributes, each followed by attribute separator) of a given
+	 * {@code source}. Block is escaped once and cached within {@link DefaultSource} instances, since sources are long
+	 * lived and repeat in every formatted message.
+	 *
+	 * @param jsonString
+	 *            string builder to append source block to
+	 * @param source
+	 *            source instance
+	 * @return string builder instance
+	 */
+	protected StringBuilder appendSource(StringBuilder jsonString, Source source) {
+		String ssn = getSSN(source);
+		if (source instanceof DefaultSource) {
+			DefaultSource dSource = (DefaultSource) source;
+			String fragment = dSource.getFragment(ATTR_JSON, ssn);
+			if (fragment == null) {
+				fragment = buildSource(new StringBuilder(256), source, ssn).toString();
+				dSource.setFragment(ATTR_JSON, ssn, fragment);
+			}
+			return jsonString.append(fragment);
+		}
+		return buildSource(jsonString, source, ssn);
+	}
+
+	private StringBuilder buildSource(StringBuilder jsonString, Source source, String ssn) {
+		jsonString.append(JSON_SOURCE_LABEL).append(ATTR_SEP);
+		Utils.quote(StringEscapeUtils.escapeJson(source.getName()), jsonString).append(ATTR_JSON);
+		if (!Utils.isEmpty(ssn)) {
+			String escaped = StringEscapeUtils.escapeJson(ssn); // escape double quote chars
+			jsonString.append(JSON_SOURCE_SSN_LABEL).append(ATTR_SEP);
+			Utils.quote(escaped, jsonString).append(ATTR_JSON);
+		}
+		jsonString.append(JSON_SOURCE_FQN_LABEL).append(ATTR_SEP);
+		Utils.quote(StringEscapeUtils.escapeJson(source.getFQName()), jsonString).append(ATTR_JSON);
+		if (!Utils.isEmpty(source.getUrl())) {
+			String escaped = StringEscapeUtils.escapeJson(source.getUrl()); // escape double quote chars
+			jsonString.append(JSON_SOURCE_URL_LABEL).append(ATTR_SEP);
+			Utils.quote(escaped, jsonString).append(ATTR_JSON);
+		}
+		return jsonString;
 	}
 
 	/**
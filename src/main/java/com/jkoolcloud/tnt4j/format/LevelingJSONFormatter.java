@@ -16,6 +16,9 @@
 
 package com.jkoolcloud.tnt4j.format;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
 import java.util.*;
 
 import org.apache.commons.lang3.StringEscapeUtils;
@@ -47,6 +50,8 @@ import com.jkoolcloud.tnt4j.utils.Utils;
  * <li>ValueReplacements - property value string replacement fragments having format: "original1"-&gt;"replacement1"
  * "original2"-&gt;"replacement2" ... "originalX"-&gt;"replacementX". Default value - {@code ""}.</li>
  * </ul>
+ * <p>
+ * Streamed output ({@code write} methods) uses the same leveled layout as {@code format} methods.
  *
  * @version $Revision: 1 $
  *
@@ -88,8 +93,51 @@ public class LevelingJSONFormatter extends JSONFormatter {
 			return super.format(event);
 		}
 
-		StringBuilder jsonString = new StringBuilder(1024);
+		StringBuilder jsonString = formatLeveledHead(new StringBuilder(1024), event);
+		if (event.getOperation().getPropertyCount() > 0) {
+			jsonString.append(JSON_PROPERTIES_LABEL).append(ATTR_SEP).append(ARRAY_START_JSON)
+					.append(itemsToJSON(getProperties(event.getOperation()))).append(ARRAY_END);
+		}
+		if (event.getOperation().getSnapshotCount() > 0) {
+			jsonString.append(JSON_SNAPSHOTS_LABEL).append(ATTR_SEP).append(ARRAY_START_JSON)
+					.append(itemsToJSON(getSnapshots(event.getOperation()))).append(ARRAY_END);
+		}
+
+		jsonString.append(END_JSON);
+		return jsonString.toString();
+	}
 
+	@Override
+	public long write(TrackingEvent event, OutputStream out) throws IOException {
+		if (level == 9) {
+			return super.write(event, out);
+		}
+
+		StreamWriter writer = StreamWriter.newWriter(out);
+		writer.append(formatLeveledHead(new StringBuilder(1024), event));
+		if (event.getOperation().getPropertyCount() > 0) {
+			writeLeveledItems(writer, JSON_PROPERTIES_LABEL, ARRAY_START_JSON, getProperties(event.getOperation()),
+					ARRAY_END);
+		}
+		if (event.getOperation().getSnapshotCount() > 0) {
+			writeLeveledItems(writer, JSON_SNAPSHOTS_LABEL, ARRAY_START_JSON, getSnapshots(event.getOperation()),
+					ARRAY_END);
+		}
+		writer.write(END_JSON);
+		return writer.finish();
+	}
+
+	/**
+	 * Format leveled attributes of a given {@link TrackingEvent} preceding its item arrays (properties, snapshots).
+	 * Event self snapshot is added to event operation.
+	 *
+	 * @param jsonString
+	 *            string builder to format into
+	 * @param event
+	 *            tracking event instance to be formatted
+	 * @return string builder instance
+	 */
+	protected StringBuilder formatLeveledHead(StringBuilder jsonString, TrackingEvent event) {
 		jsonString.append(START_JSON);
 		jsonString.append(JSON_SOURCE_LABEL).append(ATTR_SEP);
 		Utils.quote(StringEscapeUtils.escapeJson(event.getSource().getName()), jsonString).append(ATTR_JSON);
@@ -122,17 +170,23 @@ public class LevelingJSONFormatter extends JSONFormatter {
 		}
 
 		event.getOperation().addSnapshot(selfSnapshot);
+		return jsonString;
+	}
 
-		int snapCount = event.getOperation().getSnapshotCount();
-		int propCount = event.getOperation().getPropertyCount();
+	@Override
+	public String format(TrackingActivity activity) {
+		if (level == 9) {
+			return super.format(activity);
+		}
 
-		if (propCount > 0) {
+		StringBuilder jsonString = formatLeveledHead(new StringBuilder(1024), activity);
+		if (activity.getPropertyCount() > 0) {
 			jsonString.append(JSON_PROPERTIES_LABEL).append(ATTR_SEP).append(ARRAY_START_JSON)
-					.append(itemsToJSON(getProperties(event.getOperation()))).append(ARRAY_END);
+					.append(itemsToJSON(getProperties(activity))).append(ARRAY_END);
 		}
-		if (snapCount > 0) {
+		if (activity.getSnapshotCount() > 0) {
 			jsonString.append(JSON_SNAPSHOTS_LABEL).append(ATTR_SEP).append(ARRAY_START_JSON)
-					.append(itemsToJSON(getSnapshots(event.getOperation()))).append(ARRAY_END);
+					.append(itemsToJSON(getSnapshots(activity))).append(ARRAY_END);
 		}
 
 		jsonString.append(END_JSON);
@@ -140,16 +194,34 @@ public class LevelingJSONFormatter extends JSONFormatter {
 	}
 
 	@Override
-	public String format(TrackingActivity activity) {
+	public long write(TrackingActivity activity, OutputStream out) throws IOException {
 		if (level == 9) {
-			return super.format(activity);
+			return super.write(activity, out);
 		}
 
-		StringBuilder jsonString = new StringBuilder(1024);
-		String START_JSON = newLineFormat ? START_LINE : START;
-		String END_JSON = newLineFormat ? END_LINE : END;
-		String ATTR_JSON = newLineFormat ? ATTR_END_LINE : ATTR_END;
+		StreamWriter writer = StreamWriter.newWriter(out);
+		writer.append(formatLeveledHead(new StringBuilder(1024), activity));
+		if (activity.getPropertyCount() > 0) {
+			writeLeveledItems(writer, JSON_PROPERTIES_LABEL, ARRAY_START_JSON, getProperties(activity), ARRAY_END);
+		}
+		if (activity.getSnapshotCount() > 0) {
+			writeLeveledItems(writer, JSON_SNAPSHOTS_LABEL, ARRAY_START_JSON, getSnapshots(activity), ARRAY_END);
+		}
+		writer.write(END_JSON);
+		return writer.finish();
+	}
 
+	/**
+	 * Format leveled attributes of a given {@link TrackingActivity} preceding its item arrays (properties,
+	 * snapshots). Activity self snapshot is added to activity.
+	 *
+	 * @param jsonString
+	 *            string builder to format into
+	 * @param activity
+	 *            tracking activity instance to be formatted
+	 * @return string builder instance
+	 */
+	protected StringBuilder formatLeveledHead(StringBuilder jsonString, TrackingActivity activity) {
 		jsonString.append(START_JSON);
 		jsonString.append(JSON_SOURCE_LABEL).append(ATTR_SEP);
 		Utils.quote(StringEscapeUtils.escapeJson(activity.getSource().getName()), jsonString).append(ATTR_JSON);
@@ -175,18 +247,7 @@ public class LevelingJSONFormatter extends JSONFormatter {
 		selfSnapshot.add(JSON_ID_COUNT_FIELD, activity.getIdCount());
 
 		activity.addSnapshot(selfSnapshot);
-
-		if (activity.getPropertyCount() > 0) {
-			jsonString.append(JSON_PROPERTIES_LABEL).append(ATTR_SEP).append(ARRAY_START_JSON)
-					.append(itemsToJSON(getProperties(activity))).append(ARRAY_END);
-		}
-		if (activity.getSnapshotCount() > 0) {
-			jsonString.append(JSON_SNAPSHOTS_LABEL).append(ATTR_SEP).append(ARRAY_START_JSON)
-					.append(itemsToJSON(getSnapshots(activity))).append(ARRAY_END);
-		}
-
-		jsonString.append(END_JSON);
-		return jsonString.toString();
+		return jsonString;
 	}
 
 	private Snapshot getSelfSnapshot(Operation op) {
@@ -219,25 +280,43 @@ public class LevelingJSONFormatter extends JSONFormatter {
 			return super.format(snapshot);
 		}
 
-		StringBuilder jsonString = new StringBuilder(1024);
+		StringBuilder jsonString = formatLeveledHead(new StringBuilder(1024), snapshot);
+		if (snapshot.size() > 0) {
+			jsonString.append(JSON_PROPERTIES_LABEL).append(ATTR_SEP).append(START_JSON)
+					.append(itemsToJSON(getProperties(snapshot))).append(END_JSON);
+		}
+		jsonString.append(END_JSON);
+		return jsonString.toString();
+	}
+
+	@Override
+	protected void writeSnapshot(Writer writer, Snapshot snapshot) throws IOException {
+		if (level == 9) {
+			super.writeSnapshot(writer, snapshot);
+			return;
+		}
+
+		writer.append(formatLeveledHead(new StringBuilder(256), snapshot));
+		if (snapshot.size() > 0) {
+			writeLeveledItems(writer, JSON_PROPERTIES_LABEL, START_JSON, getProperties(snapshot), END_JSON);
+		}
+		writer.write(END_JSON);
+	}
+
+	/**
+	 * Format leveled attributes of a given {@link Snapshot} preceding its properties.
+	 *
+	 * @param jsonString
+	 *            string builder to format into
+	 * @param snapshot
+	 *            snapshot instance to be formatted
+	 * @return string builder instance
+	 */
+	protected StringBuilder formatLeveledHead(StringBuilder jsonString, Snapshot snapshot) {
 		jsonString.append(START_JSON);
 		Source source = snapshot.getSource();
 		if (source != null) {
-			jsonString.append(JSON_SOURCE_LABEL).append(ATTR_SEP);
-			Utils.quote(StringEscapeUtils.escapeJson(source.getName()), jsonString).append(ATTR_JSON);
-			String ssn = getSSN(source);
-			if (!Utils.isEmpty(ssn)) {
-				String escaped = StringEscapeUtils.escapeJson(ssn); // escape double quote chars
-				jsonString.append(JSON_SOURCE_SSN_LABEL).append(ATTR_SEP);
-				Utils.quote(escaped, jsonString).append(ATTR_JSON);
-			}
-			jsonString.append(JSON_SOURCE_FQN_LABEL).append(ATTR_SEP);
-			Utils.quote(StringEscapeUtils.escapeJson(source.getFQName()), jsonString).append(ATTR_JSON);
-			if (!Utils.isEmpty(source.getUrl())) {
-				String escaped = StringEscapeUtils.escapeJson(source.getUrl()); // escape double quote chars
-				jsonString.append(JSON_SOURCE_URL_LABEL).append(ATTR_SEP);
-				Utils.quote(escaped, jsonString).append(ATTR_JSON);
-			}
+			appendSource(jsonString, source);
 		}
 		jsonString.append(JSON_TYPE_LABEL).append(ATTR_SEP);
 		Utils.quote(snapshot.getType(), jsonString).append(ATTR_JSON);
@@ -247,12 +326,32 @@ public class LevelingJSONFormatter extends JSONFormatter {
 			jsonString.append(JSON_NAME_LABEL).append(ATTR_SEP);
 			Utils.quote(escaped, jsonString).append(ATTR_JSON);
 		}
-		if (snapshot.size() > 0) {
-			jsonString.append(JSON_PROPERTIES_LABEL).append(ATTR_SEP).append(START_JSON)
-					.append(itemsToJSON(getProperties(snapshot))).append(END_JSON);
-		}
-		jsonString.append(END_JSON);
-		return jsonString.toString();
+		return jsonString;
+	}
+
+	/**
+	 * Write labeled leveled block of given {@code items} one item at a time.
+	 *
+	 * @param writer
+	 *            writer to write to
+	 * @param label
+	 *            block label
+	 * @param start
+	 *            block start token
+	 * @param items
+	 *            collection of activity entity items
+	 * @param end
+	 *            block end token
+	 * @throws IOException
+	 *             if error occurs while writing
+	 */
+	private void writeLeveledItems(Writer writer, String label, String start, Collection<?> items, String end)
+			throws IOException {
+		writer.write(label);
+		writer.write(ATTR_SEP);
+		writer.write(start);
+		writeItems(writer, items);
+		writer.write(end);
 	}
 
 	@Override
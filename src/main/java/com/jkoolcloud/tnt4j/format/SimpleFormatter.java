@@ -15,6 +15,9 @@
  */
 package com.jkoolcloud.tnt4j.format;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
 import java.util.Collection;
 import java.util.Set;
 import java.util.TimeZone;
@@ -33,7 +36,8 @@ import com.jkoolcloud.tnt4j.utils.Utils;
  * Simple implementation of {@link Formatter} interface provides simple/minimal formatting of {@link TrackingActivity}
  * and {@code TrackingEvent} as well as any object passed to {@code format()} method call. Event entries are formatted
  * as follows: {@code event-text-msg {event-tracking-info}} where {@code event-tracking-info} consists of
- * {@code "name: value"} pairs.
+ * {@code "name: value"} pairs. Snapshots and properties of large tracking objects can be written one at a time into an
+ * output stream using {@link StreamFormatter} methods.
  * </p>
  * 
  * 
@@ -44,7 +48,7 @@ import com.jkoolcloud.tnt4j.utils.Utils;
  * @see TrackingEvent
  */
 
-public class SimpleFormatter extends DefaultFormatter {
+public class SimpleFormatter extends DefaultFormatter implements StreamFormatter {
 
 	/**
 	 * Create a simple event formatter with default setting. Format: "{2} | {1} | {0}", TimeZone: UTC.
@@ -74,7 +78,95 @@ public class SimpleFormatter extends DefaultFormatter {
 
 	@Override
 	public String format(TrackingEvent event) {
-		StringBuilder msg = new StringBuilder(1024);
+		StringBuilder msg = formatHead(new StringBuilder(1024), event);
+		if (event.getOperation().getPropertyCount() > 0) {
+			msg.append("\n\t").append("Properties {");
+			formatProperties(msg, event.getOperation().getProperties());
+			msg.append("\n\t}");
+		}
+		if (event.getOperation().getSnapshotCount() > 0) {
+			Collection<Snapshot> snapshots = event.getOperation().getSnapshots();
+			for (Snapshot snap : snapshots) {
+				msg.append("\n\t");
+				format(msg, snap);
+			}
+		}
+		formatTail(msg, event.getOperation().getThrowable(), false);
+		return msg.toString();
+	}
+
+	@Override
+	public String format(TrackingActivity activity) {
+		StringBuilder msg = formatHead(new StringBuilder(1024), activity);
+		if (activity.getSnapshotCount() > 0) {
+			msg.append(separator);
+			Collection<Snapshot> snapshots = activity.getSnapshots();
+			for (Snapshot snap : snapshots) {
+				msg.append("\n\t");
+				format(msg, snap);
+			}
+		}
+		formatTail(msg, activity.getThrowable(), true);
+		return msg.toString();
+	}
+
+	@Override
+	public long write(TrackingEvent event, OutputStream out) throws IOException {
+		StreamWriter writer = StreamWriter.newWriter(out);
+		StringBuilder msg = formatHead(new StringBuilder(1024), event);
+		if (event.getOperation().getPropertyCount() > 0) {
+			msg.append("\n\t").append("Properties {");
+			writer.append(msg);
+			writeProperties(writer, msg, event.getOperation().getProperties());
+			writer.write("\n\t}");
+			msg.setLength(0);
+		}
+		if (event.getOperation().getSnapshotCount() > 0) {
+			writer.append(msg);
+			for (Snapshot snap : event.getOperation().getSnapshots()) {
+				writer.write("\n\t");
+				writeSnapshot(writer, msg, snap);
+			}
+			msg.setLength(0);
+		}
+		writer.append(formatTail(msg, event.getOperation().getThrowable(), false));
+		return writer.finish();
+	}
+
+	@Override
+	public long write(TrackingActivity activity, OutputStream out) throws IOException {
+		StreamWriter writer = StreamWriter.newWriter(out);
+		StringBuilder msg = formatHead(new StringBuilder(1024), activity);
+		if (activity.getSnapshotCount() > 0) {
+			msg.append(separator);
+			writer.append(msg);
+			for (Snapshot snap : activity.getSnapshots()) {
+				writer.write("\n\t");
+				writeSnapshot(writer, msg, snap);
+			}
+			msg.setLength(0);
+		}
+		writer.append(formatTail(msg, activity.getThrowable(), true));
+		return writer.finish();
+	}
+
+	@Override
+	public long write(Snapshot snap, OutputStream out) throws IOException {
+		StreamWriter writer = StreamWriter.newWriter(out);
+		writeSnapshot(writer, new StringBuilder(1024), snap);
+		return writer.finish();
+	}
+
+	/**
+	 * Format tracking event header: message and all event attributes, excluding properties, snapshots and throwable.
+	 *
+	 * @param msg
+	 *            string builder to append to
+	 * @param event
+	 *            tracking event instance to be formatted
+	 * @return string builder instance
+	 */
+	protected StringBuilder formatHead(StringBuilder msg, TrackingEvent event) {
 		msg.append(event.getMessage()).append(" ");
 		msg.append("{name: '").append(event.getOperation().getResolvedName()).append("'");
 		if (event.getOperation().getPropertyCount() > 0) {
@@ -129,28 +221,19 @@ public class SimpleFormatter extends DefaultFormatter {
 			msg.append(separator);
 			msg.append("track-id: '").append(event.getTrackingId()).append("'");
 		}
-		if (event.getOperation().getPropertyCount() > 0) {
-			msg.append("\n\t").append("Properties {");
-			formatProperties(msg, event.getOperation().getProperties());
-			msg.append("\n\t}");
-		}
-		if (event.getOperation().getSnapshotCount() > 0) {
-			Collection<Snapshot> snapshots = event.getOperation().getSnapshots();
-			for (Snapshot snap : snapshots) {
-				msg.append("\n\t");
-				format(msg, snap);
-			}
-		}
-		if (event.getOperation().getThrowable() != null) {
-			msg.append("\nThrowable {\n").append(Utils.printThrowable(event.getOperation().getThrowable())).append("}");
-		}
-		msg.append("}");
-		return msg.toString();
+		return msg;
 	}
 
-	@Override
-	public String format(TrackingActivity activity) {
-		StringBuilder msg = new StringBuilder(1024);
+	/**
+	 * Format tracking activity header: all activity attributes, excluding snapshots and throwable.
+	 *
+	 * @param msg
+	 *            string builder to append to
+	 * @param activity
+	 *            tracking activity instance to be formatted
+	 * @return string builder instance
+	 */
+	protected StringBuilder formatHead(StringBuilder msg, TrackingActivity activity) {
 		msg.append("{status: '").append(activity.getStatus()).append("'").append(separator);
 		msg.append("time: '").append(UsecTimestamp.getTimeStamp(timeZone)).append("'").append(separator);
 		msg.append("sev: '").append(activity.getSeverity()).append("'").append(separator);
@@ -203,20 +286,29 @@ public class SimpleFormatter extends DefaultFormatter {
 			msg.append(separator);
 			msg.append("track-id: '").append(activity.getTrackingId()).append("'");
 		}
-		if (activity.getSnapshotCount() > 0) {
-			msg.append(separator);
-			Collection<Snapshot> snapshots = activity.getSnapshots();
-			for (Snapshot snap : snapshots) {
-				msg.append("\n\t");
-				format(msg, snap);
+		return msg;
+	}
+
+	/**
+	 * Format closing part of tracking event or activity, including throwable if any.
+	 *
+	 * @param msg
+	 *            string builder to append to
+	 * @param error
+	 *            throwable associated with tracking event or activity, may be {@code null}
+	 * @param separate
+	 *            append separator before throwable
+	 * @return string builder instance
+	 */
+	protected StringBuilder formatTail(StringBuilder msg, Throwable error, boolean separate) {
+		if (error != null) {
+			if (separate) {
+				msg.append(separator);
 			}
-		}
-		if (activity.getThrowable() != null) {
-			msg.append(separator);
-			msg.append("\nThrowable {\n").append(Utils.printThrowable(activity.getThrowable())).append("}");
+			msg.append("\nThrowable {\n").append(Utils.printThrowable(error)).append("}");
 		}
 		msg.append("}");
-		return msg.toString();
+		return msg;
 	}
 
 	@Override
@@ -236,6 +328,22 @@ public class SimpleFormatter extends DefaultFormatter {
 	}
 
 	protected StringBuilder format(StringBuilder msg, Snapshot snap) {
+		formatHead(msg, snap);
+		formatProperties(msg, snap.getSnapshot());
+		msg.append("\n\t}");
+		return msg;
+	}
+
+	/**
+	 * Format snapshot header: snapshot id and all attributes, excluding properties.
+	 *
+	 * @param msg
+	 *            string builder to append to
+	 * @param snap
+	 *            snapshot object to be formatted
+	 * @return string builder instance
+	 */
+	protected StringBuilder formatHead(StringBuilder msg, Snapshot snap) {
 		msg.append("Snapshot(fqn: '").append(snap.getId()).append("'");
 		String pid = snap.getParentId();
 		String tid = snap.getTrackingId();
@@ -253,18 +361,44 @@ public class SimpleFormatter extends DefaultFormatter {
 			msg.append("corr-id: '").append(cid).append("'");
 		}
 		msg.append(") {");
-		formatProperties(msg, snap.getSnapshot());
-		msg.append("\n\t}");
 		return msg;
 	}
 
 	protected void formatProperties(StringBuilder msg, Collection<Property> properties) {
 		for (Property prop : properties) {
-			if (prop.isTransient()) {
-				continue;
-			}
+			formatProperty(msg, prop);
+		}
+	}
+
+	/**
+	 * Format a single property, transient properties are skipped.
+	 *
+	 * @param msg
+	 *            string builder to append to
+	 * @param prop
+	 *            property to be formatted
+	 * @return string builder instance
+	 */
+	protected StringBuilder formatProperty(StringBuilder msg, Property prop) {
+		if (!prop.isTransient()) {
 			msg.append("\n\t\t").append(prop.getKey()).append(": '").append(prop.getValue()).append(":")
 					.append(prop.getDataType()).append(":").append(prop.getValueType()).append("'");
 		}
+		return msg;
+	}
+
+	private void writeSnapshot(Writer writer, StringBuilder buf, Snapshot snap) throws IOException {
+		buf.setLength(0);
+		writer.append(formatHead(buf, snap));
+		writeProperties(writer, buf, snap.getSnapshot());
+		writer.write("\n\t}");
+	}
+
+	private void writeProperties(Writer writer, StringBuilder buf, Collection<Property> properties)
+			throws IOException {
+		for (Property prop : properties) {
+			buf.setLength(0);
+			writer.append(formatProperty(buf, prop));
+		}
 	}
 }
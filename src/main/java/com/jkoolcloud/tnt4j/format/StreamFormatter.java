@@ -0,0 +1,82 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.format;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.jkoolcloud.tnt4j.core.Snapshot;
+import com.jkoolcloud.tnt4j.tracker.TrackingActivity;
+import com.jkoolcloud.tnt4j.tracker.TrackingEvent;
+
+/**
+ * <p>
+ * Classes that implement this interface provide implementation for the {@link StreamFormatter} interface. This
+ * interface allows formatting of tracking objects incrementally into an output stream, item by item (properties,
+ * snapshots, ids), so memory used during formatting stays bounded regardless of the number of items. Output is the
+ * same as produced by corresponding {@link EventFormatter} {@code format()} methods. Use
+ * {@link java.nio.channels.Channels#newOutputStream(java.nio.channels.WritableByteChannel)} to write into a
+ * {@link java.nio.channels.WritableByteChannel}.
+ * </p>
+ *
+ *
+ * @version $Revision: 1 $
+ *
+ * @see EventFormatter
+ */
+public interface StreamFormatter extends EventFormatter {
+	/**
+	 * Format a given {@link TrackingEvent} into a given output stream. Stream is flushed, but not closed.
+	 *
+	 * @param event
+	 *            tracking event instance to be formatted
+	 * @param out
+	 *            output stream to write to
+	 * @return number of bytes written
+	 * @throws IOException
+	 *             if error occurs while writing to the stream
+	 * @see TrackingEvent
+	 */
+	long write(TrackingEvent event, OutputStream out) throws IOException;
+
+	/**
+	 * Format a given {@link TrackingActivity} into a given output stream. Stream is flushed, but not closed.
+	 *
+	 * @param activity
+	 *            tracking activity instance to be formatted
+	 * @param out
+	 *            output stream to write to
+	 * @return number of bytes written
+	 * @throws IOException
+	 *             if error occurs while writing to the stream
+	 * @see TrackingActivity
+	 */
+	long write(TrackingActivity activity, OutputStream out) throws IOException;
+
+	/**
+	 * Format a given {@link Snapshot} into a given output stream. Stream is flushed, but not closed.
+	 *
+	 * @param snapshot
+	 *            snapshot object to be formatted
+	 * @param out
+	 *            output stream to write to
+	 * @return number of bytes written
+	 * @throws IOException
+	 *             if error occurs while writing to the stream
+	 * @see Snapshot
+	 */
+	long write(Snapshot snapshot, OutputStream out) throws IOException;
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.format;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+
+import com.google.common.io.CountingOutputStream;
+import com.jkoolcloud.tnt4j.utils.Utils;
+
+/**
+ * <p>
+ * This class implements a bounded buffer writer used by {@link StreamFormatter} implementations. Characters are
+ * encoded as UTF-8 and passed to the underlying stream in chunks of at most {@link #BUFFER_SIZE} characters. Underlying
+ * stream is never closed by this writer.
+ * </p>
+ *
+ * @version $Revision: 1 $
+ *
+ * @see StreamFormatter
+ */
+final class StreamWriter extends BufferedWriter {
+	static final int BUFFER_SIZE = Integer.getInteger("tnt4j.formatter.stream.buffer.size", 8192);
+
+	private final CountingOutputStream counter;
+
+	private StreamWriter(CountingOutputStream out) throws IOException {
+		super(new OutputStreamWriter(out, Utils.UTF8), BUFFER_SIZE);
+		counter = out;
+	}
+
+	/**
+	 * Create a writer for a given output stream
+	 *
+	 * @param out
+	 *            output stream to write to
+	 * @return new writer instance
+	 * @throws IOException
+	 *             if UTF-8 encoding is not supported
+	 */
+	static StreamWriter newWriter(OutputStream out) throws IOException {
+		return new StreamWriter(new CountingOutputStream(out));
+	}
+
+	/**
+	 * Flush all buffered characters to the underlying stream
+	 *
+	 * @return total number of bytes written to the underlying stream
+	 * @throws IOException
+	 *             if error occurs while writing to the stream
+	 */
+	long finish() throws IOException {
+		flush();
+		return counter.getCount();
+	}
+}
@@ -28,9 +28,13 @@ import com.jkoolcloud.tnt4j.core.OpLevel;
 import com.jkoolcloud.tnt4j.core.Snapshot;
 import com.jkoolcloud.tnt4j.core.TTL;
 import com.jkoolcloud.tnt4j.format.EventFormatter;
+import com.jkoolcloud.tnt4j.format.FormatCache;
+import com.jkoolcloud.tnt4j.format.FormattedMessage;
+import com.jkoolcloud.tnt4j.format.StreamFormatter;
 import com.jkoolcloud.tnt4j.source.Source;
 import com.jkoolcloud.tnt4j.tracker.TrackingActivity;
 import com.jkoolcloud.tnt4j.tracker.TrackingEvent;
+import com.jkoolcloud.tnt4j.utils.StripedCounter;
 import com.jkoolcloud.tnt4j.utils.Utils;
 
 /**
@@ -51,6 +55,12 @@ import com.jkoolcloud.tnt4j.utils.Utils;
  * @see SinkLogEventListener
  */
 public abstract class AbstractEventSink implements EventSink, EventSinkStats {
+	/**
+	 * Minimal number of activity items (ids, properties and snapshot properties) for activity to be written using
+	 * {@link StreamFormatter}
+	 */
+	public static final int STREAM_THRESHOLD = Integer.getInteger("tnt4j.sink.stream.threshold", 512);
+
 	protected final ArrayList<SinkErrorListener> errorListeners = new ArrayList<SinkErrorListener>(10);
 	protected final ArrayList<SinkLogEventListener> logListeners = new ArrayList<SinkLogEventListener>(10);
 	protected final ArrayList<SinkEventFilter> filters = new ArrayList<SinkEventFilter>(10);
@@ -68,15 +78,15 @@ public abstract class AbstractEventSink implements EventSink, EventSinkStats {
 	private boolean errorState = false;
 
 	// internal event sink statistics
-	private AtomicLong loggedActivities = new AtomicLong(0);
-	private AtomicLong loggedEvents = new AtomicLong(0);
-	private AtomicLong loggedMsgs = new AtomicLong(0);
-	private AtomicLong sinkWrites = new AtomicLong(0);
+	private StripedCounter loggedActivities = new StripedCounter();
+	private StripedCounter loggedEvents = new StripedCounter();
+	private StripedCounter loggedMsgs = new StripedCounter();
+	private StripedCounter sinkWrites = new StripedCounter();
 	private AtomicLong lastTime = new AtomicLong(0);
-	private AtomicLong loggedSnaps = new AtomicLong(0);
-	private AtomicLong errorCount = new AtomicLong(0);
-	private AtomicLong skipCount = new AtomicLong(0);
-	private AtomicLong sentBytes = new AtomicLong(0);
+	private StripedCounter loggedSnaps = new StripedCounter();
+	private StripedCounter errorCount = new StripedCounter();
+	private StripedCounter skipCount = new StripedCounter();
+	private StripedCounter sentBytes = new StripedCounter();
 
 	/**
 	 * Create an event sink with a given name
@@ -140,7 +150,7 @@ public abstract class AbstractEventSink implements EventSink, EventSinkStats {
 		if (ex != null) {
 			lastError = ex;
 			lastErrorTime = System.currentTimeMillis();
-			errorCount.incrementAndGet();
+			errorCount.increment();
 		}
 		return prevError;
 	}
@@ -234,14 +244,14 @@ public abstract class AbstractEventSink implements EventSink, EventSinkStats {
 
 	@Override
 	public void resetStats() {
-		loggedActivities.set(0);
-		loggedEvents.set(0);
-		loggedSnaps.set(0);
-		errorCount.set(0);
-		loggedMsgs.set(0);
-		sinkWrites.set(0);
-		skipCount.set(0);
-		sentBytes.set(0);
+		loggedActivities.reset();
+		loggedEvents.reset();
+		loggedSnaps.reset();
+		errorCount.reset();
+		loggedMsgs.reset();
+		sinkWrites.reset();
+		skipCount.reset();
+		sentBytes.reset();
 	}
 
 	@Override
@@ -350,7 +360,7 @@ public abstract class AbstractEventSink implements EventSink, EventSinkStats {
 		for (SinkEventFilter filter : filters) {
 			pass = (pass && filter.filter(this, ttl, source, level, msg, args));
 			if (!pass) {
-				skipCount.incrementAndGet();
+				skipCount.increment();
 				break;
 			}
 		}
@@ -366,7 +376,7 @@ public abstract class AbstractEventSink implements EventSink, EventSinkStats {
 		for (SinkEventFilter filter : filters) {
 			pass = (pass && filter.filter(this, snapshot));
 			if (!pass) {
-				skipCount.incrementAndGet();
+				skipCount.increment();
 				break;
 			}
 		}
@@ -382,7 +392,7 @@ public abstract class AbstractEventSink implements EventSink, EventSinkStats {
 		for (SinkEventFilter filter : filters) {
 			pass = (pass && filter.filter(this, activity));
 			if (!pass) {
-				skipCount.incrementAndGet();
+				skipCount.increment();
 				break;
 			}
 		}
@@ -398,7 +408,7 @@ public abstract class AbstractEventSink implements EventSink, EventSinkStats {
 		for (SinkEventFilter filter : filters) {
 			pass = (pass && filter.filter(this, event));
 			if (!pass) {
-				skipCount.incrementAndGet();
+				skipCount.increment();
 				break;
 			}
 		}
@@ -432,8 +442,8 @@ public abstract class AbstractEventSink implements EventSink, EventSinkStats {
 					activity.setTTL(ttl);
 				}
 				_log(activity);
-				loggedActivities.incrementAndGet();
-				loggedSnaps.addAndGet(activity.getSnapshotCount());
+				loggedActivities.increment();
+				loggedSnaps.add(activity.getSnapshotCount());
 				lastTime.set(System.currentTimeMillis());
 				errorState = false;
 				if (!logListeners.isEmpty()) {
@@ -458,8 +468,8 @@ public abstract class AbstractEventSink implements EventSink, EventSinkStats {
 					event.setTTL(ttl);
 				}
 				_log(event.sign());
-				loggedEvents.incrementAndGet();
-				loggedSnaps.addAndGet(event.getOperation().getSnapshotCount());
+				loggedEvents.increment();
+				loggedSnaps.add(event.getOperation().getSnapshotCount());
 				lastTime.set(System.currentTimeMillis());
 				errorState = false;
 				if (!logListeners.isEmpty()) {
@@ -484,7 +494,7 @@ public abstract class AbstractEventSink implements EventSink, EventSinkStats {
 					snapshot.setTTL(ttl);
 				}
 				_log(snapshot);
-				loggedSnaps.incrementAndGet();
+				loggedSnaps.increment();
 				lastTime.set(System.currentTimeMillis());
 				errorState = false;
 				if (!logListeners.isEmpty()) {
@@ -532,7 +542,7 @@ public abstract class AbstractEventSink implements EventSink, EventSinkStats {
 					return;
 				}
 				_log(nttl, src, sev, Utils.getString(bundle, key), args);
-				loggedMsgs.incrementAndGet();
+				loggedMsgs.increment();
 				lastTime.set(System.currentTimeMillis());
 				errorState = false;
 				if (!logListeners.isEmpty()) {
@@ -550,8 +560,8 @@ public abstract class AbstractEventSink implements EventSink, EventSinkStats {
 			if (!_limiter(msg)) {
 				return;
 			}
-			_write(getString(msg), args);
-			sinkWrites.incrementAndGet();
+			_write(msg instanceof FormattedMessage ? msg : getString(msg), args);
+			sinkWrites.increment();
 			lastTime.set(System.currentTimeMillis());
 			errorState = false;
 			if (!logListeners.isEmpty()) {
@@ -654,6 +664,66 @@ public abstract class AbstractEventSink implements EventSink, EventSinkStats {
 		return true;
 	}
 
+	/**
+	 * Format a given event using sink event formatter. Output is shared with other sinks formatting the same event
+	 * with an equivalent formatter during the same dispatch.
+	 *
+	 * @param event
+	 *            tracking event to be formatted
+	 * @return formatted tracking event
+	 * @see FormatCache
+	 */
+	protected String format(TrackingEvent event) {
+		return FormatCache.format(getEventFormatter(), event);
+	}
+
+	/**
+	 * Format a given activity using sink event formatter. Output is shared with other sinks formatting the same
+	 * activity with an equivalent formatter during the same dispatch.
+	 *
+	 * @param activity
+	 *            tracking activity to be formatted
+	 * @return formatted tracking activity
+	 * @see FormatCache
+	 */
+	protected String format(TrackingActivity activity) {
+		return FormatCache.format(getEventFormatter(), activity);
+	}
+
+	/**
+	 * Format a given snapshot using sink event formatter. Output is shared with other sinks formatting the same
+	 * snapshot with an equivalent formatter during the same dispatch.
+	 *
+	 * @param snapshot
+	 *            snapshot to be formatted
+	 * @return formatted snapshot
+	 * @see FormatCache
+	 */
+	protected String format(Snapshot snapshot) {
+		return FormatCache.format(getEventFormatter(), snapshot);
+	}
+
+	/**
+	 * Determine if a given activity should be written incrementally using {@link StreamFormatter} instead of being
+	 * formatted into a single string. Only activities with at least {@link #STREAM_THRESHOLD} items are streamed.
+	 *
+	 * @param activity
+	 *            tracking activity to be written
+	 * @return true if sink formatter is a {@link StreamFormatter} and activity is large, false otherwise
+	 */
+	protected boolean isStreamed(TrackingActivity activity) {
+		if (!(getEventFormatter() instanceof StreamFormatter)) {
+			return false;
+		}
+		int count = activity.getIdCount() + activity.getPropertyCount();
+		if (activity.getSnapshotCount() > 0) {
+			for (Snapshot snap : activity.getSnapshots()) {
+				count += snap.size();
+			}
+		}
+		return count >= STREAM_THRESHOLD;
+	}
+
 	/**
 	 * Override this method to add actual implementation for all subclasses.
 	 *
@@ -727,6 +797,6 @@ public abstract class AbstractEventSink implements EventSink, EventSinkStats {
 	 *            bytes count to add
 	 */
 	protected void incrementBytesSent(int bCount) {
-		sentBytes.addAndGet(bCount);
+		sentBytes.add(bCount);
 	}
 }
@@ -0,0 +1,341 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.sink;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import com.jkoolcloud.tnt4j.utils.Utils;
+
+/**
+ * <p>
+ * This class implements a compression stage used by network sinks to compress batches of formatted messages before
+ * they are sent. Each sink owns its compressor, which reuses the same compression context and output buffer for all
+ * blocks. Each compressed block is self contained and can be restored using {@link #decompress(byte[])}.
+ * </p>
+ *
+ * <p>
+ * Compressor keeps track of number of bytes before and after compression as well as CPU time spent compressing, which
+ * are reported via {@link #getStats(Map, Object)} as compression ratio and CPU time per MB of input.
+ * </p>
+ *
+ * @version $Revision: 1 $
+ *
+ * @see EventSink
+ */
+public class Compressor {
+	public static final String KEY_CODEC = "compress-codec";
+	public static final String KEY_BLOCKS = "compress-blocks";
+	public static final String KEY_BYTES_IN = "compress-bytes-in";
+	public static final String KEY_BYTES_OUT = "compress-bytes-out";
+	public static final String KEY_RATIO = "compress-ratio";
+	public static final String KEY_CPU_USEC_PER_MB = "compress-cpu-usec-per-mb";
+
+	private static final int GZIP_MAGIC = 0x8b1f;
+	private static final double MB = 1024.0d * 1024.0d;
+	private static final ThreadMXBean CPU_BEAN = ManagementFactory.getThreadMXBean();
+	private static final boolean CPU_TIMING = CPU_BEAN.isCurrentThreadCpuTimeSupported()
+			&& CPU_BEAN.isThreadCpuTimeEnabled();
+
+	/**
+	 * Supported compression codecs
+	 */
+	public enum Codec {
+		/**
+		 * No compression, blocks are passed as is
+		 */
+		NONE,
+
+		/**
+		 * GZIP (RFC 1952) compression, each block is a complete GZIP member
+		 */
+		GZIP,
+
+		/**
+		 * ZLIB (RFC 1950) compression
+		 */
+		DEFLATE
+	}
+
+	private final Codec codec;
+	private final int level;
+	private final CRC32 crc = new CRC32();
+	private Deflater deflater;
+	private byte[] out = new byte[8192];
+
+	private final AtomicLong blockCount = new AtomicLong(0);
+	private final AtomicLong bytesIn = new AtomicLong(0);
+	private final AtomicLong bytesOut = new AtomicLong(0);
+	private final AtomicLong cpuNanos = new AtomicLong(0);
+
+	/**
+	 * Create a compressor with a given codec and default compression level
+	 *
+	 * @param codec
+	 *            compression codec
+	 */
+	public Compressor(Codec codec) {
+		this(codec, Deflater.DEFAULT_COMPRESSION);
+	}
+
+	/**
+	 * Create a compressor with a given codec and compression level
+	 *
+	 * @param codec
+	 *            compression codec
+	 * @param level
+	 *            compression level (0-9), -1 for codec default
+	 */
+	public Compressor(Codec codec, int level) {
+		this.codec = codec;
+		this.level = level;
+	}
+
+	/**
+	 * Create a compressor for a given codec name
+	 *
+	 * @param codecName
+	 *            codec name (none, gzip, deflate), case insensitive
+	 * @param level
+	 *            compression level (0-9), -1 for codec default
+	 * @return new compressor instance, {@code null} if codec name is empty or {@code none}
+	 * @throws IllegalArgumentException
+	 *             if codec name is not supported
+	 */
+	public static Compressor newCompressor(String codecName, int level) {
+		if (Utils.isEmpty(codecName)) {
+			return null;
+		}
+		Codec codec = Codec.valueOf(codecName.trim().toUpperCase());
+		return codec == Codec.NONE ? null : new Compressor(codec, level);
+	}
+
+	/**
+	 * Obtain compression codec
+	 *
+	 * @return compression codec
+	 */
+	public Codec getCodec() {
+		return codec;
+	}
+
+	/**
+	 * Obtain compression level
+	 *
+	 * @return compression level
+	 */
+	public int getLevel() {
+		return level;
+	}
+
+	/**
+	 * Compress a given block of bytes
+	 *
+	 * @param data
+	 *            bytes to compress
+	 * @return compressed block
+	 */
+	public byte[] compress(byte[] data) {
+		return compress(data, 0, data.length);
+	}
+
+	/**
+	 * Compress a given block of bytes
+	 *
+	 * @param data
+	 *            buffer containing bytes to compress
+	 * @param off
+	 *            offset of the first byte
+	 * @param len
+	 *            number of bytes to compress
+	 * @return compressed block
+	 */
+	public synchronized byte[] compress(byte[] data, int off, int len) {
+		long start = cpuTimeNanos();
+		byte[] block;
+		if (codec == Codec.NONE) {
+			block = Arrays.copyOfRange(data, off, off + len);
+		} else {
+			block = deflate(data, off, len);
+		}
+		cpuNanos.addAndGet(cpuTimeNanos() - start);
+		blockCount.incrementAndGet();
+		bytesIn.addAndGet(len);
+		bytesOut.addAndGet(block.length);
+		return block;
+	}
+
+	/**
+	 * Restore original bytes of a block produced by {@link #compress(byte[], int, int)}
+	 *
+	 * @param block
+	 *            compressed block
+	 * @return decompressed bytes
+	 * @throws IOException
+	 *             if block is malformed
+	 */
+	public byte[] decompress(byte[] block) throws IOException {
+		if (codec == Codec.NONE) {
+			return block;
+		}
+		InputStream in = codec == Codec.GZIP ? new GZIPInputStream(new ByteArrayInputStream(block))
+				: new InflaterInputStream(new ByteArrayInputStream(block));
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(block.length * 4);
+			byte[] buf = new byte[8192];
+			int n;
+			while ((n = in.read(buf)) > 0) {
+				bytes.write(buf, 0, n);
+			}
+			return bytes.toByteArray();
+		} finally {
+			Utils.close(in);
+		}
+	}
+
+	/**
+	 * Release native resources held by compression context. Compressor can be reused afterwards, in which case a new
+	 * context is created.
+	 */
+	public synchronized void end() {
+		if (deflater != null) {
+			deflater.end();
+			deflater = null;
+		}
+	}
+
+	/**
+	 * Obtain compression ratio: number of bytes before compression per byte after compression
+	 *
+	 * @return compression ratio, {@code 0} if nothing compressed yet
+	 */
+	public double getRatio() {
+		long outBytes = bytesOut.get();
+		return outBytes > 0 ? (double) bytesIn.get() / outBytes : 0.0d;
+	}
+
+	/**
+	 * Obtain CPU time in microseconds spent compressing a single MB of input
+	 *
+	 * @return CPU time per MB in microseconds
+	 */
+	public double getCpuUsecPerMB() {
+		long inBytes = bytesIn.get();
+		return inBytes > 0 ? (cpuNanos.get() / 1000.0d) / (inBytes / MB) : 0.0d;
+	}
+
+	/**
+	 * Add compression statistics to a given map, keys are qualified by a given owner (sink)
+	 *
+	 * @param stats
+	 *            map where statistics are added
+	 * @param owner
+	 *            object used to qualify statistics keys
+	 */
+	public void getStats(Map<String, Object> stats, Object owner) {
+		stats.put(Utils.qualify(owner, KEY_CODEC), codec.name());
+		stats.put(Utils.qualify(owner, KEY_BLOCKS), blockCount.get());
+		stats.put(Utils.qualify(owner, KEY_BYTES_IN), bytesIn.get());
+		stats.put(Utils.qualify(owner, KEY_BYTES_OUT), bytesOut.get());
+		stats.put(Utils.qualify(owner, KEY_RATIO), getRatio());
+		stats.put(Utils.qualify(owner, KEY_CPU_USEC_PER_MB), getCpuUsecPerMB());
+	}
+
+	/**
+	 * Reset compression statistics
+	 */
+	public void resetStats() {
+		blockCount.set(0);
+		bytesIn.set(0);
+		bytesOut.set(0);
+		cpuNanos.set(0);
+	}
+
+	private byte[] deflate(byte[] data, int off, int len) {
+		if (deflater == null) {
+			deflater = new Deflater(level, codec == Codec.GZIP);
+		} else {
+			deflater.reset();
+		}
+		ensure(len / 2 + 64);
+		int pos = 0;
+		if (codec == Codec.GZIP) {
+			pos = writeGzipHeader();
+			crc.reset();
+			crc.update(data, off, len);
+		}
+		deflater.setInput(data, off, len);
+		deflater.finish();
+		while (!deflater.finished()) {
+			if (pos == out.length) {
+				out = Arrays.copyOf(out, out.length << 1);
+			}
+			pos += deflater.deflate(out, pos, out.length - pos);
+		}
+		if (codec == Codec.GZIP) {
+			if (pos + 8 > out.length) {
+				out = Arrays.copyOf(out, pos + 8);
+			}
+			pos = writeIntLE(pos, (int) crc.getValue());
+			pos = writeIntLE(pos, len);
+		}
+		return Arrays.copyOf(out, pos);
+	}
+
+	private int writeGzipHeader() {
+		out[0] = (byte) GZIP_MAGIC;
+		out[1] = (byte) (GZIP_MAGIC >> 8);
+		out[2] = Deflater.DEFLATED;
+		Arrays.fill(out, 3, 10, (byte) 0);
+		out[9] = (byte) 0xFF; // OS: unknown
+		return 10;
+	}
+
+	private int writeIntLE(int pos, int value) {
+		out[pos++] = (byte) value;
+		out[pos++] = (byte) (value >> 8);
+		out[pos++] = (byte) (value >> 16);
+		out[pos++] = (byte) (value >> 24);
+		return pos;
+	}
+
+	private void ensure(int size) {
+		if (out.length < size) {
+			out = new byte[size];
+		}
+	}
+
+	private static long cpuTimeNanos() {
+		return CPU_TIMING ? CPU_BEAN.getCurrentThreadCpuTime() : System.nanoTime();
+	}
+
+	@Override
+	public String toString() {
+		return super.toString() + "{codec: " + codec + ", level: " + level + ", blocks: " + blockCount + ", ratio: "
+				+ getRatio() + "}";
+	}
+}
@@ -21,6 +21,7 @@ import java.io.IOException;
 import com.jkoolcloud.tnt4j.core.OpLevel;
 import com.jkoolcloud.tnt4j.core.Snapshot;
 import com.jkoolcloud.tnt4j.format.EventFormatter;
+import com.jkoolcloud.tnt4j.format.FormatCache;
 import com.jkoolcloud.tnt4j.source.Source;
 import com.jkoolcloud.tnt4j.tracker.TrackingActivity;
 import com.jkoolcloud.tnt4j.tracker.TrackingEvent;
@@ -95,7 +96,7 @@ public abstract class LoggedEventSink extends AbstractEventSink {
 	@Override
 	protected void _write(Object msg, Object... args) throws IOException, InterruptedException {
 		if (isOpen()) {
-			writeLine(getEventFormatter().format(msg, args));
+			writeObject(msg, args);
 			if (logSink instanceof AbstractEventSink) {
 				((AbstractEventSink) logSink)._write(msg, args);
 			}
@@ -104,23 +105,41 @@ public abstract class LoggedEventSink extends AbstractEventSink {
 
 	@Override
 	protected void _log(TrackingEvent event) throws IOException {
-		writeLine(getEventFormatter().format(event));
-		if (canForward(event.getSeverity())) {
+		if (!canForward(event.getSeverity())) {
+			writeEvent(event);
+			return;
+		}
+		FormatCache cache = FormatCache.begin(event);
+		try {
+			writeEvent(event);
 			logSink.log(event);
+		} finally {
+			if (cache != null) {
+				cache.end();
+			}
 		}
 	}
 
 	@Override
 	protected void _log(TrackingActivity activity) throws IOException {
-		writeLine(getEventFormatter().format(activity));
-		if (canForward(activity.getSeverity())) {
+		if (!canForward(activity.getSeverity())) {
+			writeActivity(activity);
+			return;
+		}
+		FormatCache cache = FormatCache.begin(activity);
+		try {
+			writeActivity(activity);
 			logSink.log(activity);
+		} finally {
+			if (cache != null) {
+				cache.end();
+			}
 		}
 	}
 
 	@Override
 	protected void _log(long ttl, Source src, OpLevel sev, String msg, Object... args) throws IOException {
-		writeLine(getEventFormatter().format(ttl, src, sev, msg, args));
+		writeLog(ttl, src, sev, msg, args);
 		if (canForward(sev)) {
 			logSink.log(ttl, src, sev, msg, args);
 		}
@@ -128,9 +147,18 @@ public abstract class LoggedEventSink extends AbstractEventSink {
 
 	@Override
 	protected void _log(Snapshot snapshot) throws IOException {
-		writeLine(getEventFormatter().format(snapshot));
-		if (canForward(snapshot.getSeverity())) {
+		if (!canForward(snapshot.getSeverity())) {
+			writeSnapshot(snapshot);
+			return;
+		}
+		FormatCache cache = FormatCache.begin(snapshot);
+		try {
+			writeSnapshot(snapshot);
 			logSink.log(snapshot);
+		} finally {
+			if (cache != null) {
+				cache.end();
+			}
 		}
 	}
 
@@ -152,6 +180,81 @@ public abstract class LoggedEventSink extends AbstractEventSink {
 		return super.isSet(sev);
 	}
 
+	/**
+	 * Formats and writes a given tracking event to sink. Default implementation writes formatted event using
+	 * {@link #writeLine(String)}.
+	 *
+	 * @param event
+	 *            tracking event to write
+	 * @throws IOException
+	 *             if error occurs while writing event to sink
+	 */
+	protected void writeEvent(TrackingEvent event) throws IOException {
+		writeLine(format(event));
+	}
+
+	/**
+	 * Formats and writes a given tracking activity to sink. Default implementation writes formatted activity using
+	 * {@link #writeLine(String)}.
+	 *
+	 * @param activity
+	 *            tracking activity to write
+	 * @throws IOException
+	 *             if error occurs while writing activity to sink
+	 */
+	protected void writeActivity(TrackingActivity activity) throws IOException {
+		writeLine(format(activity));
+	}
+
+	/**
+	 * Formats and writes a given snapshot to sink. Default implementation writes formatted snapshot using
+	 * {@link #writeLine(String)}.
+	 *
+	 * @param snapshot
+	 *            snapshot to write
+	 * @throws IOException
+	 *             if error occurs while writing snapshot to sink
+	 */
+	protected void writeSnapshot(Snapshot snapshot) throws IOException {
+		writeLine(format(snapshot));
+	}
+
+	/**
+	 * Formats and writes a given log message to sink. Default implementation writes formatted message using
+	 * {@link #writeLine(String)}.
+	 *
+	 * @param ttl
+	 *            time to live in seconds
+	 * @param src
+	 *            log message source
+	 * @param sev
+	 *            message severity
+	 * @param msg
+	 *            message to write
+	 * @param args
+	 *            message arguments
+	 * @throws IOException
+	 *             if error occurs while writing message to sink
+	 */
+	protected void writeLog(long ttl, Source src, OpLevel sev, String msg, Object... args) throws IOException {
+		writeLine(getEventFormatter().format(ttl, src, sev, msg, args));
+	}
+
+	/**
+	 * Formats and writes a given object to sink. Default implementation writes formatted object using
+	 * {@link #writeLine(String)}.
+	 *
+	 * @param msg
+	 *            object to write
+	 * @param args
+	 *            object arguments
+	 * @throws IOException
+	 *             if error occurs while writing object to sink
+	 */
+	protected void writeObject(Object msg, Object... args) throws IOException {
+		writeLine(getEventFormatter().format(msg, args));
+	}
+
 	/**
 	 * Writes message string to sink.
 	 * 
@@ -309,9 +309,18 @@ public class SinkLogEvent extends EventObject implements TTL {
 		return stopTimeNanos - startTimeNanos;
 	}
 
+	/**
+	 * Obtain event creation time
+	 *
+	 * @return creation time in nanoseconds as returned by {@code System.nanoTime()}
+	 */
+	public long getStartTimeNanos() {
+		return startTimeNanos;
+	}
+
 	/**
 	 * Compute event service time
-	 * 
+	 *
 	 * @return service time in nanoseconds
 	 */
 	public long getServiceTimeNanos() {
@@ -0,0 +1,415 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.sink.impl;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.jkoolcloud.tnt4j.core.*;
+import com.jkoolcloud.tnt4j.format.EventFormatter;
+import com.jkoolcloud.tnt4j.sink.AbstractEventSink;
+import com.jkoolcloud.tnt4j.sink.EventSink;
+import com.jkoolcloud.tnt4j.sink.SinkLogEvent;
+import com.jkoolcloud.tnt4j.source.Source;
+import com.jkoolcloud.tnt4j.tracker.TrackingActivity;
+import com.jkoolcloud.tnt4j.tracker.TrackingEvent;
+import com.jkoolcloud.tnt4j.utils.LatencyHistogram;
+import com.jkoolcloud.tnt4j.utils.NamedThreadFactory;
+import com.jkoolcloud.tnt4j.utils.StripedCounter;
+import com.jkoolcloud.tnt4j.utils.Utils;
+
+/**
+ * <p>
+ * This class implements an aggregating event sink, which folds {@link TrackingEvent} instances into per (source,
+ * operation, severity, completion code) aggregates instead of writing them to a wrapped sink. Every aggregation
+ * interval one {@link PropertySnapshot} per aggregate is written to the wrapped sink with event count and
+ * sum/min/max/percentiles of event elapsed time. Aggregates idle for a whole interval are discarded.
+ * </p>
+ *
+ * <p>
+ * A configured fraction of raw events is passed through to the wrapped sink in addition to being aggregated. Events
+ * for which no aggregate can be created (too many distinct keys) are always passed through. Activities, snapshots and
+ * messages are passed through as is.
+ * </p>
+ *
+ * @version $Revision: 1 $
+ *
+ * @see AggregatingEventSinkFactory
+ * @see PropertySnapshot
+ * @see LatencyHistogram
+ */
+public class AggregatingEventSink extends AbstractEventSink {
+	static final String KEY_AGGREGATE_KEYS = "aggregate-keys";
+	static final String KEY_AGGREGATED = "aggregate-events";
+	static final String KEY_PASSED = "aggregate-passed";
+	static final String KEY_OVERFLOW = "aggregate-overflow";
+	static final String KEY_SNAPSHOTS = "aggregate-snapshots";
+
+	public static final String PROPERTY_OPERATION = "Operation";
+	public static final String PROPERTY_SEVERITY = "Severity";
+	public static final String PROPERTY_COMP_CODE = "CompCode";
+	public static final String PROPERTY_COUNT = "Count";
+	public static final String PROPERTY_INTERVAL = "IntervalMsec";
+	public static final String PROPERTY_SUM = "SumUsec";
+	public static final String PROPERTY_MIN = "MinUsec";
+	public static final String PROPERTY_MAX = "MaxUsec";
+	public static final String PROPERTY_P50 = "P50Usec";
+	public static final String PROPERTY_P90 = "P90Usec";
+	public static final String PROPERTY_P99 = "P99Usec";
+	public static final String PROPERTY_P999 = "P999Usec";
+
+	private static final ThreadLocal<Random> RANDOM = new ThreadLocal<Random>() {
+		@Override
+		protected Random initialValue() {
+			return new Random();
+		}
+	};
+
+	private final AggregatingEventSinkFactory factory;
+	private final EventSink outSink;
+	private final ConcurrentMap<AggregateKey, Aggregate> aggregates = new ConcurrentHashMap<AggregateKey, Aggregate>();
+	private volatile ScheduledExecutorService emitter;
+
+	private final StripedCounter aggregateCount = new StripedCounter();
+	private final StripedCounter passCount = new StripedCounter();
+	private final StripedCounter overflowCount = new StripedCounter();
+	private final AtomicLong snapshotCount = new AtomicLong(0);
+
+	/**
+	 * Create an aggregating sink wrapping a given event sink
+	 *
+	 * @param f
+	 *            aggregating event sink factory
+	 * @param sink
+	 *            wrapped sink where aggregates and passed through events are written
+	 */
+	public AggregatingEventSink(AggregatingEventSinkFactory f, EventSink sink) {
+		super(sink.getName(), sink.getEventFormatter());
+		factory = f;
+		outSink = sink;
+		outSink.filterOnLog(false); // events are filtered before aggregation
+	}
+
+	/**
+	 * Obtain wrapped sink where aggregates and passed through events are written
+	 *
+	 * @return wrapped event sink
+	 */
+	public EventSink getOutSink() {
+		return outSink;
+	}
+
+	@Override
+	public Object getSinkHandle() {
+		return outSink;
+	}
+
+	@Override
+	public boolean isOpen() {
+		return emitter != null && outSink.isOpen();
+	}
+
+	@Override
+	public synchronized void open() throws IOException {
+		if (!outSink.isOpen()) {
+			outSink.open();
+		}
+		if (emitter == null) {
+			long interval = factory.getInterval();
+			emitter = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("AggregatingEventSink/emit-"));
+			emitter.scheduleAtFixedRate(new Runnable() {
+				@Override
+				public void run() {
+					emit();
+				}
+			}, interval, interval, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		try {
+			if (emitter != null) {
+				emitter.shutdown();
+				emitter = null;
+			}
+			emit();
+		} finally {
+			if (outSink.isOpen()) {
+				outSink.close();
+			}
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if (outSink.isOpen()) {
+			outSink.flush();
+		}
+	}
+
+	@Override
+	public void setEventFormatter(EventFormatter formatter) {
+		super.setEventFormatter(formatter);
+		outSink.setEventFormatter(formatter);
+	}
+
+	@Override
+	public void setSource(Source src) {
+		super.setSource(src);
+		outSink.setSource(src);
+	}
+
+	@Override
+	public Map<String, Object> getStats() {
+		LinkedHashMap<String, Object> stats = new LinkedHashMap<String, Object>(32);
+		getStats(stats);
+		return stats;
+	}
+
+	@Override
+	public KeyValueStats getStats(Map<String, Object> stats) {
+		super.getStats(stats);
+		stats.put(Utils.qualify(this, KEY_AGGREGATE_KEYS), aggregates.size());
+		stats.put(Utils.qualify(this, KEY_AGGREGATED), aggregateCount.get());
+		stats.put(Utils.qualify(this, KEY_PASSED), passCount.get());
+		stats.put(Utils.qualify(this, KEY_OVERFLOW), overflowCount.get());
+		stats.put(Utils.qualify(this, KEY_SNAPSHOTS), snapshotCount.get());
+		return outSink.getStats(stats);
+	}
+
+	@Override
+	public void resetStats() {
+		super.resetStats();
+		aggregateCount.reset();
+		passCount.reset();
+		overflowCount.reset();
+		snapshotCount.set(0);
+		outSink.resetStats();
+	}
+
+	@Override
+	protected void _log(TrackingEvent event) throws IOException {
+		Operation op = event.getOperation();
+		Source src = event.getSource() != null ? event.getSource() : getSource();
+		AggregateKey key = new AggregateKey(src != null ? src.getFQName() : null, op.getName(), event.getSeverity(),
+				op.getCompCode());
+		long elapsedUsec = op.getElapsedTimeUsec();
+		for (;;) {
+			Aggregate aggregate = aggregates.get(key);
+			if (aggregate == null) {
+				if (aggregates.size() >= factory.getMaxKeys()) {
+					overflowCount.increment();
+					passThrough(event);
+					return;
+				}
+				aggregate = new Aggregate(key, src);
+				Aggregate prev = aggregates.putIfAbsent(key, aggregate);
+				aggregate = prev != null ? prev : aggregate;
+			}
+			if (aggregate.record(elapsedUsec)) {
+				break;
+			}
+			// aggregate was retired by emit(), record into a fresh one
+			aggregates.remove(key, aggregate);
+		}
+		aggregateCount.increment();
+
+		double rate = factory.getPassThroughRate();
+		if (rate > 0 && (rate >= 1.0 || RANDOM.get().nextDouble() < rate)) {
+			passThrough(event);
+		}
+	}
+
+	@Override
+	protected void _log(TrackingActivity activity) throws IOException {
+		outSink.log(activity);
+	}
+
+	@Override
+	protected void _log(Snapshot snapshot) throws IOException {
+		outSink.log(snapshot);
+	}
+
+	@Override
+	protected void _log(long ttl, Source src, OpLevel sev, String msg, Object... args) throws IOException {
+		outSink.log(ttl, src, sev, msg, args);
+	}
+
+	@Override
+	protected void _write(Object msg, Object... args) throws IOException, InterruptedException {
+		outSink.write(msg, args);
+	}
+
+	private void passThrough(TrackingEvent event) {
+		outSink.log(event);
+		passCount.increment();
+	}
+
+	/**
+	 * Complete current aggregation interval, write one snapshot per active aggregate to the wrapped sink and discard
+	 * aggregates with no events during the interval. Called periodically and when the sink is closed.
+	 */
+	protected void emit() {
+		for (Aggregate aggregate : aggregates.values()) {
+			long updates = aggregate.getUpdates();
+			Snapshot snapshot = aggregate.roll(factory.getCategory());
+			if (snapshot == null) {
+				if (aggregate.retire(updates)) {
+					aggregates.remove(aggregate.key, aggregate);
+				}
+				continue;
+			}
+			try {
+				if (outSink.isOpen()) {
+					outSink.log(snapshot);
+					snapshotCount.incrementAndGet();
+				}
+			} catch (Throwable ex) {
+				notifyListeners(new SinkLogEvent(this, snapshot), ex);
+			}
+		}
+	}
+
+	private static class AggregateKey {
+		final String source;
+		final String operation;
+		final OpLevel severity;
+		final OpCompCode ccode;
+		final int hash;
+
+		AggregateKey(String source, String operation, OpLevel severity, OpCompCode ccode) {
+			this.source = source;
+			this.operation = operation;
+			this.severity = severity;
+			this.ccode = ccode;
+			int h = source != null ? source.hashCode() : 0;
+			h = 31 * h + (operation != null ? operation.hashCode() : 0);
+			h = 31 * h + (severity != null ? severity.hashCode() : 0);
+			this.hash = 31 * h + (ccode != null ? ccode.hashCode() : 0);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof AggregateKey)) {
+				return false;
+			}
+			AggregateKey other = (AggregateKey) obj;
+			return hash == other.hash && severity == other.severity && ccode == other.ccode
+					&& (source == null ? other.source == null : source.equals(other.source))
+					&& (operation == null ? other.operation == null : operation.equals(other.operation));
+		}
+	}
+
+	private static class Aggregate {
+		static final long RETIRED = -1;
+
+		final AggregateKey key;
+		final Source source;
+		final LatencyHistogram elapsed = new LatencyHistogram(0);
+		final AtomicLong sum = new AtomicLong(0);
+		final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+		final AtomicLong updates = new AtomicLong(0);
+
+		Aggregate(AggregateKey key, Source source) {
+			this.key = key;
+			this.source = source;
+		}
+
+		/**
+		 * Record elapsed time of a single event
+		 *
+		 * @param usec
+		 *            elapsed time in microseconds
+		 * @return true if recorded, false if aggregate has been retired and the event must be recorded elsewhere
+		 */
+		boolean record(long usec) {
+			elapsed.record(usec);
+			sum.addAndGet(usec);
+			long m = min.get();
+			while (usec < m && !min.compareAndSet(m, usec)) {
+				m = min.get();
+			}
+			// count the update after recording, so retire() fails if any update raced with roll()
+			for (;;) {
+				long n = updates.get();
+				if (n == RETIRED) {
+					return false;
+				}
+				if (updates.compareAndSet(n, n + 1)) {
+					return true;
+				}
+			}
+		}
+
+		long getUpdates() {
+			return updates.get();
+		}
+
+		/**
+		 * Retire an idle aggregate, so that concurrent and later updates go to a new aggregate instead
+		 *
+		 * @param seen
+		 *            number of updates seen before the last {@link #roll(String)}
+		 * @return true if retired, false if aggregate was updated since
+		 */
+		boolean retire(long seen) {
+			return updates.compareAndSet(seen, RETIRED);
+		}
+
+		Snapshot roll(String category) {
+			LatencyHistogram.Interval interval = elapsed.roll();
+			long sumUsec = sum.getAndSet(0);
+			long minUsec = min.getAndSet(Long.MAX_VALUE);
+			if (interval.getCount() == 0) {
+				return null;
+			}
+			PropertySnapshot snapshot = new PropertySnapshot(category, key.operation, key.severity);
+			snapshot.setSource(source);
+			snapshot.add(PROPERTY_OPERATION, key.operation);
+			snapshot.add(PROPERTY_SEVERITY, key.severity);
+			snapshot.add(PROPERTY_COMP_CODE, key.ccode);
+			snapshot.add(new Property(PROPERTY_COUNT, interval.getCount(), ValueTypes.VALUE_TYPE_COUNTER));
+			snapshot.add(new Property(PROPERTY_INTERVAL, interval.getEndTime() - interval.getStartTime(),
+					ValueTypes.VALUE_TYPE_AGE_MSEC));
+			snapshot.add(new Property(PROPERTY_SUM, sumUsec, ValueTypes.VALUE_TYPE_AGE_USEC));
+			snapshot.add(new Property(PROPERTY_MIN, minUsec == Long.MAX_VALUE ? 0 : minUsec,
+					ValueTypes.VALUE_TYPE_AGE_USEC));
+			snapshot.add(new Property(PROPERTY_MAX, interval.getMax(), ValueTypes.VALUE_TYPE_AGE_USEC));
+			snapshot.add(new Property(PROPERTY_P50, interval.getPercentile(50), ValueTypes.VALUE_TYPE_AGE_USEC));
+			snapshot.add(new Property(PROPERTY_P90, interval.getPercentile(90), ValueTypes.VALUE_TYPE_AGE_USEC));
+			snapshot.add(new Property(PROPERTY_P99, interval.getPercentile(99), ValueTypes.VALUE_TYPE_AGE_USEC));
+			snapshot.add(new Property(PROPERTY_P999, interval.getPercentile(99.9), ValueTypes.VALUE_TYPE_AGE_USEC));
+			return snapshot;
+		}
+	}
+}
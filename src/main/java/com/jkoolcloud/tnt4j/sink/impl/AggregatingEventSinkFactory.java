@@ -0,0 +1,146 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.sink.impl;
+
+import java.util.Map;
+import java.util.Properties;
+
+import com.jkoolcloud.tnt4j.config.ConfigException;
+import com.jkoolcloud.tnt4j.format.EventFormatter;
+import com.jkoolcloud.tnt4j.sink.AbstractEventSinkFactory;
+import com.jkoolcloud.tnt4j.sink.EventSink;
+import com.jkoolcloud.tnt4j.sink.EventSinkFactory;
+import com.jkoolcloud.tnt4j.utils.Utils;
+
+/**
+ * <p>
+ * Aggregating implementation of {@link EventSinkFactory} interface, which creates instances of
+ * {@link AggregatingEventSink}. This factory uses a concrete {@link EventSinkFactory} specified by
+ * {@code EventSinkFactory} configuration attribute to create event sinks and wraps them with instances of
+ * {@link AggregatingEventSink}.
+ * </p>
+ *
+ * <p>
+ * Sample configuration:
+ * </p>
+ *
+ * <pre>
+ * event.sink.factory: com.jkoolcloud.tnt4j.sink.impl.AggregatingEventSinkFactory
+ * event.sink.factory.Interval: 60000
+ * event.sink.factory.PassThroughRate: 0.01
+ * event.sink.factory.EventSinkFactory: com.jkoolcloud.tnt4j.sink.impl.SocketEventSinkFactory
+ * </pre>
+ *
+ * @see EventSink
+ * @see AggregatingEventSink
+ *
+ * @version $Revision: 1 $
+ *
+ */
+public class AggregatingEventSinkFactory extends AbstractEventSinkFactory {
+	public static final String DEFAULT_CATEGORY = "Aggregate";
+
+	long interval = 60000;
+	double passThroughRate = 0;
+	int maxKeys = 1000;
+	String category = DEFAULT_CATEGORY;
+	EventSinkFactory sinkFactory;
+
+	/**
+	 * Create a default aggregating sink factory
+	 *
+	 */
+	public AggregatingEventSinkFactory() {
+		this(null);
+	}
+
+	/**
+	 * Create a default aggregating sink factory with a given sink factory used to create concrete event sinks.
+	 *
+	 * @param factory
+	 *            concrete event sink factory instance
+	 */
+	public AggregatingEventSinkFactory(EventSinkFactory factory) {
+		sinkFactory = factory;
+	}
+
+	/**
+	 * Obtain aggregation interval, after which aggregates are written and reset
+	 *
+	 * @return aggregation interval in milliseconds
+	 */
+	public long getInterval() {
+		return interval;
+	}
+
+	/**
+	 * Obtain fraction of raw events passed through to the wrapped sink in addition to being aggregated
+	 *
+	 * @return pass through rate (0.0 to 1.0)
+	 */
+	public double getPassThroughRate() {
+		return passThroughRate;
+	}
+
+	/**
+	 * Obtain maximum number of aggregates per sink, events for other keys are passed through
+	 *
+	 * @return maximum number of aggregates
+	 */
+	public int getMaxKeys() {
+		return maxKeys;
+	}
+
+	/**
+	 * Obtain category of snapshots written for aggregates
+	 *
+	 * @return snapshot category
+	 */
+	public String getCategory() {
+		return category;
+	}
+
+	@Override
+	public EventSink getEventSink(String name) {
+		return configureSink(new AggregatingEventSink(this, sinkFactory.getEventSink(name)));
+	}
+
+	@Override
+	public EventSink getEventSink(String name, Properties props) {
+		return configureSink(new AggregatingEventSink(this, sinkFactory.getEventSink(name, props)));
+	}
+
+	@Override
+	public EventSink getEventSink(String name, Properties props, EventFormatter frmt) {
+		return configureSink(new AggregatingEventSink(this, sinkFactory.getEventSink(name, props, frmt)));
+	}
+
+	@Override
+	public void setConfiguration(Map<String, ?> props) throws ConfigException {
+		super.setConfiguration(props);
+		sinkFactory = (EventSinkFactory) Utils.createConfigurableObject("EventSinkFactory", "EventSinkFactory.", props);
+		interval = Utils.getLong("Interval", props, interval);
+		passThroughRate = Utils.getDouble("PassThroughRate", props, passThroughRate);
+		maxKeys = Utils.getInt("MaxKeys", props, maxKeys);
+		category = Utils.getString("Category", props, category);
+		if (sinkFactory == null) {
+			throw new ConfigException("Missing EventSinkFactory implementation", props);
+		}
+		if (interval <= 0) {
+			throw new ConfigException("Interval must be positive: " + interval, props);
+		}
+	}
+}
@@ -26,7 +26,11 @@ import java.util.Vector;
 import com.jkoolcloud.tnt4j.core.KeyValueStats;
 import com.jkoolcloud.tnt4j.core.OpLevel;
 import com.jkoolcloud.tnt4j.core.Snapshot;
+import com.jkoolcloud.tnt4j.core.TTL;
+import com.jkoolcloud.tnt4j.format.ByteFormatter;
 import com.jkoolcloud.tnt4j.format.EventFormatter;
+import com.jkoolcloud.tnt4j.format.FormatCache;
+import com.jkoolcloud.tnt4j.format.FormattedMessage;
 import com.jkoolcloud.tnt4j.sink.AbstractEventSink;
 import com.jkoolcloud.tnt4j.sink.EventSink;
 import com.jkoolcloud.tnt4j.sink.EventSinkFactory;
@@ -36,7 +40,11 @@ import com.jkoolcloud.tnt4j.tracker.TrackingEvent;
 import com.jkoolcloud.tnt4j.utils.Utils;
 
 /**
- * Broadcasting event sink that allows writes to multiple event sinks at once.
+ * Broadcasting event sink that allows writes to multiple event sinks at once. When parallel fan-out is enabled in
+ * {@link BroadcastingEventSinkFactory}, each child sink is served by its own bounded queue and delivery thread, so a
+ * slow or failing child does not delay the caller or its siblings. In parallel mode tracking events, activities and
+ * snapshots are filtered and formatted for each child on the calling thread, and children receive them as
+ * pre-formatted messages, so child sinks see writes rather than logged tracking objects.
  * 
  * @author albert
  * @see AbstractEventSink
@@ -45,9 +53,17 @@ public class BroadcastingEventSink extends AbstractEventSink {
 
 	public static final String KEY_SINK_SIZE = "broadcast-sink-count";
 	public static final String KEY_OPEN_COUNT = "broadcast-open-sinks";
-	
+	public static final String KEY_FANOUT_PFIX = "broadcast-fanout-";
+	public static final String KEY_FANOUT_QUEUED = "-queued";
+	public static final String KEY_FANOUT_DELIVERED = "-delivered";
+	public static final String KEY_FANOUT_DROPPED = "-dropped";
+	public static final String KEY_FANOUT_ERRORS = "-errors";
+	public static final String KEY_FANOUT_Q_SIZE = "-queue-size";
+	public static final String KEY_FANOUT_LAG = "-lag-ms";
+
 	BroadcastingEventSinkFactory brFactory;
 	List<EventSink> eventSinks = new Vector<EventSink>(3, 3);
+	List<FanoutChannel> channels;
 
 	/**
 	 * Create broadcasting event sink factory
@@ -64,6 +80,7 @@ public class BroadcastingEventSink extends AbstractEventSink {
 		for (EventSinkFactory fc : brdFactory.getEventSinkFactories()) {
 			eventSinks.add(fc.getEventSink(name));
 		}
+		initChannels();
 	}
 
 	/**
@@ -83,6 +100,7 @@ public class BroadcastingEventSink extends AbstractEventSink {
 		for (EventSinkFactory fc : brdFactory.getEventSinkFactories()) {
 			eventSinks.add(fc.getEventSink(name, props));
 		}
+		initChannels();
 	}
 
 	/**
@@ -105,6 +123,26 @@ public class BroadcastingEventSink extends AbstractEventSink {
 		for (EventSinkFactory fc : brdFactory.getEventSinkFactories()) {
 			eventSinks.add(fc.getEventSink(name, props, frmt));
 		}
+		initChannels();
+	}
+
+	private void initChannels() {
+		if (!brFactory.isParallel()) {
+			return;
+		}
+		channels = new Vector<FanoutChannel>(eventSinks.size());
+		for (EventSink sink : eventSinks) {
+			channels.add(new FanoutChannel(sink, brFactory.getFanoutCapacity()));
+		}
+	}
+
+	/**
+	 * Determine if this sink dispatches to child sinks in parallel
+	 * 
+	 * @return true if parallel fan-out is enabled, false if child sinks are called sequentially
+	 */
+	public boolean isParallel() {
+		return channels != null;
 	}
 
 	@Override
@@ -119,12 +157,34 @@ public class BroadcastingEventSink extends AbstractEventSink {
 		super.getStats(stats);
 		stats.put(Utils.qualify(this, KEY_SINK_SIZE), eventSinks.size());
 		stats.put(Utils.qualify(this, KEY_OPEN_COUNT), openCount());
+		if (channels != null) {
+			for (int i = 0; i < channels.size(); i++) {
+				FanoutChannel channel = channels.get(i);
+				String pfix = KEY_FANOUT_PFIX + i;
+				stats.put(Utils.qualify(this, pfix + KEY_FANOUT_QUEUED), channel.queuedCount.get());
+				stats.put(Utils.qualify(this, pfix + KEY_FANOUT_DELIVERED), channel.deliveredCount.get());
+				stats.put(Utils.qualify(this, pfix + KEY_FANOUT_DROPPED), channel.dropCount.get());
+				stats.put(Utils.qualify(this, pfix + KEY_FANOUT_ERRORS), channel.errorCount.get());
+				stats.put(Utils.qualify(this, pfix + KEY_FANOUT_Q_SIZE), channel.size());
+				stats.put(Utils.qualify(this, pfix + KEY_FANOUT_LAG), channel.getLagMs());
+			}
+		}
 		for (EventSink sink : eventSinks) {
 			sink.getStats(stats);
 		}
 		return this;
 	}
 
+	@Override
+	public void resetStats() {
+		super.resetStats();
+		if (channels != null) {
+			for (FanoutChannel channel : channels) {
+				channel.resetStats();
+			}
+		}
+	}
+
 	@Override
 	public Object getSinkHandle() {
 		return this;
@@ -157,12 +217,22 @@ public class BroadcastingEventSink extends AbstractEventSink {
 		if (lastE != null && (openCount == 0)) {
 			throw lastE;
 		}
+		if (channels != null) {
+			for (int i = 0; i < channels.size(); i++) {
+				channels.get(i).start("BroadcastingEventSink(" + getName() + ")/fanout-" + i);
+			}
+		}
 	}
 
 	@Override
 	public void close() throws IOException {
 		IOException lastE = null;
-		for (EventSink sink : eventSinks) {
+		for (int i = 0; i < eventSinks.size(); i++) {
+			EventSink sink = eventSinks.get(i);
+			if (channels != null && !channels.get(i).stop(brFactory.getFanoutCloseTimeout())) {
+				// delivery thread is still writing to this sink, leave it open
+				continue;
+			}
 			try {
 				sink.close();
 			} catch (IOException e) {
@@ -175,27 +245,58 @@ public class BroadcastingEventSink extends AbstractEventSink {
 
 	@Override
 	protected void _log(TrackingEvent event) throws IOException {
-		for (EventSink sink : eventSinks) {
-			sink.log(event);
+		FormatCache cache = beginFormat(event);
+		try {
+			if (channels != null) {
+				fanoutFormatted(event);
+				return;
+			}
+			for (EventSink sink : eventSinks) {
+				sink.log(event);
+			}
+		} finally {
+			endFormat(cache);
 		}
 	}
 
 	@Override
 	protected void _log(TrackingActivity activity) throws IOException {
-		for (EventSink sink : eventSinks) {
-			sink.log(activity);
+		FormatCache cache = beginFormat(activity);
+		try {
+			if (channels != null) {
+				fanoutFormatted(activity);
+				return;
+			}
+			for (EventSink sink : eventSinks) {
+				sink.log(activity);
+			}
+		} finally {
+			endFormat(cache);
 		}
 	}
 
 	@Override
 	protected void _log(Snapshot snapshot) throws IOException {
-		for (EventSink sink : eventSinks) {
-			sink.log(snapshot);
+		FormatCache cache = beginFormat(snapshot);
+		try {
+			if (channels != null) {
+				fanoutFormatted(snapshot);
+				return;
+			}
+			for (EventSink sink : eventSinks) {
+				sink.log(snapshot);
+			}
+		} finally {
+			endFormat(cache);
 		}
 	}
 
 	@Override
 	protected void _log(long ttl, Source src, OpLevel sev, String msg, Object... args) throws IOException {
+		if (channels != null) {
+			fanout(msg, ttl, src, sev, args, false);
+			return;
+		}
 		for (EventSink sink : eventSinks) {
 			sink.log(ttl, src, sev, msg, args);
 		}
@@ -203,11 +304,92 @@ public class BroadcastingEventSink extends AbstractEventSink {
 
 	@Override
 	protected void _write(Object msg, Object... args) throws IOException, InterruptedException {
+		if (channels != null) {
+			fanout(msg, 0, null, null, args, true);
+			return;
+		}
 		for (EventSink sink : eventSinks) {
 			sink.write(msg, args);
 		}
 	}
 	
+	/**
+	 * Begin dispatch of a given object to child sinks, so that children using equivalent formatters share formatted
+	 * output. No cache is used when there is only one child sink.
+	 *
+	 * @param obj
+	 *            object being dispatched
+	 * @return format cache bound to the current thread, {@code null} if none was created
+	 */
+	private FormatCache beginFormat(Object obj) {
+		return eventSinks.size() > 1 ? FormatCache.begin(obj) : null;
+	}
+
+	private static void endFormat(FormatCache cache) {
+		if (cache != null) {
+			cache.end();
+		}
+	}
+
+	/**
+	 * Dispatch a tracking object to child channels in pre-formatted form. Tracking objects are mutable (time to live,
+	 * properties added by filters), so filters and time to live of each child are applied here on the calling thread,
+	 * one child at a time, and delivery threads only receive immutable {@link FormattedMessage}s written using
+	 * {@link EventSink#write(Object, Object...)}.
+	 *
+	 * @param obj
+	 *            tracking event, activity or snapshot
+	 */
+	private void fanoutFormatted(TTL obj) {
+		for (FanoutChannel channel : channels) {
+			EventSink sink = channel.getSink();
+			try {
+				if (!isLoggable(sink, obj)) {
+					continue;
+				}
+				if (sink.getTTL() != TTL.TTL_CONTEXT) {
+					obj.setTTL(sink.getTTL());
+				}
+				channel.offer(format(sink.getEventFormatter(), obj), 0, null, null, null, true);
+			} catch (Throwable e) {
+				channel.errorCount.incrementAndGet();
+			}
+		}
+	}
+
+	private static boolean isLoggable(EventSink sink, TTL obj) {
+		if (obj instanceof TrackingEvent) {
+			return sink.isLoggable((TrackingEvent) obj);
+		} else if (obj instanceof TrackingActivity) {
+			return sink.isLoggable((TrackingActivity) obj);
+		}
+		return sink.isLoggable((Snapshot) obj);
+	}
+
+	private static FormattedMessage format(EventFormatter fmt, TTL obj) {
+		if (fmt instanceof ByteFormatter) {
+			ByteFormatter bfmt = (ByteFormatter) fmt;
+			if (obj instanceof TrackingEvent) {
+				return new FormattedMessage(bfmt.toBytes((TrackingEvent) obj));
+			} else if (obj instanceof TrackingActivity) {
+				return new FormattedMessage(bfmt.toBytes((TrackingActivity) obj));
+			}
+			return new FormattedMessage(bfmt.toBytes((Snapshot) obj));
+		}
+		if (obj instanceof TrackingEvent) {
+			return new FormattedMessage(FormatCache.format(fmt, (TrackingEvent) obj));
+		} else if (obj instanceof TrackingActivity) {
+			return new FormattedMessage(FormatCache.format(fmt, (TrackingActivity) obj));
+		}
+		return new FormattedMessage(FormatCache.format(fmt, (Snapshot) obj));
+	}
+
+	private void fanout(Object obj, long ttl, Source src, OpLevel sev, Object[] args, boolean write) {
+		for (FanoutChannel channel : channels) {
+			channel.offer(obj, ttl, src, sev, args, write);
+		}
+	}
+
 	private int openCount() {
 		int openCount = 0;
 		for (EventSink sink : eventSinks) {
@@ -41,6 +41,9 @@ public class BroadcastingEventSinkFactory extends AbstractEventSinkFactory {
 
 	String broadcastSeq;
 	List<EventSinkFactory> sinkFactories = new Vector<EventSinkFactory>(3, 3);
+	boolean parallel = false;
+	int fanoutCapacity = 10000;
+	long fanoutCloseTimeout = 5000;
 	
 	/**
 	 * Create a default broadcasting sink factory
@@ -69,6 +72,33 @@ public class BroadcastingEventSinkFactory extends AbstractEventSinkFactory {
 		return broadcastSeq;
 	}
 	
+	/**
+	 * Determine if created sinks dispatch to child sinks in parallel
+	 * 
+	 * @return true if parallel fan-out is enabled, false otherwise
+	 */
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	/**
+	 * Obtain maximum number of pending objects per child sink when parallel fan-out is enabled
+	 * 
+	 * @return maximum number of pending objects per child sink
+	 */
+	public int getFanoutCapacity() {
+		return fanoutCapacity;
+	}
+
+	/**
+	 * Obtain maximum time to wait for pending objects to be delivered on close when parallel fan-out is enabled
+	 * 
+	 * @return close timeout in milliseconds
+	 */
+	public long getFanoutCloseTimeout() {
+		return fanoutCloseTimeout;
+	}
+
 	protected List<EventSinkFactory> getEventSinkFactories() {
 		return sinkFactories;
 	}
@@ -92,6 +122,9 @@ public class BroadcastingEventSinkFactory extends AbstractEventSinkFactory {
 	public void setConfiguration(Map<String, ?> props) throws ConfigException {
 		super.setConfiguration(props);
 		
+		parallel = Utils.getBoolean("ParallelFanout", props, parallel);
+		fanoutCapacity = Utils.getInt("FanoutCapacity", props, fanoutCapacity);
+		fanoutCloseTimeout = Utils.getLong("FanoutCloseTimeout", props, fanoutCloseTimeout);
 		broadcastSeq = Utils.getString("BroadcastSequence", props, null); 
 		if (broadcastSeq == null) {
 			initBroadcastSequence(props);
@@ -19,7 +19,6 @@ import java.io.IOException;
 import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.LockSupport;
 
 import com.jkoolcloud.tnt4j.core.KeyValueStats;
@@ -31,6 +30,7 @@ import com.jkoolcloud.tnt4j.sink.*;
 import com.jkoolcloud.tnt4j.source.Source;
 import com.jkoolcloud.tnt4j.tracker.TrackingActivity;
 import com.jkoolcloud.tnt4j.tracker.TrackingEvent;
+import com.jkoolcloud.tnt4j.utils.StripedCounter;
 import com.jkoolcloud.tnt4j.utils.Utils;
 
 /**
@@ -65,12 +65,12 @@ public class BufferedEventSink implements EventSink, IOShutdown {
 	private BufferedEventSinkFactory factory;
 
 	// sink stat counters
-	private AtomicLong totalCount = new AtomicLong(0);
-	private AtomicLong signalCount = new AtomicLong(0);
-	private AtomicLong skipCount = new AtomicLong(0);
-	private AtomicLong dropCount = new AtomicLong(0);
-	private AtomicLong rqCount = new AtomicLong(0);
-	private AtomicLong errorCount = new AtomicLong(0);
+	private StripedCounter totalCount = new StripedCounter();
+	private StripedCounter signalCount = new StripedCounter();
+	private StripedCounter skipCount = new StripedCounter();
+	private StripedCounter dropCount = new StripedCounter();
+	private StripedCounter rqCount = new StripedCounter();
+	private StripedCounter errorCount = new StripedCounter();
 
 	/**
 	 * Create a buffered sink instance with a specified out sink maximum capacity. Event will be dropped if capacity is
@@ -200,7 +200,7 @@ public class BufferedEventSink implements EventSink, IOShutdown {
 			SinkLogEvent sinkEvent = new SinkLogEvent(outSink, activity);
 			_writeEvent(sinkEvent, block);
 		} else {
-			skipCount.incrementAndGet();
+			skipCount.increment();
 		}
 	}
 
@@ -214,7 +214,7 @@ public class BufferedEventSink implements EventSink, IOShutdown {
 			SinkLogEvent sinkEvent = new SinkLogEvent(outSink, event);
 			_writeEvent(sinkEvent, block);
 		} else {
-			skipCount.incrementAndGet();
+			skipCount.increment();
 		}
 	}
 
@@ -228,7 +228,7 @@ public class BufferedEventSink implements EventSink, IOShutdown {
 			SinkLogEvent sinkEvent = new SinkLogEvent(outSink, snapshot);
 			_writeEvent(sinkEvent, block);
 		} else {
-			skipCount.incrementAndGet();
+			skipCount.increment();
 		}
 	}
 
@@ -264,7 +264,7 @@ public class BufferedEventSink implements EventSink, IOShutdown {
 			SinkLogEvent sinkEvent = new SinkLogEvent(outSink, src, sev, ttl_sec, bundle, key, resolveArguments(args));
 			_writeEvent(sinkEvent, block);
 		} else {
-			skipCount.incrementAndGet();
+			skipCount.increment();
 		}
 	}
 
@@ -277,22 +277,22 @@ public class BufferedEventSink implements EventSink, IOShutdown {
 					resolveArguments(args));
 			_writeEvent(sinkEvent, block);
 		} else {
-			skipCount.incrementAndGet();
+			skipCount.increment();
 		}
 	}
 
 	private void _writeEvent(SinkLogEvent sinkEvent, boolean sync) {
-		totalCount.incrementAndGet();
+		totalCount.increment();
 		if (sync) {
 			try {
 				factory.getPooledLogger().put(sinkEvent);
 			} catch (Throwable ex) {
-				dropCount.incrementAndGet();
+				dropCount.increment();
 			}
 		} else {
 			boolean flag = factory.getPooledLogger().offer(sinkEvent);
 			if (!flag) {
-				dropCount.incrementAndGet();
+				dropCount.increment();
 			}
 		}
 	}
@@ -356,12 +356,12 @@ public class BufferedEventSink implements EventSink, IOShutdown {
 
 	@Override
 	public void resetStats() {
-		totalCount.set(0);
-		signalCount.set(0);
-		dropCount.set(0);
-		rqCount.set(0);
-		errorCount.set(0);
-		skipCount.set(0);
+		totalCount.reset();
+		signalCount.reset();
+		dropCount.reset();
+		rqCount.reset();
+		errorCount.reset();
+		skipCount.reset();
 		outSink.resetStats();
 	}
 
@@ -549,7 +549,7 @@ public class BufferedEventSink implements EventSink, IOShutdown {
 	 */
 	protected BufferedEventSink signal(SinkLogEvent evt, long wait, TimeUnit tunit) throws IOException {
 		_checkState();
-		signalCount.incrementAndGet();
+		signalCount.increment();
 		_writeEvent(evt, true);
 		LockSupport.parkNanos(this, tunit.toNanos(wait));
 		return this;
@@ -563,13 +563,13 @@ public class BufferedEventSink implements EventSink, IOShutdown {
 	 * @return sink factory instance
 	 */
 	protected BufferedEventSink handleError(SinkError ev) {
-		errorCount.incrementAndGet();
+		errorCount.increment();
 		if (isOpen() && !factory.getPooledLogger().isDQfull()) {
 			SinkLogEvent event = ev.getSinkEvent();
 			factory.getPooledLogger().putDelayed(event);
-			rqCount.incrementAndGet();
+			rqCount.increment();
 		} else {
-			dropCount.incrementAndGet();
+			dropCount.increment();
 		}
 		return this;
 	}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.sink.impl;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>
+ * This class implements a circuit breaker guarding a single event sink in {@link PooledLogger}. While the breaker is
+ * {@link State#CLOSED} events are delivered to the sink. When the sink fails to open, the breaker trips to
+ * {@link State#OPEN} and events are sent straight to the retry/spill path without touching the sink. Once the retry
+ * interval expires, a single caller moves the breaker to {@link State#HALF_OPEN} and probes the sink; the probe either
+ * closes the breaker or opens it again. All state checks are lock free.
+ * </p>
+ *
+ * @version $Revision: 1 $
+ *
+ * @see PooledLogger
+ * @see CircuitBreakerEvent
+ */
+public class CircuitBreaker {
+	/**
+	 * Circuit breaker states
+	 */
+	public enum State {
+		CLOSED, OPEN, HALF_OPEN
+	}
+
+	private final AtomicReference<State> state = new AtomicReference<State>(State.CLOSED);
+	private volatile long openTime;
+	private volatile Throwable lastError;
+
+	/**
+	 * Obtain current breaker state
+	 *
+	 * @return current breaker state
+	 */
+	public State getState() {
+		return state.get();
+	}
+
+	/**
+	 * Determine if breaker lets events through to the sink
+	 *
+	 * @return true if breaker is closed, false otherwise
+	 */
+	public boolean isClosed() {
+		return state.get() == State.CLOSED;
+	}
+
+	/**
+	 * Obtain time when breaker was last opened
+	 *
+	 * @return time in milliseconds when breaker was last opened
+	 */
+	public long getOpenTime() {
+		return openTime;
+	}
+
+	/**
+	 * Obtain error which last opened the breaker
+	 *
+	 * @return last error, may be {@code null}
+	 */
+	public Throwable getLastError() {
+		return lastError;
+	}
+
+	/**
+	 * Open the breaker if it is closed or half open
+	 *
+	 * @param error
+	 *            error causing the breaker to open
+	 * @param time
+	 *            time in milliseconds of the error
+	 * @return previous breaker state, {@code null} if breaker was already open
+	 */
+	State trip(Throwable error, long time) {
+		for (;;) {
+			State prev = state.get();
+			if (prev == State.OPEN) {
+				return null;
+			}
+			if (state.compareAndSet(prev, State.OPEN)) {
+				lastError = error;
+				openTime = time;
+				return prev;
+			}
+		}
+	}
+
+	/**
+	 * Move breaker from open to half open state if retry interval since opening has expired. Only one caller succeeds,
+	 * that caller must probe the sink and either {@link #reset()} or {@link #trip(Throwable, long)} the breaker.
+	 *
+	 * @param now
+	 *            current time in milliseconds
+	 * @param retryInterval
+	 *            time in milliseconds the breaker stays open
+	 * @return true if caller should probe the sink, false otherwise
+	 */
+	boolean tryProbe(long now, long retryInterval) {
+		return state.get() == State.OPEN && (now - openTime) >= retryInterval
+				&& state.compareAndSet(State.OPEN, State.HALF_OPEN);
+	}
+
+	/**
+	 * Close the breaker
+	 *
+	 * @return previous breaker state, {@code null} if breaker was already closed
+	 */
+	State reset() {
+		State prev = state.getAndSet(State.CLOSED);
+		if (prev != State.CLOSED) {
+			lastError = null;
+			return prev;
+		}
+		return null;
+	}
+
+	@Override
+	public String toString() {
+		return super.toString() + "{state: " + state.get() + ", open.time: " + openTime + ", last.error: "
+				+ lastError + "}";
+	}
+}
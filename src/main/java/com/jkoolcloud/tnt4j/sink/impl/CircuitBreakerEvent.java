@@ -0,0 +1,83 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.sink.impl;
+
+import com.jkoolcloud.tnt4j.sink.EventSink;
+import com.jkoolcloud.tnt4j.sink.SinkError;
+import com.jkoolcloud.tnt4j.sink.SinkLogEvent;
+
+/**
+ * <p>
+ * An event class reporting a state transition of a {@link CircuitBreaker} guarding an event sink in
+ * {@link PooledLogger}. Delivered to {@link com.jkoolcloud.tnt4j.sink.SinkErrorListener}s registered with the pooled
+ * logger.
+ * </p>
+ *
+ * @version $Revision: 1 $
+ *
+ * @see CircuitBreaker
+ * @see PooledLogger#addSinkErrorListener(com.jkoolcloud.tnt4j.sink.SinkErrorListener)
+ */
+public class CircuitBreakerEvent extends SinkError {
+	private static final long serialVersionUID = 1L;
+
+	private final CircuitBreaker.State fromState;
+	private final CircuitBreaker.State toState;
+
+	/**
+	 * Create a new event instance
+	 *
+	 * @param sink
+	 *            sink guarded by the breaker
+	 * @param msg
+	 *            message which triggered the transition, may be {@code null}
+	 * @param ex
+	 *            error which opened the breaker, may be {@code null}
+	 * @param from
+	 *            previous breaker state
+	 * @param to
+	 *            new breaker state
+	 */
+	public CircuitBreakerEvent(EventSink sink, SinkLogEvent msg, Throwable ex, CircuitBreaker.State from,
+			CircuitBreaker.State to) {
+		super(sink, msg, ex);
+		fromState = from;
+		toState = to;
+	}
+
+	/**
+	 * Obtain breaker state before the transition
+	 *
+	 * @return previous breaker state
+	 */
+	public CircuitBreaker.State getFromState() {
+		return fromState;
+	}
+
+	/**
+	 * Obtain breaker state after the transition
+	 *
+	 * @return new breaker state
+	 */
+	public CircuitBreaker.State getToState() {
+		return toState;
+	}
+
+	@Override
+	public String toString() {
+		return super.toString() + "{from: " + fromState + ", to: " + toState + "}";
+	}
+}
@@ -15,16 +15,20 @@
  */
 package com.jkoolcloud.tnt4j.sink.impl;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import com.jkoolcloud.tnt4j.core.OpLevel;
 import com.jkoolcloud.tnt4j.sink.SinkLogEvent;
 
 /**
  * This class implements a task for asynchronous handling and delivery of delayed logging events to various event sinks.
- * Delayed events are those that could not be handled due to error or some other non-deliverable condition.
+ * Delayed events are those that could not be handled due to error or some other non-deliverable condition. The task
+ * drives the retry timing wheel, re-queueing all events expired on each tick in one batch.
  *
  * @version $Revision: 1 $
  *
- * @see com.jkoolcloud.tnt4j.sink.impl.PooledLogger#takeDelayedEvent()
+ * @see com.jkoolcloud.tnt4j.sink.impl.PooledLogger#requeueDelayedEvents(List)
  * @see com.jkoolcloud.tnt4j.sink.impl.PooledLogger#put(com.jkoolcloud.tnt4j.sink.SinkLogEvent)
  */
 class DelayedLoggingTask extends AbstractPoolLoggingTask {
@@ -34,14 +38,10 @@ class DelayedLoggingTask extends AbstractPoolLoggingTask {
 
 	@Override
 	public void run() {
+		List<SinkLogEvent> batch = new ArrayList<SinkLogEvent>();
 		try {
-			while (!isCanceled()) {
-				SinkLogEvent event = pooledLogger.takeDelayedEvent();
-				if (event.getSignalType() == SinkLogEvent.SIGNAL_TERMINATE) {
-					cancel();
-				} else {
-					pooledLogger.put(event);
-				}
+			while (!isCanceled() && !pooledLogger.isShut()) {
+				pooledLogger.requeueDelayedEvents(batch);
 			}
 		} catch (Throwable e) {
 			PooledLogger.logger.log(OpLevel.WARNING,
@@ -49,4 +49,4 @@ class DelayedLoggingTask extends AbstractPoolLoggingTask {
 					pooledLogger.exceptionCount.get(), e);
 		}
 	}
-}
\ No newline at end of file
+}
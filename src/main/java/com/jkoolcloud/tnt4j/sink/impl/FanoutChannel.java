@@ -0,0 +1,235 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.sink.impl;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.jkoolcloud.tnt4j.core.OpLevel;
+import com.jkoolcloud.tnt4j.sink.DefaultEventSinkFactory;
+import com.jkoolcloud.tnt4j.sink.EventSink;
+import com.jkoolcloud.tnt4j.source.Source;
+
+/**
+ * This class implements a bounded, single consumer delivery channel used by {@link BroadcastingEventSink} to dispatch
+ * objects to a single child sink on a dedicated thread. Objects are dropped when the channel is full, so a slow or
+ * failing child does not delay the caller or its sibling sinks. Tracking objects are mutable, so they are passed to
+ * channels only as pre-formatted messages (see {@link BroadcastingEventSink}).
+ *
+ * @version $Revision: 1 $
+ *
+ * @see BroadcastingEventSink
+ */
+class FanoutChannel implements Runnable {
+	private static final EventSink logger = DefaultEventSinkFactory.defaultEventSink(FanoutChannel.class);
+	private static final long POLL_TIMEOUT_MS = 100;
+
+	private final EventSink sink;
+	private final BlockingQueue<Item> queue;
+	private volatile boolean running = false;
+	private volatile Thread worker;
+
+	final AtomicLong queuedCount = new AtomicLong(0);
+	final AtomicLong deliveredCount = new AtomicLong(0);
+	final AtomicLong dropCount = new AtomicLong(0);
+	final AtomicLong errorCount = new AtomicLong(0);
+
+	/**
+	 * Create a channel for a given child sink
+	 *
+	 * @param sink
+	 *            child sink
+	 * @param capacity
+	 *            maximum number of pending objects
+	 */
+	FanoutChannel(EventSink sink, int capacity) {
+		this.sink = sink;
+		this.queue = new ArrayBlockingQueue<Item>(capacity);
+	}
+
+	/**
+	 * Obtain child sink served by this channel
+	 *
+	 * @return child sink
+	 */
+	EventSink getSink() {
+		return sink;
+	}
+
+	/**
+	 * Start channel delivery thread
+	 *
+	 * @param name
+	 *            delivery thread name
+	 */
+	synchronized void start(String name) {
+		if (running) {
+			return;
+		}
+		running = true;
+		worker = new Thread(this, name);
+		worker.setDaemon(true);
+		worker.start();
+	}
+
+	/**
+	 * Stop channel delivery thread, waiting for pending objects to be delivered. If pending objects are not delivered
+	 * within the given time, delivery thread is interrupted and remaining objects are dropped. Child sink must not be
+	 * closed when this method returns false, since delivery thread may still be writing to it.
+	 *
+	 * @param timeoutMs
+	 *            maximum time to wait for pending objects in milliseconds
+	 * @return true if delivery thread has exited, false if it is still running
+	 */
+	synchronized boolean stop(long timeoutMs) {
+		Thread thread = worker;
+		if (thread == null) {
+			return true;
+		}
+		running = false;
+		try {
+			thread.join(timeoutMs);
+			if (thread.isAlive()) {
+				worker = null;
+				thread.interrupt();
+				thread.join(POLL_TIMEOUT_MS);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			worker = null;
+		}
+		if (thread.isAlive()) {
+			logger.log(OpLevel.WARNING, "Fan-out delivery thread did not stop, sink left open: sink={0}, dropped={1}",
+					sink, dropCount.get() + queue.size());
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Enqueue an object for delivery, dropping it if channel is full.
+	 *
+	 * @param obj
+	 *            object to be delivered
+	 * @param ttl
+	 *            time to live of log messages
+	 * @param src
+	 *            source of log messages
+	 * @param sev
+	 *            severity of log messages
+	 * @param args
+	 *            arguments of log messages and writes
+	 * @param write
+	 *            true if object should be written using {@link EventSink#write(Object, Object...)}
+	 * @return true if enqueued, false if dropped
+	 */
+	boolean offer(Object obj, long ttl, Source src, OpLevel sev, Object[] args, boolean write) {
+		if (queue.offer(new Item(obj, ttl, src, sev, args, write))) {
+			queuedCount.incrementAndGet();
+			return true;
+		}
+		dropCount.incrementAndGet();
+		return false;
+	}
+
+	/**
+	 * Obtain number of pending objects
+	 *
+	 * @return number of pending objects
+	 */
+	int size() {
+		return queue.size();
+	}
+
+	/**
+	 * Obtain age of the oldest pending object in milliseconds
+	 *
+	 * @return delivery lag in milliseconds, 0 if no pending objects
+	 */
+	long getLagMs() {
+		Item head = queue.peek();
+		return head != null ? Math.max(0, System.currentTimeMillis() - head.time) : 0;
+	}
+
+	/**
+	 * Reset channel statistics
+	 */
+	void resetStats() {
+		queuedCount.set(0);
+		deliveredCount.set(0);
+		dropCount.set(0);
+		errorCount.set(0);
+	}
+
+	@Override
+	public void run() {
+		while ((running || !queue.isEmpty()) && worker == Thread.currentThread()) {
+			Item item;
+			try {
+				item = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+			if (item != null) {
+				deliver(item);
+			}
+		}
+		if (!running) {
+			dropCount.addAndGet(queue.size());
+			queue.clear();
+		}
+	}
+
+	private void deliver(Item item) {
+		try {
+			Object obj = item.obj;
+			if (item.write) {
+				sink.write(obj, item.args);
+			} else {
+				sink.log(item.ttl, item.src, item.sev, String.valueOf(obj), item.args);
+			}
+			deliveredCount.incrementAndGet();
+		} catch (Throwable e) {
+			errorCount.incrementAndGet();
+			if (logger.isSet(OpLevel.DEBUG)) {
+				logger.log(OpLevel.DEBUG, "Failed to deliver broadcast object: sink={0}", sink, e);
+			}
+		}
+	}
+
+	private static class Item {
+		final long time = System.currentTimeMillis();
+		final Object obj;
+		final long ttl;
+		final Source src;
+		final OpLevel sev;
+		final Object[] args;
+		final boolean write;
+
+		Item(Object obj, long ttl, Source src, OpLevel sev, Object[] args, boolean write) {
+			this.obj = obj;
+			this.ttl = ttl;
+			this.src = src;
+			this.sev = sev;
+			this.args = args;
+			this.write = write;
+		}
+	}
+}
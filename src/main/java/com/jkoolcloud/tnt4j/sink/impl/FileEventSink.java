@@ -20,6 +20,7 @@ import java.io.IOException;
 import com.jkoolcloud.tnt4j.core.OpLevel;
 import com.jkoolcloud.tnt4j.core.Snapshot;
 import com.jkoolcloud.tnt4j.format.EventFormatter;
+import com.jkoolcloud.tnt4j.format.StreamFormatter;
 import com.jkoolcloud.tnt4j.sink.AbstractEventSink;
 import com.jkoolcloud.tnt4j.sink.EventSink;
 import com.jkoolcloud.tnt4j.source.Source;
@@ -94,17 +95,21 @@ public class FileEventSink extends AbstractEventSink {
 
 	@Override
 	protected void _log(TrackingEvent event) throws IOException {
-		_writeLog(getEventFormatter().format(event));
+		_writeLog(format(event));
 	}
 
 	@Override
 	protected void _log(TrackingActivity activity) throws IOException {
-		_writeLog(getEventFormatter().format(activity));
+		if (isStreamed(activity)) {
+			_writeLog((StreamFormatter) getEventFormatter(), activity);
+		} else {
+			_writeLog(format(activity));
+		}
 	}
 
 	@Override
 	protected void _log(Snapshot snapshot) {
-		_writeLog(getEventFormatter().format(snapshot));
+		_writeLog(format(snapshot));
 	}
 
 	@Override
@@ -119,6 +124,12 @@ public class FileEventSink extends AbstractEventSink {
 		fileSink.print_(msg);
 	}
 
+	protected synchronized void _writeLog(StreamFormatter fmt, TrackingActivity activity) throws IOException {
+		_checkState();
+
+		incrementBytesSent((int) fileSink.print_(fmt, activity));
+	}
+
 	@Override
 	public void flush() {
 		if (isOpen()) {
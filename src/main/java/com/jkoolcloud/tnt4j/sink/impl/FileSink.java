@@ -24,7 +24,9 @@ import java.util.concurrent.locks.ReentrantLock;
 
 import com.jkoolcloud.tnt4j.format.DefaultFormatter;
 import com.jkoolcloud.tnt4j.format.Formatter;
+import com.jkoolcloud.tnt4j.format.StreamFormatter;
 import com.jkoolcloud.tnt4j.sink.Sink;
+import com.jkoolcloud.tnt4j.tracker.TrackingActivity;
 
 /**
  * <p>
@@ -177,4 +179,17 @@ public class FileSink implements Sink {
 		}
 		printer.flush();
 	}
+
+	long print_(StreamFormatter fmt, TrackingActivity activity) throws IOException {
+		long bytes;
+		lock.lock();
+		try {
+			bytes = fmt.write(activity, printer);
+			printer.println();
+		} finally {
+			lock.unlock();
+		}
+		printer.flush();
+		return bytes;
+	}
 }
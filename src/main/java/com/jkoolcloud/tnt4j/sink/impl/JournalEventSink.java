@@ -0,0 +1,282 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.sink.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.jkoolcloud.tnt4j.core.KeyValueStats;
+import com.jkoolcloud.tnt4j.core.OpLevel;
+import com.jkoolcloud.tnt4j.core.Snapshot;
+import com.jkoolcloud.tnt4j.format.ByteFormatter;
+import com.jkoolcloud.tnt4j.format.EventFormatter;
+import com.jkoolcloud.tnt4j.format.FormattedMessage;
+import com.jkoolcloud.tnt4j.sink.AbstractEventSink;
+import com.jkoolcloud.tnt4j.sink.EventSink;
+import com.jkoolcloud.tnt4j.source.Source;
+import com.jkoolcloud.tnt4j.tracker.TrackingActivity;
+import com.jkoolcloud.tnt4j.tracker.TrackingEvent;
+import com.jkoolcloud.tnt4j.utils.Utils;
+
+/**
+ * <p>
+ * This class implements a write-ahead journaling event sink, which guarantees delivery of events to a wrapped sink
+ * across JVM crashes. Each event is formatted using the wrapped sink formatter and appended to a local journal of
+ * memory-mapped segment files (see {@link SpillQueue}). Logging call returns only after the journal is forced to
+ * disk. With group commit enabled, concurrent callers share a single force of the journal instead of forcing it one
+ * by one.
+ * </p>
+ *
+ * <p>
+ * A background {@link JournalShipper} replays journaled messages in order to the wrapped sink and truncates shipped
+ * segments. Messages not yet shipped when the sink is closed or the JVM crashes are shipped after the journal is
+ * re-opened (at least once delivery). Messages whose time to live elapsed while journaled are dropped instead of
+ * shipped.
+ * </p>
+ *
+ * <p>
+ * Journal directory is derived from the sink name and locked exclusively while the sink is open. Opening a second
+ * sink with the same name, in this or another process, fails with an {@link IOException}; sinks sharing a journal
+ * directory must be given distinct names.
+ * </p>
+ *
+ * @version $Revision: 1 $
+ *
+ * @see JournalEventSinkFactory
+ * @see JournalShipper
+ * @see SpillQueue
+ */
+public class JournalEventSink extends AbstractEventSink {
+	static final String KEY_JOURNAL_SIZE = "journal-size";
+	static final String KEY_JOURNAL_DISK_BYTES = "journal-disk-bytes";
+	static final String KEY_JOURNAL_SYNCS = "journal-syncs";
+	static final String KEY_JOURNAL_APPENDED = "journal-appended";
+	static final String KEY_JOURNAL_SHIPPED = "journal-shipped";
+	static final String KEY_JOURNAL_SHIP_ERRORS = "journal-ship-errors";
+	static final String KEY_JOURNAL_EXPIRED = "journal-expired";
+	static final String KEY_JOURNAL_GROUP_COMMIT = "journal-group-commit";
+
+	private final JournalEventSinkFactory factory;
+	private final EventSink outSink;
+	private volatile SpillQueue journal;
+	private volatile JournalShipper shipper;
+
+	private final AtomicLong appendCount = new AtomicLong(0);
+
+	/**
+	 * Create a journaling sink wrapping a given event sink
+	 *
+	 * @param f
+	 *            journaling event sink factory
+	 * @param sink
+	 *            wrapped sink where journaled events are shipped
+	 */
+	public JournalEventSink(JournalEventSinkFactory f, EventSink sink) {
+		super(sink.getName(), sink.getEventFormatter());
+		factory = f;
+		outSink = sink;
+		outSink.filterOnLog(false); // events are filtered before journaling
+	}
+
+	/**
+	 * Obtain wrapped sink where journaled events are shipped
+	 *
+	 * @return wrapped event sink
+	 */
+	public EventSink getOutSink() {
+		return outSink;
+	}
+
+	/**
+	 * Obtain journal associated with this sink
+	 *
+	 * @return journal instance, {@code null} if sink is not open
+	 */
+	public SpillQueue getJournal() {
+		return journal;
+	}
+
+	@Override
+	public Object getSinkHandle() {
+		return outSink;
+	}
+
+	@Override
+	public boolean isOpen() {
+		return journal != null;
+	}
+
+	@Override
+	public synchronized void open() throws IOException {
+		if (journal != null) {
+			return;
+		}
+		File dir = new File(factory.getJournalDir(), getName().replaceAll("[^\\w.-]", "_"));
+		journal = new SpillQueue(dir, factory.getSegmentSize(), factory.getMaxBytes());
+		shipper = new JournalShipper(outSink, journal, factory.getRetryInterval());
+		shipper.start("JournalEventSink(" + getName() + ")/shipper");
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (journal == null) {
+			return;
+		}
+		SpillQueue jrnl = journal;
+		JournalShipper shp = shipper;
+		journal = null;
+		shipper = null;
+		if (!shp.stop(factory.getCloseTimeout())) {
+			// shipper is still delivering and closes journal and out sink on exit
+			return;
+		}
+		try {
+			jrnl.close();
+		} finally {
+			if (outSink.isOpen()) {
+				outSink.close();
+			}
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if (outSink.isOpen()) {
+			outSink.flush();
+		}
+	}
+
+	@Override
+	public void setEventFormatter(EventFormatter formatter) {
+		super.setEventFormatter(formatter);
+		outSink.setEventFormatter(formatter);
+	}
+
+	@Override
+	public void setSource(Source src) {
+		super.setSource(src);
+		outSink.setSource(src);
+	}
+
+	@Override
+	public Map<String, Object> getStats() {
+		LinkedHashMap<String, Object> stats = new LinkedHashMap<String, Object>(32);
+		getStats(stats);
+		return stats;
+	}
+
+	@Override
+	public KeyValueStats getStats(Map<String, Object> stats) {
+		super.getStats(stats);
+		SpillQueue jrnl = journal;
+		JournalShipper shp = shipper;
+		stats.put(Utils.qualify(this, KEY_JOURNAL_GROUP_COMMIT), factory.isGroupCommit());
+		stats.put(Utils.qualify(this, KEY_JOURNAL_APPENDED), appendCount.get());
+		if (jrnl != null) {
+			stats.put(Utils.qualify(this, KEY_JOURNAL_SIZE), jrnl.size());
+			stats.put(Utils.qualify(this, KEY_JOURNAL_DISK_BYTES), jrnl.getDiskUsage());
+			stats.put(Utils.qualify(this, KEY_JOURNAL_SYNCS), jrnl.getSyncCount());
+		}
+		if (shp != null) {
+			stats.put(Utils.qualify(this, KEY_JOURNAL_SHIPPED), shp.shippedCount.get());
+			stats.put(Utils.qualify(this, KEY_JOURNAL_SHIP_ERRORS), shp.errorCount.get());
+			stats.put(Utils.qualify(this, KEY_JOURNAL_EXPIRED), shp.expiredCount.get());
+		}
+		return outSink.getStats(stats);
+	}
+
+	@Override
+	public void resetStats() {
+		super.resetStats();
+		appendCount.set(0);
+		JournalShipper shp = shipper;
+		if (shp != null) {
+			shp.resetStats();
+		}
+		outSink.resetStats();
+	}
+
+	@Override
+	protected void _log(TrackingEvent event) throws IOException {
+		EventFormatter fmt = getEventFormatter();
+		journal(event.getTTL(), fmt instanceof ByteFormatter ? new FormattedMessage(((ByteFormatter) fmt).toBytes(event))
+				: new FormattedMessage(format(event)));
+	}
+
+	@Override
+	protected void _log(TrackingActivity activity) throws IOException {
+		EventFormatter fmt = getEventFormatter();
+		journal(activity.getTTL(), fmt instanceof ByteFormatter
+				? new FormattedMessage(((ByteFormatter) fmt).toBytes(activity)) : new FormattedMessage(format(activity)));
+	}
+
+	@Override
+	protected void _log(Snapshot snapshot) throws IOException {
+		EventFormatter fmt = getEventFormatter();
+		journal(snapshot.getTTL(), fmt instanceof ByteFormatter
+				? new FormattedMessage(((ByteFormatter) fmt).toBytes(snapshot)) : new FormattedMessage(format(snapshot)));
+	}
+
+	@Override
+	protected void _log(long ttl, Source src, OpLevel sev, String msg, Object... args) throws IOException {
+		EventFormatter fmt = getEventFormatter();
+		journal(ttl, fmt instanceof ByteFormatter
+				? new FormattedMessage(((ByteFormatter) fmt).toBytes(ttl, src, sev, msg, args))
+				: new FormattedMessage(fmt.format(ttl, src, sev, msg, args)));
+	}
+
+	@Override
+	protected void _write(Object msg, Object... args) throws IOException, InterruptedException {
+		if (msg instanceof FormattedMessage) {
+			journal(getTTL(), (FormattedMessage) msg);
+			return;
+		}
+		EventFormatter fmt = getEventFormatter();
+		journal(getTTL(), fmt instanceof ByteFormatter ? new FormattedMessage(((ByteFormatter) fmt).toBytes(msg, args))
+				: new FormattedMessage(fmt.format(msg, args)));
+	}
+
+	/**
+	 * Append a formatted message to the journal and wait until it is durable
+	 *
+	 * @param ttl
+	 *            message time to live
+	 * @param msg
+	 *            formatted message
+	 * @throws IOException
+	 *             if journal is full or message can not be made durable
+	 */
+	private void journal(long ttl, FormattedMessage msg) throws IOException {
+		SpillQueue jrnl = journal;
+		JournalShipper shp = shipper;
+		if (jrnl == null || shp == null) {
+			throw new IOException("Journal not open: sink=" + getName());
+		}
+		if (!jrnl.append(getName(), ttl, msg)) {
+			throw new IOException("Journal full: sink=" + getName() + ", journal=" + jrnl);
+		}
+		if (factory.isGroupCommit()) {
+			jrnl.sync();
+		} else {
+			jrnl.force();
+		}
+		appendCount.incrementAndGet();
+		shp.wakeUp();
+	}
+}
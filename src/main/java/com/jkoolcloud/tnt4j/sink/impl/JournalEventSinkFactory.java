@@ -0,0 +1,153 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.sink.impl;
+
+import java.util.Map;
+import java.util.Properties;
+
+import com.jkoolcloud.tnt4j.config.ConfigException;
+import com.jkoolcloud.tnt4j.format.EventFormatter;
+import com.jkoolcloud.tnt4j.sink.AbstractEventSinkFactory;
+import com.jkoolcloud.tnt4j.sink.EventSink;
+import com.jkoolcloud.tnt4j.sink.EventSinkFactory;
+import com.jkoolcloud.tnt4j.utils.Utils;
+
+/**
+ * <p>
+ * Journaling implementation of {@link EventSinkFactory} interface, which creates instances of {@link JournalEventSink}.
+ * This factory uses a concrete {@link EventSinkFactory} specified by {@code EventSinkFactory} configuration attribute
+ * to create event sinks and wraps them with instances of {@link JournalEventSink}.
+ * </p>
+ *
+ * @see EventSink
+ * @see JournalEventSink
+ *
+ * @version $Revision: 1 $
+ *
+ */
+public class JournalEventSinkFactory extends AbstractEventSinkFactory {
+	public static final String DEFAULT_JOURNAL_DIR = System.getProperty("tnt4j.journal.dir", "journal");
+
+	String journalDir = DEFAULT_JOURNAL_DIR;
+	int segmentSize = SpillQueue.DEFAULT_SEGMENT_SIZE;
+	long maxBytes = SpillQueue.DEFAULT_MAX_BYTES;
+	boolean groupCommit = true;
+	long retryInterval = 5000;
+	long closeTimeout = 5000;
+	EventSinkFactory sinkFactory;
+
+	/**
+	 * Create a default journaling sink factory
+	 *
+	 */
+	public JournalEventSinkFactory() {
+		this(null);
+	}
+
+	/**
+	 * Create a default journaling sink factory with a given sink factory used to create concrete event sinks.
+	 *
+	 * @param factory
+	 *            concrete event sink factory instance
+	 */
+	public JournalEventSinkFactory(EventSinkFactory factory) {
+		sinkFactory = factory;
+	}
+
+	/**
+	 * Obtain directory where journal segments are stored, one sub-directory per sink
+	 *
+	 * @return journal directory
+	 */
+	public String getJournalDir() {
+		return journalDir;
+	}
+
+	/**
+	 * Obtain size of a single journal segment file
+	 *
+	 * @return segment size in bytes
+	 */
+	public int getSegmentSize() {
+		return segmentSize;
+	}
+
+	/**
+	 * Obtain maximum disk space used by a single sink journal
+	 *
+	 * @return maximum journal size in bytes
+	 */
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * Determine if concurrent writers share journal forces (group commit)
+	 *
+	 * @return true if group commit is enabled, false if each write forces the journal
+	 */
+	public boolean isGroupCommit() {
+		return groupCommit;
+	}
+
+	/**
+	 * Obtain time to wait before retrying failed delivery to the wrapped sink
+	 *
+	 * @return retry interval in milliseconds
+	 */
+	public long getRetryInterval() {
+		return retryInterval;
+	}
+
+	/**
+	 * Obtain maximum time to wait for journal shipper to stop when sink is closed
+	 *
+	 * @return close timeout in milliseconds
+	 */
+	public long getCloseTimeout() {
+		return closeTimeout;
+	}
+
+	@Override
+	public EventSink getEventSink(String name) {
+		return configureSink(new JournalEventSink(this, sinkFactory.getEventSink(name)));
+	}
+
+	@Override
+	public EventSink getEventSink(String name, Properties props) {
+		return configureSink(new JournalEventSink(this, sinkFactory.getEventSink(name, props)));
+	}
+
+	@Override
+	public EventSink getEventSink(String name, Properties props, EventFormatter frmt) {
+		return configureSink(new JournalEventSink(this, sinkFactory.getEventSink(name, props, frmt)));
+	}
+
+	@Override
+	public void setConfiguration(Map<String, ?> props) throws ConfigException {
+		super.setConfiguration(props);
+		sinkFactory = (EventSinkFactory) Utils.createConfigurableObject("EventSinkFactory", "EventSinkFactory.", props);
+		journalDir = Utils.getString("JournalDir", props, journalDir);
+		segmentSize = Utils.getInt("SegmentSize", props, segmentSize);
+		maxBytes = Utils.getLong("MaxBytes", props, maxBytes);
+		groupCommit = Utils.getBoolean("GroupCommit", props, groupCommit);
+		retryInterval = Utils.getLong("RetryInterval", props, retryInterval);
+		closeTimeout = Utils.getLong("CloseTimeout", props, closeTimeout);
+		if (sinkFactory == null) {
+			throw new ConfigException("Missing EventSinkFactory implementation", props);
+		}
+	}
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.sink.impl;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.jkoolcloud.tnt4j.core.OpLevel;
+import com.jkoolcloud.tnt4j.sink.DefaultEventSinkFactory;
+import com.jkoolcloud.tnt4j.sink.EventSink;
+
+/**
+ * This class implements a single consumer delivery thread used by {@link JournalEventSink} to replay journaled
+ * messages, in order, to the wrapped sink. A journal record is removed only after the wrapped sink accepts it without
+ * an error. Read position is checkpointed periodically and whenever the journal is drained, so fully shipped segments
+ * are truncated. Delivery is retried every retry interval while the wrapped sink fails. Records whose time to live
+ * elapsed since they were journaled are removed without shipping.
+ *
+ * @version $Revision: 1 $
+ *
+ * @see JournalEventSink
+ * @see SpillQueue
+ */
+class JournalShipper implements Runnable {
+	private static final EventSink logger = DefaultEventSinkFactory.defaultEventSink(JournalShipper.class);
+	private static final long IDLE_WAIT_MS = 100;
+	private static final int CHECKPOINT_BATCH = Integer.getInteger("tnt4j.journal.checkpoint.batch", 1000);
+
+	private final EventSink sink;
+	private final SpillQueue journal;
+	private final long retryInterval;
+	private volatile boolean running = false;
+	private volatile Thread worker;
+	private final Object exitLock = new Object();
+	private boolean exited = false;
+	private boolean closeOnExit = false;
+
+	final AtomicLong shippedCount = new AtomicLong(0);
+	final AtomicLong errorCount = new AtomicLong(0);
+	final AtomicLong expiredCount = new AtomicLong(0);
+
+	/**
+	 * Create a shipper for a given journal and wrapped sink
+	 *
+	 * @param sink
+	 *            wrapped sink where journaled messages are delivered
+	 * @param journal
+	 *            journal holding messages to be delivered
+	 * @param retryInterval
+	 *            time in milliseconds to wait before retrying failed delivery
+	 */
+	JournalShipper(EventSink sink, SpillQueue journal, long retryInterval) {
+		this.sink = sink;
+		this.journal = journal;
+		this.retryInterval = retryInterval;
+	}
+
+	/**
+	 * Start shipper delivery thread
+	 *
+	 * @param name
+	 *            delivery thread name
+	 */
+	synchronized void start(String name) {
+		if (running) {
+			return;
+		}
+		running = true;
+		worker = new Thread(this, name);
+		worker.setDaemon(true);
+		worker.start();
+	}
+
+	/**
+	 * Stop shipper delivery thread. Messages not yet delivered remain in the journal. If delivery thread does not stop
+	 * within the given time, it is left to finish its current delivery and closes the journal and the sink itself on
+	 * exit; callers must not close either of them when this method returns false.
+	 *
+	 * @param timeoutMs
+	 *            maximum time to wait for delivery thread to stop in milliseconds
+	 * @return true if delivery thread has exited, false if it is still running
+	 */
+	synchronized boolean stop(long timeoutMs) {
+		Thread thread = worker;
+		if (thread == null) {
+			return true;
+		}
+		running = false;
+		try {
+			LockSupport.unpark(thread);
+			thread.join(timeoutMs);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			worker = null;
+		}
+		synchronized (exitLock) {
+			if (exited) {
+				return true;
+			}
+			closeOnExit = true;
+		}
+		logger.log(OpLevel.WARNING, "Journal shipper did not stop in time, closing on exit: journal={0}, sink={1}",
+				journal, sink);
+		return false;
+	}
+
+	void wakeUp() {
+		Thread thread = worker;
+		if (thread != null) {
+			LockSupport.unpark(thread);
+		}
+	}
+
+	/**
+	 * Reset shipper statistics
+	 */
+	void resetStats() {
+		shippedCount.set(0);
+		errorCount.set(0);
+		expiredCount.set(0);
+	}
+
+	@Override
+	public void run() {
+		try {
+			deliver();
+		} finally {
+			exit();
+		}
+	}
+
+	private void deliver() {
+		int unsaved = 0;
+		while (running) {
+			try {
+				SpillQueue.SpillRecord rec = journal.peek();
+				if (rec == null) {
+					if (unsaved > 0) {
+						journal.checkpoint();
+						unsaved = 0;
+					}
+					LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(IDLE_WAIT_MS));
+				} else if (rec.isExpired(System.currentTimeMillis())) {
+					// time to live elapsed while journaled, drop instead of shipping
+					journal.remove();
+					expiredCount.incrementAndGet();
+					unsaved++;
+				} else if (ship(rec)) {
+					journal.remove();
+					shippedCount.incrementAndGet();
+					if (++unsaved >= CHECKPOINT_BATCH) {
+						journal.checkpoint();
+						unsaved = 0;
+					}
+				} else {
+					errorCount.incrementAndGet();
+					LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(retryInterval));
+				}
+			} catch (Throwable e) {
+				errorCount.incrementAndGet();
+				logger.log(OpLevel.ERROR, "Journal shipping failed: journal={0}, sink={1}", journal, sink, e);
+				LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(retryInterval));
+			}
+		}
+	}
+
+	private void exit() {
+		synchronized (exitLock) {
+			exited = true;
+			if (!closeOnExit) {
+				return;
+			}
+		}
+		try {
+			journal.close();
+			if (sink.isOpen()) {
+				sink.close();
+			}
+		} catch (Throwable e) {
+			logger.log(OpLevel.ERROR, "Failed to close journal: journal={0}, sink={1}", journal, sink, e);
+		}
+	}
+
+	private boolean ship(SpillQueue.SpillRecord rec) throws InterruptedException {
+		try {
+			if (!sink.isOpen()) {
+				sink.open();
+			}
+			// sinks report write errors to listeners, so compare error counts to detect failed delivery
+			long errors = sink.getErrorCount();
+			sink.write(rec.getMessage());
+			return sink.getErrorCount() == errors && !sink.errorState();
+		} catch (IOException e) {
+			if (logger.isSet(OpLevel.DEBUG)) {
+				logger.log(OpLevel.DEBUG, "Failed to ship journaled message: sink={0}", sink, e);
+			}
+			return false;
+		}
+	}
+}
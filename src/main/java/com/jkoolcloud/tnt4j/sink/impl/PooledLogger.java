@@ -16,21 +16,34 @@
 package com.jkoolcloud.tnt4j.sink.impl;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.WeakHashMap;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.LockSupport;
 
 import com.jkoolcloud.tnt4j.core.KeyValueStats;
 import com.jkoolcloud.tnt4j.core.OpLevel;
 import com.jkoolcloud.tnt4j.core.Snapshot;
+import com.jkoolcloud.tnt4j.format.ByteFormatter;
+import com.jkoolcloud.tnt4j.format.EventFormatter;
+import com.jkoolcloud.tnt4j.format.FormattedMessage;
 import com.jkoolcloud.tnt4j.limiter.DefaultLimiterFactory;
 import com.jkoolcloud.tnt4j.limiter.Limiter;
 import com.jkoolcloud.tnt4j.sink.*;
+import com.jkoolcloud.tnt4j.source.Source;
+import com.jkoolcloud.tnt4j.stats.StatsRegistry;
 import com.jkoolcloud.tnt4j.tracker.TrackingActivity;
 import com.jkoolcloud.tnt4j.tracker.TrackingEvent;
+import com.jkoolcloud.tnt4j.utils.LatencyHistogram;
 import com.jkoolcloud.tnt4j.utils.NamedThreadFactory;
+import com.jkoolcloud.tnt4j.utils.StripedCounter;
 import com.jkoolcloud.tnt4j.utils.Utils;
 
 /**
@@ -41,6 +54,28 @@ import com.jkoolcloud.tnt4j.utils.Utils;
  * preserved and should be used to sequence events properly.
  * </p>
  *
+ * <p>
+ * Optionally a persistent {@link SpillQueue} can be associated with the logger. Events which can not be placed on the
+ * delay queue (or the main queue when it is full) are formatted using their sink formatter and spilled to disk instead
+ * of being dropped. Spilled events are replayed in order when sinks recover and there is room in the main queue.
+ * </p>
+ *
+ * <p>
+ * Events which can not be delivered are scheduled for retry on a hashed timing wheel (see {@link RetryWheel}). Retry
+ * delay of each sink grows exponentially with consecutive failed delivery attempts, starting at retry backoff and
+ * capped at retry interval, with random jitter, so retries of a flapping sink are spread out. All events failing within
+ * the current retry delay count as a single attempt, and backoff is reset only once the sink delivers events after
+ * the current retry delay elapses. Number of pending retries of a single sink is limited by retry budget; events
+ * beyond the budget are spilled or skipped.
+ * </p>
+ *
+ * <p>
+ * Each sink is guarded by a {@link CircuitBreaker}. When a sink can not be opened the breaker opens and events for the
+ * sink go straight to the retry path, without locking the sink. After retry interval a single probe tries to re-open
+ * the sink and closes or re-opens the breaker. Breaker transitions are reported as {@link CircuitBreakerEvent}s to
+ * error listeners registered with {@link #addSinkErrorListener(SinkErrorListener)}.
+ * </p>
+ *
  *
  * @version $Revision: 1 $
  *
@@ -53,6 +88,11 @@ public class PooledLogger implements KeyValueStats, IOShutdown {
 	protected static final double ERROR_RATE = Double
 			.valueOf(System.getProperty("tnt4j.pooled.logger.error.rate", "0.1"));
 	protected static final int REOPEN_FREQ = Integer.getInteger("tnt4j.pooled.logger.reopen.freq.ms", 10000);
+	protected static final long SPILL_ORPHAN_MS = Long.getLong("tnt4j.pooled.logger.spill.orphan.ms", 600000);
+	protected static final long SPILL_REPLAY_PAUSE_MS = Long.getLong("tnt4j.pooled.logger.spill.replay.pause.ms", 10);
+	protected static final long RETRY_TICK_MS = Long.getLong("tnt4j.pooled.logger.retry.tick.ms", 50);
+	protected static final int RETRY_WHEEL_SIZE = Integer.getInteger("tnt4j.pooled.logger.retry.wheel.size", 512);
+	protected static final int RETRY_BACKOFF = Integer.getInteger("tnt4j.pooled.logger.retry.backoff.ms", 100);
 
 	static final String KEY_Q_SIZE = "pooled-queue-size";
 	static final String KEY_Q_TASKS = "pooled-queue-tasks";
@@ -69,29 +109,70 @@ public class PooledLogger implements KeyValueStats, IOShutdown {
 	static final String KEY_LAST_SERVICE_TIME_USEC = "pooled-last-service-time-usec";
 	static final String KEY_TOTAL_TIME_USEC = "pooled-total-time-usec";
 	static final String KEY_TOTAL_SERVICE_TIME_USEC = "pooled-total-service-time-usec";
+	static final String KEY_SPILL_SIZE = "pooled-spill-size";
+	static final String KEY_SPILL_DISK_BYTES = "pooled-spill-disk-bytes";
+	static final String KEY_SPILL_REJECTED = "pooled-spill-rejected";
+	static final String KEY_OBJECTS_SPILLED = "pooled-objects-spilled";
+	static final String KEY_OBJECTS_REPLAYED = "pooled-objects-replayed";
+	static final String KEY_RETRY_SINKS = "pooled-retry-sinks";
+	static final String KEY_RETRY_BUDGET = "pooled-retry-budget";
+	static final String KEY_RETRY_BUDGET_EXCEEDED = "pooled-retry-budget-exceeded";
+	static final String KEY_BREAKERS_OPEN = "pooled-breakers-open";
+	static final String KEY_BREAKER_TRIPS = "pooled-breaker-trips";
+	static final String KEY_BREAKER_PROBES = "pooled-breaker-probes";
+	static final String KEY_BREAKER_RESETS = "pooled-breaker-resets";
+	static final String KEY_SERVICE_TIME_USEC = "pooled-service-time-usec";
+	static final String KEY_QUEUE_WAIT_USEC = "pooled-queue-wait-usec";
 
 	String poolName;
 	int poolSize, capacity;
 	int retryInterval = REOPEN_FREQ; // time in milliseconds
+	int retryBackoff = RETRY_BACKOFF; // time in milliseconds
+	int retryBudget;
 	boolean dropOnError = false;
 	ExecutorService threadPool;
 	Limiter errorLimiter;
 	BlockingQueue<SinkLogEvent> eventQ;
-	DelayQueue<DelayedElement<SinkLogEvent>> delayQ;
+	RetryWheel<SinkLogEvent> delayQ;
+	final ConcurrentMap<EventSink, RetryState> retryStates = new ConcurrentHashMap<EventSink, RetryState>();
+	volatile long lastRetryPurge = System.currentTimeMillis();
+	final ConcurrentMap<EventSink, CircuitBreaker> breakers = new ConcurrentHashMap<EventSink, CircuitBreaker>();
+	final List<SinkErrorListener> errorListeners = new CopyOnWriteArrayList<SinkErrorListener>();
+	SpillQueue spillQ;
+	final ConcurrentMap<String, EventSink> spillSinks = new ConcurrentHashMap<String, EventSink>();
+	final Map<EventSink, String> spillKeys = Collections.synchronizedMap(new WeakHashMap<EventSink, String>());
+	final Map<String, Integer> spillKeySeqs = new HashMap<String, Integer>();
+	final Object replayLock = new Object();
+	final long startTime = System.currentTimeMillis();
 
 	volatile boolean started = false, shutdown = false;
 
-	AtomicLong dropCount = new AtomicLong(0);
-	AtomicLong skipCount = new AtomicLong(0);
-	AtomicLong reQCount = new AtomicLong(0);
-	AtomicLong signalCount = new AtomicLong(0);
-	AtomicLong loggedCount = new AtomicLong(0);
-	AtomicLong totalCount = new AtomicLong(0);
-	AtomicLong exceptionCount = new AtomicLong(0);
-	AtomicLong recoveryCount = new AtomicLong(0);
-	AtomicLong totalUsec = new AtomicLong(0);
+	StripedCounter dropCount = new StripedCounter();
+	StripedCounter skipCount = new StripedCounter();
+	StripedCounter reQCount = new StripedCounter();
+	StripedCounter signalCount = new StripedCounter();
+	StripedCounter loggedCount = new StripedCounter();
+	StripedCounter totalCount = new StripedCounter();
+	StripedCounter exceptionCount = new StripedCounter();
+	StripedCounter recoveryCount = new StripedCounter();
+	StripedCounter totalUsec = new StripedCounter();
 	AtomicLong lastServiceUsec = new AtomicLong(0);
-	AtomicLong totalServiceUsec = new AtomicLong(0);
+	LatencyHistogram serviceTimes = new LatencyHistogram();
+	LatencyHistogram queueWaits = new LatencyHistogram();
+	StripedCounter totalServiceUsec = new StripedCounter();
+	StripedCounter spillCount = new StripedCounter();
+	StripedCounter replayCount = new StripedCounter();
+	StripedCounter budgetExceededCount = new StripedCounter();
+	StripedCounter tripCount = new StripedCounter();
+	StripedCounter probeCount = new StripedCounter();
+	StripedCounter resetCount = new StripedCounter();
+
+	private static final ThreadLocal<Random> JITTER = new ThreadLocal<Random>() {
+		@Override
+		protected Random initialValue() {
+			return new Random();
+		}
+	};
 
 	/**
 	 * Create a pooled logger instance.
@@ -107,8 +188,9 @@ public class PooledLogger implements KeyValueStats, IOShutdown {
 		poolName = name;
 		poolSize = threadPoolSize;
 		capacity = maxCapacity;
+		retryBudget = maxCapacity;
 		eventQ = new ArrayBlockingQueue<SinkLogEvent>(capacity);
-		delayQ = new DelayQueue<DelayedElement<SinkLogEvent>>();
+		delayQ = new RetryWheel<SinkLogEvent>(RETRY_TICK_MS, RETRY_WHEEL_SIZE);
 		errorLimiter = DefaultLimiterFactory.getInstance().newLimiter(PooledLogger.ERROR_RATE, Limiter.MAX_RATE);
 	}
 
@@ -119,6 +201,7 @@ public class PooledLogger implements KeyValueStats, IOShutdown {
 		}
 
 		shutdown = true;
+		StatsRegistry.unregister(PooledLogger.class.getSimpleName(), poolName);
 
 		// when ex is null it must be immediate shutdown request
 		if (ex == null) {
@@ -126,15 +209,37 @@ public class PooledLogger implements KeyValueStats, IOShutdown {
 			for (int i = 0; i < poolSize; i++) {
 				eventQ.offer(dieEvent);
 			}
-			delayQ.offer(new DelayedElement<SinkLogEvent>(dieEvent, 0));
 
+			signalReplay();
 			stop();
 
 			eventQ.clear();
 			delayQ.clear();
+			if (spillQ != null) {
+				Utils.close(spillQ);
+			}
 		}
 	}
 
+	/**
+	 * Associate a persistent spill queue with this logger. Must be set before logger is started.
+	 *
+	 * @param spillQueue
+	 *            spill queue instance, {@code null} to disable spilling
+	 */
+	public void setSpillQueue(SpillQueue spillQueue) {
+		this.spillQ = spillQueue;
+	}
+
+	/**
+	 * Obtain persistent spill queue associated with this logger
+	 *
+	 * @return spill queue instance, {@code null} if spilling is disabled
+	 */
+	public SpillQueue getSpillQueue() {
+		return spillQ;
+	}
+
 	/**
 	 * Obtain pool name.
 	 *
@@ -168,22 +273,100 @@ public class PooledLogger implements KeyValueStats, IOShutdown {
 		stats.put(Utils.qualify(this, poolName, KEY_LAST_SERVICE_TIME_USEC), lastServiceUsec.get());
 		stats.put(Utils.qualify(this, poolName, KEY_TOTAL_TIME_USEC), totalUsec.get());
 		stats.put(Utils.qualify(this, poolName, KEY_TOTAL_SERVICE_TIME_USEC), totalServiceUsec.get());
+		getLatencyStats(stats, KEY_SERVICE_TIME_USEC, serviceTimes.getInterval());
+		getLatencyStats(stats, KEY_QUEUE_WAIT_USEC, queueWaits.getInterval());
+		stats.put(Utils.qualify(this, poolName, KEY_RETRY_SINKS), getRetrySinkCount());
+		stats.put(Utils.qualify(this, poolName, KEY_RETRY_BUDGET), retryBudget);
+		stats.put(Utils.qualify(this, poolName, KEY_RETRY_BUDGET_EXCEEDED), budgetExceededCount.get());
+		stats.put(Utils.qualify(this, poolName, KEY_BREAKERS_OPEN), getOpenBreakerCount());
+		stats.put(Utils.qualify(this, poolName, KEY_BREAKER_TRIPS), tripCount.get());
+		stats.put(Utils.qualify(this, poolName, KEY_BREAKER_PROBES), probeCount.get());
+		stats.put(Utils.qualify(this, poolName, KEY_BREAKER_RESETS), resetCount.get());
+		SpillQueue spill = spillQ;
+		if (spill != null) {
+			stats.put(Utils.qualify(this, poolName, KEY_SPILL_SIZE), spill.size());
+			stats.put(Utils.qualify(this, poolName, KEY_SPILL_DISK_BYTES), spill.getDiskUsage());
+			stats.put(Utils.qualify(this, poolName, KEY_SPILL_REJECTED), spill.getRejectCount());
+			stats.put(Utils.qualify(this, poolName, KEY_OBJECTS_SPILLED), spillCount.get());
+			stats.put(Utils.qualify(this, poolName, KEY_OBJECTS_REPLAYED), replayCount.get());
+		}
 		return this;
 	}
 
 	@Override
 	public void resetStats() {
-		dropCount.set(0);
-		skipCount.set(0);
-		reQCount.set(0);
-		signalCount.set(0);
-		totalCount.set(0);
-		totalServiceUsec.set(0);
+		dropCount.reset();
+		skipCount.reset();
+		reQCount.reset();
+		signalCount.reset();
+		totalCount.reset();
+		totalServiceUsec.reset();
 		lastServiceUsec.set(0);
-		loggedCount.set(0);
-		totalUsec.set(0);
-		recoveryCount.set(0);
-		exceptionCount.set(0);
+		loggedCount.reset();
+		totalUsec.reset();
+		recoveryCount.reset();
+		exceptionCount.reset();
+		spillCount.reset();
+		replayCount.reset();
+		budgetExceededCount.reset();
+		tripCount.reset();
+		probeCount.reset();
+		resetCount.reset();
+		serviceTimes.reset();
+		queueWaits.reset();
+	}
+
+	private void getLatencyStats(Map<String, Object> stats, String key, LatencyHistogram.Interval interval) {
+		stats.put(Utils.qualify(this, poolName, key + LatencyHistogram.KEY_P50), interval.getPercentile(50));
+		stats.put(Utils.qualify(this, poolName, key + LatencyHistogram.KEY_P99), interval.getPercentile(99));
+		stats.put(Utils.qualify(this, poolName, key + LatencyHistogram.KEY_P999), interval.getPercentile(99.9));
+		stats.put(Utils.qualify(this, poolName, key + LatencyHistogram.KEY_MAX), interval.getMax());
+	}
+
+	/**
+	 * Register a listener notified about circuit breaker transitions of sinks served by this logger
+	 *
+	 * @param listener
+	 *            error listener receiving {@link CircuitBreakerEvent}s
+	 */
+	public void addSinkErrorListener(SinkErrorListener listener) {
+		errorListeners.add(listener);
+	}
+
+	/**
+	 * Remove a circuit breaker transition listener
+	 *
+	 * @param listener
+	 *            error listener
+	 */
+	public void removeSinkErrorListener(SinkErrorListener listener) {
+		errorListeners.remove(listener);
+	}
+
+	/**
+	 * Obtain circuit breaker guarding a given sink
+	 *
+	 * @param sink
+	 *            event sink
+	 * @return circuit breaker instance, {@code null} if sink was never served by this logger
+	 */
+	public CircuitBreaker getCircuitBreaker(EventSink sink) {
+		return breakers.get(sink);
+	}
+
+	/**
+	 * Obtain number of sinks with circuit breaker not closed
+	 *
+	 * @return number of open or half open circuit breakers
+	 */
+	public int getOpenBreakerCount() {
+		int count = 0;
+		for (CircuitBreaker breaker : breakers.values()) {
+			if (!breaker.isClosed()) {
+				count++;
+			}
+		}
+		return count;
 	}
 
 	/**
@@ -195,6 +378,24 @@ public class PooledLogger implements KeyValueStats, IOShutdown {
 		return reQCount.get();
 	}
 
+	/**
+	 * Obtain total number of events spilled to persistent spill queue.
+	 *
+	 * @return total number of spilled events
+	 */
+	public long getSpillCount() {
+		return spillCount.get();
+	}
+
+	/**
+	 * Obtain total number of events replayed from persistent spill queue.
+	 *
+	 * @return total number of replayed events
+	 */
+	public long getReplayCount() {
+		return replayCount.get();
+	}
+
 	/**
 	 * Obtain total number of times sink recovered from exception(s).
 	 *
@@ -260,6 +461,24 @@ public class PooledLogger implements KeyValueStats, IOShutdown {
 		return totalUsec.get();
 	}
 
+	/**
+	 * Obtain histogram of per event service times (microseconds spent logging a single event to underlying sink).
+	 *
+	 * @return service time histogram
+	 */
+	public LatencyHistogram getServiceTimeHistogram() {
+		return serviceTimes;
+	}
+
+	/**
+	 * Obtain histogram of per event queue wait times (microseconds from event creation until processing starts).
+	 *
+	 * @return queue wait time histogram
+	 */
+	public LatencyHistogram getQueueWaitHistogram() {
+		return queueWaits;
+	}
+
 	/**
 	 * Obtain total number of events buffered in a queue waiting to be flushed
 	 *
@@ -324,10 +543,10 @@ public class PooledLogger implements KeyValueStats, IOShutdown {
 	public boolean offer(SinkLogEvent event) {
 		boolean flag = false;
 		if (!shutdown || (event.getSignal() != null)) {
-			flag = eventQ.offer(event);
+			flag = eventQ.offer(event) || spill(event);
 		}
 		if (!flag) {
-			dropCount.incrementAndGet();
+			dropCount.increment();
 		}
 		return flag;
 	}
@@ -344,7 +563,7 @@ public class PooledLogger implements KeyValueStats, IOShutdown {
 		if (!shutdown || (event.getSignal() != null)) {
 			eventQ.put(event);
 		} else {
-			dropCount.incrementAndGet();
+			dropCount.increment();
 			throw new InterruptedException("Unable to accept events: " + getName() + " is shutdown");
 		}
 	}
@@ -397,6 +616,51 @@ public class PooledLogger implements KeyValueStats, IOShutdown {
 		this.retryInterval = retryInterval;
 	}
 
+	/**
+	 * Initial wait time before retrying send of failed messages. Wait time doubles with each consecutive failure of the
+	 * same sink, up to retry interval.
+	 *
+	 * @param retryBackoff
+	 *            initial time interval in milliseconds
+	 */
+	public void setRetryBackoff(int retryBackoff) {
+		this.retryBackoff = retryBackoff;
+	}
+
+	/**
+	 * Maximum number of failed messages of a single sink waiting to be retried.
+	 *
+	 * @param retryBudget
+	 *            maximum number of pending retries per sink
+	 */
+	public void setRetryBudget(int retryBudget) {
+		this.retryBudget = retryBudget;
+	}
+
+	/**
+	 * Obtain number of sinks with failed messages waiting to be retried
+	 *
+	 * @return number of sinks with pending retries
+	 */
+	public int getRetrySinkCount() {
+		int count = 0;
+		for (RetryState state : retryStates.values()) {
+			if (state.pending.get() > 0) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Obtain total number of failed events not retried because retry budget of their sink was exhausted
+	 *
+	 * @return total number of events over retry budget
+	 */
+	public long getBudgetExceededCount() {
+		return budgetExceededCount.get();
+	}
+
 	/**
 	 * Obtain event message from the queue
 	 *
@@ -409,25 +673,52 @@ public class PooledLogger implements KeyValueStats, IOShutdown {
 	}
 
 	/**
-	 * Obtain a delayed event message from a delay queue
+	 * Wait for the next retry tick and move all expired delayed events back to the main queue in one batch. Blocks if
+	 * main queue is full. If interrupted while blocked, events not yet re-queued are scheduled on the retry wheel
+	 * again, to be re-queued on the next tick.
 	 *
-	 * @return sink event instance
+	 * @param batch
+	 *            list used to collect expired events
+	 * @return number of re-queued events
 	 * @throws InterruptedException
 	 *             if interrupted while waiting
 	 */
-	protected SinkLogEvent takeDelayedEvent() throws InterruptedException {
-		DelayedElement<SinkLogEvent> elm = delayQ.take();
-		return elm.getElement();
+	protected int requeueDelayedEvents(List<SinkLogEvent> batch) throws InterruptedException {
+		batch.clear();
+		int count = delayQ.advance(batch);
+		for (int i = 0; i < count; i++) {
+			SinkLogEvent event = batch.get(i);
+			if (!eventQ.offer(event)) {
+				try {
+					put(event);
+				} catch (InterruptedException e) {
+					for (int j = i; j < count; j++) {
+						delayQ.schedule(batch.get(j), 0);
+					}
+					batch.clear();
+					throw e;
+				}
+			}
+			RetryState state = retryStates.get(event.getEventSink());
+			if (state != null && state.pending.get() > 0) {
+				state.pending.decrementAndGet();
+			}
+		}
+		batch.clear();
+		purgeRetryStates();
+		return count;
 	}
 
 	/**
-	 * Inserts the specified log event at the tail of this pooled logger and block until insert is completed.
+	 * Inserts the specified log event into the retry queue. Event is re-queued after a delay based on number of
+	 * consecutive failures of its sink.
 	 *
 	 * @param event
 	 *            logging event
 	 */
 	public void putDelayed(SinkLogEvent event) {
-		putDelayed(event, retryInterval, TimeUnit.MILLISECONDS);
+		RetryState state = getRetryState(event.getEventSink());
+		schedule(event, state, state.nextDelay(retryBackoff, retryInterval));
 	}
 
 	/**
@@ -441,8 +732,108 @@ public class PooledLogger implements KeyValueStats, IOShutdown {
 	 *            time unit for duration
 	 */
 	public void putDelayed(SinkLogEvent event, long delay, TimeUnit unit) {
-		reQCount.incrementAndGet();
-		delayQ.put(new DelayedElement<SinkLogEvent>(event, unit.toMillis(delay)));
+		schedule(event, getRetryState(event.getEventSink()), unit.toMillis(delay));
+	}
+
+	private void schedule(SinkLogEvent event, RetryState state, long delayMs) {
+		reQCount.increment();
+		state.pending.incrementAndGet();
+		delayQ.schedule(event, delayMs);
+	}
+
+	/**
+	 * Schedule event for retry, if retry queue and retry budget of its sink allow it
+	 *
+	 * @param event
+	 *            sink log event
+	 * @return true if event was scheduled for retry, false otherwise
+	 */
+	private boolean retry(SinkLogEvent event) {
+		if (delayQ.size() >= capacity) {
+			return false;
+		}
+		RetryState state = getRetryState(event.getEventSink());
+		if (state.pending.get() >= retryBudget) {
+			budgetExceededCount.increment();
+			return false;
+		}
+		schedule(event, state, state.nextDelay(retryBackoff, retryInterval));
+		return true;
+	}
+
+	private RetryState getRetryState(EventSink sink) {
+		RetryState state = retryStates.get(sink);
+		if (state == null) {
+			RetryState newState = new RetryState();
+			state = retryStates.putIfAbsent(sink, newState);
+			if (state == null) {
+				state = newState;
+			}
+		}
+		return state;
+	}
+
+	/**
+	 * Reset retry backoff of a given sink after successful delivery. Retry state is dropped once sink has no pending
+	 * retries.
+	 *
+	 * @param sink
+	 *            event sink
+	 */
+	private void resetRetry(EventSink sink) {
+		if (!retryStates.isEmpty()) {
+			RetryState state = retryStates.get(sink);
+			if (state != null && state.reset(System.currentTimeMillis()) && state.pending.get() <= 0) {
+				retryStates.remove(sink, state);
+			}
+		}
+	}
+
+	/**
+	 * Drop retry state and circuit breaker of a given sink, unless it has pending retries
+	 *
+	 * @param sink
+	 *            event sink
+	 */
+	private void dropRetry(EventSink sink) {
+		RetryState state = retryStates.get(sink);
+		if (state == null || state.pending.get() <= 0) {
+			if (state != null) {
+				retryStates.remove(sink, state);
+			}
+			breakers.remove(sink);
+		}
+	}
+
+	/**
+	 * Drop retry states and circuit breakers of closed sinks without pending retries. Breakers are dropped only when
+	 * closed or when their retry interval has elapsed, so a re-used sink is probed no sooner than it would have been.
+	 * Runs at most once per retry interval.
+	 */
+	private void purgeRetryStates() {
+		long now = System.currentTimeMillis();
+		if ((retryStates.isEmpty() && breakers.isEmpty()) || (now - lastRetryPurge) < retryInterval) {
+			return;
+		}
+		lastRetryPurge = now;
+		for (Map.Entry<EventSink, RetryState> entry : retryStates.entrySet()) {
+			RetryState state = entry.getValue();
+			if (state.pending.get() <= 0 && !entry.getKey().isOpen()) {
+				retryStates.remove(entry.getKey(), state);
+			}
+		}
+		for (Map.Entry<EventSink, CircuitBreaker> entry : breakers.entrySet()) {
+			EventSink sink = entry.getKey();
+			CircuitBreaker breaker = entry.getValue();
+			if (sink.isOpen() || retryStates.containsKey(sink)) {
+				continue;
+			}
+			CircuitBreaker.State state = breaker.getState();
+			if (state == CircuitBreaker.State.CLOSED
+					|| (state == CircuitBreaker.State.OPEN && (now - breaker.getOpenTime()) >= retryInterval)) {
+				breakers.remove(sink, breaker);
+			}
+		}
 	}
 
 	/**
@@ -456,10 +847,195 @@ public class PooledLogger implements KeyValueStats, IOShutdown {
 	private void skipEvent(SinkLogEvent event, Throwable ex) {
 		// add logic to handle skipped event
 		event.setException(ex);
-		if ((!dropOnError) && (delayQ.size() < capacity)) {
-			putDelayed(event);
-		} else {
-			skipCount.incrementAndGet();
+		if (dropOnError) {
+			skipCount.increment();
+		} else if (!retry(event) && !spill(event)) {
+			skipCount.increment();
+		}
+	}
+
+	/**
+	 * Spill event to persistent spill queue. Event is formatted using its sink formatter.
+	 *
+	 * @param event
+	 *            sink log event
+	 * @return true if event was spilled, false otherwise
+	 */
+	private boolean spill(SinkLogEvent event) {
+		SpillQueue spill = spillQ;
+		if (spill == null || event.getSignal() != null) {
+			return false;
+		}
+		try {
+			EventSink sink = event.getEventSink();
+			FormattedMessage msg = formatEvent(sink, event);
+			if (msg == null) {
+				return false;
+			}
+			String key = getSpillKey(sink);
+			spillSinks.putIfAbsent(key, sink);
+			if (spill.append(key, event.getTTL(), msg)) {
+				spillCount.increment();
+				return true;
+			}
+		} catch (Throwable ex) {
+			if (errorLimiter.tryObtain(1, 0)) {
+				PooledLogger.logger.log(OpLevel.ERROR, "Unable to spill event: spill.queue={0}, event={1}", spill,
+						event, ex);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Format a given event the same way its sink would
+	 *
+	 * @param sink
+	 *            event sink
+	 * @param event
+	 *            sink log event
+	 * @return formatted message, {@code null} if sink has no formatter
+	 */
+	private static FormattedMessage formatEvent(EventSink sink, SinkLogEvent event) {
+		Object sinkObject = event.getSinkObject();
+		EventFormatter fmt = sink.getEventFormatter();
+		if (sinkObject instanceof FormattedMessage) {
+			return (FormattedMessage) sinkObject;
+		} else if (fmt == null) {
+			return null;
+		}
+		Source src = event.getEventSource() != null ? event.getEventSource() : sink.getSource();
+		if (fmt instanceof ByteFormatter) {
+			ByteFormatter bfmt = (ByteFormatter) fmt;
+			if (sinkObject instanceof TrackingEvent) {
+				return new FormattedMessage(bfmt.toBytes((TrackingEvent) sinkObject));
+			} else if (sinkObject instanceof TrackingActivity) {
+				return new FormattedMessage(bfmt.toBytes((TrackingActivity) sinkObject));
+			} else if (sinkObject instanceof Snapshot) {
+				return new FormattedMessage(bfmt.toBytes(event.getSnapshot()));
+			}
+			return new FormattedMessage(bfmt.toBytes(event.getTTL(), src, event.getSeverity(),
+					Utils.getString(event.getResourceBundle(), sinkObject), event.getArguments()));
+		}
+		if (sinkObject instanceof TrackingEvent) {
+			return new FormattedMessage(fmt.format((TrackingEvent) sinkObject));
+		} else if (sinkObject instanceof TrackingActivity) {
+			return new FormattedMessage(fmt.format((TrackingActivity) sinkObject));
+		} else if (sinkObject instanceof Snapshot) {
+			return new FormattedMessage(fmt.format(event.getSnapshot()));
+		}
+		return new FormattedMessage(fmt.format(event.getTTL(), src, event.getSeverity(),
+				Utils.getString(event.getResourceBundle(), sinkObject), event.getArguments()));
+	}
+
+	/**
+	 * Obtain key identifying a given sink in the spill queue. Key is made of sink class and name; sinks sharing both
+	 * get an ordinal suffix assigned in order of first use, so their spilled events are not replayed to each other.
+	 *
+	 * @param sink
+	 *            event sink
+	 * @return spill key of a sink
+	 */
+	String getSpillKey(EventSink sink) {
+		synchronized (spillKeys) {
+			String key = spillKeys.get(sink);
+			if (key == null) {
+				String base = sink.getClass().getName() + "/" + sink.getName();
+				Integer seq = spillKeySeqs.get(base);
+				int n = seq != null ? seq : 0;
+				spillKeySeqs.put(base, n + 1);
+				key = n == 0 ? base : base + "#" + n;
+				spillKeys.put(sink, key);
+			}
+			return key;
+		}
+	}
+
+	/**
+	 * Wake up spill replay task
+	 */
+	void signalReplay() {
+		synchronized (replayLock) {
+			replayLock.notifyAll();
+		}
+	}
+
+	/**
+	 * Wait until spill replay is signaled or a given timeout expires
+	 *
+	 * @param timeout
+	 *            maximum time to wait in milliseconds
+	 * @throws InterruptedException
+	 *             if interrupted while waiting
+	 */
+	void awaitReplay(long timeout) throws InterruptedException {
+		synchronized (replayLock) {
+			replayLock.wait(timeout);
+		}
+	}
+
+	/**
+	 * Replay spilled events in order onto the main queue. Replay stops when main queue is half full, or when sink of
+	 * the next spilled event is in error state.
+	 *
+	 * @return true if replay stopped only because main queue is half full, false otherwise
+	 * @throws IOException
+	 *             if spill queue checkpoint fails
+	 */
+	boolean replaySpilled() throws IOException {
+		SpillQueue spill = spillQ;
+		if (spill == null || spill.isEmpty()) {
+			return false;
+		}
+		long replayed = 0;
+		try {
+			while (!shutdown) {
+				if (eventQ.size() >= (capacity / 2)) {
+					return true;
+				}
+				SpillQueue.SpillRecord rec = spill.peek();
+				if (rec == null) {
+					break;
+				}
+				EventSink sink = spillSinks.get(rec.getKey());
+				if (sink == null) {
+					if ((System.currentTimeMillis() - startTime) < SPILL_ORPHAN_MS) {
+						break;
+					}
+					// sink never seen since start up, drop event
+					spill.remove();
+					skipCount.increment();
+					continue;
+				}
+				if (sink.errorState()) {
+					break;
+				}
+				if (!eventQ.offer(
+						new SinkLogEvent(sink, sink.getSource(), OpLevel.NONE, rec.getTTL(), rec.getMessage()))) {
+					return true;
+				}
+				spill.remove();
+				replayed++;
+			}
+		} finally {
+			if (replayed > 0) {
+				replayCount.add(replayed);
+				spill.checkpoint();
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Register sink of a given event as a target for spilled events replay
+	 *
+	 * @param sink
+	 *            event sink
+	 */
+	private void registerSpillSink(EventSink sink) {
+		SpillQueue spill = spillQ;
+		if (spill != null && !spill.isEmpty()) {
+			spillSinks.putIfAbsent(getSpillKey(sink), sink);
 		}
 	}
 
@@ -473,7 +1049,7 @@ public class PooledLogger implements KeyValueStats, IOShutdown {
 	 */
 	private void eventError(SinkLogEvent event, Throwable err) {
 		try {
-			exceptionCount.incrementAndGet();
+			exceptionCount.increment();
 			skipEvent(event, err);
 			boolean errorPermit = errorLimiter.tryObtain(1, 0);
 			if (errorPermit) {
@@ -491,23 +1067,47 @@ public class PooledLogger implements KeyValueStats, IOShutdown {
 	}
 
 	/**
-	 * Determine if event sink is ready to accept events
+	 * Determine if event sink is ready to accept events. Sinks with open circuit breaker are rejected without locking,
+	 * until retry interval expires and a single probe tries to re-open the sink.
 	 *
-	 * @param sink
-	 *            event sink
+	 * @param event
+	 *            event instance
 	 * @throws IOException
 	 */
-	private boolean isLoggable(EventSink sink) throws IOException {
-		if (!sink.isOpen()) {
+	private boolean isLoggable(SinkLogEvent event) throws IOException {
+		EventSink sink = event.getEventSink();
+		CircuitBreaker breaker = getBreaker(sink);
+		if (!breaker.isClosed()) {
+			if (!breaker.tryProbe(System.currentTimeMillis(), retryInterval)) {
+				return false;
+			}
+			onTransition(sink, event, null, CircuitBreaker.State.OPEN, CircuitBreaker.State.HALF_OPEN);
+			try {
+				openSink(sink);
+			} catch (IOException e) {
+				trip(breaker, sink, event, e, System.currentTimeMillis());
+				throw e;
+			}
+			CircuitBreaker.State prev = breaker.reset();
+			if (prev != null) {
+				onTransition(sink, event, null, prev, CircuitBreaker.State.CLOSED);
+			}
+		} else if (!sink.isOpen()) {
 			synchronized (sink) {
 				if (sink.errorState()) {
 					long lastErrorTime = sink.getLastErrorTime();
 					long errorElapsed = System.currentTimeMillis() - lastErrorTime;
 					if (errorElapsed < retryInterval) {
+						trip(breaker, sink, event, sink.getLastError(), lastErrorTime);
 						return false;
 					}
 				}
-				openSink(sink);
+				try {
+					openSink(sink);
+				} catch (IOException e) {
+					trip(breaker, sink, event, e, System.currentTimeMillis());
+					throw e;
+				}
 			}
 		}
 		// check if the sink is in valid write state
@@ -515,6 +1115,60 @@ public class PooledLogger implements KeyValueStats, IOShutdown {
 		return true;
 	}
 
+	private CircuitBreaker getBreaker(EventSink sink) {
+		CircuitBreaker breaker = breakers.get(sink);
+		if (breaker == null) {
+			CircuitBreaker newBreaker = new CircuitBreaker();
+			breaker = breakers.putIfAbsent(sink, newBreaker);
+			if (breaker == null) {
+				breaker = newBreaker;
+			}
+		}
+		return breaker;
+	}
+
+	private void trip(CircuitBreaker breaker, EventSink sink, SinkLogEvent event, Throwable ex, long time) {
+		CircuitBreaker.State prev = breaker.trip(ex, time);
+		if (prev != null) {
+			onTransition(sink, event, ex, prev, CircuitBreaker.State.OPEN);
+		}
+	}
+
+	/**
+	 * Record circuit breaker transition and notify registered error listeners
+	 *
+	 * @param sink
+	 *            event sink guarded by the breaker
+	 * @param event
+	 *            event which triggered the transition
+	 * @param ex
+	 *            error which opened the breaker, may be {@code null}
+	 * @param from
+	 *            previous breaker state
+	 * @param to
+	 *            new breaker state
+	 */
+	private void onTransition(EventSink sink, SinkLogEvent event, Throwable ex, CircuitBreaker.State from,
+			CircuitBreaker.State to) {
+		if (to == CircuitBreaker.State.OPEN) {
+			tripCount.increment();
+		} else if (to == CircuitBreaker.State.HALF_OPEN) {
+			probeCount.increment();
+		} else {
+			resetCount.increment();
+		}
+		if (PooledLogger.logger.isSet(OpLevel.DEBUG)) {
+			PooledLogger.logger.log(OpLevel.DEBUG, "Circuit breaker transition: pool={0}, from={1}, to={2}, sink={3}",
+					poolName, from, to, sink, ex);
+		}
+		if (!errorListeners.isEmpty()) {
+			CircuitBreakerEvent cbEvent = new CircuitBreakerEvent(sink, event, ex, from, to);
+			for (SinkErrorListener listener : errorListeners) {
+				listener.sinkError(cbEvent);
+			}
+		}
+	}
+
 	/**
 	 * Handle event signal processing
 	 *
@@ -525,14 +1179,16 @@ public class PooledLogger implements KeyValueStats, IOShutdown {
 	private void handleSignal(SinkLogEvent event) throws IOException {
 		Thread signal = event.getSignal();
 		try {
-			signalCount.incrementAndGet();
+			signalCount.increment();
 			if (event.getSignalType() == SinkLogEvent.SIGNAL_CLOSE) {
 				close(event.getEventSink());
+				dropRetry(event.getEventSink());
 			} else if (event.getSignalType() == SinkLogEvent.SIGNAL_FLUSH) {
 				event.getEventSink().flush();
 			} else if (event.getSignalType() == SinkLogEvent.SIGNAL_SHUTDOWN) {
 				shutdown(event.getException());
 				close(event.getEventSink());
+				dropRetry(event.getEventSink());
 			}
 		} finally {
 			LockSupport.unpark(signal);
@@ -554,12 +1210,16 @@ public class PooledLogger implements KeyValueStats, IOShutdown {
 	 *            event instance
 	 * @throws IOException
 	 */
-	private void onEvent(SinkLogEvent event) throws IOException {
-		totalCount.incrementAndGet();
+	private void onEvent(SinkLogEvent event) throws IOException, InterruptedException {
+		totalCount.increment();
 		if (event.getSignal() != null) {
 			handleSignal(event);
-		} else if (isLoggable(event.getEventSink())) {
+		} else if (isLoggable(event)) {
+			registerSpillSink(event.getEventSink());
 			sendEvent(event);
+			if (!event.getEventSink().errorState()) {
+				resetRetry(event.getEventSink());
+			}
 		} else {
 			skipEvent(event, null);
 		}
@@ -571,12 +1231,15 @@ public class PooledLogger implements KeyValueStats, IOShutdown {
 	 * @param event
 	 *            event instance
 	 * @throws IOException
+	 * @throws InterruptedException
 	 */
-	private void sendEvent(SinkLogEvent event) {
+	private void sendEvent(SinkLogEvent event) throws IOException, InterruptedException {
 		Object sinkObject = event.getSinkObject();
 		EventSink outSink = event.getEventSink();
 
-		if (sinkObject instanceof TrackingEvent) {
+		if (sinkObject instanceof FormattedMessage) {
+			outSink.write(sinkObject);
+		} else if (sinkObject instanceof TrackingEvent) {
 			outSink.log((TrackingEvent) sinkObject);
 		} else if (sinkObject instanceof TrackingActivity) {
 			outSink.log((TrackingActivity) sinkObject);
@@ -589,7 +1252,7 @@ public class PooledLogger implements KeyValueStats, IOShutdown {
 			outSink.log(event.getTTL(), outSink.getSource(), event.getSeverity(), event.getResourceBundle(),
 					String.valueOf(sinkObject), event.getArguments());
 		}
-		loggedCount.incrementAndGet();
+		loggedCount.increment();
 	}
 
 	/**
@@ -607,7 +1270,9 @@ public class PooledLogger implements KeyValueStats, IOShutdown {
 				sink.open();
 				if (lastErrorState) {
 					sink.setErrorState(null);
-					recoveryCount.incrementAndGet();
+					recoveryCount.increment();
+					resetRetry(sink);
+					signalReplay();
 				}
 			} catch (IOException e) {
 				sink.setErrorState(e);
@@ -626,9 +1291,11 @@ public class PooledLogger implements KeyValueStats, IOShutdown {
 	 */
 	private long eventComplete(long start, SinkLogEvent event) {
 		long elaspedUsec = (System.nanoTime() - start) / 1000;
-		totalServiceUsec.addAndGet(event.complete() / 1000);
+		totalServiceUsec.add(event.complete() / 1000);
 		lastServiceUsec.set(elaspedUsec);
-		totalUsec.addAndGet(elaspedUsec);
+		totalUsec.add(elaspedUsec);
+		serviceTimes.record(elaspedUsec);
+		queueWaits.record((start - event.getStartTimeNanos()) / 1000);
 		return elaspedUsec;
 	}
 
@@ -658,12 +1325,16 @@ public class PooledLogger implements KeyValueStats, IOShutdown {
 		}
 		NamedThreadFactory tFactory = new NamedThreadFactory(
 				"PooledLoggingTask(" + poolName + "," + poolSize + "," + capacity + ")/task-");
-		threadPool = Executors.newFixedThreadPool((poolSize + 1), tFactory);
+		threadPool = Executors.newFixedThreadPool((poolSize + (spillQ != null ? 2 : 1)), tFactory);
 		for (int i = 0; i < poolSize; i++) {
 			threadPool.execute(new PooledLoggingTask(this));
 		}
 		threadPool.execute(new DelayedLoggingTask(this));
+		if (spillQ != null) {
+			threadPool.execute(new SpillReplayTask(this));
+		}
 		started = true;
+		StatsRegistry.register(PooledLogger.class.getSimpleName(), poolName, this);
 	}
 
 	/**
@@ -682,4 +1353,53 @@ public class PooledLogger implements KeyValueStats, IOShutdown {
 			threadPool.shutdownNow();
 		}
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Retry state of a single sink: consecutive failed delivery attempts driving exponential backoff, and number of
+	 * pending retries checked against retry budget. A delivery attempt spans current retry delay, so all events
+	 * failing within it are retried with the same backoff.
+	 */
+	static class RetryState {
+		final AtomicInteger failures = new AtomicInteger(0);
+		final AtomicInteger pending = new AtomicInteger(0);
+		long attemptEnd = 0;
+		long attemptDelay = 0;
+
+		/**
+		 * Register a failure and compute retry delay: exponential backoff with equal jitter. Backoff advances only
+		 * when the failure occurs after current attempt delay elapsed.
+		 *
+		 * @param backoff
+		 *            initial delay in milliseconds
+		 * @param maxDelay
+		 *            maximum delay in milliseconds
+		 * @return retry delay in milliseconds
+		 */
+		synchronized long nextDelay(long backoff, long maxDelay) {
+			long now = System.currentTimeMillis();
+			if (now >= attemptEnd) {
+				int n = Math.min(failures.getAndIncrement(), 30);
+				attemptDelay = Math.min(maxDelay, Math.max(1, backoff) << n);
+				attemptEnd = now + attemptDelay;
+			}
+			long half = attemptDelay >>> 1;
+			return half + (long) (JITTER.get().nextDouble() * (attemptDelay - half));
+		}
+
+		/**
+		 * Reset backoff after successful delivery, unless current attempt delay has not elapsed yet
+		 *
+		 * @param now
+		 *            current time in milliseconds
+		 * @return true if backoff was reset, false otherwise
+		 */
+		synchronized boolean reset(long now) {
+			if (now < attemptEnd) {
+				return false;
+			}
+			failures.set(0);
+			attemptDelay = 0;
+			return true;
+		}
+	}
+}
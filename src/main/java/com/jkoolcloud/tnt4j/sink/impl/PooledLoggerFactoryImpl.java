@@ -15,6 +15,8 @@
  */
 package com.jkoolcloud.tnt4j.sink.impl;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -40,6 +42,7 @@ public class PooledLoggerFactoryImpl implements PooledLoggerFactory, Configurabl
 	private static final int MAX_POOL_SIZE = Integer.getInteger("tnt4j.pooled.logger.pool", 4);
 	private static final int MAX_CAPACITY = Integer.getInteger("tnt4j.pooled.logger.capacity", 10000);
 	private static final int RETRY_INTERVAL = Integer.getInteger("tnt4j.pooled.logger.retry.interval", 5000);
+	private static final int RETRY_BACKOFF = Integer.getInteger("tnt4j.pooled.logger.retry.backoff", 100);
 	private static final boolean DROP_ON_EXCEPTION = Boolean.getBoolean("tnt4j.pooled.logger.drop.on.error");
 
 	private static final ConcurrentMap<String, PooledLogger> POOLED_LOGGERS = new ConcurrentHashMap<String, PooledLogger>();
@@ -47,8 +50,15 @@ public class PooledLoggerFactoryImpl implements PooledLoggerFactory, Configurabl
 	int poolSize = MAX_POOL_SIZE;
 	int capacity = MAX_CAPACITY;
 	int retryInterval = RETRY_INTERVAL;
+	int retryBackoff = RETRY_BACKOFF;
+	int retryBudget = MAX_CAPACITY;
 	boolean dropOnError = DROP_ON_EXCEPTION;
 	String poolName = DEFAULT_POOL_NAME;
+	String spillDir = null;
+	int spillSegmentSize = SpillQueue.DEFAULT_SEGMENT_SIZE;
+	long spillMaxBytes = SpillQueue.DEFAULT_MAX_BYTES;
+	long spillSyncMs = SpillQueue.DEFAULT_SYNC_INTERVAL_MS;
+	int spillSyncBytes = SpillQueue.DEFAULT_SYNC_BYTES;
 	protected Map<String, ?> props;
 
 	/**
@@ -76,6 +86,16 @@ public class PooledLoggerFactoryImpl implements PooledLoggerFactory, Configurabl
 
 	@Override
 	public Map<String, PooledLogger> getPooledLoggers() {
+		return getAllLoggers();
+	}
+
+	/**
+	 * Obtain all pooled logger instances keyed by pool name
+	 *
+	 * @return a copy of pool name to pooled logger map
+	 * @see PooledLogger
+	 */
+	public static Map<String, PooledLogger> getAllLoggers() {
 		Map<String, PooledLogger> copy = new HashMap<String, PooledLogger>();
 		copy.putAll(POOLED_LOGGERS);
 		return copy;
@@ -95,12 +115,33 @@ public class PooledLoggerFactoryImpl implements PooledLoggerFactory, Configurabl
 		poolSize = Utils.getInt("Size", settings, MAX_POOL_SIZE);
 		capacity = Utils.getInt("Capacity", settings, MAX_CAPACITY);
 		retryInterval = Utils.getInt("RetryInterval", settings, RETRY_INTERVAL);
+		retryBackoff = Utils.getInt("RetryBackoff", settings, RETRY_BACKOFF);
+		retryBudget = Utils.getInt("RetryBudget", settings, capacity);
 		dropOnError = Utils.getBoolean("DropOnError", settings, DROP_ON_EXCEPTION);
+		spillDir = Utils.getString("SpillDir", settings, spillDir);
+		spillSegmentSize = Utils.getInt("SpillSegmentSize", settings, spillSegmentSize);
+		spillMaxBytes = Utils.getLong("SpillMaxBytes", settings, spillMaxBytes);
+		spillSyncMs = Utils.getLong("SpillSyncMs", settings, spillSyncMs);
+		spillSyncBytes = Utils.getInt("SpillSyncBytes", settings, spillSyncBytes);
 		// create and register pooled logger instance if not yet available
 		PooledLogger pooledLogger = new PooledLogger(poolName, poolSize, capacity);
 		pooledLogger.dropOnError(dropOnError);
 		pooledLogger.setRetryInterval(retryInterval);
+		pooledLogger.setRetryBackoff(retryBackoff);
+		pooledLogger.setRetryBudget(retryBudget);
 		if (POOLED_LOGGERS.putIfAbsent(poolName, pooledLogger) == null) {
+			if (!Utils.isEmpty(spillDir)) {
+				try {
+					SpillQueue spill = new SpillQueue(new File(spillDir, poolName), spillSegmentSize, spillMaxBytes);
+					spill.setSyncInterval(spillSyncMs, spillSyncBytes);
+					pooledLogger.setSpillQueue(spill);
+				} catch (IOException e) {
+					POOLED_LOGGERS.remove(poolName, pooledLogger);
+					ConfigException ce = new ConfigException("Unable to open spill queue: dir=" + spillDir, settings);
+					ce.initCause(e);
+					throw ce;
+				}
+			}
 			pooledLogger.start();
 		}
 	}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.sink.impl;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class implements a hashed timing wheel used by {@link PooledLogger} to hold events scheduled for retry. The
+ * wheel is an array of buckets, each covering one tick. Scheduling is a lock free O(1) append to a pending queue; a
+ * single timer thread calling {@link #advance(Collection)} moves pending elements into their buckets and collects all
+ * elements expired since the previous tick in one batch. Elements due more than one revolution ahead stay in their
+ * bucket until their tick comes around. Expiry precision is one tick.
+ *
+ * @param <T>
+ *            type of scheduled elements
+ *
+ * @version $Revision: 1 $
+ *
+ * @see PooledLogger
+ * @see DelayedLoggingTask
+ */
+class RetryWheel<T> {
+	private final long tickMs;
+	private final int mask;
+	private final Entry<T>[] buckets;
+	private final ConcurrentLinkedQueue<Entry<T>> pending = new ConcurrentLinkedQueue<Entry<T>>();
+	private final AtomicInteger size = new AtomicInteger(0);
+	private final long startTime = System.currentTimeMillis();
+	private long tick = 0; // last processed tick, accessed by timer thread only
+
+	/**
+	 * Create a timing wheel
+	 *
+	 * @param tickMs
+	 *            duration of a single tick in milliseconds
+	 * @param wheelSize
+	 *            number of buckets, rounded up to a power of 2
+	 */
+	@SuppressWarnings("unchecked")
+	RetryWheel(long tickMs, int wheelSize) {
+		this.tickMs = Math.max(1, tickMs);
+		int nBuckets = Integer.highestOneBit(Math.max(wheelSize, 2) - 1) << 1;
+		this.mask = nBuckets - 1;
+		this.buckets = new Entry[nBuckets];
+	}
+
+	/**
+	 * Schedule an element to expire after a given delay. May be called by any thread.
+	 *
+	 * @param element
+	 *            element to schedule
+	 * @param delayMs
+	 *            delay in milliseconds
+	 */
+	void schedule(T element, long delayMs) {
+		pending.offer(new Entry<T>(element, System.currentTimeMillis() + Math.max(0, delayMs)));
+		size.incrementAndGet();
+	}
+
+	/**
+	 * Obtain number of scheduled elements
+	 *
+	 * @return number of scheduled elements
+	 */
+	int size() {
+		return size.get();
+	}
+
+	/**
+	 * Obtain duration of a single tick
+	 *
+	 * @return tick duration in milliseconds
+	 */
+	long getTickMs() {
+		return tickMs;
+	}
+
+	/**
+	 * Wait for the next tick and collect all elements expired since the previous call. Must be called by a single
+	 * timer thread.
+	 *
+	 * @param expired
+	 *            collection where expired elements are added
+	 * @return number of expired elements
+	 * @throws InterruptedException
+	 *             if interrupted while waiting for the next tick
+	 */
+	int advance(Collection<? super T> expired) throws InterruptedException {
+		long waitMs = startTime + (tick + 1) * tickMs - System.currentTimeMillis();
+		if (waitMs > 0) {
+			Thread.sleep(waitMs);
+		}
+		long now = (System.currentTimeMillis() - startTime) / tickMs;
+		int count = 0;
+		// visit every bucket at most once, even if timer thread lagged behind
+		long from = Math.max(tick + 1, now - mask);
+		for (long t = from; t <= now; t++) {
+			count += expire(t, expired);
+		}
+		tick = now;
+		count += transferPending(expired);
+		return count;
+	}
+
+	/**
+	 * Remove all scheduled elements
+	 */
+	void clear() {
+		pending.clear();
+		for (int i = 0; i < buckets.length; i++) {
+			buckets[i] = null;
+		}
+		size.set(0);
+	}
+
+	private int transferPending(Collection<? super T> expired) {
+		int count = 0;
+		Entry<T> entry;
+		while ((entry = pending.poll()) != null) {
+			entry.deadline = (entry.expiryTime - startTime + tickMs - 1) / tickMs;
+			if (entry.deadline <= tick) {
+				expired.add(entry.element);
+				size.decrementAndGet();
+				count++;
+			} else {
+				int idx = (int) (entry.deadline & mask);
+				entry.next = buckets[idx];
+				buckets[idx] = entry;
+			}
+		}
+		return count;
+	}
+
+	private int expire(long t, Collection<? super T> expired) {
+		int idx = (int) (t & mask);
+		int count = 0;
+		Entry<T> prev = null;
+		Entry<T> entry = buckets[idx];
+		while (entry != null) {
+			Entry<T> next = entry.next;
+			if (entry.deadline <= t) {
+				if (prev == null) {
+					buckets[idx] = next;
+				} else {
+					prev.next = next;
+				}
+				expired.add(entry.element);
+				size.decrementAndGet();
+				count++;
+			} else {
+				prev = entry;
+			}
+			entry = next;
+		}
+		return count;
+	}
+
+	private static class Entry<T> {
+		final T element;
+		final long expiryTime;
+		long deadline;
+		Entry<T> next;
+
+		Entry(T element, long expiryTime) {
+			this.element = element;
+			this.expiryTime = expiryTime;
+		}
+	}
+}
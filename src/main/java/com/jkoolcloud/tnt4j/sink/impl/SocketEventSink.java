@@ -16,15 +16,32 @@
 package com.jkoolcloud.tnt4j.sink.impl;
 
 import java.io.DataOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import com.jkoolcloud.tnt4j.core.KeyValueStats;
 import com.jkoolcloud.tnt4j.core.OpLevel;
+import com.jkoolcloud.tnt4j.core.Snapshot;
+import com.jkoolcloud.tnt4j.format.BinaryFormatter;
+import com.jkoolcloud.tnt4j.format.BinarySession;
+import com.jkoolcloud.tnt4j.format.ByteFormatter;
 import com.jkoolcloud.tnt4j.format.EventFormatter;
+import com.jkoolcloud.tnt4j.format.StreamFormatter;
+import com.jkoolcloud.tnt4j.sink.Compressor;
 import com.jkoolcloud.tnt4j.sink.EventSink;
 import com.jkoolcloud.tnt4j.sink.LoggedEventSink;
+import com.jkoolcloud.tnt4j.sink.SinkLogEvent;
+import com.jkoolcloud.tnt4j.source.Source;
 import com.jkoolcloud.tnt4j.tracker.TrackingActivity;
 import com.jkoolcloud.tnt4j.tracker.TrackingEvent;
+import com.jkoolcloud.tnt4j.utils.NamedThreadFactory;
 import com.jkoolcloud.tnt4j.utils.Utils;
 
 /**
@@ -32,6 +49,21 @@ import com.jkoolcloud.tnt4j.utils.Utils;
  * This class implements {@link EventSink} with socket as the underlying sink implementation.
  * </p>
  *
+ * <p>
+ * Sink writes newline terminated formatted messages. When associated formatter is a {@link ByteFormatter}, sink writes
+ * binary frames instead. Frames produced by {@link BinaryFormatter} refer to strings defined in a
+ * {@link BinarySession}, which lives for the duration of a connection, so repeating strings are sent only once per
+ * connection. Large activities are written incrementally when associated formatter is a {@link StreamFormatter}.
+ * </p>
+ *
+ * <p>
+ * When a {@link Compressor} is set, messages are collected into batches, which are compressed and written as frames: 4
+ * byte big endian block length followed by compressed block. Batch is written when it reaches configured size, linger
+ * time expires or sink is flushed. Decompressed block contains messages exactly as written without compression. A
+ * block which fails to be written is kept and sent again after reconnect, unless it contains binary frames referring
+ * to the session of the failed connection, in which case it is dropped and reported to error listeners.
+ * </p>
+ *
  *
  * @version $Revision: 16 $
  *
@@ -42,10 +74,36 @@ import com.jkoolcloud.tnt4j.utils.Utils;
  * @see EventFormatter
  */
 public class SocketEventSink extends LoggedEventSink {
+	static final String KEY_DICT_SIZE = "socket-dict-size";
+	static final String KEY_DICT_HITS = "socket-dict-hits";
+	static final String KEY_DICT_BYTES_SAVED = "socket-dict-bytes-saved";
+
+	/**
+	 * Default compressed batch size in bytes
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 64 * 1024;
+
+	/**
+	 * Default maximum time in milliseconds a compressed batch is held before being written
+	 */
+	public static final long DEFAULT_BATCH_LINGER_MS = 100;
+
+	private static final long FLUSHER_STOP_TIMEOUT_MS = 5000;
+
 	private Socket socketSink = null;
+	private volatile Socket connecting = null;
 	private DataOutputStream outStream = null;
 	private String hostName = "localhost";
 	private int portNo = 6400;
+	private BinarySession session = null;
+
+	private Compressor compressor = null;
+	private int batchSize = DEFAULT_BATCH_SIZE;
+	private long batchLingerMs = DEFAULT_BATCH_LINGER_MS;
+	private BatchBuffer batch = null;
+	private byte[] pendingBlock = null;
+	private long batchStartTime = 0;
+	private ScheduledExecutorService flusher;
 
 	/**
 	 * Create a socket event sink based on a given host, port and formatter. Another sink can be associated with this
@@ -68,6 +126,33 @@ public class SocketEventSink extends LoggedEventSink {
 		portNo = port;
 	}
 
+	/**
+	 * Set compression stage used to compress batches of messages written by this sink. Must be called before sink is
+	 * opened.
+	 *
+	 * @param cmp
+	 *            compressor instance, {@code null} to disable compression
+	 * @param size
+	 *            batch size in bytes, batch is compressed and written once it reaches this size
+	 * @param lingerMs
+	 *            maximum time in milliseconds a batch is held before being written, {@code 0} to write only when batch
+	 *            is full or sink is flushed
+	 */
+	public void setCompressor(Compressor cmp, int size, long lingerMs) {
+		compressor = cmp;
+		batchSize = size;
+		batchLingerMs = lingerMs;
+	}
+
+	/**
+	 * Obtain compression stage used by this sink
+	 *
+	 * @return compressor instance, {@code null} if compression is disabled
+	 */
+	public Compressor getCompressor() {
+		return compressor;
+	}
+
 	@Override
 	public Object getSinkHandle() {
 		return socketSink;
@@ -80,38 +165,331 @@ public class SocketEventSink extends LoggedEventSink {
 
 	@Override
 	public synchronized void open() throws IOException {
-		socketSink = new Socket(hostName, portNo);
-		outStream = new DataOutputStream(socketSink.getOutputStream());
+		if (compressor != null && batch == null) {
+			batch = new BatchBuffer(batchSize);
+		}
+		connect();
+		if (compressor != null) {
+			if (batchLingerMs > 0 && flusher == null) {
+				flusher = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("SocketEventSink/flush-"));
+				flusher.scheduleAtFixedRate(new Runnable() {
+					@Override
+					public void run() {
+						flushExpired();
+					}
+				}, batchLingerMs, batchLingerMs, TimeUnit.MILLISECONDS);
+			}
+		}
 		super.open();
 	}
 
+	/**
+	 * Connect to configured host and start a new binary session. Batched data left from a previous connection is kept
+	 * and sent over the new one, unless it contains frames referring to the previous session.
+	 *
+	 * @throws IOException
+	 *             if connection can not be established
+	 */
+	private void connect() throws IOException {
+		Socket socket = new Socket();
+		connecting = socket;
+		try {
+			socket.connect(new InetSocketAddress(hostName, portNo));
+		} catch (IOException e) {
+			closeQuietly(socket);
+			throw e;
+		} finally {
+			connecting = null;
+		}
+		socketSink = socket;
+		outStream = new DataOutputStream(socket.getOutputStream());
+		if (session != null) {
+			dropBatch("Batched frames refer to a closed binary session");
+		}
+		EventFormatter fmt = getEventFormatter();
+		session = fmt instanceof BinaryFormatter ? ((BinaryFormatter) fmt).newSession() : null;
+	}
+
+	/**
+	 * Replace a failed connection with a new one, keeping batched data and flusher. Called while holding the sink
+	 * lock; {@link #close()} aborts a connection attempt in progress.
+	 *
+	 * @throws IOException
+	 *             if connection can not be established
+	 */
+	private void reconnect() throws IOException {
+		Socket socket = socketSink;
+		socketSink = null;
+		outStream = null;
+		closeQuietly(socket);
+		connect();
+	}
+
+	private void dropBatch(String reason) {
+		int dropped = (batch != null ? batch.size() : 0) + (pendingBlock != null ? pendingBlock.length : 0);
+		if (dropped == 0) {
+			return;
+		}
+		if (batch != null) {
+			batch.reset();
+		}
+		pendingBlock = null;
+		batchStartTime = 0;
+		IOException e = new IOException(reason + ": dropped.bytes=" + dropped + ", host=" + hostName + ":" + portNo);
+		notifyListeners(new SinkLogEvent(this, getSource(), OpLevel.NONE, defaultTTL(), e.getMessage()), e);
+	}
+
+	private static void closeQuietly(Socket socket) {
+		if (socket != null) {
+			try {
+				socket.close();
+			} catch (IOException e) {
+			}
+		}
+	}
+
 	@Override
 	public synchronized void flush() throws IOException {
 		if (isOpen()) {
+			writeBatch();
 			outStream.flush();
 		}
 	}
 
 	@Override
-	public synchronized void close() throws IOException {
+	public void close() throws IOException {
+		closeQuietly(connecting);
+		boolean stopped = stopFlusher();
+		synchronized (this) {
+			closeSocket(stopped);
+		}
+	}
+
+	private void closeSocket(boolean flusherStopped) throws IOException {
 		try {
 			if (isOpen()) {
+				writeBatch();
 				outStream.close();
 				socketSink.close();
 			}
 		} finally {
+			if (compressor != null && flusherStopped) {
+				compressor.end();
+			}
 			outStream = null;
 			socketSink = null;
 			super.close();
 		}
 	}
 
+	/**
+	 * Stop batch flusher and wait for any running flush to complete. Must be called without holding the sink lock,
+	 * since the flush task synchronizes on this sink.
+	 *
+	 * @return true if flusher is not running, false if it did not terminate in time
+	 */
+	private boolean stopFlusher() {
+		ScheduledExecutorService fl;
+		synchronized (this) {
+			fl = flusher;
+			flusher = null;
+		}
+		if (fl == null) {
+			return true;
+		}
+		fl.shutdown();
+		try {
+			return fl.awaitTermination(FLUSHER_STOP_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	@Override
+	public KeyValueStats getStats(Map<String, Object> stats) {
+		super.getStats(stats);
+		BinarySession ses = session;
+		if (ses != null) {
+			stats.put(Utils.qualify(this, KEY_DICT_SIZE), ses.size());
+			stats.put(Utils.qualify(this, KEY_DICT_HITS), ses.getHitCount());
+			stats.put(Utils.qualify(this, KEY_DICT_BYTES_SAVED), ses.getBytesSaved());
+		}
+		if (compressor != null) {
+			compressor.getStats(stats, this);
+		}
+		return this;
+	}
+
+	@Override
+	public void resetStats() {
+		super.resetStats();
+		if (compressor != null) {
+			compressor.resetStats();
+		}
+	}
+
 	@Override
 	public String toString() {
 		return super.toString() + "{host: " + hostName + ", port: " + portNo + ", socket: " + socketSink
 				+ ", formatter: " + getEventFormatter() + "}";
 	}
 
+	@Override
+	protected void writeEvent(TrackingEvent event) throws IOException {
+		EventFormatter fmt = getEventFormatter();
+		if (fmt instanceof ByteFormatter) {
+			writeFrame((ByteFormatter) fmt, event, null, false);
+		} else {
+			super.writeEvent(event);
+		}
+	}
+
+	@Override
+	protected void writeActivity(TrackingActivity activity) throws IOException {
+		EventFormatter fmt = getEventFormatter();
+		if (fmt instanceof ByteFormatter) {
+			writeFrame((ByteFormatter) fmt, activity, null, false);
+		} else if (isStreamed(activity)) {
+			writeStream((StreamFormatter) fmt, activity, false);
+		} else {
+			super.writeActivity(activity);
+		}
+	}
+
+	@Override
+	protected void writeSnapshot(Snapshot snapshot) throws IOException {
+		EventFormatter fmt = getEventFormatter();
+		if (fmt instanceof ByteFormatter) {
+			writeFrame((ByteFormatter) fmt, snapshot, null, false);
+		} else {
+			super.writeSnapshot(snapshot);
+		}
+	}
+
+	@Override
+	protected void writeLog(long ttl, Source src, OpLevel sev, String msg, Object... args) throws IOException {
+		EventFormatter fmt = getEventFormatter();
+		if (fmt instanceof ByteFormatter) {
+			writeLogFrame((ByteFormatter) fmt, ttl, src, sev, msg, args, false);
+		} else {
+			super.writeLog(ttl, src, sev, msg, args);
+		}
+	}
+
+	@Override
+	protected void writeObject(Object msg, Object... args) throws IOException {
+		EventFormatter fmt = getEventFormatter();
+		if (fmt instanceof ByteFormatter) {
+			writeFrame((ByteFormatter) fmt, msg, args, false);
+		} else {
+			super.writeObject(msg, args);
+		}
+	}
+
+	/**
+	 * Format and write a binary frame. Frames are produced while holding the sink lock, so session dictionary
+	 * references are written in the same order they are assigned. Frame is re-produced after reconnect, since
+	 * reconnect starts a new session.
+	 */
+	private synchronized void writeFrame(ByteFormatter fmt, Object obj, Object[] args, boolean retrying)
+			throws IOException {
+		_checkState();
+
+		try {
+			BinarySession ses = session;
+			int mark = ses != null ? ses.mark() : 0;
+			byte[] bytes;
+			try {
+				bytes = (ses != null && fmt instanceof BinaryFormatter)
+						? ((BinaryFormatter) fmt).toBytes(ses, obj, args) : fmt.toBytes(obj, args);
+			} catch (RuntimeException e) {
+				if (ses != null) {
+					ses.rollback(mark);
+				}
+				throw e;
+			}
+			sendFrame(bytes);
+		} catch (IOException e) {
+			if (retrying || batch != null) {
+				throw e;
+			} else {
+				try {
+					reconnect();
+					writeFrame(fmt, obj, args, true);
+				} catch (IOException ioe) {
+					ioe.initCause(e);
+					throw ioe;
+				}
+			}
+		}
+	}
+
+	private synchronized void writeLogFrame(ByteFormatter fmt, long ttl, Source src, OpLevel sev, String msg,
+			Object[] args, boolean retrying) throws IOException {
+		_checkState();
+
+		try {
+			BinarySession ses = session;
+			int mark = ses != null ? ses.mark() : 0;
+			byte[] bytes;
+			try {
+				bytes = (ses != null && fmt instanceof BinaryFormatter)
+						? ((BinaryFormatter) fmt).logToBytes(ses, ttl, src, sev, msg, args)
+						: fmt.toBytes(ttl, src, sev, msg, args);
+			} catch (RuntimeException e) {
+				if (ses != null) {
+					ses.rollback(mark);
+				}
+				throw e;
+			}
+			sendFrame(bytes);
+		} catch (IOException e) {
+			if (retrying || batch != null) {
+				throw e;
+			} else {
+				try {
+					reconnect();
+					writeLogFrame(fmt, ttl, src, sev, msg, args, true);
+				} catch (IOException ioe) {
+					ioe.initCause(e);
+					throw ioe;
+				}
+			}
+		}
+	}
+
+	private void sendFrame(byte[] bytes) throws IOException {
+		incrementBytesSent(bytes.length);
+		getOutput().write(bytes, 0, bytes.length);
+		endWrite();
+	}
+
+	private synchronized void writeStream(StreamFormatter fmt, TrackingActivity activity, boolean retrying)
+			throws IOException {
+		_checkState();
+
+		try {
+			OutputStream out = getOutput();
+			long bytes = fmt.write(activity, out);
+			out.write('\n');
+			incrementBytesSent((int) (bytes + 1));
+			endWrite();
+		} catch (IOException e) {
+			if (retrying || batch != null) {
+				throw e;
+			} else {
+				try {
+					reconnect();
+					writeStream(fmt, activity, true);
+				} catch (IOException ioe) {
+					ioe.initCause(e);
+					throw ioe;
+				}
+			}
+		}
+	}
+
 	@Override
 	protected void writeLine(String msg) throws IOException {
 		writeLine(msg, false);
@@ -127,13 +505,14 @@ public class SocketEventSink extends LoggedEventSink {
 		try {
 			byte[] bytes = msg.getBytes();
 			incrementBytesSent(bytes.length);
-			outStream.write(bytes, 0, bytes.length);
+			OutputStream out = getOutput();
+			out.write(bytes, 0, bytes.length);
 			if (!msg.endsWith("\n")) {
-				outStream.write('\n');
+				out.write('\n');
 			}
-			outStream.flush();
+			endWrite();
 		} catch (IOException e) {
-			if (retrying) {
+			if (retrying || batch != null) {
 				throw e;
 			} else {
 				retryWrite(msg, e);
@@ -143,7 +522,7 @@ public class SocketEventSink extends LoggedEventSink {
 
 	private void retryWrite(String msg, Throwable e) throws IOException {
 		try {
-			reopen();
+			reconnect();
 			writeLine(msg, true);
 		} catch (IOException ioe) {
 			if (e != null) {
@@ -153,10 +532,83 @@ public class SocketEventSink extends LoggedEventSink {
 		}
 	}
 
+	private OutputStream getOutput() {
+		return batch != null ? batch : outStream;
+	}
+
+	private void endWrite() throws IOException {
+		if (batch == null) {
+			outStream.flush();
+			return;
+		}
+		if (batchStartTime == 0) {
+			batchStartTime = System.currentTimeMillis();
+		}
+		if (batch.size() >= batchSize || pendingBlock != null) {
+			try {
+				writeBatch();
+				outStream.flush();
+			} catch (IOException e) {
+				// message is already batched, so resend the batch over a new connection instead of the message
+				reconnect();
+				writeBatch();
+				outStream.flush();
+			}
+		}
+	}
+
+	/**
+	 * Compress and write pending batch. Compressed block is kept until it is written successfully, so a block which
+	 * failed to be written is sent again before any other data.
+	 *
+	 * @throws IOException
+	 *             if block can not be written
+	 */
+	private synchronized void writeBatch() throws IOException {
+		if (pendingBlock != null) {
+			writeBlock();
+		}
+		if (batch != null && batch.size() > 0) {
+			pendingBlock = batch.compress(compressor);
+			batch.reset();
+			batchStartTime = 0;
+			writeBlock();
+		}
+	}
+
+	private void writeBlock() throws IOException {
+		outStream.writeInt(pendingBlock.length);
+		outStream.write(pendingBlock, 0, pendingBlock.length);
+		pendingBlock = null;
+	}
+
+	private synchronized void flushExpired() {
+		if (!isOpen() || (batchStartTime == 0 && pendingBlock == null)
+				|| (System.currentTimeMillis() - batchStartTime) < batchLingerMs) {
+			return;
+		}
+		try {
+			writeBatch();
+			outStream.flush();
+		} catch (IOException e) {
+			notifyListeners(new SinkLogEvent(this, getSource(), OpLevel.NONE, defaultTTL(), e.getMessage()), e);
+		}
+	}
+
 	@Override
 	protected void _checkState() throws IllegalStateException {
 		if (!isOpen()) {
 			throw new IllegalStateException("Sink closed: " + hostName + ":" + this.portNo + ", socket=" + socketSink);
 		}
 	}
+
+	private static class BatchBuffer extends ByteArrayOutputStream {
+		BatchBuffer(int size) {
+			super(size + size / 4);
+		}
+
+		byte[] compress(Compressor cmp) {
+			return cmp.compress(buf, 0, count);
+		}
+	}
 }
@@ -21,6 +21,7 @@ import java.util.Properties;
 import com.jkoolcloud.tnt4j.config.ConfigException;
 import com.jkoolcloud.tnt4j.format.EventFormatter;
 import com.jkoolcloud.tnt4j.format.JSONFormatter;
+import com.jkoolcloud.tnt4j.sink.Compressor;
 import com.jkoolcloud.tnt4j.sink.EventSink;
 import com.jkoolcloud.tnt4j.sink.EventSinkFactory;
 import com.jkoolcloud.tnt4j.sink.LoggedEventSinkFactory;
@@ -44,6 +45,10 @@ import com.jkoolcloud.tnt4j.utils.Utils;
 public class SocketEventSinkFactory extends LoggedEventSinkFactory {
 	private String hostName = System.getProperty("tnt4j.sink.factory.socket.host", "localhost");
 	private int port = Integer.getInteger("tnt4j.sink.factory.socket.port", 6400);
+	private String compression = System.getProperty("tnt4j.sink.factory.socket.compression");
+	private int compressionLevel = -1;
+	private int compressionBatchSize = SocketEventSink.DEFAULT_BATCH_SIZE;
+	private long compressionLingerMs = SocketEventSink.DEFAULT_BATCH_LINGER_MS;
 
 	/**
 	 * Create a socket event sink factory. Same as {@code SocketEventSinkFactory("localhost", 6400)}.
@@ -84,8 +89,8 @@ public class SocketEventSinkFactory extends LoggedEventSinkFactory {
 
 	@Override
 	public EventSink getEventSink(String name, Properties props) {
-		return configureSink(new SocketEventSink(name, hostName, port, new JSONFormatter(false),
-				getLogSink(name, props, new JSONFormatter())));
+		return configureSink(
+				newSocketSink(name, new JSONFormatter(false), getLogSink(name, props, new JSONFormatter())));
 	}
 
 	@Override
@@ -110,7 +115,14 @@ public class SocketEventSinkFactory extends LoggedEventSinkFactory {
 	 * @see EventFormatter
 	 */
 	public EventSink getEventSink(String name, Properties props, EventFormatter frmt, EventSink pipedSink) {
-		return configureSink(new SocketEventSink(name, hostName, port, frmt, pipedSink));
+		return configureSink(newSocketSink(name, frmt, pipedSink));
+	}
+
+	private SocketEventSink newSocketSink(String name, EventFormatter frmt, EventSink pipedSink) {
+		SocketEventSink sink = new SocketEventSink(name, hostName, port, frmt, pipedSink);
+		sink.setCompressor(Compressor.newCompressor(compression, compressionLevel), compressionBatchSize,
+				compressionLingerMs);
+		return sink;
 	}
 
 	@Override
@@ -119,6 +131,15 @@ public class SocketEventSinkFactory extends LoggedEventSinkFactory {
 
 		hostName = Utils.getString("Host", settings, hostName);
 		port = Utils.getInt("Port", settings, port);
+		compression = Utils.getString("Compression", settings, compression);
+		compressionLevel = Utils.getInt("CompressionLevel", settings, compressionLevel);
+		compressionBatchSize = Utils.getInt("CompressionBatchSize", settings, compressionBatchSize);
+		compressionLingerMs = Utils.getLong("CompressionLingerMs", settings, compressionLingerMs);
+		try {
+			Compressor.newCompressor(compression, compressionLevel);
+		} catch (IllegalArgumentException e) {
+			throw new ConfigException("Unsupported compression: " + compression, settings);
+		}
 	}
 
 	@Override
@@ -0,0 +1,691 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.sink.impl;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+import com.jkoolcloud.tnt4j.format.FormattedMessage;
+import com.jkoolcloud.tnt4j.utils.Utils;
+
+/**
+ * <p>
+ * This class implements a persistent FIFO queue of formatted messages backed by an append-only log of memory-mapped
+ * segment files. Used by {@link PooledLogger} to hold events which can not be delivered or queued, until their sinks
+ * recover. Disk usage is bounded by maximum number of segments, messages are rejected when the limit is reached.
+ * </p>
+ *
+ * <p>
+ * Each record is written as: 4 byte payload length, 4 byte CRC32 of the payload, payload. Length is written last, so
+ * partially written records are never visible. Read position is saved in a checkpoint file, replaced atomically, and
+ * fully consumed segments are deleted. On open, records after the last checkpoint are recovered from existing segments
+ * and records torn by a crash are discarded. Records consumed after the last checkpoint are delivered again after a
+ * crash (at least once delivery). Directory is locked exclusively while the queue is open, so a second queue opened
+ * on the same directory, in this or another process, fails instead of corrupting segments.
+ * </p>
+ *
+ * <p>
+ * Appended records become durable at next {@link #checkpoint()}, when {@link #sync()} is called, or once the sync
+ * interval (time or bytes appended since last sync, see {@link #setSyncInterval(long, int)}) is exceeded, whichever
+ * comes first. Concurrent {@link #sync()} callers are grouped: one caller forces the segment on behalf of all records appended so far, while
+ * others wait for it and return without forcing again (group commit).
+ * </p>
+ *
+ * @version $Revision: 1 $
+ *
+ * @see PooledLogger
+ * @see JournalEventSink
+ * @see FormattedMessage
+ */
+public class SpillQueue implements Closeable {
+	public static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+	public static final long DEFAULT_MAX_BYTES = 1024L * 1024L * 1024L;
+	public static final long DEFAULT_SYNC_INTERVAL_MS = 1000;
+	public static final int DEFAULT_SYNC_BYTES = 1024 * 1024;
+
+	static final String SEGMENT_PREFIX = "spill-";
+	static final String SEGMENT_SUFFIX = ".seg";
+	static final String CHECKPOINT_FILE = "spill.ckp";
+	static final String LOCK_FILE = "spill.lck";
+
+	private static final int RECORD_HEADER = 8;
+	private static final int TYPE_TEXT = 0;
+	private static final int TYPE_BINARY = 1;
+	private static final int FLAG_TIMESTAMP = 0x80;
+
+	private final File dir;
+	private final int segmentSize;
+	private final int maxSegments;
+	private final LinkedList<Segment> segments = new LinkedList<Segment>();
+	private final CRC32 crc = new CRC32();
+	private final Object syncLock = new Object();
+	private final RandomAccessFile lockFile;
+	private final FileLock lock;
+
+	private int readOffset = 0;
+	private int writeOffset = 0;
+	private volatile long pending = 0;
+	private SpillRecord peeked;
+	private int peekedLen;
+	private boolean closed = false;
+	private volatile long syncedCount = 0;
+	private long syncIntervalMs = DEFAULT_SYNC_INTERVAL_MS;
+	private int syncBytes = DEFAULT_SYNC_BYTES;
+	private long lastSyncTime = System.currentTimeMillis();
+	private int unsyncedBytes = 0;
+
+	private final AtomicLong appendCount = new AtomicLong(0);
+	private final AtomicLong consumeCount = new AtomicLong(0);
+	private final AtomicLong rejectCount = new AtomicLong(0);
+	private final AtomicLong corruptCount = new AtomicLong(0);
+	private final AtomicLong syncCount = new AtomicLong(0);
+
+	/**
+	 * Open a spill queue in a given directory with default segment size and disk limit
+	 *
+	 * @param dir
+	 *            directory where segment files are stored
+	 * @throws IOException
+	 *             if queue can not be opened or recovered
+	 */
+	public SpillQueue(File dir) throws IOException {
+		this(dir, DEFAULT_SEGMENT_SIZE, DEFAULT_MAX_BYTES);
+	}
+
+	/**
+	 * Open a spill queue in a given directory, recovering records left by a previous instance
+	 *
+	 * @param dir
+	 *            directory where segment files are stored
+	 * @param segmentSize
+	 *            size of a single segment file in bytes
+	 * @param maxBytes
+	 *            maximum disk space used by all segments
+	 * @throws IOException
+	 *             if queue can not be opened or recovered
+	 */
+	public SpillQueue(File dir, int segmentSize, long maxBytes) throws IOException {
+		this.dir = dir;
+		this.segmentSize = Math.max(segmentSize, 4096);
+		this.maxSegments = (int) Math.max(2, maxBytes / this.segmentSize);
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("Unable to create spill directory: " + dir);
+		}
+		lockFile = new RandomAccessFile(new File(dir, LOCK_FILE), "rw");
+		try {
+			lock = lockFile.getChannel().tryLock();
+			if (lock == null) {
+				throw new IOException("Spill directory in use by another process: " + dir);
+			}
+			recover();
+		} catch (OverlappingFileLockException e) {
+			Utils.close(lockFile);
+			throw new IOException("Spill directory already open: " + dir);
+		} catch (IOException e) {
+			Utils.close(lockFile);
+			throw e;
+		}
+	}
+
+	/**
+	 * Set maximum time and number of bytes appended between forced syncs of the tail segment, bounding the amount of
+	 * records lost by a crash when {@link #sync()} is not called explicitly.
+	 *
+	 * @param intervalMs
+	 *            maximum time between syncs in milliseconds, {@code 0} to disable time based sync
+	 * @param bytes
+	 *            maximum number of bytes appended between syncs, {@code 0} to disable size based sync
+	 */
+	public synchronized void setSyncInterval(long intervalMs, int bytes) {
+		syncIntervalMs = intervalMs;
+		syncBytes = bytes;
+	}
+
+	/**
+	 * Append a formatted message to the tail of the queue
+	 *
+	 * @param key
+	 *            key identifying the sink message belongs to
+	 * @param ttl
+	 *            message time to live
+	 * @param msg
+	 *            formatted message
+	 * @return true if message was appended, false if queue is full or closed
+	 * @throws IOException
+	 *             if new segment can not be created
+	 */
+	public synchronized boolean append(String key, long ttl, FormattedMessage msg) throws IOException {
+		if (closed) {
+			return false;
+		}
+		byte[] payload = encode(key, ttl, msg);
+		int size = RECORD_HEADER + payload.length;
+		if (size > segmentSize) {
+			rejectCount.incrementAndGet();
+			return false;
+		}
+		Segment seg = segments.getLast();
+		if (writeOffset + size > segmentSize) {
+			if (segments.size() >= maxSegments) {
+				rejectCount.incrementAndGet();
+				return false;
+			}
+			seal(seg);
+			seg = newSegment(seg.seq + 1);
+			segments.add(seg);
+			writeOffset = 0;
+		}
+		crc.reset();
+		crc.update(payload, 0, payload.length);
+		MappedByteBuffer buf = seg.buffer;
+		buf.position(writeOffset + 4);
+		buf.putInt((int) crc.getValue());
+		buf.put(payload);
+		buf.putInt(writeOffset, payload.length); // commit record
+		writeOffset += size;
+		seg.records++;
+		pending++;
+		long appended = appendCount.incrementAndGet();
+		unsyncedBytes += size;
+		long now = System.currentTimeMillis();
+		if ((syncBytes > 0 && unsyncedBytes >= syncBytes)
+				|| (syncIntervalMs > 0 && (now - lastSyncTime) >= syncIntervalMs)) {
+			buf.force();
+			markSynced(appended, now);
+		}
+		return true;
+	}
+
+	private void markSynced(long appended, long now) {
+		unsyncedBytes = 0;
+		lastSyncTime = now;
+		if (syncedCount < appended) {
+			syncedCount = appended;
+		}
+	}
+
+	/**
+	 * Obtain the record at the head of the queue without removing it
+	 *
+	 * @return record at the head of the queue, {@code null} if queue is empty
+	 */
+	public synchronized SpillRecord peek() {
+		while (peeked == null && !closed) {
+			Segment seg = segments.getFirst();
+			boolean tail = seg == segments.getLast();
+			int limit = tail ? writeOffset : segmentSize;
+			if (readOffset + RECORD_HEADER <= limit) {
+				int len = seg.buffer.getInt(readOffset);
+				if (len > 0 && readOffset + RECORD_HEADER + len <= limit) {
+					byte[] payload = new byte[len];
+					read(seg.buffer, readOffset + RECORD_HEADER, payload);
+					crc.reset();
+					crc.update(payload, 0, len);
+					if ((int) crc.getValue() == seg.buffer.getInt(readOffset + 4)) {
+						try {
+							peeked = decode(payload);
+							peekedLen = RECORD_HEADER + len;
+							return peeked;
+						} catch (IOException e) {
+							corruptCount.incrementAndGet();
+						}
+					} else {
+						corruptCount.incrementAndGet();
+					}
+				}
+			}
+			// end of segment or corrupt record, skip remaining records of the segment
+			pending = Math.max(0, pending - (seg.records - seg.consumed));
+			seg.consumed = seg.records;
+			if (tail) {
+				readOffset = writeOffset;
+				return null;
+			}
+			segments.removeFirst();
+			readOffset = 0;
+			delete(seg);
+		}
+		return peeked;
+	}
+
+	/**
+	 * Remove the record returned by last {@link #peek()} from the queue. Removal becomes durable at next
+	 * {@link #checkpoint()}.
+	 */
+	public synchronized void remove() {
+		if (peeked != null) {
+			readOffset += peekedLen;
+			peeked = null;
+			segments.getFirst().consumed++;
+			pending--;
+			consumeCount.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Persist current read position and flush written records to disk
+	 *
+	 * @throws IOException
+	 *             if checkpoint can not be written
+	 */
+	public synchronized void checkpoint() throws IOException {
+		if (closed) {
+			return;
+		}
+		for (Segment seg : segments) {
+			seg.buffer.force();
+		}
+		markSynced(appendCount.get(), System.currentTimeMillis());
+		Segment head = segments.getFirst();
+		File tmp = new File(dir, CHECKPOINT_FILE + ".tmp");
+		DataOutputStream out = new DataOutputStream(new FileOutputStream(tmp));
+		try {
+			out.writeLong(head.seq);
+			out.writeInt(readOffset);
+			out.writeLong(head.seq ^ readOffset ^ 0x5350494C4CL);
+		} finally {
+			Utils.close(out);
+		}
+		File ckp = new File(dir, CHECKPOINT_FILE);
+		if (!tmp.renameTo(ckp)) {
+			ckp.delete();
+			if (!tmp.renameTo(ckp)) {
+				throw new IOException("Unable to write checkpoint: " + ckp);
+			}
+		}
+	}
+
+	/**
+	 * Make all records appended before this call durable. Records already forced by a concurrent caller are not
+	 * forced again.
+	 *
+	 * @throws IOException
+	 *             if queue is closed
+	 */
+	public void sync() throws IOException {
+		sync(true);
+	}
+
+	/**
+	 * Make all records appended before this call durable, always forcing the current segment to disk
+	 *
+	 * @throws IOException
+	 *             if queue is closed
+	 */
+	public void force() throws IOException {
+		sync(false);
+	}
+
+	private void sync(boolean group) throws IOException {
+		long target = appendCount.get();
+		if (group && syncedCount >= target) {
+			return;
+		}
+		synchronized (syncLock) {
+			if (group && syncedCount >= target) {
+				return;
+			}
+			MappedByteBuffer tail;
+			synchronized (this) {
+				if (closed) {
+					throw new IOException("Queue closed: dir=" + dir);
+				}
+				// sealed segments are forced when rolled over
+				target = appendCount.get();
+				tail = segments.getLast().buffer;
+			}
+			tail.force();
+			syncedCount = target;
+			syncCount.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Obtain number of records in the queue
+	 *
+	 * @return number of records in the queue
+	 */
+	public long size() {
+		return pending;
+	}
+
+	/**
+	 * Determine if queue has no records
+	 *
+	 * @return true if queue is empty
+	 */
+	public boolean isEmpty() {
+		return size() <= 0;
+	}
+
+	/**
+	 * Obtain disk space used by segment files
+	 *
+	 * @return disk space used in bytes
+	 */
+	public synchronized long getDiskUsage() {
+		return (long) segments.size() * segmentSize;
+	}
+
+	/**
+	 * Obtain maximum disk space used by segment files
+	 *
+	 * @return maximum disk space in bytes
+	 */
+	public long getMaxDiskUsage() {
+		return (long) maxSegments * segmentSize;
+	}
+
+	/**
+	 * Obtain spill directory
+	 *
+	 * @return spill directory
+	 */
+	public File getDirectory() {
+		return dir;
+	}
+
+	/**
+	 * Obtain total number of appended records
+	 *
+	 * @return total number of appended records
+	 */
+	public long getAppendCount() {
+		return appendCount.get();
+	}
+
+	/**
+	 * Obtain total number of consumed records
+	 *
+	 * @return total number of consumed records
+	 */
+	public long getConsumeCount() {
+		return consumeCount.get();
+	}
+
+	/**
+	 * Obtain total number of records rejected because queue was full or record too large
+	 *
+	 * @return total number of rejected records
+	 */
+	public long getRejectCount() {
+		return rejectCount.get();
+	}
+
+	/**
+	 * Obtain total number of segment syncs performed by {@link #sync()} and {@link #force()}
+	 *
+	 * @return total number of segment syncs
+	 */
+	public long getSyncCount() {
+		return syncCount.get();
+	}
+
+	/**
+	 * Obtain total number of corrupt records skipped while reading
+	 *
+	 * @return total number of corrupt records
+	 */
+	public long getCorruptCount() {
+		return corruptCount.get();
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		try {
+			checkpoint();
+		} finally {
+			closed = true;
+			for (Segment seg : segments) {
+				Utils.close(seg.file);
+			}
+			segments.clear();
+			Utils.close(lockFile); // releases directory lock
+		}
+	}
+
+	@Override
+	public String toString() {
+		return super.toString() + "{dir: " + dir + ", size: " + size() + ", segments: " + segments.size()
+				+ ", max.segments: " + maxSegments + "}";
+	}
+
+	private void recover() throws IOException {
+		long ckpSeq = -1;
+		int ckpOffset = 0;
+		File ckp = new File(dir, CHECKPOINT_FILE);
+		if (ckp.isFile()) {
+			DataInputStream in = new DataInputStream(new FileInputStream(ckp));
+			try {
+				long seq = in.readLong();
+				int off = in.readInt();
+				if (in.readLong() == (seq ^ off ^ 0x5350494C4CL)) {
+					ckpSeq = seq;
+					ckpOffset = off;
+				}
+			} catch (EOFException e) {
+				// incomplete checkpoint, replay all segments
+			} finally {
+				Utils.close(in);
+			}
+		}
+		for (long seq : listSegments()) {
+			if (seq < ckpSeq) {
+				new File(dir, segmentName(seq)).delete();
+			} else {
+				segments.add(newSegment(seq));
+			}
+		}
+		if (segments.isEmpty()) {
+			segments.add(newSegment(Math.max(ckpSeq, 0)));
+			return;
+		}
+		readOffset = segments.getFirst().seq == ckpSeq ? ckpOffset : 0;
+		// count valid records and locate end of data in the last segment
+		for (Segment seg : segments) {
+			int off = seg == segments.getFirst() ? readOffset : 0;
+			while (off + RECORD_HEADER <= segmentSize) {
+				int len = seg.buffer.getInt(off);
+				if (len <= 0 || off + RECORD_HEADER + len > segmentSize) {
+					break;
+				}
+				byte[] payload = new byte[len];
+				read(seg.buffer, off + RECORD_HEADER, payload);
+				crc.reset();
+				crc.update(payload, 0, len);
+				if ((int) crc.getValue() != seg.buffer.getInt(off + 4)) {
+					break;
+				}
+				off += RECORD_HEADER + len;
+				seg.records++;
+				pending++;
+			}
+			writeOffset = off;
+		}
+	}
+
+	private List<Long> listSegments() {
+		List<Long> seqs = new ArrayList<Long>();
+		String[] names = dir.list();
+		if (names != null) {
+			for (String name : names) {
+				if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+					try {
+						seqs.add(Long.parseLong(
+								name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+					} catch (NumberFormatException e) {
+						// not a segment file
+					}
+				}
+			}
+		}
+		Long[] sorted = seqs.toArray(new Long[seqs.size()]);
+		Arrays.sort(sorted);
+		return Arrays.asList(sorted);
+	}
+
+	private static String segmentName(long seq) {
+		return SEGMENT_PREFIX + String.format("%016d", seq) + SEGMENT_SUFFIX;
+	}
+
+	private Segment newSegment(long seq) throws IOException {
+		RandomAccessFile file = new RandomAccessFile(new File(dir, segmentName(seq)), "rw");
+		try {
+			MappedByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+			return new Segment(seq, file, buffer);
+		} catch (IOException e) {
+			Utils.close(file);
+			throw e;
+		}
+	}
+
+	private void seal(Segment seg) {
+		if (writeOffset + 4 <= segmentSize) {
+			seg.buffer.putInt(writeOffset, 0); // end of segment marker
+		}
+		seg.buffer.force();
+	}
+
+	private void delete(Segment seg) {
+		Utils.close(seg.file);
+		new File(dir, segmentName(seg.seq)).delete();
+	}
+
+	private static void read(MappedByteBuffer buf, int offset, byte[] dst) {
+		ByteBuffer src = buf.duplicate();
+		src.position(offset);
+		src.get(dst);
+	}
+
+	private static byte[] encode(String key, long ttl, FormattedMessage msg) throws IOException {
+		byte[] data = msg.getBytes();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length + key.length() + 32);
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeUTF(key);
+		out.writeLong(ttl);
+		out.writeByte((msg.isBinary() ? TYPE_BINARY : TYPE_TEXT) | FLAG_TIMESTAMP);
+		out.writeLong(System.currentTimeMillis());
+		out.writeInt(data.length);
+		out.write(data);
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	private static SpillRecord decode(byte[] payload) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+		String key = in.readUTF();
+		long ttl = in.readLong();
+		int type = in.readByte() & 0xFF;
+		long time = (type & FLAG_TIMESTAMP) != 0 ? in.readLong() : 0;
+		type &= ~FLAG_TIMESTAMP;
+		byte[] data = new byte[in.readInt()];
+		in.readFully(data);
+		FormattedMessage msg = type == TYPE_BINARY ? new FormattedMessage(data)
+				: new FormattedMessage(new String(data, Utils.UTF8));
+		return new SpillRecord(key, ttl, time, msg);
+	}
+
+	private static class Segment {
+		final long seq;
+		final RandomAccessFile file;
+		final MappedByteBuffer buffer;
+		int records;
+		int consumed;
+
+		Segment(long seq, RandomAccessFile file, MappedByteBuffer buffer) {
+			this.seq = seq;
+			this.file = file;
+			this.buffer = buffer;
+		}
+	}
+
+	/**
+	 * Single record of a {@link SpillQueue}
+	 */
+	public static class SpillRecord {
+		private final String key;
+		private final long ttl;
+		private final long time;
+		private final FormattedMessage message;
+
+		SpillRecord(String key, long ttl, long time, FormattedMessage message) {
+			this.key = key;
+			this.ttl = ttl;
+			this.time = time;
+			this.message = message;
+		}
+
+		/**
+		 * Obtain key identifying the sink record belongs to
+		 *
+		 * @return sink key
+		 */
+		public String getKey() {
+			return key;
+		}
+
+		/**
+		 * Obtain record time to live
+		 *
+		 * @return time to live
+		 */
+		public long getTTL() {
+			return ttl;
+		}
+
+		/**
+		 * Obtain time when record was appended
+		 *
+		 * @return time in milliseconds since epoch, {@code 0} if unknown
+		 */
+		public long getTime() {
+			return time;
+		}
+
+		/**
+		 * Determine if record time to live has elapsed since it was appended
+		 *
+		 * @param now
+		 *            current time in milliseconds
+		 * @return true if record has a positive time to live which has elapsed
+		 */
+		public boolean isExpired(long now) {
+			return ttl > 0 && time > 0 && (now - time) > ttl * 1000L;
+		}
+
+		/**
+		 * Obtain formatted message
+		 *
+		 * @return formatted message
+		 */
+		public FormattedMessage getMessage() {
+			return message;
+		}
+	}
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.sink.impl;
+
+import com.jkoolcloud.tnt4j.core.OpLevel;
+
+/**
+ * This class implements a task which replays events spilled to a persistent {@link SpillQueue} back onto the pooled
+ * logger queue. Replay is attempted when a sink recovers from an error and periodically every retry interval. While
+ * replay is only limited by main queue capacity, it is resumed after a short pause.
+ *
+ * @version $Revision: 1 $
+ *
+ * @see com.jkoolcloud.tnt4j.sink.impl.PooledLogger#replaySpilled()
+ * @see com.jkoolcloud.tnt4j.sink.impl.PooledLogger#setSpillQueue(SpillQueue)
+ */
+class SpillReplayTask extends AbstractPoolLoggingTask {
+	protected SpillReplayTask(PooledLogger logger) {
+		super(logger);
+	}
+
+	@Override
+	public void run() {
+		boolean backlog = false;
+		while (!isCanceled() && !pooledLogger.isShut()) {
+			try {
+				pooledLogger.awaitReplay(
+						backlog ? PooledLogger.SPILL_REPLAY_PAUSE_MS : pooledLogger.retryInterval);
+				backlog = pooledLogger.replaySpilled();
+			} catch (InterruptedException e) {
+				cancel();
+			} catch (Throwable e) {
+				PooledLogger.logger.log(OpLevel.ERROR, "Error during spill replay: spill.queue={0}",
+						pooledLogger.getSpillQueue(), e);
+			}
+		}
+	}
+}
@@ -19,19 +19,30 @@ import java.io.IOException;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
 import org.apache.kafka.common.Metric;
 import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
 
 import com.jkoolcloud.tnt4j.core.KeyValueStats;
 import com.jkoolcloud.tnt4j.core.OpLevel;
 import com.jkoolcloud.tnt4j.core.Snapshot;
+import com.jkoolcloud.tnt4j.core.Trackable;
+import com.jkoolcloud.tnt4j.format.ByteFormatter;
 import com.jkoolcloud.tnt4j.format.EventFormatter;
 import com.jkoolcloud.tnt4j.sink.AbstractEventSink;
 import com.jkoolcloud.tnt4j.sink.EventSink;
+import com.jkoolcloud.tnt4j.sink.SinkError;
+import com.jkoolcloud.tnt4j.sink.SinkLogEvent;
 import com.jkoolcloud.tnt4j.source.Source;
 import com.jkoolcloud.tnt4j.tracker.TrackingActivity;
 import com.jkoolcloud.tnt4j.tracker.TrackingEvent;
@@ -39,21 +50,42 @@ import com.jkoolcloud.tnt4j.utils.Utils;
 
 /**
  * <p>
- * This class implements {@link EventSink} with Kafka as the underlying sink implementation.
+ * This class implements {@link EventSink} with Kafka as the underlying sink implementation. Records are sent
+ * asynchronously as byte arrays: formatters implementing {@link ByteFormatter} produce bytes directly, output of all
+ * other formatters is encoded as UTF-8. Send completion is reported via producer callbacks, which update sink error
+ * state and per partition delivery latency statistics. Record keys, which determine partition assignment, are derived
+ * using a configurable {@link KeyStrategy}.
  * </p>
  * 
  * 
- * @version $Revision: 1 $
+ * @version $Revision: 2 $
  * 
  * @see OpLevel
  * @see EventFormatter
+ * @see ByteFormatter
  * @see AbstractEventSink
  * @see KafkaEventSinkFactory
+ * @see KeyStrategy
  */
 public class KafkaEventSink extends AbstractEventSink {
+	static final String KEY_SEND_COUNT = "kafka-sent";
+	static final String KEY_ACK_COUNT = "kafka-acked";
+	static final String KEY_FAIL_COUNT = "kafka-failed";
+	static final String KEY_IN_FLIGHT = "kafka-in-flight";
+	static final String KEY_PARTITION_PFIX = "kafka-partition-";
+	static final String KEY_PARTITION_ACKED = "-acked";
+	static final String KEY_PARTITION_LATENCY_AVG = "-latency-avg-usec";
+	static final String KEY_PARTITION_LATENCY_MAX = "-latency-max-usec";
+	static final String KEY_PARTITION_LATENCY_LAST = "-latency-last-usec";
 
 	Properties kprops;
-	Producer<String, String> producer;
+	Producer<String, byte[]> producer;
+	KeyStrategy keyStrategy = KeyStrategy.OPERATION;
+
+	private final AtomicLong sendCount = new AtomicLong(0);
+	private final AtomicLong ackCount = new AtomicLong(0);
+	private final AtomicLong failCount = new AtomicLong(0);
+	private final ConcurrentMap<Integer, PartitionStats> partitionStats = new ConcurrentHashMap<Integer, PartitionStats>();
 
 	/**
 	 * Create a Kafka event sink
@@ -70,6 +102,42 @@ public class KafkaEventSink extends AbstractEventSink {
 		this.kprops = props;
 	}
 
+	/**
+	 * Create a Kafka event sink
+	 * 
+	 * @param nm
+	 *            event sink name (kafka topic)
+	 * @param props
+	 *            properties for kafka sink
+	 * @param evf
+	 *            event formatter associated with this sink
+	 * @param strategy
+	 *            record key strategy
+	 */
+	public KafkaEventSink(String nm, Properties props, EventFormatter evf, KeyStrategy strategy) {
+		this(nm, props, evf);
+		setKeyStrategy(strategy);
+	}
+
+	/**
+	 * Set strategy used to derive record keys
+	 *
+	 * @param strategy
+	 *            record key strategy
+	 */
+	public void setKeyStrategy(KeyStrategy strategy) {
+		this.keyStrategy = strategy != null ? strategy : KeyStrategy.OPERATION;
+	}
+
+	/**
+	 * Obtain strategy used to derive record keys
+	 *
+	 * @return record key strategy
+	 */
+	public KeyStrategy getKeyStrategy() {
+		return keyStrategy;
+	}
+
 	@Override
 	public Object getSinkHandle() {
 		return producer;
@@ -83,21 +151,56 @@ public class KafkaEventSink extends AbstractEventSink {
 	@Override
 	public synchronized void open() throws IOException {
 		close();
-		producer = new KafkaProducer<String, String>(kprops);
+		producer = newProducer(kprops);
+	}
+
+	/**
+	 * Create a new Kafka producer instance used by this sink. Record keys are serialized as strings, values as byte
+	 * arrays, regardless of serializers defined in sink properties. Override this method to supply alternative
+	 * producers, such as {@code MockProducer} for testing.
+	 *
+	 * @param props
+	 *            properties for kafka producer
+	 * @return new kafka producer instance
+	 */
+	protected Producer<String, byte[]> newProducer(Properties props) {
+		return new KafkaProducer<String, byte[]>(props, new StringSerializer(), new ByteArraySerializer());
 	}
 
 	@Override
 	public synchronized void close() throws IOException {
 		if (producer != null) {
 			producer.close();
+			producer = null;
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		Producer<String, byte[]> kp = producer;
+		if (kp != null) {
+			kp.flush();
 		}
 	}
 
 	@Override
 	public KeyValueStats getStats(Map<String, Object> stats) {
 		super.getStats(stats);
-		if (isOpen()) {
-			Map<MetricName, ? extends Metric> kMetrics = producer.metrics();
+		stats.put(Utils.qualify(this, KEY_SEND_COUNT), sendCount.get());
+		stats.put(Utils.qualify(this, KEY_ACK_COUNT), ackCount.get());
+		stats.put(Utils.qualify(this, KEY_FAIL_COUNT), failCount.get());
+		stats.put(Utils.qualify(this, KEY_IN_FLIGHT), sendCount.get() - ackCount.get() - failCount.get());
+		for (Map.Entry<Integer, PartitionStats> entry : partitionStats.entrySet()) {
+			String pfix = KEY_PARTITION_PFIX + entry.getKey();
+			PartitionStats pStats = entry.getValue();
+			stats.put(Utils.qualify(this, pfix + KEY_PARTITION_ACKED), pStats.count.get());
+			stats.put(Utils.qualify(this, pfix + KEY_PARTITION_LATENCY_AVG), pStats.getAvgUsec());
+			stats.put(Utils.qualify(this, pfix + KEY_PARTITION_LATENCY_MAX), pStats.maxUsec.get());
+			stats.put(Utils.qualify(this, pfix + KEY_PARTITION_LATENCY_LAST), pStats.lastUsec);
+		}
+		Producer<String, byte[]> kp = producer;
+		if (kp != null) {
+			Map<MetricName, ? extends Metric> kMetrics = kp.metrics();
 			Set<MetricName> keys = kMetrics.keySet();
 			for (MetricName kMetric : keys) {
 				stats.put(Utils.qualify(this, kMetric.group() + "/" + kMetric.name()),
@@ -107,37 +210,181 @@ public class KafkaEventSink extends AbstractEventSink {
 		return this;
 	}
 
+	@Override
+	public void resetStats() {
+		super.resetStats();
+		sendCount.set(0);
+		ackCount.set(0);
+		failCount.set(0);
+		partitionStats.clear();
+	}
+
 	@Override
 	protected void _log(TrackingEvent event) throws IOException {
-		writeLine(new ProducerRecord<String, String>(getName(), event.getOperation().getName(),
-				getEventFormatter().format(event)));
+		EventFormatter evf = getEventFormatter();
+		byte[] value = (evf instanceof ByteFormatter) ? ((ByteFormatter) evf).toBytes(event) : encode(format(event));
+		writeLine(getKey(event, event.getOperation().getName()), value, event);
 	}
 
 	@Override
 	protected void _log(TrackingActivity activity) throws IOException {
-		writeLine(new ProducerRecord<String, String>(getName(), activity.getName(),
-				getEventFormatter().format(activity)));
+		EventFormatter evf = getEventFormatter();
+		byte[] value = (evf instanceof ByteFormatter) ? ((ByteFormatter) evf).toBytes(activity)
+				: encode(format(activity));
+		writeLine(getKey(activity, activity.getName()), value, activity);
 	}
 
 	@Override
 	protected void _log(Snapshot snapshot) throws IOException {
-		writeLine(new ProducerRecord<String, String>(getName(), snapshot.getCategory(),
-				getEventFormatter().format(snapshot)));
+		EventFormatter evf = getEventFormatter();
+		byte[] value = (evf instanceof ByteFormatter) ? ((ByteFormatter) evf).toBytes(snapshot)
+				: encode(format(snapshot));
+		writeLine(getKey(snapshot, snapshot.getCategory()), value, snapshot);
 	}
 
 	@Override
 	protected void _log(long ttl, Source src, OpLevel sev, String msg, Object... args) throws IOException {
-		writeLine(new ProducerRecord<String, String>(getName(), src.getFQName(),
-				getEventFormatter().format(ttl, src, sev, msg, args)));
+		EventFormatter evf = getEventFormatter();
+		byte[] value = (evf instanceof ByteFormatter) ? ((ByteFormatter) evf).toBytes(ttl, src, sev, msg, args)
+				: encode(evf.format(ttl, src, sev, msg, args));
+		writeLine(keyStrategy == KeyStrategy.ROUND_ROBIN ? null : src.getFQName(), value, msg);
 	}
 
 	@Override
 	protected void _write(Object msg, Object... args) throws IOException, InterruptedException {
-		writeLine(new ProducerRecord<String, String>(getName(), getEventFormatter().format(msg, args)));
+		EventFormatter evf = getEventFormatter();
+		byte[] value = (evf instanceof ByteFormatter) ? ((ByteFormatter) evf).toBytes(msg, args)
+				: encode(evf.format(msg, args));
+		writeLine(null, value, msg);
 	}
 
-	private void writeLine(ProducerRecord<String, String> rec) {
-		incrementBytesSent(rec.value().length());
-		producer.send(rec);
+	/**
+	 * Derive record key for a given tracked item using current {@link KeyStrategy}.
+	 *
+	 * @param item
+	 *            tracked item
+	 * @param opKey
+	 *            key used by {@link KeyStrategy#OPERATION} strategy
+	 * @return record key, {@code null} if record should have no key
+	 */
+	protected String getKey(Trackable item, String opKey) {
+		switch (keyStrategy) {
+		case CORRELATOR:
+			Set<String> cids = item.getCorrelator();
+			if (cids != null && !cids.isEmpty()) {
+				return cids.iterator().next();
+			}
+			return item.getTrackingId();
+		case SOURCE:
+			Source src = item.getSource();
+			return src != null ? src.getFQName() : opKey;
+		case TRACKING_ID:
+			return item.getTrackingId();
+		case ROUND_ROBIN:
+			return null;
+		default:
+			return opKey;
+		}
+	}
+
+	private static byte[] encode(String str) throws IOException {
+		return str.getBytes(Utils.UTF8);
+	}
+
+	private void writeLine(String key, byte[] value, Object logObj) {
+		// count before send, so that a callback completing synchronously never sees more acks than sends
+		sendCount.incrementAndGet();
+		try {
+			producer.send(new ProducerRecord<String, byte[]>(getName(), key, value), new SendCallback(logObj));
+		} catch (RuntimeException e) {
+			sendCount.decrementAndGet(); // callback is not invoked when send throws
+			throw e;
+		}
+		incrementBytesSent(value.length);
+	}
+
+	/**
+	 * Record successful delivery of a record to a given partition.
+	 *
+	 * @param partition
+	 *            partition the record was delivered to
+	 * @param latencyNanos
+	 *            time elapsed between send and acknowledgment in nanoseconds
+	 */
+	protected void sendCompleted(int partition, long latencyNanos) {
+		ackCount.incrementAndGet();
+		PartitionStats pStats = partitionStats.get(partition);
+		if (pStats == null) {
+			pStats = new PartitionStats();
+			PartitionStats prev = partitionStats.putIfAbsent(partition, pStats);
+			pStats = prev != null ? prev : pStats;
+		}
+		pStats.update(latencyNanos / 1000);
+	}
+
+	/**
+	 * Record failed delivery of a record and notify sink error listeners.
+	 *
+	 * @param logObj
+	 *            object which failed to be delivered
+	 * @param ex
+	 *            delivery error
+	 */
+	protected void sendFailed(Object logObj, Exception ex) {
+		failCount.incrementAndGet();
+		SinkLogEvent logEvent;
+		if (logObj instanceof TrackingEvent) {
+			logEvent = new SinkLogEvent(this, (TrackingEvent) logObj);
+		} else if (logObj instanceof TrackingActivity) {
+			logEvent = new SinkLogEvent(this, (TrackingActivity) logObj);
+		} else if (logObj instanceof Snapshot) {
+			logEvent = new SinkLogEvent(this, (Snapshot) logObj);
+		} else {
+			logEvent = new SinkLogEvent(this, getSource(), OpLevel.NONE, defaultTTL(), logObj);
+		}
+		setErrorState(ex);
+		if (!errorListeners.isEmpty()) {
+			notifyListeners(new SinkError(this, logEvent, ex));
+		}
+	}
+
+	private class SendCallback implements Callback {
+		final long sendTimeNanos = System.nanoTime();
+		final Object logObj;
+
+		SendCallback(Object logObj) {
+			this.logObj = logObj;
+		}
+
+		@Override
+		public void onCompletion(RecordMetadata metadata, Exception exception) {
+			if (exception != null) {
+				sendFailed(logObj, exception);
+			} else {
+				sendCompleted(metadata.partition(), System.nanoTime() - sendTimeNanos);
+			}
+		}
+	}
+
+	private static class PartitionStats {
+		final AtomicLong count = new AtomicLong(0);
+		final AtomicLong totalUsec = new AtomicLong(0);
+		final AtomicLong maxUsec = new AtomicLong(0);
+		volatile long lastUsec;
+
+		void update(long usec) {
+			lastUsec = usec;
+			count.incrementAndGet();
+			totalUsec.addAndGet(usec);
+			long max = maxUsec.get();
+			while (usec > max && !maxUsec.compareAndSet(max, usec)) {
+				max = maxUsec.get();
+			}
+		}
+
+		long getAvgUsec() {
+			long cnt = count.get();
+			return cnt > 0 ? totalUsec.get() / cnt : 0;
+		}
 	}
-}
\ No newline at end of file
+}
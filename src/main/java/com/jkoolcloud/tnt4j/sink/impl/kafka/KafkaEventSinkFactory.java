@@ -20,6 +20,8 @@ import java.io.FileInputStream;
 import java.util.Map;
 import java.util.Properties;
 
+import org.apache.kafka.clients.producer.ProducerConfig;
+
 import com.jkoolcloud.tnt4j.config.ConfigException;
 import com.jkoolcloud.tnt4j.format.EventFormatter;
 import com.jkoolcloud.tnt4j.format.JSONFormatter;
@@ -43,9 +45,23 @@ public class KafkaEventSinkFactory extends AbstractEventSinkFactory {
 	public static String DEFAULT_KAFKA_TOPIC = "tnt4j-topic";
 	public static String DEFAULT_KAFKA_PROP_FILE = "tnt4j-kafka.properties";
 
+	/**
+	 * Default producer batching settings, favoring throughput; applied unless defined in sink configuration
+	 */
+	public static String DEFAULT_LINGER_MS = "5";
+	public static String DEFAULT_BATCH_SIZE = "65536";
+
+	/**
+	 * Sink setting defining codec used by producer to compress record batches (none, gzip, snappy, lz4); maps to
+	 * producer {@code compression.type}, which takes precedence when defined. Compression rate is reported via
+	 * producer metrics in sink statistics.
+	 */
+	public static final String COMPRESSION_KEY = "compression";
+
 	private Properties kafkaProps = new Properties();
 	private String kafkaTopic = DEFAULT_KAFKA_TOPIC;
 	private String kafkaPropFile = null;
+	private KeyStrategy keyStrategy = KeyStrategy.OPERATION;
 
 	@Override
 	public EventSink getEventSink(String name) {
@@ -59,7 +75,7 @@ public class KafkaEventSinkFactory extends AbstractEventSinkFactory {
 
 	@Override
 	public EventSink getEventSink(String name, Properties props, EventFormatter frmt) {
-		return configureSink(new KafkaEventSink(kafkaTopic, kafkaProps, frmt));
+		return configureSink(new KafkaEventSink(kafkaTopic, kafkaProps, frmt, keyStrategy));
 	}
 
 	@Override
@@ -67,11 +83,33 @@ public class KafkaEventSinkFactory extends AbstractEventSinkFactory {
 		super.setConfiguration(settings);
 		kafkaTopic = Utils.getString("topic", settings, DEFAULT_KAFKA_TOPIC);
 		kafkaPropFile = Utils.getString("propFile", settings, kafkaPropFile);
+		String strategy = Utils.getString("keyStrategy", settings, keyStrategy.name());
+		try {
+			keyStrategy = KeyStrategy.valueOf(strategy.trim().toUpperCase());
+		} catch (IllegalArgumentException e) {
+			throw new ConfigException("Unsupported keyStrategy: " + strategy, settings);
+		}
+		boolean sticky = Utils.getBoolean("stickyPartitioner", settings, false);
 		if (kafkaPropFile != null) {
 			loadKafkaProps(kafkaPropFile, settings);
 		} else {
 			kafkaProps.putAll(settings);
 		}
+		setDefault(ProducerConfig.LINGER_MS_CONFIG, DEFAULT_LINGER_MS);
+		setDefault(ProducerConfig.BATCH_SIZE_CONFIG, DEFAULT_BATCH_SIZE);
+		String compression = Utils.getString(COMPRESSION_KEY, settings, null);
+		if (!Utils.isEmpty(compression)) {
+			setDefault(ProducerConfig.COMPRESSION_TYPE_CONFIG, compression.trim().toLowerCase());
+		}
+		if (sticky) {
+			kafkaProps.setProperty(ProducerConfig.PARTITIONER_CLASS_CONFIG, StickyPartitioner.class.getName());
+		}
+	}
+
+	private void setDefault(String key, String value) {
+		if (!kafkaProps.containsKey(key)) {
+			kafkaProps.setProperty(key, value);
+		}
 	}
 
 	protected void loadKafkaProps(String fname, Map<String, ?> settings) throws ConfigException {
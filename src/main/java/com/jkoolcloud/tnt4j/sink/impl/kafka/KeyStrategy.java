@@ -0,0 +1,56 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.sink.impl.kafka;
+
+/**
+ * Strategies used by {@link KafkaEventSink} to derive Kafka record keys. Records with the same key are delivered to
+ * the same partition and therefore keep their relative order. Records without a key are spread across all partitions
+ * by the configured producer partitioner.
+ *
+ * @version $Revision: 1 $
+ *
+ * @see KafkaEventSink
+ * @see StickyPartitioner
+ */
+public enum KeyStrategy {
+	/**
+	 * Operation name for events, activity name for activities, category for snapshots and source FQN for log
+	 * messages
+	 */
+	OPERATION,
+
+	/**
+	 * First correlator of a tracked item, tracking id if item has no correlators. Keeps causal order of all items
+	 * sharing a correlator.
+	 */
+	CORRELATOR,
+
+	/**
+	 * Fully qualified name of the item source. Keeps order of all items reported by the same source.
+	 */
+	SOURCE,
+
+	/**
+	 * Tracking id of an item, which spreads items evenly across partitions.
+	 */
+	TRACKING_ID,
+
+	/**
+	 * No record key; partitions are assigned by the producer partitioner, round-robin by default, or batch-sticky when
+	 * {@link StickyPartitioner} is used.
+	 */
+	ROUND_ROBIN
+}
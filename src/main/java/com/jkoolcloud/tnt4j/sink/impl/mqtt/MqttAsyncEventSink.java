@@ -0,0 +1,398 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.sink.impl.mqtt;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.paho.client.mqttv3.IMqttActionListener;
+import org.eclipse.paho.client.mqttv3.IMqttToken;
+import org.eclipse.paho.client.mqttv3.MqttAsyncClient;
+import org.eclipse.paho.client.mqttv3.MqttException;
+
+import com.jkoolcloud.tnt4j.core.KeyValueStats;
+import com.jkoolcloud.tnt4j.core.OpLevel;
+import com.jkoolcloud.tnt4j.core.Snapshot;
+import com.jkoolcloud.tnt4j.format.EventFormatter;
+import com.jkoolcloud.tnt4j.sink.AbstractEventSink;
+import com.jkoolcloud.tnt4j.sink.Compressor;
+import com.jkoolcloud.tnt4j.sink.EventSink;
+import com.jkoolcloud.tnt4j.sink.SinkError;
+import com.jkoolcloud.tnt4j.sink.SinkLogEvent;
+import com.jkoolcloud.tnt4j.source.Source;
+import com.jkoolcloud.tnt4j.tracker.TrackingActivity;
+import com.jkoolcloud.tnt4j.tracker.TrackingEvent;
+import com.jkoolcloud.tnt4j.utils.NamedThreadFactory;
+import com.jkoolcloud.tnt4j.utils.Utils;
+
+/**
+ * <p>
+ * This class implements {@link EventSink} with asynchronous MQTT client as the underlying sink implementation. Messages
+ * are published without waiting for delivery; at most {@code mqtt-max-inflight} messages are outstanding at any time
+ * while connected, and up to {@code mqtt-offline-buffer} messages are buffered while the client reconnects.
+ * </p>
+ *
+ * <p>
+ * When {@code mqtt-batch-size} is positive, formatted events are packed into a single newline delimited MQTT payload
+ * of up to that many bytes. Pending batches are published when full, when older than {@code mqtt-batch-linger-ms} and
+ * when the sink is flushed or closed. Batches are published outside of the batch lock; a batch which fails to publish
+ * is counted as {@code mqtt-failed} and reported to sink error listeners.
+ * </p>
+ * 
+ * 
+ * @version $Revision: 1 $
+ * 
+ * @see OpLevel
+ * @see EventFormatter
+ * @see AbstractEventSink
+ * @see MqttEventSinkFactory
+ */
+public class MqttAsyncEventSink extends AbstractEventSink {
+	static final String KEY_PUBLISHED = "mqtt-published";
+	static final String KEY_DELIVERED = "mqtt-delivered";
+	static final String KEY_FAILED = "mqtt-failed";
+	static final String KEY_IN_FLIGHT = "mqtt-in-flight";
+	static final String KEY_OFFLINE_BUFFERED = "mqtt-offline-buffered";
+	static final String KEY_BATCHED_EVENTS = "mqtt-batched-events";
+
+	private static final byte BATCH_DELIMITER = '\n';
+
+	MqttAsyncClient mqttClient;
+	MqttEventSinkFactory factory;
+
+	private final Semaphore window;
+	private final Object batchLock = new Object();
+	private final ByteArrayOutputStream batch;
+	private int batchCount = 0;
+	private long batchStartTime = 0;
+	private ScheduledExecutorService flusher;
+	private final Compressor compressor;
+
+	private final AtomicLong publishCount = new AtomicLong(0);
+	private final AtomicLong deliveredCount = new AtomicLong(0);
+	private final AtomicLong failedCount = new AtomicLong(0);
+	private final AtomicLong batchedCount = new AtomicLong(0);
+
+	/**
+	 * Create asynchronous MQTT event sink
+	 * 
+	 * @param fc
+	 *            event sink factory
+	 * @param name
+	 *            event sink name
+	 * @param props
+	 *            event sink properties
+	 * @param frmt
+	 *            event sink formatter
+	 */
+	protected MqttAsyncEventSink(MqttEventSinkFactory fc, String name, Properties props, EventFormatter frmt) {
+		super(name, frmt);
+		factory = fc;
+		window = new Semaphore(Math.max(1, fc.maxInflight));
+		batch = fc.batchSize > 0 ? new ByteArrayOutputStream(fc.batchSize) : null;
+		compressor = fc.newCompressor();
+	}
+
+	@Override
+	public Object getSinkHandle() {
+		return mqttClient;
+	}
+
+	@Override
+	public boolean isOpen() {
+		MqttAsyncClient client = mqttClient;
+		return client != null && (client.isConnected() || factory.offlineBuffer > 0);
+	}
+
+	@Override
+	public synchronized void open() throws IOException {
+		try {
+			mqttClient = factory.newMqttAsyncClient();
+		} catch (MqttException e) {
+			throw new IOException(e);
+		}
+		if (batch != null && factory.batchLingerMs > 0 && flusher == null) {
+			flusher = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("MqttAsyncEventSink/flush-"));
+			flusher.scheduleAtFixedRate(new Runnable() {
+				@Override
+				public void run() {
+					flushBatch(true);
+				}
+			}, factory.batchLingerMs, factory.batchLingerMs, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		boolean flusherStopped = stopFlusher();
+		if (mqttClient != null) {
+			try {
+				flushBatch(false);
+				mqttClient.disconnect().waitForCompletion(factory.connTimeout * 1000L);
+				mqttClient.close();
+			} catch (MqttException e) {
+				throw new IOException(e);
+			} finally {
+				mqttClient = null;
+			}
+		}
+		if (compressor != null && flusherStopped) {
+			compressor.end();
+		}
+	}
+
+	/**
+	 * Stop batch flusher and wait for any running flush to complete, so that the compressor is not ended while a batch
+	 * is being compressed.
+	 *
+	 * @return true if flusher is not running, false if it did not terminate in time
+	 */
+	private boolean stopFlusher() {
+		if (flusher == null) {
+			return true;
+		}
+		ScheduledExecutorService fl = flusher;
+		flusher = null;
+		fl.shutdown();
+		try {
+			return fl.awaitTermination(factory.connTimeout + 1L, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		flushBatch(false);
+	}
+
+	@Override
+	public KeyValueStats getStats(Map<String, Object> stats) {
+		super.getStats(stats);
+		stats.put(Utils.qualify(this, KEY_PUBLISHED), publishCount.get());
+		stats.put(Utils.qualify(this, KEY_DELIVERED), deliveredCount.get());
+		stats.put(Utils.qualify(this, KEY_FAILED), failedCount.get());
+		stats.put(Utils.qualify(this, KEY_BATCHED_EVENTS), batchedCount.get());
+		MqttAsyncClient client = mqttClient;
+		if (client != null) {
+			stats.put(Utils.qualify(this, KEY_IN_FLIGHT), client.getInFlightMessageCount());
+			stats.put(Utils.qualify(this, KEY_OFFLINE_BUFFERED), client.getBufferedMessageCount());
+		}
+		if (compressor != null) {
+			compressor.getStats(stats, this);
+		}
+		return this;
+	}
+
+	@Override
+	public void resetStats() {
+		super.resetStats();
+		publishCount.set(0);
+		deliveredCount.set(0);
+		failedCount.set(0);
+		batchedCount.set(0);
+		if (compressor != null) {
+			compressor.resetStats();
+		}
+	}
+
+	@Override
+	protected void _log(TrackingEvent event) throws IOException {
+		writeLine(format(event));
+	}
+
+	@Override
+	protected void _log(TrackingActivity activity) throws IOException {
+		writeLine(format(activity));
+	}
+
+	@Override
+	protected void _log(Snapshot snapshot) throws IOException {
+		writeLine(format(snapshot));
+	}
+
+	@Override
+	protected void _log(long ttl, Source src, OpLevel sev, String msg, Object... args) throws IOException {
+		writeLine(getEventFormatter().format(ttl, src, sev, msg, args));
+	}
+
+	@Override
+	protected void _write(Object msg, Object... args) throws IOException, InterruptedException {
+		writeLine(getEventFormatter().format(msg, args));
+	}
+
+	private void writeLine(String msg) throws IOException {
+		byte[] bytes = msg.getBytes(Utils.UTF8);
+		incrementBytesSent(bytes.length);
+		if (batch == null) {
+			publish(bytes, 1);
+			return;
+		}
+		PendingBatch ready = null;
+		PendingBatch full = null;
+		synchronized (batchLock) {
+			if (batchCount > 0 && (batch.size() + bytes.length + 1) > factory.batchSize) {
+				ready = takeBatch();
+			}
+			if (batchCount > 0) {
+				batch.write(BATCH_DELIMITER);
+			} else {
+				batchStartTime = System.currentTimeMillis();
+			}
+			batch.write(bytes, 0, bytes.length);
+			batchCount++;
+			if (batch.size() >= factory.batchSize) {
+				full = takeBatch();
+			}
+		}
+		try {
+			publishBatch(ready);
+		} finally {
+			publishBatch(full);
+		}
+	}
+
+	/**
+	 * Publish pending batch
+	 *
+	 * @param expiredOnly
+	 *            publish only if batch is older than configured linger time
+	 */
+	private void flushBatch(boolean expiredOnly) {
+		if (batch == null) {
+			return;
+		}
+		PendingBatch pending;
+		synchronized (batchLock) {
+			if (batchCount == 0) {
+				return;
+			}
+			if (expiredOnly && (System.currentTimeMillis() - batchStartTime) < factory.batchLingerMs) {
+				return;
+			}
+			pending = takeBatch();
+		}
+		try {
+			publishBatch(pending);
+		} catch (IOException e) {
+			notifyListeners(new SinkLogEvent(this, getSource(), OpLevel.NONE, defaultTTL(), e.getMessage()), e);
+		}
+	}
+
+	/**
+	 * Swap out pending batch contents, must be called while holding {@code batchLock}. Publishing is done by the caller
+	 * outside of the lock, so that waiting for the in-flight window does not stall other writers.
+	 *
+	 * @return pending batch
+	 */
+	private PendingBatch takeBatch() {
+		PendingBatch pending = new PendingBatch(batch.toByteArray(), batchCount);
+		batch.reset();
+		batchCount = 0;
+		return pending;
+	}
+
+	private void publishBatch(PendingBatch pending) throws IOException {
+		if (pending == null) {
+			return;
+		}
+		batchedCount.addAndGet(pending.count);
+		try {
+			publish(pending.payload, pending.count);
+		} catch (IOException e) {
+			failedCount.addAndGet(pending.count);
+			throw new IOException("MQTT batch lost, messages=" + pending.count + ": " + e.getMessage(), e);
+		}
+	}
+
+	private void publish(byte[] payload, int count) throws IOException {
+		if (compressor != null) {
+			payload = compressor.compress(payload);
+		}
+		MqttAsyncClient client = mqttClient;
+		boolean permit = false;
+		if (client.isConnected()) {
+			try {
+				permit = window.tryAcquire(factory.connTimeout, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted waiting for MQTT in-flight window");
+			}
+			if (!permit) {
+				throw new IOException("MQTT in-flight window full: max.inflight=" + factory.maxInflight);
+			}
+		}
+		try {
+			factory.publish(this, client, factory.newMqttMessage(payload), new PublishListener(permit, count));
+			publishCount.addAndGet(count);
+		} catch (MqttException e) {
+			if (permit) {
+				window.release();
+			}
+			throw new IOException(e);
+		}
+	}
+
+	private static class PendingBatch {
+		final byte[] payload;
+		final int count;
+
+		PendingBatch(byte[] payload, int count) {
+			this.payload = payload;
+			this.count = count;
+		}
+	}
+
+	private class PublishListener implements IMqttActionListener {
+		final boolean permit;
+		final int count;
+
+		PublishListener(boolean permit, int count) {
+			this.permit = permit;
+			this.count = count;
+		}
+
+		@Override
+		public void onSuccess(IMqttToken token) {
+			if (permit) {
+				window.release();
+			}
+			deliveredCount.addAndGet(count);
+		}
+
+		@Override
+		public void onFailure(IMqttToken token, Throwable ex) {
+			if (permit) {
+				window.release();
+			}
+			failedCount.addAndGet(count);
+			setErrorState(ex);
+			if (!errorListeners.isEmpty()) {
+				notifyListeners(new SinkError(MqttAsyncEventSink.this, new SinkLogEvent(MqttAsyncEventSink.this,
+						getSource(), OpLevel.NONE, defaultTTL(), "MQTT publish failed, messages=" + count), ex));
+			}
+		}
+	}
+}
@@ -16,20 +16,24 @@
 package com.jkoolcloud.tnt4j.sink.impl.mqtt;
 
 import java.io.IOException;
+import java.util.Map;
 import java.util.Properties;
 
 import org.eclipse.paho.client.mqttv3.MqttClient;
 import org.eclipse.paho.client.mqttv3.MqttException;
 import org.eclipse.paho.client.mqttv3.MqttMessage;
 
+import com.jkoolcloud.tnt4j.core.KeyValueStats;
 import com.jkoolcloud.tnt4j.core.OpLevel;
 import com.jkoolcloud.tnt4j.core.Snapshot;
 import com.jkoolcloud.tnt4j.format.EventFormatter;
 import com.jkoolcloud.tnt4j.sink.AbstractEventSink;
+import com.jkoolcloud.tnt4j.sink.Compressor;
 import com.jkoolcloud.tnt4j.sink.EventSink;
 import com.jkoolcloud.tnt4j.source.Source;
 import com.jkoolcloud.tnt4j.tracker.TrackingActivity;
 import com.jkoolcloud.tnt4j.tracker.TrackingEvent;
+import com.jkoolcloud.tnt4j.utils.Utils;
 
 /**
  * <p>
@@ -48,6 +52,7 @@ public class MqttEventSink extends AbstractEventSink {
 
 	MqttClient mqttClient;
 	MqttEventSinkFactory factory;
+	Compressor compressor;
 
 	/**
 	 * Create MQTT event sink
@@ -60,6 +65,7 @@ public class MqttEventSink extends AbstractEventSink {
 	protected MqttEventSink(MqttEventSinkFactory fc, String name) {
 		super(name);
 		factory = fc;
+		compressor = fc.newCompressor();
 	}
 
 	/**
@@ -75,6 +81,7 @@ public class MqttEventSink extends AbstractEventSink {
 	protected MqttEventSink(MqttEventSinkFactory fc, String name, Properties props) {
 		super(name);
 		factory = fc;
+		compressor = fc.newCompressor();
 	}
 
 	/**
@@ -92,6 +99,7 @@ public class MqttEventSink extends AbstractEventSink {
 	protected MqttEventSink(MqttEventSinkFactory fc, String name, Properties props, EventFormatter frmt) {
 		super(name, frmt);
 		factory = fc;
+		compressor = fc.newCompressor();
 	}
 
 	@Override
@@ -121,23 +129,44 @@ public class MqttEventSink extends AbstractEventSink {
 				mqttClient.disconnect();
 			} catch (MqttException e) {
 				throw new IOException(e);
+			} finally {
+				if (compressor != null) {
+					compressor.end();
+				}
 			}
 		}
 	}
 
+	@Override
+	public KeyValueStats getStats(Map<String, Object> stats) {
+		super.getStats(stats);
+		if (compressor != null) {
+			compressor.getStats(stats, this);
+		}
+		return this;
+	}
+
+	@Override
+	public void resetStats() {
+		super.resetStats();
+		if (compressor != null) {
+			compressor.resetStats();
+		}
+	}
+
 	@Override
 	protected void _log(TrackingEvent event) throws IOException {
-		writeLine(getEventFormatter().format(event));
+		writeLine(format(event));
 	}
 
 	@Override
 	protected void _log(TrackingActivity activity) throws IOException {
-		writeLine(getEventFormatter().format(activity));
+		writeLine(format(activity));
 	}
 
 	@Override
 	protected void _log(Snapshot snapshot) throws IOException {
-		writeLine(getEventFormatter().format(snapshot));
+		writeLine(format(snapshot));
 	}
 
 	@Override
@@ -153,7 +182,9 @@ public class MqttEventSink extends AbstractEventSink {
 	private void writeLine(String msg) throws IOException {
 		incrementBytesSent(msg.length());
 		try {
-			MqttMessage message = factory.newMqttMessage(msg);
+			MqttMessage message = compressor != null
+					? factory.newMqttMessage(compressor.compress(msg.getBytes(Utils.UTF8)))
+					: factory.newMqttMessage(msg);
 			factory.publish(this, mqttClient, message);
 		} catch (MqttException mqe) {
 			throw new IOException(mqe);
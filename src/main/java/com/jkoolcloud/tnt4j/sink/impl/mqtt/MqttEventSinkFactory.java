@@ -25,6 +25,7 @@ import com.jkoolcloud.tnt4j.config.ConfigException;
 import com.jkoolcloud.tnt4j.format.EventFormatter;
 import com.jkoolcloud.tnt4j.format.JSONFormatter;
 import com.jkoolcloud.tnt4j.sink.AbstractEventSinkFactory;
+import com.jkoolcloud.tnt4j.sink.Compressor;
 import com.jkoolcloud.tnt4j.sink.EventSink;
 import com.jkoolcloud.tnt4j.sink.EventSinkFactory;
 import com.jkoolcloud.tnt4j.utils.Utils;
@@ -32,12 +33,14 @@ import com.jkoolcloud.tnt4j.utils.Utils;
 /**
  * <p>
  * Concrete implementation of {@link EventSinkFactory} interface over MQTT, which creates instances of
- * {@link EventSink}. This factory uses {@link MqttEventSink} as the underlying provider.
+ * {@link EventSink}. This factory uses {@link MqttEventSink} as the underlying provider, or {@link MqttAsyncEventSink}
+ * when {@code mqtt-async} is enabled.
  * </p>
  *
  *
  * @see EventSink
  * @see MqttEventSink
+ * @see MqttAsyncEventSink
  *
  * @version $Revision: 1 $
  *
@@ -104,6 +107,41 @@ public class MqttEventSinkFactory extends AbstractEventSinkFactory {
 	 */
 	boolean retainMsg = false;
 
+	/**
+	 * MQTT use asynchronous client
+	 */
+	boolean async = false;
+
+	/**
+	 * MQTT maximum number of in-flight messages (asynchronous client only)
+	 */
+	int maxInflight = 100;
+
+	/**
+	 * MQTT number of messages buffered while reconnecting, 0 to disable (asynchronous client only)
+	 */
+	int offlineBuffer = 5000;
+
+	/**
+	 * MQTT maximum batch payload size in bytes, 0 to disable batching (asynchronous client only)
+	 */
+	int batchSize = 0;
+
+	/**
+	 * MQTT maximum time in milliseconds a batch is held before being published (asynchronous client only)
+	 */
+	long batchLingerMs = 100;
+
+	/**
+	 * MQTT payload compression codec (none, gzip, deflate)
+	 */
+	String compression = null;
+
+	/**
+	 * MQTT payload compression level (0-9), -1 for codec default
+	 */
+	int compressionLevel = -1;
+
 	/**
 	 * MQTT connection options
 	 */
@@ -121,6 +159,9 @@ public class MqttEventSinkFactory extends AbstractEventSinkFactory {
 
 	@Override
 	public EventSink getEventSink(String name, Properties props, EventFormatter frmt) {
+		if (async) {
+			return configureSink(new MqttAsyncEventSink(this, name, props, frmt));
+		}
 		return configureSink(new MqttEventSink(this, name, props, frmt));
 	}
 
@@ -142,6 +183,22 @@ public class MqttEventSinkFactory extends AbstractEventSinkFactory {
 		qos = Utils.getInt("mqtt-qos", settings, qos);
 		retainMsg = Utils.getBoolean("mqtt-retain", settings, retainMsg);
 
+		// asynchronous client attributes
+		async = Utils.getBoolean("mqtt-async", settings, async);
+		maxInflight = Utils.getInt("mqtt-max-inflight", settings, maxInflight);
+		offlineBuffer = Utils.getInt("mqtt-offline-buffer", settings, offlineBuffer);
+		batchSize = Utils.getInt("mqtt-batch-size", settings, batchSize);
+		batchLingerMs = Utils.getLong("mqtt-batch-linger-ms", settings, batchLingerMs);
+
+		// payload compression
+		compression = Utils.getString("mqtt-compression", settings, compression);
+		compressionLevel = Utils.getInt("mqtt-compression-level", settings, compressionLevel);
+		try {
+			newCompressor();
+		} catch (IllegalArgumentException e) {
+			throw new ConfigException("Unsupported mqtt-compression: " + compression, settings);
+		}
+
 		if (ssl) {
 			Properties connProps = new Properties();
 			connProps.putAll(settings);
@@ -157,6 +214,10 @@ public class MqttEventSinkFactory extends AbstractEventSinkFactory {
 		options.setConnectionTimeout(connTimeout);
 		options.setMqttVersion(version);
 		options.setCleanSession(cleanSession);
+		if (async) {
+			options.setMaxInflight(maxInflight);
+			options.setAutomaticReconnect(true);
+		}
 	}
 
 	/**
@@ -173,6 +234,37 @@ public class MqttEventSinkFactory extends AbstractEventSinkFactory {
 		return client;
 	}
 
+	/**
+	 * Create and connect asynchronous MQTT client. Client reconnects automatically and buffers messages published while
+	 * disconnected, up to {@code mqtt-offline-buffer} messages.
+	 * 
+	 * @return asynchronous MQTT client instance, connected
+	 *
+	 * @throws org.eclipse.paho.client.mqttv3.MqttException
+	 *             when server communication or security error occurs
+	 */
+	public MqttAsyncClient newMqttAsyncClient() throws MqttException {
+		MqttAsyncClient client = new MqttAsyncClient(serverURI, clientid, new MemoryPersistence());
+		if (offlineBuffer > 0) {
+			DisconnectedBufferOptions bufferOpts = new DisconnectedBufferOptions();
+			bufferOpts.setBufferEnabled(true);
+			bufferOpts.setBufferSize(offlineBuffer);
+			bufferOpts.setDeleteOldestMessages(true);
+			client.setBufferOpts(bufferOpts);
+		}
+		client.connect(options).waitForCompletion(connTimeout * 1000L);
+		return client;
+	}
+
+	/**
+	 * Create a new payload compressor, each sink uses its own compressor instance
+	 *
+	 * @return new compressor instance, {@code null} if compression is disabled
+	 */
+	public Compressor newCompressor() {
+		return Compressor.newCompressor(compression, compressionLevel);
+	}
+
 	/**
 	 * Create a new MQTT message with specific contents
 	 * 
@@ -218,4 +310,28 @@ public class MqttEventSinkFactory extends AbstractEventSinkFactory {
 		String mqttTopic = (topic == null ? evSink.getName() : topic);
 		client.publish(mqttTopic, msg);
 	}
+
+	/**
+	 * Publish message asynchronously to a given MQTT client
+	 * 
+	 * @param evSink
+	 *            event sink
+	 * @param client
+	 *            asynchronous MQTT client
+	 * @param msg
+	 *            MQTT message instance
+	 * @param listener
+	 *            listener notified when publish completes
+	 * @return delivery token used to track message delivery
+	 *
+	 * @throws org.eclipse.paho.client.mqttv3.MqttPersistenceException
+	 *             when a problem with storing the message
+	 * @throws org.eclipse.paho.client.mqttv3.MqttException
+	 *             for other errors encountered while publishing the message. For instance offline buffer is full
+	 */
+	public IMqttDeliveryToken publish(EventSink evSink, MqttAsyncClient client, MqttMessage msg,
+			IMqttActionListener listener) throws MqttPersistenceException, MqttException {
+		String mqttTopic = (topic == null ? evSink.getName() : topic);
+		return client.publish(mqttTopic, msg, null, listener);
+	}
 }
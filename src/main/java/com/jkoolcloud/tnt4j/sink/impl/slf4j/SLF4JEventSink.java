@@ -67,17 +67,17 @@ public class SLF4JEventSink extends AbstractEventSink {
 
 	@Override
 	protected void _log(TrackingEvent event) {
-		writeLine(event.getSeverity(), getEventFormatter().format(event), event.getOperation().getThrowable());
+		writeLine(event.getSeverity(), format(event), event.getOperation().getThrowable());
 	}
 
 	@Override
 	protected void _log(TrackingActivity activity) {
-		writeLine(activity.getSeverity(), getEventFormatter().format(activity), activity.getThrowable());
+		writeLine(activity.getSeverity(), format(activity), activity.getThrowable());
 	}
 
 	@Override
 	protected void _log(Snapshot snapshot) {
-		writeLine(snapshot.getSeverity(), getEventFormatter().format(snapshot), null);
+		writeLine(snapshot.getSeverity(), format(snapshot), null);
 	}
 
 	@Override
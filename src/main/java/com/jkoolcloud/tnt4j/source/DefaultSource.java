@@ -34,6 +34,8 @@ public class DefaultSource implements Source {
 	private Source parentSource;
 	private SourceType sourceType;
 	private SourceFactory factory;
+	private volatile String[] fqnCache; // {parent FQN, FQN}
+	private volatile String[] fragmentCache; // {key, FQN, SSN, fragment}
 
 	/**
 	 * Creates an Source object with the specified properties.
@@ -64,18 +66,25 @@ public class DefaultSource implements Source {
 
 	@Override
 	public String getFQName() {
+		// cached FQN remains valid as long as this source and its parent FQN are unchanged
+		String parentFQN = parentSource != null ? parentSource.getFQName() : null;
+		String[] cache = fqnCache;
+		if (cache != null && cache[0] == parentFQN) {
+			return cache[1];
+		}
 		StringBuilder buff = new StringBuilder(128);
-		return getFQName(buff).toString();
+		buff.append(sourceType).append("=").append(sname);
+		if (parentFQN != null) {
+			buff.append("#").append(parentFQN);
+		}
+		String fqn = buff.toString();
+		fqnCache = new String[] { parentFQN, fqn };
+		return fqn;
 	}
 
 	@Override
 	public StringBuilder getFQName(StringBuilder buff) {
-		buff.append(sourceType).append("=").append(sname);
-		if (parentSource != null) {
-			buff.append("#");
-			parentSource.getFQName(buff);
-		}
-		return buff;
+		return buff.append(getFQName());
 	}
 
 	/**
@@ -86,6 +95,7 @@ public class DefaultSource implements Source {
 	 */
 	public void setName(String name) {
 		this.sname = name;
+		this.fqnCache = null;
 	}
 
 	@Override
@@ -111,6 +121,7 @@ public class DefaultSource implements Source {
 	 */
 	public Source setSource(Source parent) {
 		this.parentSource = parent;
+		this.fqnCache = null;
 		return this;
 	}
 
@@ -132,6 +143,40 @@ public class DefaultSource implements Source {
 	@Override
 	public void setUrl(String url) {
 		this.url = url;
+		this.fragmentCache = null;
+	}
+
+	/**
+	 * Obtain formatted fragment (e.g. pre-escaped JSON source block) cached by a formatter for this source. Cached
+	 * fragment is discarded when source FQN, URL or a given SSN changes.
+	 *
+	 * @param key
+	 *            formatter defined key identifying fragment layout
+	 * @param ssn
+	 *            source SSN the fragment was built with
+	 * @return cached fragment, {@code null} if none or not valid any more
+	 */
+	public String getFragment(String key, String ssn) {
+		String[] cache = fragmentCache;
+		if (cache != null && cache[0].equals(key) && cache[1] == getFQName()
+				&& (cache[2] == null ? ssn == null : cache[2].equals(ssn))) {
+			return cache[3];
+		}
+		return null;
+	}
+
+	/**
+	 * Cache formatted fragment (e.g. pre-escaped JSON source block) built by a formatter for this source.
+	 *
+	 * @param key
+	 *            formatter defined key identifying fragment layout
+	 * @param ssn
+	 *            source SSN the fragment was built with
+	 * @param fragment
+	 *            formatted fragment
+	 */
+	public void setFragment(String key, String ssn, String fragment) {
+		fragmentCache = new String[] { key, getFQName(), ssn, fragment };
 	}
 
 	@Override
@@ -159,6 +204,7 @@ public class DefaultSource implements Source {
 	 */
 	protected void setType(SourceType type) {
 		sourceType = type;
+		fqnCache = null;
 	}
 
 	/**
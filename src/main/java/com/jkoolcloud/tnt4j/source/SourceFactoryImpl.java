@@ -138,6 +138,7 @@ public class SourceFactoryImpl implements SourceFactory, Configurable {
 	public Source newSource(String name, SourceType tp, Source parent, String user) {
 		DefaultSource src = new DefaultSource(this, getNameFromType(name, tp), tp, parent, user);
 		src.setSSN(getSSN());
+		src.getFQName(); // sources are long lived, precompute FQN once
 		return src;
 	}
 
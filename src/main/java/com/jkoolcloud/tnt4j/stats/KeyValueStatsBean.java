@@ -0,0 +1,154 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.stats;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.management.*;
+
+import com.jkoolcloud.tnt4j.core.KeyValueStats;
+
+/**
+ * <p>
+ * This class exposes a {@link StatsSource} as a JMX dynamic MBean. Each statistic key is a read-only attribute, and
+ * {@code resetStats} operation resets source statistics. Attribute values are limited to JMX open types (numbers,
+ * booleans, strings and dates), so the bean is usable by any MXBean compliant client. All other values are exposed as
+ * strings.
+ * </p>
+ *
+ * <p>
+ * Attributes are served from a snapshot of source statistics, taken at most once per snapshot interval
+ * ({@code tnt4j.stats.jmx.snapshot.ms}, 1000 by default), so that clients reading attributes one by one do not
+ * collect all statistics for every attribute.
+ * </p>
+ *
+ * @version $Revision: 1 $
+ *
+ * @see StatsRegistry
+ */
+class KeyValueStatsBean implements DynamicMBean {
+	static final String OP_RESET_STATS = "resetStats";
+	static final long SNAPSHOT_MS = Long.getLong("tnt4j.stats.jmx.snapshot.ms", 1000);
+
+	private final StatsSource source;
+	private MBeanInfo info;
+	private int infoSize = -1;
+	private Map<String, Object> snapshot;
+	private long snapshotTime;
+
+	KeyValueStatsBean(StatsSource source) {
+		this.source = source;
+	}
+
+	/**
+	 * Obtain snapshot of source statistics, collecting a new one if current snapshot is older than snapshot interval
+	 *
+	 * @return statistics snapshot
+	 */
+	private synchronized Map<String, Object> getSnapshot() {
+		long now = System.currentTimeMillis();
+		if (snapshot == null || (now - snapshotTime) >= SNAPSHOT_MS) {
+			synchronized (source) {
+				snapshot = new LinkedHashMap<String, Object>(source.collect());
+			}
+			snapshotTime = now;
+		}
+		return snapshot;
+	}
+
+	private synchronized void resetSnapshot() {
+		snapshot = null;
+	}
+
+	@Override
+	public Object getAttribute(String attribute) throws AttributeNotFoundException {
+		Map<String, Object> stats = getSnapshot();
+		if (!stats.containsKey(attribute)) {
+			throw new AttributeNotFoundException(attribute);
+		}
+		return toOpenValue(stats.get(attribute));
+	}
+
+	@Override
+	public AttributeList getAttributes(String[] attributes) {
+		AttributeList list = new AttributeList(attributes.length);
+		Map<String, Object> stats = getSnapshot();
+		for (String attribute : attributes) {
+			if (stats.containsKey(attribute)) {
+				list.add(new Attribute(attribute, toOpenValue(stats.get(attribute))));
+			}
+		}
+		return list;
+	}
+
+	@Override
+	public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+		throw new AttributeNotFoundException("Read-only attribute: " + attribute.getName());
+	}
+
+	@Override
+	public AttributeList setAttributes(AttributeList attributes) {
+		return new AttributeList();
+	}
+
+	@Override
+	public Object invoke(String actionName, Object[] params, String[] signature) throws MBeanException,
+			ReflectionException {
+		if (OP_RESET_STATS.equals(actionName)) {
+			KeyValueStats stats = source.getSource();
+			if (stats != null) {
+				stats.resetStats();
+			}
+			resetSnapshot();
+			return null;
+		}
+		throw new ReflectionException(new NoSuchMethodException(actionName), "Unsupported operation: " + actionName);
+	}
+
+	@Override
+	public synchronized MBeanInfo getMBeanInfo() {
+		Map<String, Object> stats = getSnapshot();
+		if (info == null || infoSize != stats.size()) {
+			MBeanAttributeInfo[] attrs = new MBeanAttributeInfo[stats.size()];
+			int i = 0;
+			for (Map.Entry<String, Object> entry : stats.entrySet()) {
+				attrs[i++] = new MBeanAttributeInfo(entry.getKey(), getOpenType(entry.getValue()).getName(),
+						entry.getKey(), true, false, false);
+			}
+			MBeanOperationInfo[] ops = { new MBeanOperationInfo(OP_RESET_STATS, "Reset all statistics",
+					new MBeanParameterInfo[0], "void", MBeanOperationInfo.ACTION) };
+			info = new MBeanInfo(getClass().getName(), source.getType() + " statistics: " + source.getName(), attrs,
+					null, ops, null);
+			infoSize = stats.size();
+		}
+		return info;
+	}
+
+	private static boolean isOpenValue(Object value) {
+		return value instanceof Long || value instanceof Integer || value instanceof Double || value instanceof Float
+				|| value instanceof Short || value instanceof Byte || value instanceof Boolean || value instanceof Date;
+	}
+
+	private static Class<?> getOpenType(Object value) {
+		return isOpenValue(value) ? value.getClass() : String.class;
+	}
+
+	private static Object toOpenValue(Object value) {
+		return (value == null || isOpenValue(value)) ? value : String.valueOf(value);
+	}
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.stats;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.Charset;
+
+import com.jkoolcloud.tnt4j.core.OpLevel;
+import com.jkoolcloud.tnt4j.sink.DefaultEventSinkFactory;
+import com.jkoolcloud.tnt4j.sink.EventSink;
+import com.jkoolcloud.tnt4j.utils.Utils;
+
+/**
+ * <p>
+ * This class implements a minimal embedded HTTP endpoint, which renders statistics of all sources registered with
+ * {@link StatsRegistry} in Prometheus text exposition format (version 0.0.4). Requests are served sequentially by a
+ * single daemon thread, reusing the same render buffer across scrapes. Only {@code GET} requests for {@code /metrics}
+ * (or {@code /}) are served.
+ * </p>
+ *
+ * @version $Revision: 1 $
+ *
+ * @see StatsRegistry
+ * @see StatsSource#render(StringBuilder)
+ */
+public class PrometheusExporter implements Runnable, Closeable {
+	private static final EventSink logger = DefaultEventSinkFactory.defaultEventSink(PrometheusExporter.class);
+
+	static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+	private static final Charset UTF8 = Charset.forName(Utils.UTF8);
+	private static final int SO_TIMEOUT = 5000;
+	private static final int MAX_LINE = 8192;
+
+	private final ServerSocket server;
+	private final Thread thread;
+	private final StringBuilder body = new StringBuilder(8192);
+	private volatile boolean closed = false;
+
+	/**
+	 * Create and start exporter listening on all interfaces
+	 *
+	 * @param port
+	 *            listening port, 0 to use any free port
+	 * @throws IOException
+	 *             if unable to bind listening port
+	 */
+	public PrometheusExporter(int port) throws IOException {
+		this(null, port);
+	}
+
+	/**
+	 * Create and start exporter listening on a given host address
+	 *
+	 * @param host
+	 *            host name or address to bind, null for all interfaces
+	 * @param port
+	 *            listening port, 0 to use any free port
+	 * @throws IOException
+	 *             if unable to bind listening port
+	 */
+	public PrometheusExporter(String host, int port) throws IOException {
+		server = new ServerSocket();
+		server.setReuseAddress(true);
+		server.bind(host == null ? new InetSocketAddress(port) : new InetSocketAddress(host, port));
+		thread = new Thread(this, "PrometheusExporter/" + server.getLocalPort());
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Obtain listening port
+	 *
+	 * @return listening port
+	 */
+	public int getPort() {
+		return server.getLocalPort();
+	}
+
+	/**
+	 * Determine if exporter is closed
+	 *
+	 * @return true if closed, false otherwise
+	 */
+	public boolean isClosed() {
+		return closed;
+	}
+
+	@Override
+	public void run() {
+		while (!closed) {
+			Socket socket = null;
+			try {
+				socket = server.accept();
+				socket.setSoTimeout(SO_TIMEOUT);
+				serve(socket);
+			} catch (Throwable e) {
+				if (!closed) {
+					logger.log(OpLevel.WARNING, "Unable to serve metrics request: port={0}, socket={1}", getPort(),
+							socket, e);
+				}
+			} finally {
+				closeSocket(socket);
+			}
+		}
+	}
+
+	private static void closeSocket(Socket socket) {
+		try {
+			if (socket != null) {
+				socket.close();
+			}
+		} catch (IOException e) {
+		}
+	}
+
+	private void serve(Socket socket) throws IOException {
+		InputStream in = new BufferedInputStream(socket.getInputStream());
+		String request = readLine(in);
+		while (!readLine(in).isEmpty()) {
+			// skip request headers
+		}
+		String[] parts = request.split(" ");
+		OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+		if (parts.length < 2 || !("GET".equals(parts[0]) || "HEAD".equals(parts[0]))) {
+			respond(out, "405 Method Not Allowed", "text/plain", new byte[0], false);
+		} else if (!isMetricsPath(parts[1])) {
+			respond(out, "404 Not Found", "text/plain", new byte[0], false);
+		} else {
+			body.setLength(0);
+			StatsRegistry.render(body);
+			respond(out, "200 OK", CONTENT_TYPE, body.toString().getBytes(UTF8), "GET".equals(parts[0]));
+		}
+	}
+
+	private static boolean isMetricsPath(String uri) {
+		int idx = uri.indexOf('?');
+		String path = idx < 0 ? uri : uri.substring(0, idx);
+		return "/metrics".equals(path) || "/".equals(path);
+	}
+
+	private static void respond(OutputStream out, String status, String type, byte[] content, boolean sendBody)
+			throws IOException {
+		String header = "HTTP/1.1 " + status + "\r\nContent-Type: " + type + "\r\nContent-Length: " + content.length
+				+ "\r\nConnection: close\r\n\r\n";
+		out.write(header.getBytes(UTF8));
+		if (sendBody) {
+			out.write(content);
+		}
+		out.flush();
+	}
+
+	private static String readLine(InputStream in) throws IOException {
+		StringBuilder line = new StringBuilder(128);
+		int c;
+		while ((c = in.read()) != -1 && c != '\n') {
+			if (c != '\r') {
+				if (line.length() >= MAX_LINE) {
+					throw new IOException("Request line too long");
+				}
+				line.append((char) c);
+			}
+		}
+		return line.toString();
+	}
+
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		server.close();
+	}
+
+	@Override
+	public String toString() {
+		return super.toString() + "{port: " + getPort() + ", closed: " + closed + "}";
+	}
+}
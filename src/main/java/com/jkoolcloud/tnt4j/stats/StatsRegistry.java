@@ -0,0 +1,249 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.stats;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.management.MBeanServer;
+
+import com.jkoolcloud.tnt4j.core.KeyValueStats;
+import com.jkoolcloud.tnt4j.core.OpLevel;
+import com.jkoolcloud.tnt4j.sink.DefaultEventSinkFactory;
+import com.jkoolcloud.tnt4j.sink.EventSink;
+import com.jkoolcloud.tnt4j.utils.NamedThreadFactory;
+import com.jkoolcloud.tnt4j.utils.Utils;
+
+/**
+ * <p>
+ * This class maintains a registry of {@link KeyValueStats} sources (tracking loggers, pooled loggers, etc.) and
+ * exports their statistics. Each registered source is exposed as a JMX MBean named
+ * {@code com.jkoolcloud.tnt4j:type=<type>,name=<name>}, unless disabled with {@code tnt4j.stats.jmx=false}. Setting
+ * {@code tnt4j.stats.prometheus.port} starts an embedded Prometheus endpoint (see {@link PrometheusExporter}) on
+ * first use of this registry; {@code tnt4j.stats.prometheus.host} optionally restricts the listening address.
+ * </p>
+ *
+ * <p>
+ * Sources are referenced weakly and are removed when unregistered or garbage collected. MBeans are (un)registered
+ * asynchronously by a single daemon thread, so initializing the platform MBean server does not delay creation of the
+ * first tracking logger.
+ * </p>
+ *
+ * @version $Revision: 1 $
+ *
+ * @see StatsSource
+ * @see PrometheusExporter
+ */
+public class StatsRegistry {
+	private static final EventSink logger = DefaultEventSinkFactory.defaultEventSink(StatsRegistry.class);
+
+	/**
+	 * JMX domain for all registered statistics MBeans
+	 */
+	public static final String JMX_DOMAIN = "com.jkoolcloud.tnt4j";
+
+	private static final boolean JMX_ENABLED = Boolean
+			.parseBoolean(System.getProperty("tnt4j.stats.jmx", Boolean.TRUE.toString()));
+	private static final int PROMETHEUS_PORT = Integer.getInteger("tnt4j.stats.prometheus.port", -1);
+	private static final String PROMETHEUS_HOST = System.getProperty("tnt4j.stats.prometheus.host");
+
+	private static final ConcurrentMap<String, StatsSource> SOURCES = new ConcurrentHashMap<String, StatsSource>();
+	private static final ExecutorService JMX_EXECUTOR = Executors
+			.newSingleThreadExecutor(new NamedThreadFactory("StatsRegistry/jmx-"));
+	private static PrometheusExporter exporter;
+
+	static {
+		if (PROMETHEUS_PORT >= 0) {
+			try {
+				startExporter(PROMETHEUS_HOST, PROMETHEUS_PORT);
+			} catch (IOException e) {
+				logger.log(OpLevel.ERROR, "Unable to start Prometheus exporter: host={0}, port={1}", PROMETHEUS_HOST,
+						PROMETHEUS_PORT, e);
+			}
+		}
+	}
+
+	private StatsRegistry() {
+	}
+
+	/**
+	 * Register a statistics source, replacing any source registered with the same type and name. Source MBean is
+	 * registered asynchronously.
+	 *
+	 * @param type
+	 *            source type (e.g. class name)
+	 * @param name
+	 *            source name unique within source type
+	 * @param stats
+	 *            statistics source
+	 * @return registered source handle, null if registration failed
+	 */
+	public static StatsSource register(String type, String name, KeyValueStats stats) {
+		purge();
+		try {
+			StatsSource source = new StatsSource(type, name, stats);
+			SOURCES.put(key(type, name), source);
+			registerMBean(source);
+			return source;
+		} catch (Throwable e) {
+			logger.log(OpLevel.WARNING, "Unable to register stats source: type={0}, name={1}", type, name, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Unregister a statistics source
+	 *
+	 * @param type
+	 *            source type
+	 * @param name
+	 *            source name
+	 * @return unregistered source handle, null if not registered
+	 */
+	public static StatsSource unregister(String type, String name) {
+		StatsSource source = SOURCES.remove(key(type, name));
+		if (source != null) {
+			unregisterMBean(source);
+		}
+		return source;
+	}
+
+	/**
+	 * Obtain all registered statistics sources
+	 *
+	 * @return collection of registered sources
+	 */
+	public static Collection<StatsSource> getSources() {
+		purge();
+		return new ArrayList<StatsSource>(SOURCES.values());
+	}
+
+	/**
+	 * Render statistics of all registered sources in Prometheus text exposition format. Samples of the same metric
+	 * from all sources are rendered together, as required by the exposition format.
+	 *
+	 * @param out
+	 *            string builder where rendered metrics are appended
+	 * @return string builder instance
+	 */
+	public static StringBuilder render(StringBuilder out) {
+		purge();
+		Map<String, StringBuilder> families = new LinkedHashMap<String, StringBuilder>();
+		for (StatsSource source : SOURCES.values()) {
+			source.render(families);
+		}
+		StatsSource.appendFamilies(families, out);
+		return out;
+	}
+
+	/**
+	 * Start embedded Prometheus endpoint, stopping previously started one.
+	 *
+	 * @param host
+	 *            host name or address to bind, null for all interfaces
+	 * @param port
+	 *            listening port, 0 to use any free port
+	 * @return started exporter
+	 * @throws IOException
+	 *             if unable to bind listening port
+	 */
+	public static synchronized PrometheusExporter startExporter(String host, int port) throws IOException {
+		stopExporter();
+		exporter = new PrometheusExporter(host, port);
+		return exporter;
+	}
+
+	/**
+	 * Stop embedded Prometheus endpoint if started
+	 */
+	public static synchronized void stopExporter() {
+		if (exporter != null) {
+			Utils.close(exporter);
+			exporter = null;
+		}
+	}
+
+	/**
+	 * Obtain embedded Prometheus endpoint
+	 *
+	 * @return started exporter, null if not started
+	 */
+	public static synchronized PrometheusExporter getExporter() {
+		return exporter;
+	}
+
+	private static void purge() {
+		for (Iterator<StatsSource> it = SOURCES.values().iterator(); it.hasNext();) {
+			StatsSource source = it.next();
+			if (source.isStale()) {
+				it.remove();
+				unregisterMBean(source);
+			}
+		}
+	}
+
+	private static void registerMBean(final StatsSource source) {
+		if (!JMX_ENABLED) {
+			return;
+		}
+		JMX_EXECUTOR.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+					if (mbs.isRegistered(source.getObjectName())) {
+						mbs.unregisterMBean(source.getObjectName());
+					}
+					mbs.registerMBean(new KeyValueStatsBean(source), source.getObjectName());
+				} catch (Throwable e) {
+					logger.log(OpLevel.WARNING, "Unable to register stats source: source={0}", source, e);
+				}
+			}
+		});
+	}
+
+	private static void unregisterMBean(final StatsSource source) {
+		if (!JMX_ENABLED) {
+			return;
+		}
+		JMX_EXECUTOR.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+					if (mbs.isRegistered(source.getObjectName())) {
+						mbs.unregisterMBean(source.getObjectName());
+					}
+				} catch (Throwable e) {
+					logger.log(OpLevel.WARNING, "Unable to unregister stats source: source={0}", source, e);
+				}
+			}
+		});
+	}
+
+	private static String key(String type, String name) {
+		return type + "/" + name;
+	}
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.stats;
+
+import java.lang.ref.WeakReference;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import com.jkoolcloud.tnt4j.core.KeyValueStats;
+
+/**
+ * <p>
+ * This class represents a single {@link KeyValueStats} instance registered with {@link StatsRegistry}. Source instance
+ * is referenced weakly, so registration does not prevent it from being garbage collected. Statistics are collected
+ * into a map owned by this source, which is cleared and refilled on every collection instead of being re-created, and
+ * rendered metric names are cached per statistic key.
+ * </p>
+ *
+ * @version $Revision: 1 $
+ *
+ * @see StatsRegistry
+ */
+public class StatsSource {
+	private static final int MAX_NAME_CACHE = 1024;
+
+	private final String type;
+	private final String name;
+	private final ObjectName objectName;
+	private final WeakReference<KeyValueStats> ref;
+	private final Map<String, Object> stats = new LinkedHashMap<String, Object>(64);
+	private final Map<String, MetricName> metricNames = new LinkedHashMap<String, MetricName>(64);
+
+	StatsSource(String type, String name, KeyValueStats source) throws MalformedObjectNameException {
+		this.type = type;
+		this.name = name;
+		this.objectName = new ObjectName(StatsRegistry.JMX_DOMAIN + ":type=" + type + ",name="
+				+ ObjectName.quote(name));
+		this.ref = new WeakReference<KeyValueStats>(source);
+	}
+
+	/**
+	 * Obtain source type (e.g. {@code TrackingLogger}, {@code PooledLogger})
+	 *
+	 * @return source type
+	 */
+	public String getType() {
+		return type;
+	}
+
+	/**
+	 * Obtain source name, unique within source type
+	 *
+	 * @return source name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Obtain JMX object name of this source
+	 *
+	 * @return JMX object name
+	 */
+	public ObjectName getObjectName() {
+		return objectName;
+	}
+
+	/**
+	 * Obtain underlying statistics source
+	 *
+	 * @return statistics source, null if already garbage collected
+	 */
+	public KeyValueStats getSource() {
+		return ref.get();
+	}
+
+	/**
+	 * Determine if underlying statistics source was garbage collected
+	 *
+	 * @return true if source is no longer available, false otherwise
+	 */
+	public boolean isStale() {
+		return ref.get() == null;
+	}
+
+	/**
+	 * Collect current statistics. Returned map is owned by this source and is valid until the next collection, callers
+	 * must synchronize on this source instance while using it.
+	 *
+	 * @return current statistics
+	 */
+	public synchronized Map<String, Object> collect() {
+		stats.clear();
+		KeyValueStats source = ref.get();
+		if (source != null) {
+			source.getStats(stats);
+		}
+		return stats;
+	}
+
+	/**
+	 * Render current statistics in Prometheus text exposition format. Only numeric, boolean and date (as epoch
+	 * milliseconds) statistics are rendered. Statistic key is split into metric name (last key segment) and
+	 * {@code scope} label (remaining key segments). Samples are grouped by metric name.
+	 *
+	 * @param out
+	 *            string builder where rendered metrics are appended
+	 */
+	public void render(StringBuilder out) {
+		Map<String, StringBuilder> families = new LinkedHashMap<String, StringBuilder>();
+		render(families);
+		appendFamilies(families, out);
+	}
+
+	/**
+	 * Render current statistics in Prometheus text exposition format, appending each sample to the buffer of its
+	 * metric name, so that samples of the same metric rendered by multiple sources are kept together.
+	 *
+	 * @param families
+	 *            map of metric name to rendered samples of that metric
+	 */
+	synchronized void render(Map<String, StringBuilder> families) {
+		for (Map.Entry<String, Object> entry : collect().entrySet()) {
+			Object value = entry.getValue();
+			if (value instanceof Number) {
+				Number num = (Number) value;
+				StringBuilder out = appendSample(families, entry.getKey());
+				if (value instanceof Double || value instanceof Float) {
+					appendDouble(out, num.doubleValue());
+				} else {
+					out.append(num.longValue());
+				}
+				out.append('\n');
+			} else if (value instanceof Boolean) {
+				appendSample(families, entry.getKey()).append(((Boolean) value) ? '1' : '0').append('\n');
+			} else if (value instanceof Date) {
+				appendSample(families, entry.getKey()).append(((Date) value).getTime()).append('\n');
+			}
+		}
+	}
+
+	/**
+	 * Append rendered metric families to a given string builder
+	 *
+	 * @param families
+	 *            map of metric name to rendered samples of that metric
+	 * @param out
+	 *            string builder where rendered metrics are appended
+	 */
+	static void appendFamilies(Map<String, StringBuilder> families, StringBuilder out) {
+		for (StringBuilder samples : families.values()) {
+			out.append(samples);
+		}
+	}
+
+	private StringBuilder appendSample(Map<String, StringBuilder> families, String key) {
+		MetricName metric = getMetricName(key);
+		StringBuilder samples = families.get(metric.family);
+		if (samples == null) {
+			samples = new StringBuilder(256);
+			families.put(metric.family, samples);
+		}
+		return samples.append(metric.sample);
+	}
+
+	private MetricName getMetricName(String key) {
+		MetricName metric = metricNames.get(key);
+		if (metric == null) {
+			int idx = key.lastIndexOf('/');
+			StringBuilder buf = new StringBuilder(key.length() + name.length() + 32);
+			buf.append("tnt4j_");
+			appendName(buf, idx < 0 ? key : key.substring(idx + 1));
+			String family = buf.toString();
+			buf.append("{source=\"");
+			appendLabel(buf, name);
+			if (idx > 0) {
+				buf.append("\",scope=\"");
+				appendLabel(buf, key.substring(0, idx));
+			}
+			buf.append("\"} ");
+			metric = new MetricName(family, buf.toString());
+			if (metricNames.size() >= MAX_NAME_CACHE) {
+				metricNames.clear();
+			}
+			metricNames.put(key, metric);
+		}
+		return metric;
+	}
+
+	private static void appendName(StringBuilder buf, String name) {
+		for (int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+			buf.append((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') ? c : '_');
+		}
+	}
+
+	private static void appendLabel(StringBuilder buf, String value) {
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '\\' || c == '"') {
+				buf.append('\\').append(c);
+			} else if (c == '\n') {
+				buf.append("\\n");
+			} else {
+				buf.append(c);
+			}
+		}
+	}
+
+	private static void appendDouble(StringBuilder buf, double value) {
+		if (Double.isNaN(value)) {
+			buf.append("NaN");
+		} else if (Double.isInfinite(value)) {
+			buf.append(value > 0 ? "+Inf" : "-Inf");
+		} else {
+			buf.append(value);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return super.toString() + "{type: " + type + ", name: " + name + ", stale: " + isStale() + "}";
+	}
+
+	/**
+	 * Rendered metric name and sample prefix (metric name and labels) of a single statistic key
+	 */
+	private static class MetricName {
+		final String family;
+		final String sample;
+
+		MetricName(String family, String sample) {
+			this.family = family;
+			this.sample = sample;
+		}
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.tracker;
+
+import java.util.concurrent.Callable;
+
+/**
+ * This class implements a {@link Callable} decorator which runs a given task within a captured
+ * {@link TrackingContext}.
+ *
+ * @param <V>
+ *            task result type
+ *
+ * @see TrackingContext#wrap(Callable)
+ *
+ * @version $Revision: 1 $
+ */
+public class ContextCallable<V> implements Callable<V> {
+	private final TrackingContext context;
+	private final Callable<V> task;
+
+	/**
+	 * Create a task wrapper using tracking context of the current thread
+	 *
+	 * @param task
+	 *            task to wrap
+	 */
+	public ContextCallable(Callable<V> task) {
+		this(TrackingContext.capture(), task);
+	}
+
+	/**
+	 * Create a task wrapper using a given tracking context
+	 *
+	 * @param context
+	 *            tracking context to run task with
+	 * @param task
+	 *            task to wrap
+	 */
+	public ContextCallable(TrackingContext context, Callable<V> task) {
+		this.context = context;
+		this.task = task;
+	}
+
+	/**
+	 * Obtain tracking context associated with this task
+	 *
+	 * @return tracking context
+	 */
+	public TrackingContext getContext() {
+		return context;
+	}
+
+	@Override
+	public V call() throws Exception {
+		TrackingContext.Scope scope = context.attach();
+		try {
+			return task.call();
+		} finally {
+			scope.close();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "{task=" + task + ", context=" + context + "}";
+	}
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.tracker;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * This class implements an {@link ExecutorService} decorator which propagates tracking context of the submitting
+ * thread to all submitted tasks. Tracking context is captured once per submission.
+ *
+ * @see TrackingContext#wrap(ExecutorService)
+ *
+ * @version $Revision: 1 $
+ */
+public class ContextExecutorService implements ExecutorService {
+	private final ExecutorService executor;
+
+	/**
+	 * Create a context propagating executor service
+	 *
+	 * @param executor
+	 *            underlying executor service
+	 */
+	public ContextExecutorService(ExecutorService executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Obtain underlying executor service
+	 *
+	 * @return underlying executor service
+	 */
+	public ExecutorService getExecutorService() {
+		return executor;
+	}
+
+	private static <T> Collection<Callable<T>> wrapAll(Collection<? extends Callable<T>> tasks) {
+		TrackingContext context = TrackingContext.capture();
+		List<Callable<T>> wrapped = new ArrayList<Callable<T>>(tasks.size());
+		for (Callable<T> task : tasks) {
+			wrapped.add(new ContextCallable<T>(context, task));
+		}
+		return wrapped;
+	}
+
+	@Override
+	public void execute(Runnable command) {
+		executor.execute(TrackingContext.wrap(command));
+	}
+
+	@Override
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	@Override
+	public List<Runnable> shutdownNow() {
+		return executor.shutdownNow();
+	}
+
+	@Override
+	public boolean isShutdown() {
+		return executor.isShutdown();
+	}
+
+	@Override
+	public boolean isTerminated() {
+		return executor.isTerminated();
+	}
+
+	@Override
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		return executor.awaitTermination(timeout, unit);
+	}
+
+	@Override
+	public <T> Future<T> submit(Callable<T> task) {
+		return executor.submit(TrackingContext.wrap(task));
+	}
+
+	@Override
+	public <T> Future<T> submit(Runnable task, T result) {
+		return executor.submit(TrackingContext.wrap(task), result);
+	}
+
+	@Override
+	public Future<?> submit(Runnable task) {
+		return executor.submit(TrackingContext.wrap(task));
+	}
+
+	@Override
+	public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
+		return executor.invokeAll(wrapAll(tasks));
+	}
+
+	@Override
+	public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+			throws InterruptedException {
+		return executor.invokeAll(wrapAll(tasks), timeout, unit);
+	}
+
+	@Override
+	public <T> T invokeAny(Collection<? extends Callable<T>> tasks) throws InterruptedException, ExecutionException {
+		return executor.invokeAny(wrapAll(tasks));
+	}
+
+	@Override
+	public <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+			throws InterruptedException, ExecutionException, TimeoutException {
+		return executor.invokeAny(wrapAll(tasks), timeout, unit);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "{executor=" + executor + "}";
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.tracker;
+
+/**
+ * This class implements a {@link Runnable} decorator which runs a given task within a captured
+ * {@link TrackingContext}.
+ *
+ * @see TrackingContext#wrap(Runnable)
+ *
+ * @version $Revision: 1 $
+ */
+public class ContextRunnable implements Runnable {
+	private final TrackingContext context;
+	private final Runnable task;
+
+	/**
+	 * Create a task wrapper using tracking context of the current thread
+	 *
+	 * @param task
+	 *            task to wrap
+	 */
+	public ContextRunnable(Runnable task) {
+		this(TrackingContext.capture(), task);
+	}
+
+	/**
+	 * Create a task wrapper using a given tracking context
+	 *
+	 * @param context
+	 *            tracking context to run task with
+	 * @param task
+	 *            task to wrap
+	 */
+	public ContextRunnable(TrackingContext context, Runnable task) {
+		this.context = context;
+		this.task = task;
+	}
+
+	/**
+	 * Obtain tracking context associated with this task
+	 *
+	 * @return tracking context
+	 */
+	public TrackingContext getContext() {
+		return context;
+	}
+
+	@Override
+	public void run() {
+		TrackingContext.Scope scope = context.attach();
+		try {
+			task.run();
+		} finally {
+			scope.close();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "{task=" + task + ", context=" + context + "}";
+	}
+}
@@ -16,6 +16,9 @@
 package com.jkoolcloud.tnt4j.tracker;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -38,12 +41,25 @@ public class ContextTracker {
 
 	private static final ConcurrentMap<String, ContextRef> REF_MAP = new ConcurrentHashMap<String, ContextRef>();
 
-	private static ThreadLocal<ConcurrentMap<String, String>> CONTEXT = new ThreadLocal<ConcurrentMap<String, String>>() {
-		@Override
-		public ConcurrentMap<String, String> initialValue() {
-			return new ConcurrentHashMap<String, String>();
+	/**
+	 * Per thread context, created on first write and released by {@link #clearContext()} so that threads without
+	 * context (e.g. large numbers of virtual threads) carry no context state
+	 */
+	private static final ThreadLocal<ConcurrentMap<String, String>> CONTEXT = new ThreadLocal<ConcurrentMap<String, String>>();
+
+	/**
+	 * Obtain context map associated with the current thread, creating one if none exists.
+	 *
+	 * @return context map associated with the current thread
+	 */
+	private static ConcurrentMap<String, String> contextMap() {
+		ConcurrentMap<String, String> map = CONTEXT.get();
+		if (map == null) {
+			map = new ConcurrentHashMap<String, String>(8);
+			CONTEXT.set(map);
 		}
-	};
+		return map;
+	}
 
 	/**
 	 * Obtain a context reference {@link ContextRef} for a specific object. Tracking reference is cached until
@@ -144,7 +160,7 @@ public class ContextTracker {
 	 */
 	public static String get(String key) {
 		ConcurrentMap<String, String> map = CONTEXT.get();
-		return map.get(key);
+		return map != null ? map.get(key) : null;
 	}
 
 	/**
@@ -157,8 +173,7 @@ public class ContextTracker {
 	 * @return null if no previous value exists, previous value
 	 */
 	public static String set(String key, String value) {
-		ConcurrentMap<String, String> map = CONTEXT.get();
-		return map.put(key, value);
+		return contextMap().put(key, value);
 	}
 
 	/**
@@ -171,8 +186,7 @@ public class ContextTracker {
 	 * @return null if no previous value exists, previous value
 	 */
 	public static String setIfAbsent(String key, String value) {
-		ConcurrentMap<String, String> map = CONTEXT.get();
-		return map.putIfAbsent(key, value);
+		return contextMap().putIfAbsent(key, value);
 	}
 
 	/**
@@ -180,8 +194,49 @@ public class ContextTracker {
 	 * 
 	 */
 	public static void clearContext() {
+		CONTEXT.remove();
+	}
+
+	/**
+	 * Obtain a copy of all key/value pairs associated with current context.
+	 *
+	 * @return copy of current context key/value pairs, {@code null} if current context is empty
+	 */
+	static Map<String, String> copyContext() {
 		ConcurrentMap<String, String> map = CONTEXT.get();
-		map.clear();
+		return (map == null || map.isEmpty()) ? null : new HashMap<String, String>(map);
+	}
+
+	/**
+	 * Replace current context with a new context containing given key/value pairs. Use
+	 * {@link #restoreContext(ConcurrentMap)} with the returned value to restore the original context.
+	 *
+	 * @param values
+	 *            key/value pairs of the new context, {@code null} for an empty context
+	 * @return context previously associated with the current thread, may be {@code null}
+	 */
+	static ConcurrentMap<String, String> replaceContext(Map<String, String> values) {
+		ConcurrentMap<String, String> prev = CONTEXT.get();
+		if (values == null) {
+			CONTEXT.remove();
+		} else {
+			CONTEXT.set(new ConcurrentHashMap<String, String>(values));
+		}
+		return prev;
+	}
+
+	/**
+	 * Restore context previously returned by {@link #replaceContext(Map)}.
+	 *
+	 * @param map
+	 *            context to be associated with the current thread, may be {@code null}
+	 */
+	static void restoreContext(ConcurrentMap<String, String> map) {
+		if (map == null) {
+			CONTEXT.remove();
+		} else {
+			CONTEXT.set(map);
+		}
 	}
 
 	/**
@@ -199,7 +254,7 @@ public class ContextTracker {
 	 */
 	public Collection<String> getValues() {
 		ConcurrentMap<String, String> map = CONTEXT.get();
-		return map.values();
+		return map != null ? map.values() : Collections.<String> emptySet();
 	}
 
 	/**
@@ -209,7 +264,7 @@ public class ContextTracker {
 	 */
 	public Set<String> getKeys() {
 		ConcurrentMap<String, String> map = CONTEXT.get();
-		return map.keySet();
+		return map != null ? map.keySet() : Collections.<String> emptySet();
 	}
 
 	/**
@@ -219,6 +274,6 @@ public class ContextTracker {
 	 */
 	public Set<Entry<String, String>> entrySet() {
 		ConcurrentMap<String, String> map = CONTEXT.get();
-		return map.entrySet();
+		return map != null ? map.entrySet() : Collections.<Entry<String, String>> emptySet();
 	}
 }
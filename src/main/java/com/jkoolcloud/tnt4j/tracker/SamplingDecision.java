@@ -0,0 +1,33 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.tracker;
+
+/**
+ * Provides list of sampling decisions made by {@link TrackingSampler} for tracking activities and events.
+ * <ul>
+ * <li>{@code SAMPLED} - activity and all its child activities and events are reported</li>
+ * <li>{@code DEFERRED} - activity, its child activities and events are held until the activity is reported, at which
+ * point the whole activity is either kept or dropped (tail sampling)</li>
+ * <li>{@code DROPPED} - activity and all its child activities and events are dropped</li>
+ * </ul>
+ *
+ * @see TrackingSampler
+ * @see TrackingActivity#getSamplingDecision()
+ * @version $Revision: 1 $
+ */
+public enum SamplingDecision {
+	SAMPLED, DEFERRED, DROPPED
+}
@@ -61,6 +61,10 @@ public interface Tracker extends Handle, KeyValueStats, UUIDFactory {
 	String KEY_ERROR_COUNT = "tracker-errors";
 	String KEY_STACK_DEPTH = "tracker-stack-depth";
 	String KEY_OVERHEAD_USEC = "tracker-overhead-usec";
+	String KEY_CALL_OVERHEAD_NANOS = "tracker-call-overhead-nanos";
+	String KEY_SAMPLED_OUT = "tracker-sampled-out";
+	String KEY_TAIL_KEPT = "tracker-tail-kept";
+	String KEY_TAIL_DROPPED = "tracker-tail-dropped";
 
 	/**
 	 * Obtains unique tracker id
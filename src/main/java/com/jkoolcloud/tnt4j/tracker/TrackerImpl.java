@@ -20,8 +20,8 @@ import java.net.URISyntaxException;
 import java.util.Collection;
 import java.util.EmptyStackException;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicLong;
 
 import com.jkoolcloud.tnt4j.config.TrackerConfig;
 import com.jkoolcloud.tnt4j.core.*;
@@ -31,7 +31,9 @@ import com.jkoolcloud.tnt4j.sink.EventSink;
 import com.jkoolcloud.tnt4j.sink.SinkError;
 import com.jkoolcloud.tnt4j.sink.SinkErrorListener;
 import com.jkoolcloud.tnt4j.source.Source;
+import com.jkoolcloud.tnt4j.utils.LatencyHistogram;
 import com.jkoolcloud.tnt4j.utils.LightStack;
+import com.jkoolcloud.tnt4j.utils.StripedCounter;
 import com.jkoolcloud.tnt4j.utils.Utils;
 
 /**
@@ -42,9 +44,16 @@ import com.jkoolcloud.tnt4j.utils.Utils;
  * method will trigger logging to {@link EventSink} configured in {@link TrackerConfig}.
  * </p>
  *
+ * <p>
+ * Activities and events are sampled by {@link TrackingSampler} configured in {@link TrackerConfig} (if any). Root
+ * activities and standalone events are head sampled, while activities created within the context of another activity
+ * (see {@code keepContext}) share the sampling decision of their root activity.
+ * </p>
+ *
  * @see TrackerConfig
  * @see TrackingEvent
  * @see TrackingActivity
+ * @see TrackingSampler
  * @see EventSink
  * @see OpLevel
  * @see Source
@@ -56,6 +65,17 @@ public class TrackerImpl implements Tracker, SinkErrorListener {
 	private static EventSink logger = DefaultEventSinkFactory.defaultEventSink(TrackerImpl.class);
 	private static ThreadLocal<LightStack<TrackingActivity>> ACTIVITY_STACK = new ThreadLocal<LightStack<TrackingActivity>>();
 
+	/**
+	 * Initial capacity of per thread activity stacks, which are created on first activity push
+	 */
+	private static final int STACK_INITIAL_SIZE = Integer.getInteger("tnt4j.tracker.stack.initial.size", 4);
+
+	/**
+	 * Release per thread activity stack when the last activity is popped, so idle threads (e.g. large numbers of
+	 * virtual threads) carry no tracking state
+	 */
+	private static final boolean STACK_RELEASE_ON_EMPTY = Boolean.getBoolean("tnt4j.tracker.stack.release.on.empty");
+
 	public static final String DEFAULT_SNAPSHOT_CAT_KEY = "tracker.default.snapshot.category";
 	public static final String DEFAULT_SNAPSHOT_CATEGORY = "None";
 
@@ -68,18 +88,23 @@ public class TrackerImpl implements Tracker, SinkErrorListener {
 	private TrackerConfig tConfig;
 	private TrackingSelector selector;
 	private TrackingFilter filter;
+	private TrackingSampler sampler;
 
 	// tracker statistics
-	private AtomicLong activityCount = new AtomicLong(0);
-	private AtomicLong eventCount = new AtomicLong(0);
-	private AtomicLong msgCount = new AtomicLong(0);
-	private AtomicLong snapCount = new AtomicLong(0);
-	private AtomicLong errorCount = new AtomicLong(0);
-	private AtomicLong dropCount = new AtomicLong(0);
-	private AtomicLong pushCount = new AtomicLong(0);
-	private AtomicLong popCount = new AtomicLong(0);
-	private AtomicLong noopCount = new AtomicLong(0);
-	private AtomicLong overheadNanos = new AtomicLong(0);
+	private StripedCounter activityCount = new StripedCounter();
+	private StripedCounter eventCount = new StripedCounter();
+	private StripedCounter msgCount = new StripedCounter();
+	private StripedCounter snapCount = new StripedCounter();
+	private StripedCounter errorCount = new StripedCounter();
+	private StripedCounter dropCount = new StripedCounter();
+	private StripedCounter pushCount = new StripedCounter();
+	private StripedCounter popCount = new StripedCounter();
+	private StripedCounter noopCount = new StripedCounter();
+	private StripedCounter overheadNanos = new StripedCounter();
+	private StripedCounter sampledOutCount = new StripedCounter();
+	private StripedCounter tailKeptCount = new StripedCounter();
+	private StripedCounter tailDroppedCount = new StripedCounter();
+	private LatencyHistogram callOverheads = new LatencyHistogram();
 	private volatile boolean keepContext = false;
 
 	protected TrackerImpl(TrackerConfig config) {
@@ -94,6 +119,7 @@ public class TrackerImpl implements Tracker, SinkErrorListener {
 		this.tConfig = config;
 		this.id = newUUID();
 		this.selector = tConfig.getTrackingSelector();
+		this.sampler = tConfig.getTrackingSampler();
 		this.eventSink = tConfig.getEventSink();
 		open();
 	}
@@ -102,13 +128,13 @@ public class TrackerImpl implements Tracker, SinkErrorListener {
 		try {
 			handle.open();
 		} catch (IOException ioe) {
-			errorCount.incrementAndGet();
+			errorCount.increment();
 			logger.log(OpLevel.ERROR,
 					"Failed to open handle={4}, vm.name={0}, tid={1}, event.sink={2}, source={3}, reason={5}",
 					Utils.getVMName(), Thread.currentThread().getId(), eventSink, getSource(), handle,
 					Utils.getExceptionMessages(ioe));
 		} catch (Throwable e) {
-			errorCount.incrementAndGet();
+			errorCount.increment();
 			logger.log(OpLevel.ERROR, "Failed to open handle={4}, vm.name={0}, tid={1}, event.sink={2}, source={3}",
 					Utils.getVMName(), Thread.currentThread().getId(), eventSink, getSource(), handle, e);
 		}
@@ -128,13 +154,13 @@ public class TrackerImpl implements Tracker, SinkErrorListener {
 			eventSink.addSinkErrorListener(this);
 			eventSink.open();
 		} catch (IOException ioe) {
-			errorCount.incrementAndGet();
+			errorCount.increment();
 			logger.log(OpLevel.ERROR,
 					"Failed to open event sink vm.name={0}, tid={1}, event.sink={2}, source={3}, reason={4}",
 					Utils.getVMName(), Thread.currentThread().getId(), eventSink, getSource(),
 					Utils.getExceptionMessages(ioe));
 		} catch (Throwable e) {
-			errorCount.incrementAndGet();
+			errorCount.increment();
 			logger.log(OpLevel.ERROR, "Failed to open event sink vm.name={0}, tid={1}, event.sink={2}, source={3}",
 					Utils.getVMName(), Thread.currentThread().getId(), eventSink, getSource(), e);
 		}
@@ -157,13 +183,13 @@ public class TrackerImpl implements Tracker, SinkErrorListener {
 				eventSink.close();
 			}
 		} catch (IOException ioe) {
-			errorCount.incrementAndGet();
+			errorCount.increment();
 			logger.log(OpLevel.ERROR,
 					"Failed to close event sink vm.name={0}, tid={1}, event.sink={2}, source={3}, reason={4}",
 					Utils.getVMName(), Thread.currentThread().getId(), eventSink, getSource(),
 					Utils.getExceptionMessages(ioe));
 		} catch (Throwable e) {
-			errorCount.incrementAndGet();
+			errorCount.increment();
 			logger.log(OpLevel.ERROR, "Failed to close event sink vm.name={0}, tid={1}, event.sink={2}, source={3}",
 					Utils.getVMName(), Thread.currentThread().getId(), eventSink, getSource(), e);
 		}
@@ -176,13 +202,13 @@ public class TrackerImpl implements Tracker, SinkErrorListener {
 				eventSink.close();
 			}
 		} catch (IOException ioe) {
-			errorCount.incrementAndGet();
+			errorCount.increment();
 			logger.log(OpLevel.ERROR,
 					"Failed to reset event sink vm.name={0}, tid={1}, event.sink={2}, source={3}, reason={4}",
 					Utils.getVMName(), Thread.currentThread().getId(), eventSink, getSource(),
 					Utils.getExceptionMessages(ioe));
 		} catch (Throwable e) {
-			errorCount.incrementAndGet();
+			errorCount.increment();
 			logger.log(OpLevel.ERROR, "Failed to reset event sink vm.name={0}, tid={1}, event.sink={2}, source={3}",
 					Utils.getVMName(), Thread.currentThread().getId(), eventSink, getSource(), e);
 		}
@@ -198,8 +224,8 @@ public class TrackerImpl implements Tracker, SinkErrorListener {
 				activity.stop();
 			}
 			eventSink.log(activity);
-			snapCount.addAndGet(activity.getSnapshotCount());
-			activityCount.incrementAndGet();
+			snapCount.add(activity.getSnapshotCount());
+			activityCount.increment();
 		}
 	}
 
@@ -213,10 +239,99 @@ public class TrackerImpl implements Tracker, SinkErrorListener {
 				event.stop();
 			}
 			eventSink.log(event);
-			eventCount.incrementAndGet();
+			eventCount.increment();
+		}
+	}
+
+	private void reportDeferred(List<Trackable> items) {
+		for (Trackable item : items) {
+			try {
+				if (item instanceof TrackingActivity) {
+					reportActivity((TrackingActivity) item);
+				} else if (item instanceof TrackingEvent) {
+					reportEvent((TrackingEvent) item);
+				} else if (item instanceof Snapshot) {
+					eventSink.log((Snapshot) item);
+					snapCount.increment();
+				}
+			} catch (Throwable ex) {
+				dropCount.increment();
+				if (logger.isSet(OpLevel.DEBUG)) {
+					logger.log(OpLevel.ERROR,
+							"Failed to track deferred item: signature={0}, tid={1}, event.sink={2}, source={3}",
+							item.getTrackingId(), Thread.currentThread().getId(), eventSink, getSource(), ex);
+				}
+			}
 		}
 	}
 
+	/**
+	 * Make sampling decision for a given activity being reported. Deferred root activity is either kept together with
+	 * all its held items, or dropped as a whole. Deferred child activities are held by their root activity. Start
+	 * reports of deferred activities are suppressed.
+	 *
+	 * @param activity
+	 *            activity being reported
+	 * @return true if activity must be reported, false otherwise
+	 */
+	private boolean isSampled(TrackingActivity activity) {
+		SamplingDecision decision = activity.getSamplingDecision();
+		if (decision == SamplingDecision.DEFERRED) {
+			if (!activity.isStopped()) {
+				return false;
+			}
+			boolean keep = sampler != null && sampler.keep(this, activity);
+			if (activity.isSampleRoot()) {
+				List<Trackable> items = activity.resolveSampling(keep);
+				decision = activity.getSamplingDecision();
+				if (decision == SamplingDecision.SAMPLED) {
+					tailKeptCount.increment();
+					reportDeferred(items);
+				} else {
+					tailDroppedCount.increment();
+					sampledOutCount.add(items.size());
+				}
+			} else {
+				decision = activity.defer(activity, keep);
+			}
+		}
+		if (decision == SamplingDecision.DROPPED) {
+			sampledOutCount.increment();
+		}
+		return decision == SamplingDecision.SAMPLED;
+	}
+
+	/**
+	 * Make sampling decision for a given event or snapshot. Items owned by an activity follow the activity decision,
+	 * standalone items are sampled individually.
+	 *
+	 * @param owner
+	 *            activity owning the item, {@link #NULL_ACTIVITY} if none
+	 * @param item
+	 *            event or snapshot being reported
+	 * @param op
+	 *            completed item operation, null if not applicable
+	 * @return true if item must be reported, false otherwise
+	 */
+	private boolean isSampled(TrackingActivity owner, Trackable item, Operation op) {
+		SamplingDecision decision = SamplingDecision.SAMPLED;
+		if (!owner.isNoop()) {
+			decision = owner.getSamplingDecision();
+			if (decision == SamplingDecision.DEFERRED) {
+				decision = owner.defer(item, op != null && sampler != null && sampler.keep(this, op));
+			}
+		} else if (sampler != null && op != null) {
+			decision = sampler.sample(this, op.getSeverity(), op.getName());
+			if (decision == SamplingDecision.DEFERRED) {
+				decision = sampler.keep(this, op) ? SamplingDecision.SAMPLED : SamplingDecision.DROPPED;
+			}
+		}
+		if (decision == SamplingDecision.DROPPED) {
+			sampledOutCount.increment();
+		}
+		return decision == SamplingDecision.SAMPLED;
+	}
+
 	private boolean isTrackingEnabled(OpLevel level, Object... args) {
 		if (filter == null) {
 			return true;
@@ -238,7 +353,7 @@ public class TrackerImpl implements Tracker, SinkErrorListener {
 		}
 		LightStack<TrackingActivity> stack = ACTIVITY_STACK.get();
 		if (stack == null) {
-			stack = new LightStack<TrackingActivity>();
+			stack = new LightStack<TrackingActivity>(STACK_INITIAL_SIZE);
 			ACTIVITY_STACK.set(stack);
 		}
 		// associate with the parent activity if there is any
@@ -247,7 +362,7 @@ public class TrackerImpl implements Tracker, SinkErrorListener {
 			parent.add(item);
 		}
 		stack.push(item);
-		pushCount.incrementAndGet();
+		pushCount.increment();
 		return this;
 	}
 
@@ -270,21 +385,89 @@ public class TrackerImpl implements Tracker, SinkErrorListener {
 		LightStack<TrackingActivity> stack = ACTIVITY_STACK.get();
 		if (stack != null) {
 			stack.pop(item);
-			popCount.incrementAndGet();
+			popCount.increment();
+			if (STACK_RELEASE_ON_EMPTY && stack.empty()) {
+				ACTIVITY_STACK.remove();
+			}
 		}
 		return this;
 	}
 
+	/**
+	 * Obtain a copy of the activity stack associated with the current thread, ordered from root to top.
+	 *
+	 * @return copy of the current thread activity stack, {@code null} if the stack is empty
+	 */
+	static TrackingActivity[] copyActivityStack() {
+		LightStack<TrackingActivity> stack = ACTIVITY_STACK.get();
+		if ((stack == null) || stack.empty()) {
+			return null;
+		}
+		TrackingActivity[] items = new TrackingActivity[stack.size()];
+		for (int i = 0; i < items.length; i++) {
+			items[i] = stack.get(i);
+		}
+		return items;
+	}
+
+	/**
+	 * Replace the activity stack associated with the current thread with a new stack containing given activities.
+	 * Use {@link #restoreActivityStack(LightStack)} with the returned value to restore the original stack.
+	 *
+	 * @param items
+	 *            activities ordered from root to top, {@code null} to clear the stack
+	 * @return stack previously associated with the current thread, may be {@code null}
+	 */
+	static LightStack<TrackingActivity> replaceActivityStack(TrackingActivity[] items) {
+		LightStack<TrackingActivity> prev = ACTIVITY_STACK.get();
+		if (items == null) {
+			ACTIVITY_STACK.remove();
+		} else {
+			LightStack<TrackingActivity> stack = new LightStack<TrackingActivity>(items.length + 4);
+			for (int i = 0; i < items.length; i++) {
+				stack.push(items[i]);
+			}
+			ACTIVITY_STACK.set(stack);
+		}
+		return prev;
+	}
+
+	/**
+	 * Restore activity stack previously returned by {@link #replaceActivityStack(TrackingActivity[])}.
+	 *
+	 * @param stack
+	 *            activity stack to be associated with the current thread, may be {@code null}
+	 */
+	static void restoreActivityStack(LightStack<TrackingActivity> stack) {
+		if (stack == null) {
+			ACTIVITY_STACK.remove();
+		} else {
+			ACTIVITY_STACK.set(stack);
+		}
+	}
+
 	/**
 	 * Add a given number of nanoseconds to overhead count. Should be called by package members to account for tracking
 	 * overhead.
 	 *
 	 * @param delta
 	 *            amount to add to overhead count
-	 * @return current tracker instance
+	 * @return amount added to overhead count; use {@link #getStats()} to obtain the running total, which is not
+	 *         computed here to avoid summing counter stripes on every tracking call
 	 */
 	protected long countOverheadNanos(long delta) {
-		return overheadNanos.addAndGet(delta);
+		overheadNanos.add(delta);
+		callOverheads.record(delta);
+		return delta;
+	}
+
+	/**
+	 * Obtain histogram of per call tracking overhead in nanoseconds
+	 *
+	 * @return tracking overhead histogram
+	 */
+	public LatencyHistogram getOverheadHistogram() {
+		return callOverheads;
 	}
 
 	@Override
@@ -317,6 +500,14 @@ public class TrackerImpl implements Tracker, SinkErrorListener {
 		stats.put(Utils.qualify(this, KEY_ACTIVITIES_STOPPED), popCount.get());
 		stats.put(Utils.qualify(this, KEY_STACK_DEPTH), getStackSize());
 		stats.put(Utils.qualify(this, KEY_OVERHEAD_USEC), overheadNanos.get() / 1000);
+		stats.put(Utils.qualify(this, KEY_SAMPLED_OUT), sampledOutCount.get());
+		stats.put(Utils.qualify(this, KEY_TAIL_KEPT), tailKeptCount.get());
+		stats.put(Utils.qualify(this, KEY_TAIL_DROPPED), tailDroppedCount.get());
+		LatencyHistogram.Interval overheads = callOverheads.getInterval();
+		stats.put(Utils.qualify(this, KEY_CALL_OVERHEAD_NANOS + LatencyHistogram.KEY_P50), overheads.getPercentile(50));
+		stats.put(Utils.qualify(this, KEY_CALL_OVERHEAD_NANOS + LatencyHistogram.KEY_P99), overheads.getPercentile(99));
+		stats.put(Utils.qualify(this, KEY_CALL_OVERHEAD_NANOS + LatencyHistogram.KEY_P999), overheads.getPercentile(99.9));
+		stats.put(Utils.qualify(this, KEY_CALL_OVERHEAD_NANOS + LatencyHistogram.KEY_MAX), overheads.getMax());
 		if (eventSink != null) {
 			eventSink.getStats(stats);
 		}
@@ -325,16 +516,20 @@ public class TrackerImpl implements Tracker, SinkErrorListener {
 
 	@Override
 	public void resetStats() {
-		activityCount.set(0);
-		eventCount.set(0);
-		msgCount.set(0);
-		snapCount.set(0);
-		errorCount.set(0);
-		dropCount.set(0);
-		pushCount.set(0);
-		popCount.set(0);
-		noopCount.set(0);
-		overheadNanos.set(0);
+		activityCount.reset();
+		eventCount.reset();
+		msgCount.reset();
+		snapCount.reset();
+		errorCount.reset();
+		dropCount.reset();
+		pushCount.reset();
+		popCount.reset();
+		noopCount.reset();
+		overheadNanos.reset();
+		sampledOutCount.reset();
+		tailKeptCount.reset();
+		tailDroppedCount.reset();
+		callOverheads.reset();
 		if (eventSink != null) {
 			eventSink.resetStats();
 		}
@@ -353,7 +548,7 @@ public class TrackerImpl implements Tracker, SinkErrorListener {
 	@Override
 	public TrackingActivity getRootActivity() {
 		LightStack<TrackingActivity> stack = ACTIVITY_STACK.get();
-		if (stack != null) {
+		if ((stack != null) && !stack.empty()) {
 			TrackingActivity root = stack.get(0);
 			return root != null ? root : NULL_ACTIVITY;
 		} else {
@@ -365,7 +560,7 @@ public class TrackerImpl implements Tracker, SinkErrorListener {
 	public StackTraceElement[] getStackTrace() {
 		StackTraceElement[] activityTrace = null;
 		LightStack<TrackingActivity> stack = ACTIVITY_STACK.get();
-		if ((stack != null) && (!stack.isEmpty())) {
+		if ((stack != null) && !stack.empty()) {
 			activityTrace = new StackTraceElement[stack.size()];
 			int index = 0;
 			for (int i = (stack.size() - 1); i >= 0; i--) {
@@ -381,7 +576,7 @@ public class TrackerImpl implements Tracker, SinkErrorListener {
 	public TrackingActivity[] getActivityStack() {
 		TrackingActivity[] activityTrace = null;
 		LightStack<TrackingActivity> stack = ACTIVITY_STACK.get();
-		if ((stack != null) && (!stack.isEmpty())) {
+		if ((stack != null) && !stack.empty()) {
 			activityTrace = new TrackingActivity[stack.size()];
 			int index = 0;
 			for (int i = (stack.size() - 1); i >= 0; i--) {
@@ -438,6 +633,12 @@ public class TrackerImpl implements Tracker, SinkErrorListener {
 			signature = (signature == null) ? newUUID() : signature;
 			TrackingActivity activity = new TrackingActivity(level, name, signature, this);
 			activity.setPID(Utils.getVMPID());
+			TrackingActivity parent = keepContext ? getCurrentActivity() : NULL_ACTIVITY;
+			if (!parent.isNoop()) {
+				activity.inheritSampling(parent);
+			} else if (sampler != null) {
+				activity.setSamplingDecision(sampler.sample(this, level, name));
+			}
 			if (tConfig.getActivityListener() != null) {
 				activity.addActivityListener(tConfig.getActivityListener());
 			}
@@ -451,13 +652,13 @@ public class TrackerImpl implements Tracker, SinkErrorListener {
 	public void tnt(TrackingActivity activity) {
 		long start = System.nanoTime();
 		try {
-			if (!activity.isNoop()) {
+			if (activity.isNoop()) {
+				noopCount.increment();
+			} else if (isSampled(activity)) {
 				reportActivity(activity);
-			} else {
-				noopCount.incrementAndGet();
 			}
 		} catch (Throwable ex) {
-			dropCount.incrementAndGet();
+			dropCount.increment();
 			if (logger.isSet(OpLevel.DEBUG)) {
 				logger.log(OpLevel.ERROR,
 						"Failed to track activity: signature={0}, tid={1}, event.sink={2}, source={3}",
@@ -470,15 +671,27 @@ public class TrackerImpl implements Tracker, SinkErrorListener {
 
 	@Override
 	public void tnt(TrackingEvent event) {
+		tnt(keepContext ? getCurrentActivity() : NULL_ACTIVITY, event);
+	}
+
+	/**
+	 * Track and Trace a given event owned by a given activity. Event follows sampling decision of the activity.
+	 *
+	 * @param owner
+	 *            activity owning the event, {@link #NULL_ACTIVITY} if none
+	 * @param event
+	 *            tracking event to be reported
+	 */
+	protected void tnt(TrackingActivity owner, TrackingEvent event) {
 		long start = System.nanoTime();
 		try {
-			if (!event.isNoop()) {
+			if (event.isNoop()) {
+				noopCount.increment();
+			} else if (isSampled(owner, event, event.getOperation())) {
 				reportEvent(event);
-			} else {
-				noopCount.incrementAndGet();
 			}
 		} catch (Throwable ex) {
-			dropCount.incrementAndGet();
+			dropCount.increment();
 			if (logger.isSet(OpLevel.DEBUG)) {
 				logger.log(OpLevel.ERROR, "Failed to track event: signature={0}, tid={1}, event.sink={2}, source={3}",
 						event.getTrackingId(), Thread.currentThread().getId(), eventSink, getSource(), ex);
@@ -493,9 +706,9 @@ public class TrackerImpl implements Tracker, SinkErrorListener {
 		long start = System.nanoTime();
 		try {
 			eventSink.log(snapshot);
-			snapCount.incrementAndGet();
+			snapCount.increment();
 		} catch (Throwable ex) {
-			dropCount.incrementAndGet();
+			dropCount.increment();
 			if (logger.isSet(OpLevel.DEBUG)) {
 				logger.log(OpLevel.ERROR,
 						"Failed to track snapshot: signature={0}, tid={1}, event.sink={2}, snapshot={3}",
@@ -506,14 +719,28 @@ public class TrackerImpl implements Tracker, SinkErrorListener {
 		}
 	}
 
+	/**
+	 * Track and Trace a given snapshot owned by a given activity. Snapshot follows sampling decision of the activity.
+	 *
+	 * @param owner
+	 *            activity owning the snapshot
+	 * @param snapshot
+	 *            snapshot to be reported
+	 */
+	protected void tnt(TrackingActivity owner, Snapshot snapshot) {
+		if (isSampled(owner, snapshot, null)) {
+			tnt(snapshot);
+		}
+	}
+
 	@Override
 	public void log(OpLevel sev, String msg, Object... args) {
 		long start = System.nanoTime();
 		try {
 			eventSink.log(eventSink.getTTL(), getSource(), sev, msg, args);
-			msgCount.incrementAndGet();
+			msgCount.increment();
 		} catch (Throwable ex) {
-			dropCount.incrementAndGet();
+			dropCount.increment();
 			if (logger.isSet(OpLevel.DEBUG)) {
 				logger.log(OpLevel.ERROR, "Failed to log message: severity={0}, msg={1}", sev, msg, ex);
 			}
@@ -712,7 +939,7 @@ public class TrackerImpl implements Tracker, SinkErrorListener {
 			logger.log(OpLevel.DEBUG, "Tracker closed vm.name={0}, tid={1}, event.sink={2}, source={3}",
 					Utils.getVMName(), Thread.currentThread().getId(), eventSink, getSource());
 		} catch (Throwable e) {
-			errorCount.incrementAndGet();
+			errorCount.increment();
 			logger.log(OpLevel.ERROR, "Failed to close tracker vm.name={0}, tid={1}, event.sink={2}, source={3}",
 					Utils.getVMName(), Thread.currentThread().getId(), eventSink, getSource(), e);
 		}
@@ -726,7 +953,7 @@ public class TrackerImpl implements Tracker, SinkErrorListener {
 
 	@Override
 	public void sinkError(SinkError ev) {
-		errorCount.incrementAndGet();
+		errorCount.increment();
 		if (logger.isSet(OpLevel.DEBUG)) {
 			logger.log(OpLevel.ERROR, "Sink write error: count={4}, vm.name={0}, tid={1}, event.sink={2}, source={3}",
 					Utils.getVMName(), Thread.currentThread().getId(), eventSink, getSource(), errorCount.get(),
@@ -15,6 +15,10 @@
  */
 package com.jkoolcloud.tnt4j.tracker;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import com.jkoolcloud.tnt4j.TrackingLogger;
 import com.jkoolcloud.tnt4j.core.*;
 import com.jkoolcloud.tnt4j.utils.Useconds;
@@ -34,6 +38,13 @@ import com.jkoolcloud.tnt4j.utils.Utils;
  * {@link TrackingEvent} with the activity.
  * </p>
  * 
+ * <p>
+ * Every activity carries a {@link SamplingDecision} made by {@link TrackingSampler} when a root activity is created.
+ * Child activities created within the context of a parent activity share the decision of their root activity, so
+ * sampled traces are either reported or dropped as a whole. Events, snapshots and child activities of a
+ * {@link SamplingDecision#DEFERRED} activity are held until the root activity is reported.
+ * </p>
+ * 
  * @see Activity
  * @see ActivityListener
  * @see ActivityStatus
@@ -51,6 +62,16 @@ public class TrackingActivity extends Activity {
 	private long lastEventNanos = 0;
 	private TrackerImpl tracker = null;
 
+	/**
+	 * Maximum number of items held by a deferred root activity, items beyond the limit are dropped
+	 */
+	private static final int MAX_DEFERRED_ITEMS = Integer.getInteger("tnt4j.tracker.sampling.max.deferred", 1000);
+
+	private volatile SamplingDecision sampling = SamplingDecision.SAMPLED;
+	private TrackingActivity sampleRoot = null;
+	private List<Trackable> deferred = null;
+	private boolean keepDeferred = false;
+
 	/**
 	 * Creates a logical application activity object with the specified signature.
 	 * 
@@ -124,6 +145,87 @@ public class TrackingActivity extends Activity {
 		return tracker;
 	}
 
+	/**
+	 * Obtain sampling decision of this activity, which is the decision of its root activity
+	 * 
+	 * @return sampling decision
+	 * @see SamplingDecision
+	 */
+	public SamplingDecision getSamplingDecision() {
+		return sampleRoot != null ? sampleRoot.getSamplingDecision() : sampling;
+	}
+
+	/**
+	 * Determine if this activity is a sampling root, which owns its sampling decision
+	 * 
+	 * @return true if sampling root, false if decision is inherited from a parent activity
+	 */
+	public boolean isSampleRoot() {
+		return sampleRoot == null;
+	}
+
+	/**
+	 * Set head sampling decision of this root activity
+	 * 
+	 * @param decision
+	 *            sampling decision
+	 */
+	void setSamplingDecision(SamplingDecision decision) {
+		sampling = decision;
+	}
+
+	/**
+	 * Inherit sampling decision from a given parent activity
+	 * 
+	 * @param parent
+	 *            parent activity
+	 */
+	void inheritSampling(TrackingActivity parent) {
+		sampleRoot = parent.sampleRoot != null ? parent.sampleRoot : parent;
+	}
+
+	/**
+	 * Hold a given item until sampling decision of the root activity is made
+	 * 
+	 * @param item
+	 *            activity, event or snapshot to hold
+	 * @param keep
+	 *            true if item requires the whole root activity to be kept
+	 * @return {@link SamplingDecision#DEFERRED} if item is held, {@link SamplingDecision#DROPPED} if too many items
+	 *         are held, otherwise the decision already made for the root activity
+	 */
+	SamplingDecision defer(Trackable item, boolean keep) {
+		TrackingActivity root = sampleRoot != null ? sampleRoot : this;
+		synchronized (root) {
+			if (root.sampling != SamplingDecision.DEFERRED) {
+				return root.sampling;
+			}
+			root.keepDeferred |= keep;
+			if (root.deferred == null) {
+				root.deferred = new ArrayList<Trackable>();
+			}
+			if (root.deferred.size() >= MAX_DEFERRED_ITEMS) {
+				return SamplingDecision.DROPPED;
+			}
+			root.deferred.add(item);
+			return SamplingDecision.DEFERRED;
+		}
+	}
+
+	/**
+	 * Make final sampling decision of this deferred root activity and release all held items
+	 * 
+	 * @param keep
+	 *            true if this activity must be kept
+	 * @return list of held items, which must be reported if activity is kept
+	 */
+	synchronized List<Trackable> resolveSampling(boolean keep) {
+		sampling = (keep || keepDeferred) ? SamplingDecision.SAMPLED : SamplingDecision.DROPPED;
+		List<Trackable> items = deferred;
+		deferred = null;
+		return items != null ? items : Collections.<Trackable> emptyList();
+	}
+
 	private long getLastElapsedUsec() {
 		return lastEventNanos > 0 ? (System.nanoTime() - lastEventNanos) / 1000 : 0;
 	}
@@ -141,7 +243,7 @@ public class TrackingActivity extends Activity {
 		}
 		add(event);
 		lastEventNanos = System.nanoTime();
-		tracker.tnt(event);
+		tracker.tnt(this, event);
 	}
 
 	/**
@@ -156,7 +258,7 @@ public class TrackingActivity extends Activity {
 					"Activity already stopped: name=" + getName() + ", id=" + this.getTrackingId());
 		}
 		add(snapshot);
-		tracker.tnt(snapshot);
+		tracker.tnt(this, snapshot);
 	}
 
 	/**
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.tracker;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+import com.jkoolcloud.tnt4j.utils.LightStack;
+
+/**
+ * <p>
+ * Immutable snapshot of the thread local tracking context: activity stack maintained by {@link TrackerImpl} and
+ * key/value pairs maintained by {@link ContextTracker}. Use {@link #capture()} on the thread submitting work and
+ * {@link #attach()} on the thread executing it to propagate activities and correlators across thread boundaries.
+ * </p>
+ *
+ * <p>
+ * Most applications should use the {@code wrap(...)} helpers, which decorate {@link Runnable}, {@link Callable},
+ * {@link Executor} and {@link ExecutorService} instances. Wrapped executors can be passed to any API accepting an
+ * {@link Executor}, such as {@code CompletableFuture.supplyAsync(supplier, executor)}, to propagate context along
+ * asynchronous call chains.
+ * </p>
+ *
+ * <p>
+ * Note that activities started on the executing thread are added to the captured parent activity, which is shared
+ * between threads.
+ * </p>
+ *
+ * @see ContextRunnable
+ * @see ContextCallable
+ * @see ContextExecutorService
+ *
+ * @version $Revision: 1 $
+ */
+public class TrackingContext {
+	private static final TrackingContext EMPTY = new TrackingContext(null, null);
+
+	private final TrackingActivity[] activities;
+	private final Map<String, String> values;
+
+	private TrackingContext(TrackingActivity[] activities, Map<String, String> values) {
+		this.activities = activities;
+		this.values = values;
+	}
+
+	/**
+	 * Capture tracking context associated with the current thread.
+	 *
+	 * @return immutable snapshot of the current thread tracking context
+	 */
+	public static TrackingContext capture() {
+		TrackingActivity[] activities = TrackerImpl.copyActivityStack();
+		Map<String, String> values = ContextTracker.copyContext();
+		if (activities == null && values == null) {
+			return EMPTY;
+		}
+		return new TrackingContext(activities, values);
+	}
+
+	/**
+	 * Determine if this context carries no activities and no key/value pairs.
+	 *
+	 * @return true if context is empty, false otherwise
+	 */
+	public boolean isEmpty() {
+		return activities == null && values == null;
+	}
+
+	/**
+	 * Obtain number of activities captured in this context.
+	 *
+	 * @return number of captured activities
+	 */
+	public int getStackSize() {
+		return activities != null ? activities.length : 0;
+	}
+
+	/**
+	 * Obtain activity which was on top of the stack when this context was captured.
+	 *
+	 * @return current activity at the time of capture, {@code null} if none
+	 */
+	public TrackingActivity getCurrentActivity() {
+		return activities != null ? activities[activities.length - 1] : null;
+	}
+
+	/**
+	 * Obtain value captured for a given context key.
+	 *
+	 * @param key
+	 *            context key
+	 * @return value associated with a given key at the time of capture, {@code null} if none
+	 */
+	public String get(String key) {
+		return values != null ? values.get(key) : null;
+	}
+
+	/**
+	 * Associate this context with the current thread. Current thread context is replaced until {@link Scope#close()}
+	 * is called on the returned scope, which must be done on the same thread.
+	 *
+	 * @return scope used to restore the original thread context
+	 */
+	public Scope attach() {
+		LightStack<TrackingActivity> prevStack = TrackerImpl.replaceActivityStack(activities);
+		ConcurrentMap<String, String> prevValues = ContextTracker.replaceContext(values);
+		return new Scope(prevStack, prevValues);
+	}
+
+	/**
+	 * Wrap a given task so that it runs within the tracking context of the calling thread.
+	 *
+	 * @param task
+	 *            task to wrap
+	 * @return context propagating task
+	 */
+	public static Runnable wrap(Runnable task) {
+		return new ContextRunnable(capture(), task);
+	}
+
+	/**
+	 * Wrap a given task so that it runs within the tracking context of the calling thread.
+	 *
+	 * @param <V>
+	 *            task result type
+	 * @param task
+	 *            task to wrap
+	 * @return context propagating task
+	 */
+	public static <V> Callable<V> wrap(Callable<V> task) {
+		return new ContextCallable<V>(capture(), task);
+	}
+
+	/**
+	 * Wrap a given executor so that all submitted tasks run within the tracking context of the submitting thread.
+	 *
+	 * @param executor
+	 *            executor to wrap
+	 * @return context propagating executor
+	 */
+	public static Executor wrap(final Executor executor) {
+		if (executor instanceof ExecutorService) {
+			return wrap((ExecutorService) executor);
+		}
+		return new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				executor.execute(wrap(command));
+			}
+		};
+	}
+
+	/**
+	 * Wrap a given executor service so that all submitted tasks run within the tracking context of the submitting
+	 * thread.
+	 *
+	 * @param executor
+	 *            executor service to wrap
+	 * @return context propagating executor service
+	 */
+	public static ExecutorService wrap(ExecutorService executor) {
+		if (executor instanceof ContextExecutorService) {
+			return executor;
+		}
+		return new ContextExecutorService(executor);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "{stack.size=" + getStackSize() + ", values=" + values + "}";
+	}
+
+	/**
+	 * Handle returned by {@link TrackingContext#attach()} used to restore thread context which was in effect before
+	 * the attach.
+	 */
+	public static class Scope implements Closeable {
+		private final LightStack<TrackingActivity> prevStack;
+		private final ConcurrentMap<String, String> prevValues;
+
+		private Scope(LightStack<TrackingActivity> prevStack, ConcurrentMap<String, String> prevValues) {
+			this.prevStack = prevStack;
+			this.prevValues = prevValues;
+		}
+
+		/**
+		 * Restore thread context which was in effect before the attach.
+		 */
+		@Override
+		public void close() {
+			TrackerImpl.restoreActivityStack(prevStack);
+			ContextTracker.restoreContext(prevValues);
+		}
+	}
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.tracker;
+
+import com.jkoolcloud.tnt4j.core.OpLevel;
+import com.jkoolcloud.tnt4j.core.Operation;
+
+/**
+ * <p>
+ * A sampling interface for reducing volume of reported tracking activities and events. Implementations of this
+ * interface are registered with {@link Tracker} instances via {@code TrackerConfig.setTrackingSampler()} or
+ * {@code tracking.sampler} configuration property.
+ * </p>
+ *
+ * <p>
+ * {@link #sample(Tracker, OpLevel, String)} (head sampling) is called once for every root activity when it is created
+ * and for every standalone event when it is reported. Child activities and events inherit the decision of their
+ * root activity, so sampled traces are always complete. {@link #keep(Tracker, Operation)} (tail sampling) is called for
+ * completed operations belonging to a {@link SamplingDecision#DEFERRED} activity: the whole activity is reported if
+ * any of its operations is kept, and dropped otherwise.
+ * </p>
+ *
+ * @see SamplingDecision
+ * @see Tracker
+ * @see TrackingActivity
+ * @see TrackingEvent
+ *
+ * @version $Revision: 1 $
+ */
+public interface TrackingSampler {
+	/**
+	 * Make head sampling decision for a root activity or standalone event
+	 *
+	 * @param tracker
+	 *            a specific tracker instance for which decision is made
+	 * @param level
+	 *            severity level of the activity/event
+	 * @param name
+	 *            activity/event operation name
+	 * @return sampling decision
+	 * @see SamplingDecision
+	 */
+	SamplingDecision sample(Tracker tracker, OpLevel level, String name);
+
+	/**
+	 * Make tail sampling decision for a completed operation belonging to a {@link SamplingDecision#DEFERRED} activity
+	 * or a deferred standalone event
+	 *
+	 * @param tracker
+	 *            a specific tracker instance for which decision is made
+	 * @param op
+	 *            completed activity or event operation
+	 * @return true if operation and its whole activity must be kept, false otherwise
+	 */
+	boolean keep(Tracker tracker, Operation op);
+}
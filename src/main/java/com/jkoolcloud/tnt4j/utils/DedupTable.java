@@ -0,0 +1,426 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.utils;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * This class implements a fixed memory table used to detect duplicate messages. Messages are identified by 64-bit
+ * hash keys computed from message pattern and arguments without formatting the message (see
+ * {@link #hash(String, Object[])}). The first occurrence of a key starts a suppression window, all occurrences within
+ * the window are duplicates, and the first occurrence after the window starts a new one.
+ * </p>
+ *
+ * <p>
+ * The table is split into segments with their own locks, each segment is an open addressing table with linear
+ * probing over a short probe sequence. Entries expire after two suppression windows without any occurrence and their
+ * slots are reused. When all slots of a probe sequence are in use, the entry with the oldest occurrence is evicted.
+ * Table operations never allocate memory.
+ * </p>
+ *
+ * <p>
+ * Keys are computed from argument values at the time of the call, so mutable arguments (e.g. {@code StringBuilder})
+ * yield the key of their current content. Arguments of classes which do not override {@code hashCode()} are hashed by
+ * their {@code toString()} value, which must be stable for equal messages to be detected as duplicates. Hash keys are
+ * not unique: distinct messages colliding on the same 64-bit key are treated as duplicates.
+ * </p>
+ *
+ * @version $Revision: 1 $
+ */
+public class DedupTable {
+	private static final int SEGMENTS = 16;
+	private static final int MAX_PROBE = 8;
+	private static final long C1 = 0x87c37b91114253d5L;
+	private static final long C2 = 0x4cf5ad432745937fL;
+	private static final long FNV_PRIME = 0x100000001b3L;
+	private static final long FNV_BASIS = 0xcbf29ce484222325L;
+	private static final int MAX_HASH_CLASSES = 1024;
+	private static final ConcurrentMap<Class<?>, Boolean> VALUE_HASH = new ConcurrentHashMap<Class<?>, Boolean>();
+
+	private final Segment[] segments = new Segment[SEGMENTS];
+	private final long windowNanos;
+
+	/**
+	 * Create a duplicate detection table
+	 *
+	 * @param capacity
+	 *            maximum number of tracked keys
+	 * @param window
+	 *            suppression window
+	 * @param unit
+	 *            suppression window time unit
+	 */
+	public DedupTable(int capacity, long window, TimeUnit unit) {
+		int segSize = Integer.highestOneBit(Math.max(MAX_PROBE, (2 * capacity + SEGMENTS - 1) / SEGMENTS) - 1) << 1;
+		for (int i = 0; i < SEGMENTS; i++) {
+			segments[i] = new Segment(segSize);
+		}
+		windowNanos = unit.toNanos(window);
+	}
+
+	/**
+	 * Obtain total number of key slots in this table
+	 *
+	 * @return number of key slots
+	 */
+	public int getCapacity() {
+		return SEGMENTS * segments[0].keys.length;
+	}
+
+	/**
+	 * Obtain suppression window
+	 *
+	 * @param unit
+	 *            time unit
+	 * @return suppression window in a given time unit
+	 */
+	public long getWindow(TimeUnit unit) {
+		return unit.convert(windowNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Record an occurrence of a given key
+	 *
+	 * @param key
+	 *            message key
+	 * @return true if occurrence is a duplicate within suppression window, false otherwise
+	 */
+	public boolean hit(long key) {
+		long now = System.nanoTime();
+		Segment seg = segmentFor(key);
+		synchronized (seg) {
+			int idx = seg.findOrInsert(key, now, windowNanos);
+			seg.hits[idx]++;
+			seg.lastHit[idx] = now;
+			if (seg.hits[idx] > 1 && (now - seg.windowStart[idx]) < windowNanos) {
+				seg.misses[idx]++;
+				seg.lastMiss[idx] = now;
+				return true;
+			}
+			seg.windowStart[idx] = now;
+			return false;
+		}
+	}
+
+	/**
+	 * Obtain number of occurrences of a given key
+	 *
+	 * @param key
+	 *            message key
+	 * @return number of occurrences, 0 if key is not tracked
+	 */
+	public long getHitCount(long key) {
+		Segment seg = segmentFor(key);
+		synchronized (seg) {
+			int idx = seg.find(key);
+			return idx >= 0 ? seg.hits[idx] : 0;
+		}
+	}
+
+	/**
+	 * Obtain number of duplicate occurrences of a given key
+	 *
+	 * @param key
+	 *            message key
+	 * @return number of duplicates, 0 if key is not tracked
+	 */
+	public long getMissCount(long key) {
+		Segment seg = segmentFor(key);
+		synchronized (seg) {
+			int idx = seg.find(key);
+			return idx >= 0 ? seg.misses[idx] : 0;
+		}
+	}
+
+	/**
+	 * Obtain time elapsed since the last occurrence of a given key
+	 *
+	 * @param key
+	 *            message key
+	 * @param unit
+	 *            time unit
+	 * @return time since last occurrence, 0 if key is not tracked
+	 */
+	public long getHitAge(long key, TimeUnit unit) {
+		Segment seg = segmentFor(key);
+		synchronized (seg) {
+			int idx = seg.find(key);
+			return idx >= 0 ? unit.convert(System.nanoTime() - seg.lastHit[idx], TimeUnit.NANOSECONDS) : 0;
+		}
+	}
+
+	/**
+	 * Obtain time elapsed since the last duplicate occurrence of a given key
+	 *
+	 * @param key
+	 *            message key
+	 * @param unit
+	 *            time unit
+	 * @return time since last duplicate, 0 if key is not tracked or has no duplicates
+	 */
+	public long getMissAge(long key, TimeUnit unit) {
+		Segment seg = segmentFor(key);
+		synchronized (seg) {
+			int idx = seg.find(key);
+			return idx >= 0 && seg.misses[idx] > 0
+					? unit.convert(System.nanoTime() - seg.lastMiss[idx], TimeUnit.NANOSECONDS) : 0;
+		}
+	}
+
+	/**
+	 * Obtain number of keys currently tracked, including expired keys not yet reused
+	 *
+	 * @return number of tracked keys
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment seg : segments) {
+			synchronized (seg) {
+				size += seg.size;
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Obtain number of live keys evicted to make room for new keys
+	 *
+	 * @return number of evictions
+	 */
+	public long getEvictCount() {
+		long count = 0;
+		for (Segment seg : segments) {
+			synchronized (seg) {
+				count += seg.evictions;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Remove all keys from this table
+	 */
+	public void clear() {
+		for (Segment seg : segments) {
+			synchronized (seg) {
+				seg.clear();
+			}
+		}
+	}
+
+	private Segment segmentFor(long key) {
+		return segments[(int) (key >>> 60) & (SEGMENTS - 1)];
+	}
+
+	/**
+	 * Compute a 64-bit hash key for a given message pattern and arguments without formatting the message. Strings and
+	 * other character sequences, numbers, booleans, characters, enums, byte and object arrays and exceptions are hashed
+	 * by value, other arguments by their {@code hashCode()} when their class overrides it, otherwise by their
+	 * {@code toString()} value.
+	 *
+	 * @param pattern
+	 *            message pattern
+	 * @param args
+	 *            message arguments
+	 * @return non zero hash key
+	 */
+	public static long hash(String pattern, Object[] args) {
+		long h = hash(FNV_BASIS, pattern);
+		if (args != null) {
+			h = hash(h, args);
+		}
+		h = fmix(h);
+		return h != 0 ? h : 1;
+	}
+
+	/**
+	 * Compute a 64-bit hash key scoped by severity level and source, so that equal messages logged at different levels
+	 * or by different sources get distinct keys
+	 *
+	 * @param key
+	 *            message hash key
+	 * @param level
+	 *            message severity level, may be {@code null}
+	 * @param source
+	 *            message source name, may be {@code null}
+	 * @return non zero hash key
+	 */
+	public static long hash(long key, Enum<?> level, String source) {
+		long h = hash(mix(FNV_BASIS, key), level != null ? level.name() : null);
+		h = fmix(hash(h, source));
+		return h != 0 ? h : 1;
+	}
+
+	/**
+	 * Compute a 64-bit hash of a given string
+	 *
+	 * @param str
+	 *            string to hash
+	 * @return non zero hash key
+	 */
+	public static long hash(String str) {
+		long h = fmix(hash(FNV_BASIS, str));
+		return h != 0 ? h : 1;
+	}
+
+	private static long hash(long h, Object[] args) {
+		for (int i = 0; i < args.length; i++) {
+			h = hash(h, args[i]);
+		}
+		return mix(h, args.length);
+	}
+
+	private static long hash(long h, Object arg) {
+		if (arg == null) {
+			return mix(h, C1);
+		} else if (arg instanceof CharSequence) {
+			return hash(h, (CharSequence) arg);
+		} else if (arg instanceof Long || arg instanceof Integer || arg instanceof Short || arg instanceof Byte) {
+			return mix(h, ((Number) arg).longValue());
+		} else if (arg instanceof Double || arg instanceof Float) {
+			return mix(h, Double.doubleToLongBits(((Number) arg).doubleValue()));
+		} else if (arg instanceof Boolean) {
+			return mix(h, ((Boolean) arg) ? 1 : 2);
+		} else if (arg instanceof Character) {
+			return mix(h, (Character) arg);
+		} else if (arg instanceof Enum) {
+			return hash(h, ((Enum<?>) arg).name());
+		} else if (arg instanceof byte[]) {
+			byte[] bytes = (byte[]) arg;
+			for (int i = 0; i < bytes.length; i++) {
+				h = (h ^ bytes[i]) * FNV_PRIME;
+			}
+			return mix(h, bytes.length);
+		} else if (arg instanceof Object[]) {
+			return hash(h, (Object[]) arg);
+		} else if (arg instanceof Throwable) {
+			return hash(hash(h, arg.getClass().getName()), ((Throwable) arg).getMessage());
+		}
+		return hasValueHash(arg.getClass()) ? mix(h, arg.hashCode()) : hash(h, arg.toString());
+	}
+
+	private static boolean hasValueHash(Class<?> cls) {
+		Boolean valueHash = VALUE_HASH.get(cls);
+		if (valueHash == null) {
+			try {
+				valueHash = cls.getMethod("hashCode").getDeclaringClass() != Object.class;
+			} catch (Throwable e) {
+				valueHash = Boolean.FALSE;
+			}
+			if (VALUE_HASH.size() >= MAX_HASH_CLASSES) {
+				VALUE_HASH.clear();
+			}
+			VALUE_HASH.put(cls, valueHash);
+		}
+		return valueHash;
+	}
+
+	private static long hash(long h, CharSequence str) {
+		if (str == null) {
+			return mix(h, C2);
+		}
+		int len = str.length();
+		for (int i = 0; i < len; i++) {
+			h = (h ^ str.charAt(i)) * FNV_PRIME;
+		}
+		return mix(h, len);
+	}
+
+	private static long mix(long h, long v) {
+		return Long.rotateLeft(h ^ (v * C1), 31) * C2;
+	}
+
+	private static long fmix(long h) {
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+	private static class Segment {
+		final long[] keys;
+		final long[] hits;
+		final long[] misses;
+		final long[] windowStart;
+		final long[] lastHit;
+		final long[] lastMiss;
+		final int mask;
+		int size;
+		long evictions;
+
+		Segment(int capacity) {
+			keys = new long[capacity];
+			hits = new long[capacity];
+			misses = new long[capacity];
+			windowStart = new long[capacity];
+			lastHit = new long[capacity];
+			lastMiss = new long[capacity];
+			mask = capacity - 1;
+		}
+
+		int find(long key) {
+			int idx = (int) key & mask;
+			for (int i = 0; i < MAX_PROBE; i++, idx = (idx + 1) & mask) {
+				if (keys[idx] == key) {
+					return idx;
+				}
+			}
+			return -1;
+		}
+
+		int findOrInsert(long key, long now, long windowNanos) {
+			int idx = (int) key & mask;
+			int free = -1, oldest = idx;
+			for (int i = 0; i < MAX_PROBE; i++, idx = (idx + 1) & mask) {
+				if (keys[idx] == key) {
+					return idx;
+				}
+				if (keys[idx] == 0 || (now - lastHit[idx]) >= 2 * windowNanos) {
+					if (free < 0) {
+						free = idx;
+					}
+				} else if (lastHit[idx] - lastHit[oldest] < 0) {
+					oldest = idx;
+				}
+			}
+			if (free < 0) {
+				free = oldest;
+				evictions++;
+			} else if (keys[free] == 0) {
+				size++;
+			}
+			keys[free] = key;
+			hits[free] = 0;
+			misses[free] = 0;
+			windowStart[free] = now;
+			lastHit[free] = now;
+			lastMiss[free] = 0;
+			return free;
+		}
+
+		void clear() {
+			for (int i = 0; i < keys.length; i++) {
+				keys[i] = 0;
+			}
+			size = 0;
+		}
+	}
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ * This class implements a lock-free log-linear histogram of non-negative values such as latencies. Each power of 2
+ * range is divided into 16 linear sub-buckets, so any recorded value is reported with a relative error of at most
+ * 1/16 (6.25%). Values larger than 2^41 - 1 are recorded in the last bucket. Recording a value does not allocate
+ * memory and never blocks.
+ * </p>
+ *
+ * <p>
+ * Recorded values are reported in intervals. {@link #getInterval()} returns the last completed interval and starts a
+ * new one once the interval length elapsed, draining current counts into an {@link Interval} snapshot. Until the first
+ * interval completes, a copy of the current interval is returned instead.
+ * </p>
+ *
+ * @version $Revision: 1 $
+ *
+ * @see Interval
+ */
+public class LatencyHistogram {
+	/**
+	 * Default reporting interval in milliseconds
+	 */
+	public static final long DEFAULT_INTERVAL_MS = Long.getLong("tnt4j.stats.histogram.interval", 60000);
+
+	/**
+	 * Stats key suffix for 50th percentile
+	 */
+	public static final String KEY_P50 = "-p50";
+
+	/**
+	 * Stats key suffix for 99th percentile
+	 */
+	public static final String KEY_P99 = "-p99";
+
+	/**
+	 * Stats key suffix for 99.9th percentile
+	 */
+	public static final String KEY_P999 = "-p999";
+
+	/**
+	 * Stats key suffix for maximum value
+	 */
+	public static final String KEY_MAX = "-max";
+
+	private static final int SUB_BITS = 4;
+	private static final int SUB_COUNT = 1 << SUB_BITS;
+	private static final int MAX_BITS = 41;
+	private static final long MAX_VALUE = (1L << MAX_BITS) - 1;
+	private static final int BUCKETS = bucketIndex(MAX_VALUE) + 1;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final AtomicLong max = new AtomicLong(0);
+	private final long intervalMs;
+
+	private long intervalStart = System.currentTimeMillis();
+	private volatile Interval last;
+
+	/**
+	 * Create a histogram with default reporting interval
+	 *
+	 * @see #DEFAULT_INTERVAL_MS
+	 */
+	public LatencyHistogram() {
+		this(DEFAULT_INTERVAL_MS);
+	}
+
+	/**
+	 * Create a histogram with a given reporting interval
+	 *
+	 * @param intervalMs
+	 *            reporting interval in milliseconds, 0 to start a new interval on every {@link #getInterval()} call
+	 */
+	public LatencyHistogram(long intervalMs) {
+		this.intervalMs = intervalMs;
+	}
+
+	/**
+	 * Record a single value. Negative values are recorded as 0.
+	 *
+	 * @param value
+	 *            value to record
+	 */
+	public void record(long value) {
+		long v = value < 0 ? 0 : (value > MAX_VALUE ? MAX_VALUE : value);
+		counts.incrementAndGet(bucketIndex(v));
+		long m = max.get();
+		while (v > m && !max.compareAndSet(m, v)) {
+			m = max.get();
+		}
+	}
+
+	/**
+	 * Obtain reporting interval length
+	 *
+	 * @return reporting interval in milliseconds
+	 */
+	public long getIntervalMs() {
+		return intervalMs;
+	}
+
+	/**
+	 * Obtain last completed reporting interval, starting a new interval if current one elapsed.
+	 *
+	 * @return last completed interval, or a copy of current interval if none completed yet
+	 */
+	public synchronized Interval getInterval() {
+		long now = System.currentTimeMillis();
+		if (now - intervalStart >= intervalMs) {
+			last = drain(now);
+		}
+		Interval snap = last;
+		return snap != null ? snap : copy(now);
+	}
+
+	/**
+	 * Complete current reporting interval and start a new one.
+	 *
+	 * @return completed interval
+	 */
+	public synchronized Interval roll() {
+		last = drain(System.currentTimeMillis());
+		return last;
+	}
+
+	/**
+	 * Clear all recorded values and completed intervals
+	 */
+	public synchronized void reset() {
+		drain(System.currentTimeMillis());
+		last = null;
+	}
+
+	private Interval drain(long now) {
+		long[] snap = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			snap[i] = counts.getAndSet(i, 0);
+			total += snap[i];
+		}
+		Interval interval = new Interval(intervalStart, now, snap, total, max.getAndSet(0));
+		intervalStart = now;
+		return interval;
+	}
+
+	private Interval copy(long now) {
+		long[] snap = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			snap[i] = counts.get(i);
+			total += snap[i];
+		}
+		return new Interval(intervalStart, now, snap, total, max.get());
+	}
+
+	private static int bucketIndex(long value) {
+		if (value < SUB_COUNT) {
+			return (int) value;
+		}
+		int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BITS;
+		return ((shift + 1) << SUB_BITS) + (int) ((value >>> shift) & (SUB_COUNT - 1));
+	}
+
+	private static long highestValue(int idx) {
+		if (idx < SUB_COUNT) {
+			return idx;
+		}
+		int shift = (idx >>> SUB_BITS) - 1;
+		long low = ((long) (SUB_COUNT + (idx & (SUB_COUNT - 1)))) << shift;
+		return low + (1L << shift) - 1;
+	}
+
+	@Override
+	public String toString() {
+		return super.toString() + "{interval.ms: " + intervalMs + ", max: " + max.get() + "}";
+	}
+
+	/**
+	 * This class is an immutable snapshot of values recorded by a {@link LatencyHistogram} during a single interval.
+	 */
+	public static class Interval {
+		private final long startTime, endTime;
+		private final long[] counts;
+		private final long count, max;
+
+		Interval(long startTime, long endTime, long[] counts, long count, long max) {
+			this.startTime = startTime;
+			this.endTime = endTime;
+			this.counts = counts;
+			this.count = count;
+			this.max = max;
+		}
+
+		/**
+		 * Obtain interval start time
+		 *
+		 * @return interval start time in milliseconds
+		 */
+		public long getStartTime() {
+			return startTime;
+		}
+
+		/**
+		 * Obtain interval end time
+		 *
+		 * @return interval end time in milliseconds
+		 */
+		public long getEndTime() {
+			return endTime;
+		}
+
+		/**
+		 * Obtain number of values recorded during interval
+		 *
+		 * @return number of recorded values
+		 */
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * Obtain maximum value recorded during interval
+		 *
+		 * @return maximum recorded value
+		 */
+		public long getMax() {
+			return max;
+		}
+
+		/**
+		 * Obtain value at a given percentile. Returned value is the highest value equivalent to the bucket containing
+		 * the percentile, but never greater than {@link #getMax()}.
+		 *
+		 * @param percentile
+		 *            percentile between 0 and 100
+		 * @return value at a given percentile, 0 if no values were recorded
+		 */
+		public long getPercentile(double percentile) {
+			if (count == 0) {
+				return 0;
+			}
+			long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * count));
+			long seen = 0;
+			for (int i = 0; i < counts.length; i++) {
+				seen += counts[i];
+				if (seen >= rank) {
+					return Math.min(highestValue(i), max);
+				}
+			}
+			return max;
+		}
+
+		@Override
+		public String toString() {
+			return super.toString() + "{count: " + count + ", p50: " + getPercentile(50) + ", p99: "
+					+ getPercentile(99) + ", p999: " + getPercentile(99.9) + ", max: " + max + "}";
+		}
+	}
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * <p>
+ * This class implements a statistics counter optimized for frequent concurrent updates and infrequent reads, such as
+ * counters reported via {@code KeyValueStats.getStats()}. Updates are applied to a single base value until the first
+ * contended update, after which the counter switches to a set of cache line padded stripes selected by thread. Reads
+ * sum base and all stripes, so a value returned while updates are in progress is not an atomic snapshot.
+ * </p>
+ *
+ * <p>
+ * Number of stripes defaults to the number of available processors rounded up to a power of 2 (at most 64) and can be
+ * set using {@code tnt4j.stats.stripes} system property. Counters never switch to stripes on single processor systems.
+ * </p>
+ *
+ * @version $Revision: 1 $
+ *
+ * @see com.jkoolcloud.tnt4j.core.KeyValueStats
+ */
+public class StripedCounter extends Number {
+	private static final long serialVersionUID = -3418503412938527431L;
+
+	private static final int PAD = 8; // longs per 64 byte cache line
+	private static final int STRIPES = stripeCount(
+			Integer.getInteger("tnt4j.stats.stripes", Runtime.getRuntime().availableProcessors()));
+	private static final AtomicReferenceFieldUpdater<StripedCounter, AtomicLongArray> CELLS_UPDATER = AtomicReferenceFieldUpdater
+			.newUpdater(StripedCounter.class, AtomicLongArray.class, "cells");
+
+	private final AtomicLong base;
+	private volatile AtomicLongArray cells;
+
+	/**
+	 * Create a counter with initial value of zero
+	 */
+	public StripedCounter() {
+		this(0);
+	}
+
+	/**
+	 * Create a counter with a given initial value
+	 *
+	 * @param initial
+	 *            initial counter value
+	 */
+	public StripedCounter(long initial) {
+		base = new AtomicLong(initial);
+	}
+
+	/**
+	 * Increment counter by one
+	 */
+	public void increment() {
+		add(1);
+	}
+
+	/**
+	 * Decrement counter by one
+	 */
+	public void decrement() {
+		add(-1);
+	}
+
+	/**
+	 * Add a given value to the counter
+	 *
+	 * @param x
+	 *            value to add
+	 */
+	public void add(long x) {
+		AtomicLongArray cs = cells;
+		if (cs == null) {
+			if (STRIPES == 1) {
+				base.addAndGet(x);
+				return;
+			}
+			long v = base.get();
+			if (base.compareAndSet(v, v + x)) {
+				return;
+			}
+			cs = stripe();
+		}
+		int h = hash(Thread.currentThread().getId());
+		int mask = STRIPES - 1;
+		for (;;) {
+			int idx = (h & mask) * PAD;
+			long v = cs.get(idx);
+			if (cs.compareAndSet(idx, v, v + x)) {
+				return;
+			}
+			h += (h >>> 16) | 1; // contended stripe, probe another one
+		}
+	}
+
+	/**
+	 * Obtain current counter value, summing all stripes
+	 *
+	 * @return current counter value
+	 */
+	public long get() {
+		long sum = base.get();
+		AtomicLongArray cs = cells;
+		if (cs != null) {
+			for (int i = 0; i < cs.length(); i += PAD) {
+				sum += cs.get(i);
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * Reset counter to zero. Updates made concurrently with reset may be lost.
+	 */
+	public void reset() {
+		base.set(0);
+		AtomicLongArray cs = cells;
+		if (cs != null) {
+			for (int i = 0; i < cs.length(); i += PAD) {
+				cs.set(i, 0);
+			}
+		}
+	}
+
+	/**
+	 * Obtain current counter value and reset counter to zero. Updates made concurrently are either included in the
+	 * returned value or retained by the counter, but never lost.
+	 *
+	 * @return counter value before reset
+	 */
+	public long getAndReset() {
+		long sum = base.getAndSet(0);
+		AtomicLongArray cs = cells;
+		if (cs != null) {
+			for (int i = 0; i < cs.length(); i += PAD) {
+				sum += cs.getAndSet(i, 0);
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * Determine if counter switched to striped updates due to contention
+	 *
+	 * @return true if counter is striped, false otherwise
+	 */
+	public boolean isStriped() {
+		return cells != null;
+	}
+
+	private AtomicLongArray stripe() {
+		AtomicLongArray cs = cells;
+		if (cs == null) {
+			CELLS_UPDATER.compareAndSet(this, null, new AtomicLongArray(STRIPES * PAD));
+			cs = cells;
+		}
+		return cs;
+	}
+
+	private static int hash(long id) {
+		long h = id * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	private static int stripeCount(int n) {
+		if (n <= 1) {
+			return 1; // striping does not help on a single processor
+		}
+		int count = 2;
+		while (count < n && count < 64) {
+			count <<= 1;
+		}
+		return count;
+	}
+
+	@Override
+	public int intValue() {
+		return (int) get();
+	}
+
+	@Override
+	public long longValue() {
+		return get();
+	}
+
+	@Override
+	public float floatValue() {
+		return get();
+	}
+
+	@Override
+	public double doubleValue() {
+		return get();
+	}
+
+	@Override
+	public String toString() {
+		return Long.toString(get());
+	}
+}
@@ -34,6 +34,10 @@ import com.jkoolcloud.tnt4j.sink.EventSink;
  * {@code TimeService.currentTimeMillis()} instead of calling {@code System.currentTimeMillis()} to obtain synchronized
  * and adjusted current time. To enable NTP time synchronization set the following property:
  * {@code tnt4j.time.server=ntp-server:port}, otherwise {@code System.currentTimeMillis()} is returned.
+ * <p>
+ * Clock overhead measurement and initial NTP synchronization run on the clock synchronization thread, so loading this
+ * class does not block on the time server. Time returned before the first synchronization completes is not adjusted.
+ * Set {@code tnt4j.time.server.init.async=false} to synchronize during class initialization instead.
  *
  * @version $Revision: 1 $
  */
@@ -46,11 +50,13 @@ public class TimeService {
 
 	private static final String TIME_SERVER = System.getProperty("tnt4j.time.server");
 	private static final long TIME_SERVER_TIMEOUT = Long.getLong("tnt4j.time.server.timeout", 10000);
+	private static final boolean TIME_SERVER_INIT_ASYNC = Boolean
+			.parseBoolean(System.getProperty("tnt4j.time.server.init.async", Boolean.TRUE.toString()));
 
-	static long timeOverheadNanos = 0;
-	static long timeOverheadMillis = 0;
-	static long adjustment = 0;
-	static long updatedTime = 0;
+	static volatile long timeOverheadNanos = 0;
+	static volatile long timeOverheadMillis = 0;
+	static volatile long adjustment = 0;
+	static volatile long updatedTime = 0;
 	static ScheduledExecutorService scheduler;
 	static ClockDriftMonitorTask clockSyncTask = null;
 
@@ -58,6 +64,20 @@ public class TimeService {
 	static TimeInfo timeInfo;
 
 	static {
+		if (!TIME_SERVER_INIT_ASYNC) {
+			initTime();
+		}
+		scheduleUpdates();
+	}
+
+	private TimeService() {
+	}
+
+	/**
+	 * Measure clock overhead and perform initial NTP synchronization
+	 *
+	 */
+	private static void initTime() {
 		try {
 			timeOverheadNanos = calculateOverhead(ONE_M);
 			timeOverheadMillis = (timeOverheadNanos / ONE_M);
@@ -65,14 +85,9 @@ public class TimeService {
 		} catch (Throwable e) {
 			logger.log(OpLevel.ERROR, "Unable to obtain NTP time: time.server={0}, timeout={1}", TIME_SERVER,
 					TIME_SERVER_TIMEOUT, e);
-		} finally {
-			scheduleUpdates();
 		}
 	}
 
-	private TimeService() {
-	}
-
 	/**
 	 * Schedule automatic clock synchronization with NTP and internal clocks
 	 *
@@ -81,6 +96,14 @@ public class TimeService {
 		if (scheduler == null) {
 			scheduler = Executors.newScheduledThreadPool(1, new TimeServiceThreadFactory("TimeService/clock-sync"));
 			clockSyncTask = new ClockDriftMonitorTask(logger);
+			if (TIME_SERVER_INIT_ASYNC) {
+				scheduler.submit(new Runnable() {
+					@Override
+					public void run() {
+						initTime();
+					}
+				});
+			}
 			scheduler.submit(clockSyncTask);
 		}
 	}
@@ -43,6 +43,8 @@ import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Random;
 import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -78,6 +80,9 @@ public class Utils {
 	 */
 	public static final String SYS_PROP_PREFIX = "$";
 
+	private static final int MAX_STACK_NAME_CACHE = Integer.getInteger("tnt4j.stack.name.cache", 4096);
+	private static final ConcurrentMap<String, StackMarker> STACK_MARKERS = new ConcurrentHashMap<String, StackMarker>();
+
 	/**
 	 * ASCII character set.
 	 */
@@ -750,10 +755,16 @@ public class Utils {
 		if (!opName.startsWith(OP_STACK_MARKER_PREFIX)) {
 			return opName;
 		} else {
-			String marker = opName.substring(1);
-			String[] pair = marker.split(":");
-			int offset = pair.length == 2 ? Integer.parseInt(pair[1]) : 0;
-			StackTraceElement item = Utils.getStackFrame(pair[0], offset);
+			StackMarker marker = STACK_MARKERS.get(opName);
+			if (marker == null) {
+				String[] pair = opName.substring(1).split(":");
+				marker = new StackMarker(pair[0], pair.length == 2 ? Integer.parseInt(pair[1]) : 0);
+				if (STACK_MARKERS.size() >= MAX_STACK_NAME_CACHE) {
+					STACK_MARKERS.clear();
+				}
+				STACK_MARKERS.put(opName, marker);
+			}
+			StackTraceElement item = Utils.getStackFrame(marker.classMarker, marker.offset);
 			return item.toString();
 		}
 	}
@@ -1695,4 +1706,17 @@ public class Utils {
 
 		return null;
 	}
+
+	/**
+	 * Parsed stack marker operation name of the form {@code $class-marker:offset}
+	 */
+	private static class StackMarker {
+		final String classMarker;
+		final int offset;
+
+		StackMarker(String classMarker, int offset) {
+			this.classMarker = classMarker;
+			this.offset = offset;
+		}
+	}
 }
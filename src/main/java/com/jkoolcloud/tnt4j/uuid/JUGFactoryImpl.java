@@ -22,25 +22,23 @@ import com.fasterxml.uuid.impl.TimeBasedGenerator;
 /**
  * Default UUID factory based on FasterXML UUID generator.
  * See: http://wiki.fasterxml.com/JugHome
+ * Generator (and network interface lookup it requires) is initialized on first use.
  *
  * @version $Revision: 1 $
  */
 public class JUGFactoryImpl implements UUIDFactory {
 
-	private static TimeBasedGenerator uuidGenerator;
-
-	static {
-		EthernetAddress nic = EthernetAddress.fromInterface();
-		uuidGenerator = Generators.timeBasedGenerator(nic);
+	private static class GeneratorHolder {
+		static final TimeBasedGenerator uuidGenerator = Generators.timeBasedGenerator(EthernetAddress.fromInterface());
 	}
-	
+
 	@Override
 	public String newUUID() {
-		return uuidGenerator.generate().toString();
+		return GeneratorHolder.uuidGenerator.generate().toString();
 	}
 
 	@Override
     public String newUUID(Object obj) {
-		return uuidGenerator.generate().toString();
+		return GeneratorHolder.uuidGenerator.generate().toString();
 	}
 }
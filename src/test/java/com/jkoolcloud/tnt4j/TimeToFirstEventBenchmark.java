@@ -0,0 +1,72 @@
+/*
+ * Copyright 2014-2018 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jkoolcloud.tnt4j;
+
+import com.jkoolcloud.tnt4j.core.OpLevel;
+import com.jkoolcloud.tnt4j.tracker.TrackingEvent;
+
+/**
+ * <p>
+ * Measures time to first event: time taken to obtain the first {@link TrackingLogger} instance, open it and report the
+ * first event. Startup cost is paid once per JVM, so each measurement must be taken in a fresh JVM, e.g.:
+ * </p>
+ *
+ * <pre>
+ * for i in 1 2 3 4 5; do
+ *   java -Dtnt4j.config=config/tnt4j.properties -cp target/classes:target/test-classes:&lt;deps&gt; \
+ *     com.jkoolcloud.tnt4j.TimeToFirstEventBenchmark
+ * done
+ * </pre>
+ *
+ * <p>
+ * Elapsed times of each startup phase are printed to {@code System.err} in milliseconds.
+ * </p>
+ *
+ * @version $Revision: 1 $
+ *
+ * @see TrackingLogger
+ */
+public class TimeToFirstEventBenchmark {
+	/**
+	 * Run a single time to first event measurement
+	 *
+	 * @param args
+	 *            optional source name of the tracking logger
+	 * @throws Exception
+	 *             if tracking logger can not be opened
+	 */
+	public static void main(String[] args) throws Exception {
+		String source = args.length > 0 ? args[0] : TimeToFirstEventBenchmark.class.getName();
+		long start = System.nanoTime();
+		TrackingLogger logger = TrackingLogger.getInstance(source);
+		long created = System.nanoTime();
+		logger.open();
+		long opened = System.nanoTime();
+		TrackingEvent event = logger.newEvent(OpLevel.INFO, "first-event", (String) null, "First event from {0}",
+				source);
+		logger.tnt(event);
+		long logged = System.nanoTime();
+		System.err.println("time.to.first.event: getInstance.ms=" + toMillis(created - start) + ", open.ms="
+				+ toMillis(opened - created) + ", tnt.ms=" + toMillis(logged - opened) + ", total.ms="
+				+ toMillis(logged - start));
+		logger.close();
+		System.exit(0);
+	}
+
+	private static double toMillis(long nanos) {
+		return nanos / 1000000.0;
+	}
+}